@@ -1,9 +1,10 @@
 package com.sensorsdata.analytics.javasdk;
 
 import com.sensorsdata.analytics.javasdk.bean.Experiment;
+import com.sensorsdata.analytics.javasdk.bean.SensorsABTestMetrics;
 import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
 
-
+import com.google.common.util.concurrent.ListenableFuture;
 import lombok.NonNull;
 
 import java.util.Map;
@@ -319,6 +320,57 @@ public interface ISensorsABTest {
   <T> Experiment<T> fastFetchABTest(String distinctId, boolean isLoginId, String experimentVariableName,
       T defaultValue, boolean enableAutoTrackEvent, int timeoutMilliseconds, Map<String, Object> properties);
 
+  /**
+   * 立即从服务端请求，忽略内存缓存，调用线程不等待网络请求
+   * <p>
+   * 网络请求、结果转换以及 $ABTestTrigger 事件上报均在异步线程池中执行，线程池可通过
+   * {@code ABGlobalConfig.Builder#setAsyncExecutor} 指定
+   * </p>
+   *
+   * @param <T>           支持数据类型：number｜boolean｜String｜json
+   * @param sensorsParams {@code SensorsABParams<T>} 请求参数对象
+   * @return {@code ListenableFuture<Experiment<T>> }
+   */
+  <T> ListenableFuture<Experiment<T>> fetchABTestAsync(@NonNull SensorsABParams<T> sensorsParams);
+
+  /**
+   * 优先读取内存缓存，缓存不存在时异步从服务端获取试验数据，调用线程不等待网络请求
+   * <p>
+   * 命中缓存时直接返回已完成的结果，否则网络请求、结果转换以及 $ABTestTrigger 事件上报均在异步线程池中执行
+   * </p>
+   *
+   * @param <T>           支持数据类型：number｜boolean｜String｜json
+   * @param sensorsParams {@code SensorsABParams<T>} 请求参数对象
+   * @return {@code ListenableFuture<Experiment<T>> }
+   */
+  <T> ListenableFuture<Experiment<T>> fastFetchABTestAsync(@NonNull SensorsABParams<T> sensorsParams);
+
+  /**
+   * 一次获取多个试验参数的结果，优先读取内存缓存，缓存未覆盖全部参数时最多发起一次分流请求
+   * <p>
+   * 默认开启自动上报 $ABTestTrigger 事件，所有参数的命中记录合并为一次上报，默认请求超时时间为 3000 ms，自定义分流主体为空
+   * </p>
+   *
+   * @param distinctId    匿名ID/用户业务ID
+   * @param isLoginId     是否为登录ID true:是登录ID，false：匿名ID
+   * @param paramDefaults key 为试验变量名称，value 为未命中试验时返回的默认值（支持数据类型：number｜boolean｜String｜json）
+   * @return key 为试验变量名称，value 为试验结果
+   */
+  Map<String, Experiment<?>> fetchABTests(String distinctId, boolean isLoginId, Map<String, Object> paramDefaults);
+
+  /**
+   * 一次获取多个试验参数的结果，优先读取内存缓存，缓存未覆盖全部参数时最多发起一次分流请求
+   *
+   * @param distinctId           匿名ID/用户业务ID
+   * @param isLoginId            是否为登录ID true:是登录ID，false：匿名ID
+   * @param paramDefaults        key 为试验变量名称，value 为未命中试验时返回的默认值（支持数据类型：number｜boolean｜String｜json）
+   * @param customIds            自定义分流主体
+   * @param enableAutoTrackEvent 是否开启自动上报 $ABTestTrigger 事件
+   * @param timeoutMilliseconds  请求超时设置 ms
+   * @return key 为试验变量名称，value 为试验结果
+   */
+  Map<String, Experiment<?>> fetchABTests(String distinctId, boolean isLoginId, Map<String, Object> paramDefaults,
+      Map<String, String> customIds, boolean enableAutoTrackEvent, int timeoutMilliseconds);
 
   /**
    * 手动上报 $ABTestTrigger 事件
@@ -352,5 +404,13 @@ public interface ISensorsABTest {
   <T> void trackABTestTrigger(Experiment<T> experiment, Map<String, Object> properties,
       Map<String, String> customIds) throws InvalidArgumentException;
 
+  /**
+   * 获取 SDK 运行指标的只读快照，例如合并的分流请求次数、试验组配置数量与内存占用、未命中结果缓存的命中统计，
+   * 异步上报队列深度、丢弃次数与写入耗时，分流请求熔断器的状态与状态切换次数
+   *
+   * @return {@code SensorsABTestMetrics }
+   */
+  SensorsABTestMetrics getMetrics();
+
   void shutdown();
 }
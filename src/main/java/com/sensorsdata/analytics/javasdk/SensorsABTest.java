@@ -2,8 +2,11 @@ package com.sensorsdata.analytics.javasdk;
 
 import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
 import com.sensorsdata.analytics.javasdk.bean.Experiment;
+import com.sensorsdata.analytics.javasdk.bean.SensorsABTestMetrics;
 import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
 import java.util.Map;
 
 /**
@@ -245,6 +248,38 @@ public class SensorsABTest implements ISensorsABTest {
         .build());
   }
 
+  @Override
+  public <T> ListenableFuture<Experiment<T>> fetchABTestAsync(SensorsABParams<T> sensorsParams) {
+    if (sensorsParams == null) {
+      throw new NullPointerException("sensorsParams is marked non-null but is null");
+    } else {
+      return this.worker.fetchABTestAsync(sensorsParams);
+    }
+  }
+
+  @Override
+  public <T> ListenableFuture<Experiment<T>> fastFetchABTestAsync(SensorsABParams<T> sensorsParams) {
+    if (sensorsParams == null) {
+      throw new NullPointerException("sensorsParams is marked non-null but is null");
+    } else {
+      return this.worker.fetchABTestAsync(sensorsParams.setEnableCache(true));
+    }
+  }
+
+  @Override
+  public Map<String, Experiment<?>> fetchABTests(String distinctId, boolean isLoginId,
+      Map<String, Object> paramDefaults) {
+    return worker.fetchABTests(distinctId, isLoginId, paramDefaults, null, true, true, 3000);
+  }
+
+  @Override
+  public Map<String, Experiment<?>> fetchABTests(String distinctId, boolean isLoginId,
+      Map<String, Object> paramDefaults, Map<String, String> customIds, boolean enableAutoTrackEvent,
+      int timeoutMilliseconds) {
+    return worker.fetchABTests(distinctId, isLoginId, paramDefaults, customIds, true, enableAutoTrackEvent,
+        timeoutMilliseconds <= 0 ? 3000 : timeoutMilliseconds);
+  }
+
   @Override
   public <T> void trackABTestTrigger(Experiment<T> experiment) throws InvalidArgumentException {
     worker.trackABTestTrigger(experiment, null, null, null);
@@ -263,6 +298,11 @@ public class SensorsABTest implements ISensorsABTest {
     worker.trackABTestTrigger(experiment, properties, customIds, null);
   }
 
+  @Override
+  public SensorsABTestMetrics getMetrics() {
+    return worker.getMetrics();
+  }
+
   @Override
   public void shutdown() {
     worker.shutdown();
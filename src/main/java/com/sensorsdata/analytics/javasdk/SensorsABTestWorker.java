@@ -1,14 +1,17 @@
 package com.sensorsdata.analytics.javasdk;
 
-import static com.sensorsdata.analytics.javasdk.SensorsABTestConst.OUT_LIST_KEY;
-import static com.sensorsdata.analytics.javasdk.SensorsABTestConst.RESULTS_KEY;
-
 import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.CircuitBreakerStateEnum;
+import com.sensorsdata.analytics.javasdk.bean.DispatchExperiment;
+import com.sensorsdata.analytics.javasdk.bean.DispatchResponseBody;
+import com.sensorsdata.analytics.javasdk.bean.DispatchResult;
 import com.sensorsdata.analytics.javasdk.bean.Experiment;
+import com.sensorsdata.analytics.javasdk.bean.SensorsABTestMetrics;
 import com.sensorsdata.analytics.javasdk.bean.TrackConfig;
 import com.sensorsdata.analytics.javasdk.bean.TrackRecord;
 import com.sensorsdata.analytics.javasdk.bean.UserInfo;
 import com.sensorsdata.analytics.javasdk.bean.cache.ExperimentGroupConfig;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserCacheKey;
 import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperiment;
 import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperimentGroup;
 import com.sensorsdata.analytics.javasdk.bean.cache.UserHitResult;
@@ -21,25 +24,58 @@ import com.sensorsdata.analytics.javasdk.common.Pair;
 import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
 import com.sensorsdata.analytics.javasdk.service.ITrackConfigService;
 import com.sensorsdata.analytics.javasdk.service.ITrackService;
+import com.sensorsdata.analytics.javasdk.service.impl.AsyncTrackService;
 import com.sensorsdata.analytics.javasdk.service.impl.TrackConfigService;
 import com.sensorsdata.analytics.javasdk.service.impl.TrackService;
+import com.sensorsdata.analytics.javasdk.transport.DispatchResponse;
+import com.sensorsdata.analytics.javasdk.transport.DispatchTransport;
+import com.sensorsdata.analytics.javasdk.transport.impl.ApacheHttpClientTransport;
 import com.sensorsdata.analytics.javasdk.util.ABTestUtil;
+import com.sensorsdata.analytics.javasdk.util.CircuitBreakerOpenException;
+import com.sensorsdata.analytics.javasdk.util.CompressionCodec;
+import com.sensorsdata.analytics.javasdk.util.DispatchCircuitBreaker;
+import com.sensorsdata.analytics.javasdk.util.DispatchBatcher;
+import com.sensorsdata.analytics.javasdk.util.DispatchResponseDecoder;
+import com.sensorsdata.analytics.javasdk.util.DispatchWireFormat;
 import com.sensorsdata.analytics.javasdk.util.HttpConsumer;
 import com.sensorsdata.analytics.javasdk.util.LogUtil;
 import com.sensorsdata.analytics.javasdk.util.SensorsAnalyticsUtil;
+import com.sensorsdata.analytics.javasdk.util.TrackEventBatcher;
+import com.sensorsdata.analytics.javasdk.util.TrackSpillQueue;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Function;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * AB Test 逻辑处理
@@ -52,7 +88,16 @@ class SensorsABTestWorker {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SensorsABTestWorker.class);
 
+  /**
+   * 默认异步线程池的等待队列长度，队列已满时拒绝新的异步请求，而不是无限积压
+   */
+  private static final int ASYNC_QUEUE_SIZE = 1024;
+
   private final ObjectMapper objectMapper;
+
+  private final DispatchWireFormat wireFormat;
+
+  private final DispatchResponseDecoder responseDecoder;
   /**
    * 全局配置信息
    */
@@ -81,18 +126,61 @@ class SensorsABTestWorker {
 
   private ITrackService trackService;
 
+  /**
+   * 分流时自动触发的事件上报，开启异步上报时为 {@link AsyncTrackService}，否则与 trackService 相同
+   */
+  private ITrackService autoTrackService;
+
+  /**
+   * 批量上报事件，未开启批量上报时为 null
+   */
+  private TrackEventBatcher trackEventBatcher;
+
+  /**
+   * 异步请求线程池，承载分流请求的网络 I/O 以及结果转换、事件上报等后续阶段
+   */
+  private ListeningExecutorService asyncExecutor;
+
+  /**
+   * 在途的分流请求，key 由用户标识、自定义主体以及自定义属性组成，见 {@link ABTestUtil#generateDispatchKey}
+   */
+  private final ConcurrentHashMap<UserCacheKey, ListenableFuture<DispatchResult>> inFlightDispatches =
+      new ConcurrentHashMap<>();
+
+  /**
+   * 被合并的分流请求次数
+   */
+  private final AtomicLong coalescedDispatchCount = new AtomicLong();
+
+  /**
+   * 异步请求线程池是否由 SDK 内部创建，内部创建的线程池在 shutdown 时一并关闭
+   */
+  private boolean internalAsyncExecutor;
+
+  /**
+   * 跨用户批量分流请求，未开启批量分流时为 null
+   */
+  private DispatchBatcher dispatchBatcher;
+
   SensorsABTestWorker(ABGlobalConfig config) {
     log = new LogUtil(LOGGER, config.getLogLevel());
 
     this.config = config;
     this.objectMapper = SensorsAnalyticsUtil.getJsonObjectMapper();
+    this.wireFormat = new DispatchWireFormat(log, objectMapper, config.getWireFormat());
+    this.responseDecoder = new DispatchResponseDecoder(objectMapper, wireFormat);
     this.experimentCacheManager = createExperimentCacheManager(config);
     this.eventCacheManager = createEventCacheManager(config);
     this.httpConsumer = createHttpConsumer(config);
     this.hitManager = createHitManager();
     this.trackConfigService = createTrackConfigService();
 
+    this.trackEventBatcher = createTrackEventBatcher(config);
     this.trackService = createTrackService(config);
+    this.autoTrackService = createAutoTrackService(config, trackService);
+    this.internalAsyncExecutor = config.getAsyncExecutor() == null;
+    this.asyncExecutor = createAsyncExecutor(config);
+    this.dispatchBatcher = createDispatchBatcher(config);
 
     log.info("init SensorsABTest with config info:{}.", config);
   }
@@ -107,17 +195,107 @@ class SensorsABTestWorker {
 
   protected ITrackService createTrackService(ABGlobalConfig config) {
     boolean enableEventCache = config.getEnableEventCache() != null && config.getEnableEventCache();
-    return new TrackService(eventCacheManager, log, enableEventCache, config.getSensorsAnalytics(), trackConfigService);
+    return new TrackService(eventCacheManager, log, enableEventCache, config.getSensorsAnalytics(), trackConfigService,
+        trackEventBatcher);
+  }
+
+  protected TrackEventBatcher createTrackEventBatcher(ABGlobalConfig config) {
+    boolean enableTrackSpill = config.getEnableTrackSpill() != null && config.getEnableTrackSpill();
+    if (config.getEnableBatchTrack() == null || !config.getEnableBatchTrack()) {
+      if (enableTrackSpill) {
+        log.warn("The track spill queue requires batch track, ignore it.");
+      }
+      return null;
+    }
+    return new TrackEventBatcher(
+        this.log,
+        config.getSensorsAnalytics(),
+        config.getTrackBatchSize(),
+        config.getTrackFlushIntervalMilliseconds(),
+        enableTrackSpill ? createTrackSpillQueue(config) : null);
+  }
+
+  protected TrackSpillQueue createTrackSpillQueue(ABGlobalConfig config) {
+    try {
+      return new TrackSpillQueue(
+          this.log,
+          new File(config.getTrackSpillDirectory()),
+          config.getTrackSpillSegmentBytes(),
+          config.getTrackSpillMaxDiskBytes(),
+          config.getTrackSpillFsyncPolicy(),
+          config.getTrackSpillFsyncIntervalMilliseconds());
+    } catch (IOException e) {
+      log.error("Failed to open the track spill queue, track events without spill.[directory:{}]",
+          config.getTrackSpillDirectory(), e);
+      return null;
+    }
+  }
+
+  protected ITrackService createAutoTrackService(ABGlobalConfig config, ITrackService trackService) {
+    if (config.getEnableAsyncTrack() == null || !config.getEnableAsyncTrack()) {
+      return trackService;
+    }
+    return new AsyncTrackService(
+        this.log,
+        trackService,
+        config.getAsyncTrackQueueSize(),
+        config.getAsyncTrackWorkers(),
+        config.getAsyncTrackQueueFullPolicy());
   }
 
   protected HttpConsumer createHttpConsumer(ABGlobalConfig config) {
+    DispatchTransport transport = config.getDispatchTransport();
+    if (transport == null) {
+      transport = new ApacheHttpClientTransport(config.getHttpClientBuilder(), config.getMaxTotal(),
+          config.getMaxPerRoute());
+    }
+    CompressionCodec compressionCodec = null;
+    if (config.getEnableCompression() != null && config.getEnableCompression()) {
+      compressionCodec = new CompressionCodec(config.getCompressionThreshold(), config.getCompressionLevel());
+    }
+    DispatchCircuitBreaker circuitBreaker = null;
+    if (config.getEnableCircuitBreaker() != null && config.getEnableCircuitBreaker()) {
+      circuitBreaker = new DispatchCircuitBreaker(
+          this.log,
+          config.getCircuitBreakerWindowSize(),
+          config.getCircuitBreakerFailureRateThreshold(),
+          config.getCircuitBreakerSlowCallMilliseconds(),
+          config.getCircuitBreakerSlowCallRateThreshold(),
+          config.getCircuitBreakerOpenMilliseconds());
+    }
     return new HttpConsumer(
         this.log,
         config.getEnableRecordRequestCostTime(),
-        config.getHttpClientBuilder(),
+        transport,
         config.getApiUrl(),
-        config.getMaxTotal(),
-        config.getMaxPerRoute());
+        compressionCodec,
+        circuitBreaker);
+  }
+
+  protected ListeningExecutorService createAsyncExecutor(ABGlobalConfig config) {
+    ExecutorService executor = config.getAsyncExecutor();
+    if (executor == null) {
+      int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+      executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<Runnable>(ASYNC_QUEUE_SIZE),
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sensors-abtest-async-%d").build());
+    }
+    return MoreExecutors.listeningDecorator(executor);
+  }
+
+  protected DispatchBatcher createDispatchBatcher(ABGlobalConfig config) {
+    if (config.getEnableBatchDispatch() == null || !config.getEnableBatchDispatch()) {
+      return null;
+    }
+    return new DispatchBatcher(
+        this.log,
+        this.httpConsumer,
+        this.wireFormat,
+        this.responseDecoder,
+        config.getBatchApiUrl(),
+        config.getBatchWindowMilliseconds(),
+        config.getMaxBatchSize(),
+        config.getMaxTotal());
   }
 
   protected EventCacheManager createEventCacheManager(ABGlobalConfig config) {
@@ -131,7 +309,10 @@ class SensorsABTestWorker {
     return new ExperimentCacheManager(
         this.log,
         config.getExperimentCacheTime(),
-        config.getExperimentCacheSize());
+        config.getExperimentCacheSize(),
+        config.getExperimentCacheRefreshTime(),
+        config.getNegativeCacheTime(),
+        config.getNegativeCacheSize());
   }
 
   /**
@@ -149,18 +330,167 @@ class SensorsABTestWorker {
     Experiment<T> invalidSensorsParams = checkSensorsParams(sensorsParams);
     if (invalidSensorsParams != null) return invalidSensorsParams;
 
+    UserInfo userInfo = buildUserInfo(sensorsParams);
+
+    String paramName = sensorsParams.getExperimentVariableName();
+
+    UserHitResult userHitResult =
+        getUserHitResult(userInfo, paramName, sensorsParams.getEnableCache(), sensorsParams.getTimeoutMilliseconds());
+
+    return completeFetch(sensorsParams, userInfo, userHitResult);
+  }
+
+  /**
+   * 异步处理AB Test 结果，网络请求、结果转换以及事件上报均在异步线程池中完成，调用线程不会等待网络 I/O
+   *
+   * @param <T> params 请求参数类
+   * @return ListenableFuture<Experiment<T>> 试验结果
+   */
+  <T> ListenableFuture<Experiment<T>> fetchABTestAsync(final SensorsABParams<T> sensorsParams) {
+
+    if (sensorsParams == null) {
+      throw new NullPointerException("sensorsParams is marked non-null but is null");
+    }
+
+    Experiment<T> invalidSensorsParams = checkSensorsParams(sensorsParams);
+    if (invalidSensorsParams != null) return Futures.immediateFuture(invalidSensorsParams);
+
+    final UserInfo userInfo = buildUserInfo(sensorsParams);
+
+    ListenableFuture<UserHitResult> userHitResultFuture =
+        getUserHitResultAsync(userInfo, sensorsParams.getExperimentVariableName(), sensorsParams.getEnableCache(),
+            sensorsParams.getTimeoutMilliseconds());
+
+    return Futures.transform(userHitResultFuture, new Function<UserHitResult, Experiment<T>>() {
+      @Override
+      public Experiment<T> apply(UserHitResult userHitResult) {
+        return completeFetch(sensorsParams, userInfo, userHitResult);
+      }
+    }, asyncExecutor);
+  }
+
+  /**
+   * 一次解析多个试验参数，最多发起一次分流请求，所有命中记录合并为一次事件上报
+   *
+   * @param distinctId           匿名ID/用户业务ID
+   * @param isLoginId            是否为登录ID
+   * @param paramDefaults        key 为试验参数名，value 为该参数未命中试验时返回的默认值
+   * @param customIds            自定义分流主体
+   * @param enableCache          是否优先读取内存缓存
+   * @param enableAutoTrackEvent 是否开启自动上报 $ABTestTrigger 事件
+   * @param timeoutMilliseconds  请求超时时间 ms
+   * @return key 为试验参数名，value 为试验结果，与 paramDefaults 顺序一致
+   */
+  Map<String, Experiment<?>> fetchABTests(String distinctId, boolean isLoginId, Map<String, Object> paramDefaults,
+      Map<String, String> customIds, boolean enableCache, boolean enableAutoTrackEvent, int timeoutMilliseconds) {
+    Map<String, Experiment<?>> experiments = new LinkedHashMap<>();
+    if (paramDefaults == null || paramDefaults.isEmpty()) {
+      log.warn("The paramDefaults is empty or null,return empty result.[distinctId:{}]", distinctId);
+      return experiments;
+    }
+
+    // 参数校验不通过的试验参数直接返回默认值
+    Map<String, Object> validParams = new LinkedHashMap<>();
+    for (Map.Entry<String, Object> entry : paramDefaults.entrySet()) {
+      SensorsABParams<Object> sensorsParams =
+          SensorsABParams.starter(distinctId, isLoginId, entry.getKey(), entry.getValue())
+              .customIds(customIds)
+              .build();
+      Experiment<Object> invalidSensorsParams = checkSensorsParams(sensorsParams);
+      if (invalidSensorsParams != null) {
+        experiments.put(entry.getKey(), invalidSensorsParams);
+      } else {
+        validParams.put(entry.getKey(), entry.getValue());
+      }
+    }
+    if (validParams.isEmpty()) {
+      return experiments;
+    }
+
     UserInfo userInfo = UserInfo.builder()
+        .distinctId(distinctId)
+        .isLoginId(isLoginId)
+        .customIds(customIds == null ? new HashMap<String, String>() : ABTestUtil.canonicalCustomIds(customIds))
+        .build();
+
+    Map<String, UserHitResult> userHitResults = new HashMap<>();
+    boolean needDispatch = !enableCache;
+    if (enableCache) {
+      for (String paramName : validParams.keySet()) {
+        UserHitResult userHitResult = getUserHitResultFromCache(userInfo, paramName);
+        if (userHitResult.getUserHitExperimentGroup() == null) {
+          userHitResult = getNegativeResultFromCache(userInfo, paramName);
+        }
+        if (userHitResult == null) {
+          needDispatch = true;
+          break;
+        }
+        userHitResults.put(paramName, userHitResult);
+      }
+      if (!needDispatch) {
+        refreshIfStale(userInfo, null, timeoutMilliseconds);
+      }
+    }
+
+    if (needDispatch) {
+      log.debug("Not hit all params in experiment cache,making network request.[userInfo:{};params:{}]",
+          userInfo, validParams.keySet());
+      // 不携带自定义属性时分流服务返回用户命中的全部试验，一次请求即可解析所有参数
+      DispatchResult dispatchResult = dispatch(userInfo, null, timeoutMilliseconds);
+      UserHitExperiment userHitExperiment = dispatchResult.getUserHitExperiment();
+      if (enableCache && userHitExperiment != null) {
+        experimentCacheManager.cacheUserHitExperiment(userInfo, userHitExperiment);
+      }
+      for (String paramName : validParams.keySet()) {
+        UserHitResult userHitResult = UserHitResult.builder()
+            .userHitExperimentGroup(
+                experimentCacheManager.getExperimentResultFromUserHitExperiment(paramName, userHitExperiment))
+            .userOutExperimentGroups(getUserOutExperimentGroups(userInfo, paramName, dispatchResult.getResponse()))
+            .build();
+        if (enableCache) {
+          cacheNegativeResultIfMissed(userInfo, paramName, dispatchResult, userHitResult);
+        }
+        userHitResults.put(paramName, userHitResult);
+      }
+    }
+
+    List<TrackRecord> toTrack = new ArrayList<>();
+    for (Map.Entry<String, Object> entry : validParams.entrySet()) {
+      String paramName = entry.getKey();
+      UserHitResult userHitResult = userHitResults.get(paramName);
+      toTrack.addAll(getToTrack(userInfo, paramName, entry.getValue(), userHitResult));
+      experiments.put(paramName, convertExperiment(userHitResult.getUserHitExperimentGroup(), distinctId,
+          isLoginId, paramName, entry.getValue()));
+    }
+
+    //判断是否需要自动触发上报事件
+    if (enableAutoTrackEvent) {
+      try {
+        this.autoTrackService.trackABTestTrigger(toTrack, null);
+      } catch (InvalidArgumentException e) {
+        log.error("Failed auto track ABTest event.[distinctId:{},isLoginId:{},params:{}, toTrack: {}]",
+            distinctId, isLoginId, validParams.keySet(), toTrack, e);
+      }
+    }
+    return experiments;
+  }
+
+  private <T> UserInfo buildUserInfo(SensorsABParams<T> sensorsParams) {
+    return UserInfo.builder()
         .distinctId(sensorsParams.getDistinctId())
         .isLoginId(sensorsParams.getIsLoginId())
-        .customIds(sensorsParams.getCustomIds())
+        .customIds(ABTestUtil.canonicalCustomIds(sensorsParams.getCustomIds()))
         .customProperties(sensorsParams.getProperties())
         .build();
+  }
 
+  /**
+   * 根据命中结果生成试验结果，并按需上报 $ABTestTrigger 事件
+   */
+  private <T> Experiment<T> completeFetch(SensorsABParams<T> sensorsParams, UserInfo userInfo,
+      UserHitResult userHitResult) {
     String paramName = sensorsParams.getExperimentVariableName();
 
-    UserHitResult userHitResult =
-        getUserHitResult(userInfo, paramName, sensorsParams.getEnableCache(), sensorsParams.getTimeoutMilliseconds());
-
     List<TrackRecord> toTrack =
         getToTrack(userInfo, paramName, sensorsParams.getDefaultValue(), userHitResult);
 
@@ -171,7 +501,7 @@ class SensorsABTestWorker {
     //判断是否需要自动触发上报事件
     if (sensorsParams.getEnableAutoTrackEvent()) {
       try {
-        this.trackService.trackABTestTrigger(toTrack, null);
+        this.autoTrackService.trackABTestTrigger(toTrack, null);
       } catch (InvalidArgumentException e) {
         log.error("Failed auto track ABTest event.[distinctId:{},isLoginId:{},experimentVariableName:{}, toTrack: {}]",
             sensorsParams.getDistinctId(),
@@ -201,7 +531,7 @@ class SensorsABTestWorker {
     if (userHitExperimentGroup != null) {
       Variable variable = userHitExperimentGroup.getExperimentGroupConfig()
           .getVariableMap().get(paramName);
-      if (getExperimentValue(variable.getType(), defaultValue, variable.getValue()) == null) {
+      if (variable.matchValue(defaultValue) == null) {
         log.debug("invalid param value type, type: [{}], value: [{}], defaultValue:[{}]", variable.getType(),
             variable.getValue(), defaultValue);
         userHitResult.setUserHitExperimentGroup(null);
@@ -214,7 +544,7 @@ class SensorsABTestWorker {
       while (iterator.hasNext()) {
         UserOutExperimentGroup out = iterator.next();
         Variable variable = out.getVariableMap().get(paramName);
-        if (getExperimentValue(variable.getType(), defaultValue, variable.getValue()) == null) {
+        if (variable.matchValue(defaultValue) == null) {
           log.debug("invalid out param value type, type: [{}], value: [{}], defaultValue:[{}]", variable.getType(),
               variable.getValue(), defaultValue);
           iterator.remove();
@@ -235,11 +565,21 @@ class SensorsABTestWorker {
       userHitResult = getUserHitResultFromCache(userInfo, paramName);
       //未命中缓存
       if (userHitResult.getUserHitExperimentGroup() == null) {
+        UserHitResult negativeResult = getNegativeResultFromCache(userInfo, paramName);
+        if (negativeResult != null) {
+          return negativeResult;
+        }
         log.debug("Not hit experiment cache,making network request.[distinctId:{};experimentVariableName:{}]",
             userInfo.getDistinctId(), paramName);
         userHitResult = getHitResultFromResponse(userInfo, paramName, enableCache, timeoutMilliseconds);
+      } else {
+        refreshIfStale(userInfo, paramName, timeoutMilliseconds);
       }
     } else {
+      userHitResult = getUserHitResultFromCacheIfCircuitOpen(userInfo, paramName);
+      if (userHitResult != null) {
+        return userHitResult;
+      }
       log.debug("Get results from server.[distinctId:{};experimentVariableName:{}]",
           userInfo.getDistinctId(), paramName);
       userHitResult = getHitResultFromResponse(userInfo, paramName, enableCache, timeoutMilliseconds);
@@ -247,18 +587,286 @@ class SensorsABTestWorker {
     return userHitResult;
   }
 
+  private ListenableFuture<UserHitResult> getUserHitResultAsync(final UserInfo userInfo, final String paramName,
+      final Boolean enableCache, final Integer timeoutMilliseconds) {
+    if (enableCache) {
+      UserHitResult userHitResult = getUserHitResultFromCache(userInfo, paramName);
+      if (userHitResult.getUserHitExperimentGroup() != null) {
+        refreshIfStale(userInfo, paramName, timeoutMilliseconds);
+        return Futures.immediateFuture(userHitResult);
+      }
+      UserHitResult negativeResult = getNegativeResultFromCache(userInfo, paramName);
+      if (negativeResult != null) {
+        return Futures.immediateFuture(negativeResult);
+      }
+      log.debug("Not hit experiment cache,making async network request.[distinctId:{};experimentVariableName:{}]",
+          userInfo.getDistinctId(), paramName);
+    } else {
+      UserHitResult userHitResult = getUserHitResultFromCacheIfCircuitOpen(userInfo, paramName);
+      if (userHitResult != null) {
+        return Futures.immediateFuture(userHitResult);
+      }
+    }
+    return Futures.transform(dispatchAsync(userInfo, paramName, timeoutMilliseconds),
+        new Function<DispatchResult, UserHitResult>() {
+          @Override
+          public UserHitResult apply(DispatchResult dispatchResult) {
+            return getHitResultFromDispatchResult(userInfo, paramName, enableCache, dispatchResult);
+          }
+        }, asyncExecutor);
+  }
+
   private UserHitResult getHitResultFromResponse(UserInfo userInfo, String paramName, Boolean enableCache,
       Integer timeoutMilliseconds) {
-    UserHitResult userHitResult;
-    JsonNode response;
-    response = getDispatcherResponse(userInfo, paramName, timeoutMilliseconds);
-    userHitResult = UserHitResult.builder()
+    DispatchResult dispatchResult = dispatch(userInfo, paramName, timeoutMilliseconds);
+    return getHitResultFromDispatchResult(userInfo, paramName, enableCache, dispatchResult);
+  }
+
+  private UserHitResult getHitResultFromDispatchResult(UserInfo userInfo, String paramName, Boolean enableCache,
+      DispatchResult dispatchResult) {
+    UserHitResult userHitResult = UserHitResult.builder()
         .userHitExperimentGroup(
-            getUserHitExperimentGroup(userInfo, paramName, response, enableCache))
+            getUserHitExperimentGroup(userInfo, paramName, dispatchResult.getUserHitExperiment(), enableCache))
         .userOutExperimentGroups(
-            getUserOutExperimentGroups(userInfo, paramName, response))
+            getUserOutExperimentGroups(userInfo, paramName, dispatchResult.getResponse()))
         .build();
-    updateTrackConfig(response);
+    if (enableCache) {
+      cacheNegativeResultIfMissed(userInfo, paramName, dispatchResult, userHitResult);
+    }
+    return userHitResult;
+  }
+
+  /**
+   * 从未命中结果缓存中获取结果
+   *
+   * @return 不包含试验的命中结果，未缓存时返回 null
+   */
+  private UserHitResult getNegativeResultFromCache(UserInfo userInfo, String paramName) {
+    if (!experimentCacheManager.isNegativeResultCached(userInfo, paramName)) {
+      return null;
+    }
+    log.debug("Hit negative result of cache.[distinctId:{};experimentVariableName:{}]",
+        userInfo.getDistinctId(), paramName);
+    return UserHitResult.builder().build();
+  }
+
+  /**
+   * 分流服务正常返回且用户在该参数上既未命中试验也不存在出组试验时，缓存未命中结果；
+   * 存在出组试验时需要上报出组事件，不能直接使用缓存
+   */
+  private void cacheNegativeResultIfMissed(UserInfo userInfo, String paramName, DispatchResult dispatchResult,
+      UserHitResult userHitResult) {
+    if (dispatchResult.getResponse() == null || userHitResult.getUserHitExperimentGroup() != null) {
+      return;
+    }
+    List<UserOutExperimentGroup> userOutExperimentGroups = userHitResult.getUserOutExperimentGroups();
+    if (userOutExperimentGroups == null || userOutExperimentGroups.isEmpty()) {
+      experimentCacheManager.cacheNegativeResult(userInfo, paramName);
+    }
+  }
+
+  /**
+   * 同步发起分流请求，相同用户的在途请求会被合并，只有第一个线程真正发起网络请求，其余线程等待并共享其结果
+   */
+  private DispatchResult dispatch(UserInfo userInfo, String paramName, int timeoutMilliseconds) {
+    UserCacheKey dispatchKey = ABTestUtil.generateDispatchKey(userInfo, paramName);
+    SettableFuture<DispatchResult> future = SettableFuture.create();
+    ListenableFuture<DispatchResult> inFlight = inFlightDispatches.putIfAbsent(dispatchKey, future);
+    if (inFlight != null) {
+      coalescedDispatchCount.incrementAndGet();
+      log.debug("Join in-flight dispatch request.[userInfo:{},experimentVariableName:{}]", userInfo, paramName);
+      return awaitDispatchResult(inFlight, userInfo, paramName, timeoutMilliseconds);
+    }
+    try {
+      DispatchResult dispatchResult = doDispatch(userInfo, paramName, timeoutMilliseconds);
+      future.set(dispatchResult);
+      return dispatchResult;
+    } catch (RuntimeException e) {
+      future.setException(e);
+      throw e;
+    } finally {
+      inFlightDispatches.remove(dispatchKey, future);
+    }
+  }
+
+  /**
+   * 异步发起分流请求，合并规则与 {@link #dispatch} 相同，网络请求在异步线程池中执行
+   * <p>超时时间从提交时开始计算：在线程池队列中等待超过超时时间的请求不再发出，直接返回空结果，与同步请求超时的处理一致；
+   * 其余请求以剩余时间作为超时时间。线程池拒绝执行时 future 以 RejectedExecutionException 失败</p>
+   */
+  private ListenableFuture<DispatchResult> dispatchAsync(final UserInfo userInfo, final String paramName,
+      final int timeoutMilliseconds) {
+    final UserCacheKey dispatchKey = ABTestUtil.generateDispatchKey(userInfo, paramName);
+    final SettableFuture<DispatchResult> future = SettableFuture.create();
+    ListenableFuture<DispatchResult> inFlight = inFlightDispatches.putIfAbsent(dispatchKey, future);
+    if (inFlight != null) {
+      coalescedDispatchCount.incrementAndGet();
+      log.debug("Join in-flight dispatch request.[userInfo:{},experimentVariableName:{}]", userInfo, paramName);
+      return inFlight;
+    }
+    final long submitTime = System.currentTimeMillis();
+    try {
+      asyncExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            long remaining = timeoutMilliseconds - (System.currentTimeMillis() - submitTime);
+            if (remaining <= 0) {
+              log.warn("The async dispatch request timed out in queue.[userInfo:{},experimentVariableName:{}]",
+                  userInfo, paramName);
+              future.set(DispatchResult.EMPTY);
+              return;
+            }
+            future.set(doDispatch(userInfo, paramName, (int) remaining));
+          } catch (RuntimeException e) {
+            future.setException(e);
+          } finally {
+            inFlightDispatches.remove(dispatchKey, future);
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      inFlightDispatches.remove(dispatchKey, future);
+      future.setException(e);
+    }
+    return future;
+  }
+
+  private DispatchResult awaitDispatchResult(ListenableFuture<DispatchResult> inFlight, UserInfo userInfo,
+      String paramName, int timeoutMilliseconds) {
+    try {
+      return inFlight.get(timeoutMilliseconds, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.error("Interrupted while waiting in-flight dispatch request.[userInfo:{},experimentVariableName:{}]",
+          userInfo, paramName, e);
+    } catch (ExecutionException | TimeoutException e) {
+      log.error("Failed to wait in-flight dispatch request.[userInfo:{},experimentVariableName:{}]",
+          userInfo, paramName, e);
+    }
+    return DispatchResult.EMPTY;
+  }
+
+  /**
+   * 发起网络请求，并解析一次分流结果、更新埋点配置
+   */
+  private DispatchResult doDispatch(UserInfo userInfo, String paramName, int timeoutMilliseconds) {
+    DispatchResponseBody response = getDispatcherResponse(userInfo, paramName, timeoutMilliseconds);
+    if (response == null) {
+      return DispatchResult.EMPTY;
+    }
+    updateTrackConfig(response.getTrackConfig());
+    List<DispatchExperiment> results = response.getResults();
+    if (results == null) {
+      log.debug("response results from server is null. [UserInfo: {}, param: {}]", userInfo, paramName);
+    }
+    return new DispatchResult(response, experimentCacheManager.getUserHitExperimentWithoutUpdateCache(results,
+        trackConfigService.getTrackConfig().getTriggerContentExt()));
+  }
+
+  /**
+   * 获取异步上报服务，用于读取队列深度、丢弃次数、写入耗时等指标
+   *
+   * @return 未开启异步上报时为 null
+   */
+  AsyncTrackService getAsyncTrackService() {
+    return autoTrackService instanceof AsyncTrackService ? (AsyncTrackService) autoTrackService : null;
+  }
+
+  /**
+   * 生成 SDK 运行指标的快照
+   *
+   * @return 运行指标
+   */
+  SensorsABTestMetrics getMetrics() {
+    SensorsABTestMetrics.SensorsABTestMetricsBuilder metrics = SensorsABTestMetrics.builder();
+    CacheStats negativeCacheStats = experimentCacheManager.getNegativeCacheStats();
+    metrics.coalescedDispatchCount(coalescedDispatchCount.get())
+        .experimentGroupConfigCount(experimentCacheManager.getExperimentGroupConfigCount())
+        .experimentGroupConfigMemory(experimentCacheManager.estimateExperimentGroupConfigMemory())
+        .negativeCacheSize(experimentCacheManager.getNegativeCacheSize())
+        .negativeCacheHitCount(negativeCacheStats.hitCount())
+        .negativeCacheMissCount(negativeCacheStats.missCount())
+        .negativeCacheMemory(experimentCacheManager.estimateNegativeCacheMemory());
+    AsyncTrackService asyncTrackService = getAsyncTrackService();
+    if (asyncTrackService != null) {
+      metrics.asyncTrackEnabled(true)
+          .asyncTrackQueueDepth(asyncTrackService.getQueueDepth())
+          .asyncTrackQueueCapacity(asyncTrackService.getQueueCapacity())
+          .asyncTrackEnqueuedCount(asyncTrackService.getEnqueuedCount())
+          .asyncTrackDroppedOldestCount(asyncTrackService.getDroppedOldestCount())
+          .asyncTrackDroppedNewestCount(asyncTrackService.getDroppedNewestCount())
+          .asyncTrackSpilledCount(asyncTrackService.getSpilledCount())
+          .asyncTrackTrackedCount(asyncTrackService.getTrackedCount())
+          .asyncTrackFailedCount(asyncTrackService.getFailedCount())
+          .asyncTrackAverageEnqueueNanos(asyncTrackService.getAverageEnqueueNanos())
+          .asyncTrackMaxEnqueueNanos(asyncTrackService.getMaxEnqueueNanos());
+    }
+    DispatchCircuitBreaker circuitBreaker = getCircuitBreaker();
+    if (circuitBreaker != null) {
+      metrics.circuitBreakerState(circuitBreaker.getState())
+          .circuitBreakerOpenedCount(circuitBreaker.getOpenedCount())
+          .circuitBreakerHalfOpenedCount(circuitBreaker.getHalfOpenedCount())
+          .circuitBreakerClosedCount(circuitBreaker.getClosedCount())
+          .circuitBreakerShortCircuitedCalls(circuitBreaker.getShortCircuitedCalls());
+    }
+    return metrics.build();
+  }
+
+  /**
+   * 缓存结果超过软过期时间时，在后台重新请求分流结果并更新缓存，本次请求仍直接返回缓存结果；
+   * 同一缓存结果只会触发一次刷新，刷新失败后由后续请求再次触发
+   */
+  private void refreshIfStale(final UserInfo userInfo, String paramName, int timeoutMilliseconds) {
+    if (!experimentCacheManager.markRefreshIfStale(userInfo)) {
+      return;
+    }
+    log.debug("The experiment cache is stale, refresh in background.[userInfo:{};experimentVariableName:{}]",
+        userInfo, paramName);
+    Futures.addCallback(dispatchAsync(userInfo, paramName, timeoutMilliseconds),
+        new FutureCallback<DispatchResult>() {
+          @Override
+          public void onSuccess(DispatchResult dispatchResult) {
+            if (dispatchResult.getUserHitExperiment() == null) {
+              experimentCacheManager.cancelRefresh(userInfo);
+              return;
+            }
+            experimentCacheManager.cacheUserHitExperiment(userInfo, dispatchResult.getUserHitExperiment());
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            log.warn("Failed to refresh experiment cache.[userInfo:{}]", userInfo, t);
+            experimentCacheManager.cancelRefresh(userInfo);
+          }
+        }, MoreExecutors.directExecutor());
+  }
+
+  /**
+   * 获取分流请求熔断器
+   *
+   * @return 熔断器，未开启熔断时为 null
+   */
+  DispatchCircuitBreaker getCircuitBreaker() {
+    return httpConsumer.getCircuitBreaker();
+  }
+
+  /**
+   * 熔断打开时，即使本次请求未开启缓存，也优先返回已有的缓存结果
+   *
+   * @return 缓存结果，熔断未打开或未命中缓存时返回 null
+   */
+  private UserHitResult getUserHitResultFromCacheIfCircuitOpen(UserInfo userInfo, String paramName) {
+    DispatchCircuitBreaker circuitBreaker = getCircuitBreaker();
+    if (circuitBreaker == null || circuitBreaker.getState() != CircuitBreakerStateEnum.OPEN) {
+      return null;
+    }
+    UserHitResult userHitResult = getUserHitResultFromCache(userInfo, paramName);
+    if (userHitResult.getUserHitExperimentGroup() == null) {
+      return null;
+    }
+    log.debug("The dispatch circuit breaker is open, use experiment of cache.[distinctId:{};experimentVariableName:{}]",
+        userInfo.getDistinctId(), paramName);
     return userHitResult;
   }
 
@@ -272,32 +880,29 @@ class SensorsABTestWorker {
   }
 
 
-  private void updateTrackConfig(JsonNode response) {
-    if (response == null) {
-      return;
-    }
-    JsonNode trackConfigNode = response.findValue(SensorsABTestConst.ABTEST_TRACK_CONFIG_KEY);
-    if (trackConfigNode == null) {
+  private void updateTrackConfig(TrackConfig trackConfig) {
+    if (trackConfig == null) {
       return;
     }
-    TrackConfig trackConfig = objectMapper.convertValue(trackConfigNode, TrackConfig.class);
     trackConfigService.updateTrackConfig(trackConfig);
 
   }
 
-  private List<UserOutExperimentGroup> getUserOutExperimentGroups(UserInfo userInfo, String param, JsonNode response) {
+  private List<UserOutExperimentGroup> getUserOutExperimentGroups(UserInfo userInfo, String param,
+      DispatchResponseBody response) {
     if (response == null) {
       log.debug("response from server is null. [UserInfo: {}, param: {}]", userInfo, param);
       return Collections.emptyList();
     }
 
-    JsonNode outResults = response.findValue(OUT_LIST_KEY);
+    List<DispatchExperiment> outResults = response.getOutList(param);
     if (outResults == null) {
       log.debug("response outResults from server is null. [UserInfo: {}, param: {}]", userInfo, param);
       return Collections.emptyList();
     }
 
-    return experimentCacheManager.getUserOutExperimentGroups(param, outResults);
+    return experimentCacheManager.getUserOutExperimentGroups(param, outResults,
+        trackConfigService.getTrackConfig().getTriggerContentExt());
   }
 
 
@@ -342,11 +947,11 @@ class SensorsABTestWorker {
                 .builder()
                 .distinctId(experiment.getDistinctId())
                 .isLoginId(experiment.getIsLoginId())
-                .customIds(customIds)
+                .customIds(ABTestUtil.canonicalCustomIds(customIds))
                 .build())
         .abtestExperimentGroupId(experiment.getAbTestExperimentGroupId())
         .isWhiteList(isWhiteList != null && isWhiteList)
-        .src(experimentGroupConfig != null ? experimentGroupConfig.getSrc() : null)
+        .ext(experimentGroupConfig != null ? experimentGroupConfig.getExt() : null)
         .subjectName(experimentGroupConfig != null ? experimentGroupConfig.getSubjectName() : null)
         .build();
   }
@@ -391,41 +996,31 @@ class SensorsABTestWorker {
   /**
    * 获取用户命中结果
    *
-   * @param userInfo           用户信息标识
-   * @param param              请求参数
-   * @param dispatcherResponse 原始response
-   * @param enableUserCache    是否缓存用户分流结果
+   * @param userInfo          用户信息标识
+   * @param param             请求参数
+   * @param userHitExperiment 本次请求解析的用户分流结果
+   * @param enableUserCache   是否缓存用户分流结果
    * @return 用户命中结果
    */
   private UserHitExperimentGroup getUserHitExperimentGroup(UserInfo userInfo, String param,
-      JsonNode dispatcherResponse, boolean enableUserCache) {
+      UserHitExperiment userHitExperiment, boolean enableUserCache) {
 
-    if (dispatcherResponse == null) {
-      log.debug("response from server is null. [UserInfo: {}, param: {}]", userInfo, param);
+    if (userHitExperiment == null) {
+      log.debug("user hit experiment from server is null. [UserInfo: {}, param: {}]", userInfo, param);
       return null;
     }
 
-    JsonNode results = dispatcherResponse.findValue(RESULTS_KEY);
-    if (results == null) {
-      log.debug("response results from server is null. [UserInfo: {}, param: {}]", userInfo, param);
-      return null;
-    }
-
-    log.debug("Hit experiment from server,cache the experiment results.[userInfo:{};experimentVariableName:{}]",
-        userInfo, param);
-
-    UserHitExperiment userHitExperiment;
     if (enableUserCache) {
-      userHitExperiment = experimentCacheManager.getUserHitExperimentWithUpdateCache(userInfo, results);
-    } else {
-      userHitExperiment = experimentCacheManager.getUserHitExperimentWithoutUpdateCache(results);
+      log.debug("Hit experiment from server,cache the experiment results.[userInfo:{};experimentVariableName:{}]",
+          userInfo, param);
+      experimentCacheManager.cacheUserHitExperiment(userInfo, userHitExperiment);
     }
 
     return experimentCacheManager.getExperimentResultFromUserHitExperiment(param, userHitExperiment);
   }
 
 
-  private JsonNode getDispatcherResponse(UserInfo userInfo, String param, Integer timeoutMilliseconds) {
+  private DispatchResponseBody getDispatcherResponse(UserInfo userInfo, String param, Integer timeoutMilliseconds) {
     return getABTestByHttp(
         userInfo.getDistinctId(),
         userInfo.isLoginId(),
@@ -467,9 +1062,9 @@ class SensorsABTestWorker {
   /**
    * 组合请求参数，然后进行网络请求
    *
-   * @return 网络请求成功, 并且返回对象状态为 SUCCESS 和 results 有值，则返回 JsonNode；否则返回 null
+   * @return 网络请求成功, 并且返回对象状态为 SUCCESS，则返回解析后的结果；否则返回 null
    */
-  private JsonNode getABTestByHttp(String distinctId, boolean isLoginId, String experimentName,
+  private DispatchResponseBody getABTestByHttp(String distinctId, boolean isLoginId, String experimentName,
       int timeoutMilliseconds,
       Map<String, Object> customProperties, Map<String, String> customIds) {
     Map<String, Object> params = Maps.newHashMap();
@@ -490,11 +1085,16 @@ class SensorsABTestWorker {
         params.put("custom_properties", objMap);
         params.put("param_name", experimentName);
       }
-      String strJson = objectMapper.writeValueAsString(params);
-      String result = httpConsumer.consume(strJson, timeoutMilliseconds);
-      log.debug("Successfully get the httpConsumer result.[strJson:{},result:{}]", strJson, result);
-      JsonNode res = objectMapper.readTree(result);
-      if (res != null && SensorsABTestConst.SUCCESS.equals(res.findValue(SensorsABTestConst.STATUS_KEY).asText())) {
+      DispatchResponseBody res;
+      if (dispatchBatcher != null) {
+        res = getABTestByBatch(params, timeoutMilliseconds);
+      } else {
+        DispatchResponse response = exchange(params, timeoutMilliseconds);
+        log.debug("Successfully get the httpConsumer result.[params:{},statusCode:{},bytes:{}]", params,
+            response.getStatusCode(), response.getBody().length);
+        res = responseDecoder.decode(response.getBody());
+      }
+      if (res != null && res.isSuccess()) {
         return res;
       }
       return null;
@@ -502,6 +1102,10 @@ class SensorsABTestWorker {
       log.error("Invalid custom properties,{},[distinctId:{},isLoginId:{},experimentName:{}]",
           e.getMessage(), distinctId, isLoginId, experimentName);
       return null;
+    } catch (CircuitBreakerOpenException e) {
+      log.debug("The dispatch circuit breaker is open, return null.[distinctId:{},isLoginId:{},experimentName:{}]",
+          distinctId, isLoginId, experimentName);
+      return null;
     } catch (IOException e) {
       log.error("Failed to network request.[distinctId:{},isLoginId:{},experimentName:{}]",
           distinctId, isLoginId, experimentName, e);
@@ -509,6 +1113,37 @@ class SensorsABTestWorker {
     }
   }
 
+  /**
+   * 按协商的数据格式发送请求，服务端拒绝 Smile 时以 JSON 重新发送
+   */
+  private DispatchResponse exchange(Map<String, Object> params, int timeoutMilliseconds) throws IOException {
+    DispatchResponse response = httpConsumer.exchange(wireFormat.encode(params), wireFormat.getContentType(),
+        wireFormat.getAccept(), timeoutMilliseconds);
+    if (wireFormat.fallbackIfRejected(response)) {
+      response = httpConsumer.exchange(wireFormat.encode(params), wireFormat.getContentType(),
+          wireFormat.getAccept(), timeoutMilliseconds);
+    }
+    return response;
+  }
+
+  /**
+   * 将请求交给批量分流器，与其他用户的请求合并发送；最长等待超时时间加上攒批时间窗口
+   *
+   * @return 单用户返回结果，请求失败或等待超时返回 null
+   */
+  private DispatchResponseBody getABTestByBatch(Map<String, Object> params, int timeoutMilliseconds)
+      throws IOException {
+    ListenableFuture<DispatchResponseBody> future = dispatchBatcher.submit(params, timeoutMilliseconds);
+    try {
+      return future.get(timeoutMilliseconds + config.getBatchWindowMilliseconds(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for batch dispatch result.", e);
+    } catch (ExecutionException | TimeoutException e) {
+      throw new IOException("Failed to get batch dispatch result.", e);
+    }
+  }
+
 
 
   /**
@@ -524,40 +1159,22 @@ class SensorsABTestWorker {
     if (variable == null || variable.getName() == null || !variable.getName().equals(experimentVariableName)) {
       return null;
     }
-    return getExperimentValue(variable.getType(), defaultValue, variable.getValue());
-  }
-
-  private <T> T getExperimentValue(String type, T defaultValue, String value) {
-    switch (type) {
-      case "STRING":
-        if (defaultValue instanceof String) {
-          return (T) value;
-        }
-        break;
-      case "INTEGER":
-        if (defaultValue instanceof Integer) {
-          return (T) Integer.valueOf(value);
-        }
-        break;
-      case "JSON":
-        if (defaultValue instanceof String && ((String) defaultValue).startsWith("{")
-            && ((String) defaultValue).endsWith("}")) {
-          return (T) value;
-        }
-        break;
-      case "BOOLEAN":
-        if (defaultValue instanceof Boolean) {
-          return (T) Boolean.valueOf(value);
-        }
-        break;
-      //未命中类型
-      default:
-        break;
-    }
-    return null;
+    return variable.matchValue(defaultValue);
   }
 
   public void shutdown() {
+    if (dispatchBatcher != null) {
+      dispatchBatcher.close();
+    }
+    if (autoTrackService instanceof AsyncTrackService) {
+      ((AsyncTrackService) autoTrackService).close();
+    }
+    if (trackEventBatcher != null) {
+      trackEventBatcher.close();
+    }
+    if (internalAsyncExecutor && asyncExecutor != null) {
+      asyncExecutor.shutdown();
+    }
     if (httpConsumer != null) {
       try {
         httpConsumer.close();
@@ -2,12 +2,14 @@ package com.sensorsdata.analytics.javasdk.bean;
 
 import com.sensorsdata.analytics.javasdk.ISensorsAnalytics;
 import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+import com.sensorsdata.analytics.javasdk.transport.DispatchTransport;
 
 
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 
 import java.io.Serializable;
+import java.util.concurrent.ExecutorService;
 
 /**
  * AB Testing 全局参数配置
@@ -72,6 +74,167 @@ public class ABGlobalConfig implements Serializable {
   private final LogLevelEnum logLevel;
 
   private final transient HttpClientBuilder httpClientBuilder;
+  /**
+   * 异步请求线程池，负责分流请求的网络 I/O 以及后续结果转换、事件上报，未设置时由 SDK 内部创建（等待队列长度 1024，
+   * 队列已满时拒绝新的异步请求）
+   */
+
+  private final transient ExecutorService asyncExecutor;
+  /**
+   * 是否开启跨用户批量分流请求，默认关闭
+   */
+
+  private final Boolean enableBatchDispatch;
+  /**
+   * 批量分流试验地址
+   */
+
+  private final String batchApiUrl;
+  /**
+   * 批量分流请求的攒批时间窗口 ms
+   */
+
+  private final Integer batchWindowMilliseconds;
+  /**
+   * 单次批量分流请求包含的最大用户数
+   */
+
+  private final Integer maxBatchSize;
+  /**
+   * 分流请求的网络传输实现，为空时使用基于 httpClientBuilder 的 Apache HttpClient 实现
+   */
+
+  private final transient DispatchTransport dispatchTransport;
+  /**
+   * 分流请求的传输数据格式，默认 JSON
+   */
+
+  private final WireFormatEnum wireFormat;
+  /**
+   * 是否开启请求压缩，并声明接受 gzip/deflate 压缩的返回结果，默认关闭
+   */
+
+  private final Boolean enableCompression;
+  /**
+   * 请求体超过该大小（字节）时进行 gzip 压缩
+   */
+
+  private final Integer compressionThreshold;
+  /**
+   * 压缩级别，取值 -1 ~ 9，-1 表示默认级别
+   */
+
+  private final Integer compressionLevel;
+  /**
+   * 是否开启分流请求熔断，默认关闭
+   */
+
+  private final Boolean enableCircuitBreaker;
+  /**
+   * 熔断统计窗口大小，即统计最近多少次请求
+   */
+
+  private final Integer circuitBreakerWindowSize;
+  /**
+   * 触发熔断的失败率阈值（百分比），取值 1 ~ 100
+   */
+
+  private final Integer circuitBreakerFailureRateThreshold;
+  /**
+   * 请求耗时超过该值（毫秒）视为慢调用
+   */
+
+  private final Integer circuitBreakerSlowCallMilliseconds;
+  /**
+   * 触发熔断的慢调用率阈值（百分比），取值 1 ~ 100
+   */
+
+  private final Integer circuitBreakerSlowCallRateThreshold;
+  /**
+   * 熔断打开后持续的时间（毫秒），之后放行少量探测请求
+   */
+
+  private final Integer circuitBreakerOpenMilliseconds;
+  /**
+   * 单用户试验缓存的软过期时间（分钟），超过后仍返回缓存结果并在后台刷新；需小于 experimentCacheTime，默认 0 表示不刷新
+   */
+
+  private final Integer experimentCacheRefreshTime;
+  /**
+   * 未命中任何试验的分流结果（按用户与试验参数）的缓存时间（分钟），取值 0 ~ 1440，默认 0 表示不缓存
+   */
+
+  private final Integer negativeCacheTime;
+  /**
+   * 未命中结果缓存的最大条目数
+   */
+
+  private final Integer negativeCacheSize;
+  /**
+   * 是否异步上报自动触发的 $ABTestTrigger 事件，开启后由后台线程上报，不占用请求线程，默认关闭
+   */
+
+  private final Boolean enableAsyncTrack;
+  /**
+   * 异步上报队列的容量，按 2 的幂向上取整
+   */
+
+  private final Integer asyncTrackQueueSize;
+  /**
+   * 异步上报的后台线程数
+   */
+
+  private final Integer asyncTrackWorkers;
+  /**
+   * 异步上报队列已满时的处理策略，默认丢弃新事件
+   */
+
+  private final TrackQueueFullPolicyEnum asyncTrackQueueFullPolicy;
+  /**
+   * 是否批量上报 $ABTestTrigger 事件，开启后事件由刷新线程按批次交给分析 SDK，默认关闭
+   */
+
+  private final Boolean enableBatchTrack;
+  /**
+   * 批量上报时每批的事件数量，达到后立即刷新
+   */
+
+  private final Integer trackBatchSize;
+  /**
+   * 批量上报的定时刷新间隔 ms
+   */
+
+  private final Integer trackFlushIntervalMilliseconds;
+  /**
+   * 批量上报积压时是否将事件写入本地溢写队列，分析 SDK 恢复后按写入顺序补报，需同时开启批量上报，默认关闭
+   */
+
+  private final Boolean enableTrackSpill;
+  /**
+   * 本地溢写队列的目录
+   */
+
+  private final String trackSpillDirectory;
+  /**
+   * 本地溢写队列每个分段文件的大小 byte
+   */
+
+  private final Integer trackSpillSegmentBytes;
+  /**
+   * 本地溢写队列最多占用的磁盘空间 byte，超过后新事件不再写入
+   */
+
+  private final Long trackSpillMaxDiskBytes;
+  /**
+   * 本地溢写队列的落盘策略，默认按间隔落盘
+   */
+
+  private final TrackSpillFsyncPolicyEnum trackSpillFsyncPolicy;
+  /**
+   * 按间隔落盘时的落盘间隔 ms
+   */
+
+  private final Integer trackSpillFsyncIntervalMilliseconds;
 
 
   public Integer getEventCacheTime() {
@@ -122,13 +285,152 @@ public class ABGlobalConfig implements Serializable {
     return httpClientBuilder;
   }
 
+  public ExecutorService getAsyncExecutor() {
+    return asyncExecutor;
+  }
+
+  public Boolean getEnableBatchDispatch() {
+    return enableBatchDispatch;
+  }
+
+  public String getBatchApiUrl() {
+    return batchApiUrl;
+  }
+
+  public Integer getBatchWindowMilliseconds() {
+    return batchWindowMilliseconds;
+  }
+
+  public Integer getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public DispatchTransport getDispatchTransport() {
+    return dispatchTransport;
+  }
+
+  public WireFormatEnum getWireFormat() {
+    return wireFormat;
+  }
+
+  public Boolean getEnableCompression() {
+    return enableCompression;
+  }
+
+  public Integer getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
+  public Integer getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  public Boolean getEnableCircuitBreaker() {
+    return enableCircuitBreaker;
+  }
+
+  public Integer getCircuitBreakerWindowSize() {
+    return circuitBreakerWindowSize;
+  }
+
+  public Integer getCircuitBreakerFailureRateThreshold() {
+    return circuitBreakerFailureRateThreshold;
+  }
+
+  public Integer getCircuitBreakerSlowCallMilliseconds() {
+    return circuitBreakerSlowCallMilliseconds;
+  }
+
+  public Integer getCircuitBreakerSlowCallRateThreshold() {
+    return circuitBreakerSlowCallRateThreshold;
+  }
+
+  public Integer getCircuitBreakerOpenMilliseconds() {
+    return circuitBreakerOpenMilliseconds;
+  }
+
+  public Integer getExperimentCacheRefreshTime() {
+    return experimentCacheRefreshTime;
+  }
+
+  public Integer getNegativeCacheTime() {
+    return negativeCacheTime;
+  }
+
+  public Integer getNegativeCacheSize() {
+    return negativeCacheSize;
+  }
+
+  public Boolean getEnableAsyncTrack() {
+    return enableAsyncTrack;
+  }
+
+  public Integer getAsyncTrackQueueSize() {
+    return asyncTrackQueueSize;
+  }
+
+  public Integer getAsyncTrackWorkers() {
+    return asyncTrackWorkers;
+  }
+
+  public TrackQueueFullPolicyEnum getAsyncTrackQueueFullPolicy() {
+    return asyncTrackQueueFullPolicy;
+  }
+
+  public Boolean getEnableBatchTrack() {
+    return enableBatchTrack;
+  }
+
+  public Integer getTrackBatchSize() {
+    return trackBatchSize;
+  }
+
+  public Integer getTrackFlushIntervalMilliseconds() {
+    return trackFlushIntervalMilliseconds;
+  }
+
+  public Boolean getEnableTrackSpill() {
+    return enableTrackSpill;
+  }
+
+  public String getTrackSpillDirectory() {
+    return trackSpillDirectory;
+  }
+
+  public Integer getTrackSpillSegmentBytes() {
+    return trackSpillSegmentBytes;
+  }
+
+  public Long getTrackSpillMaxDiskBytes() {
+    return trackSpillMaxDiskBytes;
+  }
+
+  public TrackSpillFsyncPolicyEnum getTrackSpillFsyncPolicy() {
+    return trackSpillFsyncPolicy;
+  }
+
+  public Integer getTrackSpillFsyncIntervalMilliseconds() {
+    return trackSpillFsyncIntervalMilliseconds;
+  }
+
   public static Builder builder() {
     return new Builder();
   }
 
   private ABGlobalConfig(Integer eventCacheTime, Integer eventCacheSize, Integer experimentCacheSize,
       Integer experimentCacheTime, Boolean enableEventCache, String apiUrl, ISensorsAnalytics sensorsAnalytics,
-      Integer maxTotal, Integer maxPerRoute, Boolean enableRecordRequestCostTime, LogLevelEnum logLevel, HttpClientBuilder httpClientBuilder) {
+      Integer maxTotal, Integer maxPerRoute, Boolean enableRecordRequestCostTime, LogLevelEnum logLevel, HttpClientBuilder httpClientBuilder,
+      ExecutorService asyncExecutor, Boolean enableBatchDispatch, String batchApiUrl,
+      Integer batchWindowMilliseconds, Integer maxBatchSize, DispatchTransport dispatchTransport,
+      WireFormatEnum wireFormat, Boolean enableCompression, Integer compressionThreshold, Integer compressionLevel,
+      Boolean enableCircuitBreaker, Integer circuitBreakerWindowSize, Integer circuitBreakerFailureRateThreshold,
+      Integer circuitBreakerSlowCallMilliseconds, Integer circuitBreakerSlowCallRateThreshold,
+      Integer circuitBreakerOpenMilliseconds, Integer experimentCacheRefreshTime,
+      Integer negativeCacheTime, Integer negativeCacheSize, Boolean enableAsyncTrack, Integer asyncTrackQueueSize,
+      Integer asyncTrackWorkers, TrackQueueFullPolicyEnum asyncTrackQueueFullPolicy, Boolean enableBatchTrack,
+      Integer trackBatchSize, Integer trackFlushIntervalMilliseconds, Boolean enableTrackSpill,
+      String trackSpillDirectory, Integer trackSpillSegmentBytes, Long trackSpillMaxDiskBytes,
+      TrackSpillFsyncPolicyEnum trackSpillFsyncPolicy, Integer trackSpillFsyncIntervalMilliseconds) {
     this.eventCacheTime = eventCacheTime;
     this.eventCacheSize = eventCacheSize;
     this.experimentCacheSize = experimentCacheSize;
@@ -141,6 +443,38 @@ public class ABGlobalConfig implements Serializable {
     this.enableRecordRequestCostTime = enableRecordRequestCostTime;
     this.logLevel = logLevel;
     this.httpClientBuilder = httpClientBuilder;
+    this.asyncExecutor = asyncExecutor;
+    this.enableBatchDispatch = enableBatchDispatch;
+    this.batchApiUrl = batchApiUrl;
+    this.batchWindowMilliseconds = batchWindowMilliseconds;
+    this.maxBatchSize = maxBatchSize;
+    this.dispatchTransport = dispatchTransport;
+    this.wireFormat = wireFormat;
+    this.enableCompression = enableCompression;
+    this.compressionThreshold = compressionThreshold;
+    this.compressionLevel = compressionLevel;
+    this.enableCircuitBreaker = enableCircuitBreaker;
+    this.circuitBreakerWindowSize = circuitBreakerWindowSize;
+    this.circuitBreakerFailureRateThreshold = circuitBreakerFailureRateThreshold;
+    this.circuitBreakerSlowCallMilliseconds = circuitBreakerSlowCallMilliseconds;
+    this.circuitBreakerSlowCallRateThreshold = circuitBreakerSlowCallRateThreshold;
+    this.circuitBreakerOpenMilliseconds = circuitBreakerOpenMilliseconds;
+    this.experimentCacheRefreshTime = experimentCacheRefreshTime;
+    this.negativeCacheTime = negativeCacheTime;
+    this.negativeCacheSize = negativeCacheSize;
+    this.enableAsyncTrack = enableAsyncTrack;
+    this.asyncTrackQueueSize = asyncTrackQueueSize;
+    this.asyncTrackWorkers = asyncTrackWorkers;
+    this.asyncTrackQueueFullPolicy = asyncTrackQueueFullPolicy;
+    this.enableBatchTrack = enableBatchTrack;
+    this.trackBatchSize = trackBatchSize;
+    this.trackFlushIntervalMilliseconds = trackFlushIntervalMilliseconds;
+    this.enableTrackSpill = enableTrackSpill;
+    this.trackSpillDirectory = trackSpillDirectory;
+    this.trackSpillSegmentBytes = trackSpillSegmentBytes;
+    this.trackSpillMaxDiskBytes = trackSpillMaxDiskBytes;
+    this.trackSpillFsyncPolicy = trackSpillFsyncPolicy;
+    this.trackSpillFsyncIntervalMilliseconds = trackSpillFsyncIntervalMilliseconds;
   }
 
   @Override
@@ -157,6 +491,37 @@ public class ABGlobalConfig implements Serializable {
         ", maxPerRoute=" + maxPerRoute +
         ", enableRecordRequestCostTime=" + enableRecordRequestCostTime +
         ", logLevel=" + logLevel +
+        ", enableBatchDispatch=" + enableBatchDispatch +
+        ", batchApiUrl=" + batchApiUrl +
+        ", batchWindowMilliseconds=" + batchWindowMilliseconds +
+        ", maxBatchSize=" + maxBatchSize +
+        ", dispatchTransport=" + (dispatchTransport == null ? null : dispatchTransport.getClass().getName()) +
+        ", wireFormat=" + wireFormat +
+        ", enableCompression=" + enableCompression +
+        ", compressionThreshold=" + compressionThreshold +
+        ", compressionLevel=" + compressionLevel +
+        ", enableCircuitBreaker=" + enableCircuitBreaker +
+        ", circuitBreakerWindowSize=" + circuitBreakerWindowSize +
+        ", circuitBreakerFailureRateThreshold=" + circuitBreakerFailureRateThreshold +
+        ", circuitBreakerSlowCallMilliseconds=" + circuitBreakerSlowCallMilliseconds +
+        ", circuitBreakerSlowCallRateThreshold=" + circuitBreakerSlowCallRateThreshold +
+        ", circuitBreakerOpenMilliseconds=" + circuitBreakerOpenMilliseconds +
+        ", experimentCacheRefreshTime=" + experimentCacheRefreshTime +
+        ", negativeCacheTime=" + negativeCacheTime +
+        ", negativeCacheSize=" + negativeCacheSize +
+        ", enableAsyncTrack=" + enableAsyncTrack +
+        ", asyncTrackQueueSize=" + asyncTrackQueueSize +
+        ", asyncTrackWorkers=" + asyncTrackWorkers +
+        ", asyncTrackQueueFullPolicy=" + asyncTrackQueueFullPolicy +
+        ", enableBatchTrack=" + enableBatchTrack +
+        ", trackBatchSize=" + trackBatchSize +
+        ", trackFlushIntervalMilliseconds=" + trackFlushIntervalMilliseconds +
+        ", enableTrackSpill=" + enableTrackSpill +
+        ", trackSpillDirectory=" + trackSpillDirectory +
+        ", trackSpillSegmentBytes=" + trackSpillSegmentBytes +
+        ", trackSpillMaxDiskBytes=" + trackSpillMaxDiskBytes +
+        ", trackSpillFsyncPolicy=" + trackSpillFsyncPolicy +
+        ", trackSpillFsyncIntervalMilliseconds=" + trackSpillFsyncIntervalMilliseconds +
         '}';
   }
 
@@ -175,6 +540,39 @@ public class ABGlobalConfig implements Serializable {
 
     private HttpClientBuilder httpClientBuilder;
 
+    private ExecutorService asyncExecutor;
+    private Boolean enableBatchDispatch;
+    private String batchApiUrl;
+    private Integer batchWindowMilliseconds;
+    private Integer maxBatchSize;
+    private DispatchTransport dispatchTransport;
+    private WireFormatEnum wireFormat;
+    private Boolean enableCompression;
+    private Integer compressionThreshold;
+    private Integer compressionLevel;
+    private Boolean enableCircuitBreaker;
+    private Integer circuitBreakerWindowSize;
+    private Integer circuitBreakerFailureRateThreshold;
+    private Integer circuitBreakerSlowCallMilliseconds;
+    private Integer circuitBreakerSlowCallRateThreshold;
+    private Integer circuitBreakerOpenMilliseconds;
+    private Integer experimentCacheRefreshTime;
+    private Integer negativeCacheTime;
+    private Integer negativeCacheSize;
+    private Boolean enableAsyncTrack;
+    private Integer asyncTrackQueueSize;
+    private Integer asyncTrackWorkers;
+    private TrackQueueFullPolicyEnum asyncTrackQueueFullPolicy;
+    private Boolean enableBatchTrack;
+    private Integer trackBatchSize;
+    private Integer trackFlushIntervalMilliseconds;
+    private Boolean enableTrackSpill;
+    private String trackSpillDirectory;
+    private Integer trackSpillSegmentBytes;
+    private Long trackSpillMaxDiskBytes;
+    private TrackSpillFsyncPolicyEnum trackSpillFsyncPolicy;
+    private Integer trackSpillFsyncIntervalMilliseconds;
+
     private Builder() {
     }
 
@@ -213,12 +611,115 @@ public class ABGlobalConfig implements Serializable {
         logLevel = LogLevelEnum.INFO;
       }
 
+      if (enableBatchDispatch == null) {
+        enableBatchDispatch = false;
+      }
+      if (enableBatchDispatch && (batchApiUrl == null || batchApiUrl.length() == 0)) {
+        throw new InvalidArgumentException("The batchApiUrl is empty.");
+      }
+      if (batchWindowMilliseconds == null || batchWindowMilliseconds <= 0) {
+        batchWindowMilliseconds = 5;
+      }
+      if (maxBatchSize == null || maxBatchSize <= 0) {
+        maxBatchSize = 100;
+      }
+
+      if (wireFormat == null) {
+        wireFormat = WireFormatEnum.JSON;
+      }
+      if (enableCompression == null) {
+        enableCompression = false;
+      }
+      if (compressionThreshold == null || compressionThreshold < 0) {
+        compressionThreshold = 1024;
+      }
+      if (compressionLevel == null || compressionLevel < -1 || compressionLevel > 9) {
+        compressionLevel = -1;
+      }
+      if (enableCircuitBreaker == null) {
+        enableCircuitBreaker = false;
+      }
+      if (circuitBreakerWindowSize == null || circuitBreakerWindowSize <= 0) {
+        circuitBreakerWindowSize = 100;
+      }
+      if (circuitBreakerFailureRateThreshold == null || circuitBreakerFailureRateThreshold < 1
+          || circuitBreakerFailureRateThreshold > 100) {
+        circuitBreakerFailureRateThreshold = 50;
+      }
+      if (circuitBreakerSlowCallMilliseconds == null || circuitBreakerSlowCallMilliseconds <= 0) {
+        circuitBreakerSlowCallMilliseconds = 1000;
+      }
+      if (circuitBreakerSlowCallRateThreshold == null || circuitBreakerSlowCallRateThreshold < 1
+          || circuitBreakerSlowCallRateThreshold > 100) {
+        circuitBreakerSlowCallRateThreshold = 80;
+      }
+      if (circuitBreakerOpenMilliseconds == null || circuitBreakerOpenMilliseconds <= 0) {
+        circuitBreakerOpenMilliseconds = 10000;
+      }
+      if (experimentCacheRefreshTime == null || experimentCacheRefreshTime < 0
+          || experimentCacheRefreshTime >= experimentCacheTime) {
+        experimentCacheRefreshTime = 0;
+      }
+      if (negativeCacheTime == null || negativeCacheTime > 1440 || negativeCacheTime < 0) {
+        negativeCacheTime = 0;
+      }
+      if (negativeCacheSize == null || negativeCacheSize < 0) {
+        negativeCacheSize = 4096;
+      }
+      if (enableAsyncTrack == null) {
+        enableAsyncTrack = false;
+      }
+      if (asyncTrackQueueSize == null || asyncTrackQueueSize <= 0) {
+        asyncTrackQueueSize = 4096;
+      }
+      if (asyncTrackWorkers == null || asyncTrackWorkers <= 0) {
+        asyncTrackWorkers = 1;
+      }
+      if (asyncTrackQueueFullPolicy == null) {
+        asyncTrackQueueFullPolicy = TrackQueueFullPolicyEnum.DROP_NEWEST;
+      }
+      if (enableBatchTrack == null) {
+        enableBatchTrack = false;
+      }
+      if (trackBatchSize == null || trackBatchSize <= 0) {
+        trackBatchSize = 100;
+      }
+      if (trackFlushIntervalMilliseconds == null || trackFlushIntervalMilliseconds <= 0) {
+        trackFlushIntervalMilliseconds = 1000;
+      }
+      if (enableTrackSpill == null) {
+        enableTrackSpill = false;
+      }
+      if (enableTrackSpill && (trackSpillDirectory == null || trackSpillDirectory.length() == 0)) {
+        throw new InvalidArgumentException("The trackSpillDirectory is empty.");
+      }
+      if (trackSpillSegmentBytes == null || trackSpillSegmentBytes < 64 * 1024) {
+        trackSpillSegmentBytes = 16 * 1024 * 1024;
+      }
+      if (trackSpillMaxDiskBytes == null || trackSpillMaxDiskBytes < 2L * trackSpillSegmentBytes) {
+        trackSpillMaxDiskBytes = Math.max(256L * 1024 * 1024, 2L * trackSpillSegmentBytes);
+      }
+      if (trackSpillFsyncPolicy == null) {
+        trackSpillFsyncPolicy = TrackSpillFsyncPolicyEnum.INTERVAL;
+      }
+      if (trackSpillFsyncIntervalMilliseconds == null || trackSpillFsyncIntervalMilliseconds <= 0) {
+        trackSpillFsyncIntervalMilliseconds = 1000;
+      }
+
       if(httpClientBuilder == null){
         httpClientBuilder = HttpClients.custom();
       }
 
       return new ABGlobalConfig(eventCacheTime, eventCacheSize, experimentCacheSize,
-          experimentCacheTime, enableEventCache, apiUrl, sensorsAnalytics, maxTotal, maxPerRoute, enableRecordRequestCostTime, logLevel, httpClientBuilder);
+          experimentCacheTime, enableEventCache, apiUrl, sensorsAnalytics, maxTotal, maxPerRoute, enableRecordRequestCostTime, logLevel, httpClientBuilder,
+          asyncExecutor, enableBatchDispatch, batchApiUrl, batchWindowMilliseconds, maxBatchSize,
+          dispatchTransport, wireFormat, enableCompression, compressionThreshold, compressionLevel,
+          enableCircuitBreaker, circuitBreakerWindowSize, circuitBreakerFailureRateThreshold,
+          circuitBreakerSlowCallMilliseconds, circuitBreakerSlowCallRateThreshold, circuitBreakerOpenMilliseconds,
+          experimentCacheRefreshTime, negativeCacheTime, negativeCacheSize, enableAsyncTrack, asyncTrackQueueSize,
+          asyncTrackWorkers, asyncTrackQueueFullPolicy, enableBatchTrack, trackBatchSize,
+          trackFlushIntervalMilliseconds, enableTrackSpill, trackSpillDirectory, trackSpillSegmentBytes,
+          trackSpillMaxDiskBytes, trackSpillFsyncPolicy, trackSpillFsyncIntervalMilliseconds);
     }
 
     public ABGlobalConfig.Builder setEventCacheTime(Integer eventCacheTime) {
@@ -280,5 +781,165 @@ public class ABGlobalConfig implements Serializable {
       this.httpClientBuilder = httpClientBuilder;
       return this;
     }
+
+    public Builder setAsyncExecutor(ExecutorService asyncExecutor) {
+      this.asyncExecutor = asyncExecutor;
+      return this;
+    }
+
+    public Builder enableBatchDispatch(Boolean enableBatchDispatch) {
+      this.enableBatchDispatch = enableBatchDispatch;
+      return this;
+    }
+
+    public Builder setBatchApiUrl(String batchApiUrl) {
+      this.batchApiUrl = batchApiUrl;
+      return this;
+    }
+
+    public Builder setBatchWindowMilliseconds(Integer batchWindowMilliseconds) {
+      this.batchWindowMilliseconds = batchWindowMilliseconds;
+      return this;
+    }
+
+    public Builder setMaxBatchSize(Integer maxBatchSize) {
+      this.maxBatchSize = maxBatchSize;
+      return this;
+    }
+
+    public Builder setDispatchTransport(DispatchTransport dispatchTransport) {
+      this.dispatchTransport = dispatchTransport;
+      return this;
+    }
+
+    public Builder setWireFormat(WireFormatEnum wireFormat) {
+      this.wireFormat = wireFormat;
+      return this;
+    }
+
+    public Builder enableCompression(Boolean enableCompression) {
+      this.enableCompression = enableCompression;
+      return this;
+    }
+
+    public Builder setCompressionThreshold(Integer compressionThreshold) {
+      this.compressionThreshold = compressionThreshold;
+      return this;
+    }
+
+    public Builder setCompressionLevel(Integer compressionLevel) {
+      this.compressionLevel = compressionLevel;
+      return this;
+    }
+
+    public Builder enableCircuitBreaker(Boolean enableCircuitBreaker) {
+      this.enableCircuitBreaker = enableCircuitBreaker;
+      return this;
+    }
+
+    public Builder setCircuitBreakerWindowSize(Integer circuitBreakerWindowSize) {
+      this.circuitBreakerWindowSize = circuitBreakerWindowSize;
+      return this;
+    }
+
+    public Builder setCircuitBreakerFailureRateThreshold(Integer circuitBreakerFailureRateThreshold) {
+      this.circuitBreakerFailureRateThreshold = circuitBreakerFailureRateThreshold;
+      return this;
+    }
+
+    public Builder setCircuitBreakerSlowCallMilliseconds(Integer circuitBreakerSlowCallMilliseconds) {
+      this.circuitBreakerSlowCallMilliseconds = circuitBreakerSlowCallMilliseconds;
+      return this;
+    }
+
+    public Builder setCircuitBreakerSlowCallRateThreshold(Integer circuitBreakerSlowCallRateThreshold) {
+      this.circuitBreakerSlowCallRateThreshold = circuitBreakerSlowCallRateThreshold;
+      return this;
+    }
+
+    public Builder setCircuitBreakerOpenMilliseconds(Integer circuitBreakerOpenMilliseconds) {
+      this.circuitBreakerOpenMilliseconds = circuitBreakerOpenMilliseconds;
+      return this;
+    }
+
+    public Builder setExperimentCacheRefreshTime(Integer experimentCacheRefreshTime) {
+      this.experimentCacheRefreshTime = experimentCacheRefreshTime;
+      return this;
+    }
+
+    public Builder setNegativeCacheTime(Integer negativeCacheTime) {
+      this.negativeCacheTime = negativeCacheTime;
+      return this;
+    }
+
+    public Builder setNegativeCacheSize(Integer negativeCacheSize) {
+      this.negativeCacheSize = negativeCacheSize;
+      return this;
+    }
+
+    public Builder enableAsyncTrack(Boolean enableAsyncTrack) {
+      this.enableAsyncTrack = enableAsyncTrack;
+      return this;
+    }
+
+    public Builder setAsyncTrackQueueSize(Integer asyncTrackQueueSize) {
+      this.asyncTrackQueueSize = asyncTrackQueueSize;
+      return this;
+    }
+
+    public Builder setAsyncTrackWorkers(Integer asyncTrackWorkers) {
+      this.asyncTrackWorkers = asyncTrackWorkers;
+      return this;
+    }
+
+    public Builder setAsyncTrackQueueFullPolicy(TrackQueueFullPolicyEnum asyncTrackQueueFullPolicy) {
+      this.asyncTrackQueueFullPolicy = asyncTrackQueueFullPolicy;
+      return this;
+    }
+
+    public Builder enableBatchTrack(Boolean enableBatchTrack) {
+      this.enableBatchTrack = enableBatchTrack;
+      return this;
+    }
+
+    public Builder setTrackBatchSize(Integer trackBatchSize) {
+      this.trackBatchSize = trackBatchSize;
+      return this;
+    }
+
+    public Builder setTrackFlushIntervalMilliseconds(Integer trackFlushIntervalMilliseconds) {
+      this.trackFlushIntervalMilliseconds = trackFlushIntervalMilliseconds;
+      return this;
+    }
+
+    public Builder enableTrackSpill(Boolean enableTrackSpill) {
+      this.enableTrackSpill = enableTrackSpill;
+      return this;
+    }
+
+    public Builder setTrackSpillDirectory(String trackSpillDirectory) {
+      this.trackSpillDirectory = trackSpillDirectory;
+      return this;
+    }
+
+    public Builder setTrackSpillSegmentBytes(Integer trackSpillSegmentBytes) {
+      this.trackSpillSegmentBytes = trackSpillSegmentBytes;
+      return this;
+    }
+
+    public Builder setTrackSpillMaxDiskBytes(Long trackSpillMaxDiskBytes) {
+      this.trackSpillMaxDiskBytes = trackSpillMaxDiskBytes;
+      return this;
+    }
+
+    public Builder setTrackSpillFsyncPolicy(TrackSpillFsyncPolicyEnum trackSpillFsyncPolicy) {
+      this.trackSpillFsyncPolicy = trackSpillFsyncPolicy;
+      return this;
+    }
+
+    public Builder setTrackSpillFsyncIntervalMilliseconds(Integer trackSpillFsyncIntervalMilliseconds) {
+      this.trackSpillFsyncIntervalMilliseconds = trackSpillFsyncIntervalMilliseconds;
+      return this;
+    }
   }
 }
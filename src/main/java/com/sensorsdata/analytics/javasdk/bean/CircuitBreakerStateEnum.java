@@ -0,0 +1,16 @@
+package com.sensorsdata.analytics.javasdk.bean;
+
+/**
+ * 分流请求熔断器状态
+ * <p>CLOSED：正常放行并统计最近请求的失败率与慢调用率；OPEN：直接拒绝请求，调用方立即使用缓存或默认值；
+ * HALF_OPEN：熔断时间结束后放行少量探测请求，根据探测结果恢复为 CLOSED 或重新进入 OPEN</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:29
+ */
+public enum CircuitBreakerStateEnum {
+  CLOSED,
+  OPEN,
+  HALF_OPEN
+}
@@ -0,0 +1,50 @@
+package com.sensorsdata.analytics.javasdk.bean;
+
+import com.sensorsdata.analytics.javasdk.bean.cache.Variable;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 分流结果中的单个试验（results 或 out_list 中的元素），由流式解析一次性读出
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:16
+ */
+@Data
+@Builder
+public class DispatchExperiment {
+
+  private String abtestExperimentId;
+
+  private String abtestExperimentGroupId;
+
+  private String abtestExperimentResultId;
+
+  private String abtestExperimentVersion;
+
+  private String subjectName;
+
+  private String subjectId;
+
+  /**
+   * 以下布尔字段在返回结果中缺失时为 null，由使用方决定默认值
+   */
+  private Boolean isControlGroup;
+
+  private Boolean isWhiteList;
+
+  private Boolean cacheable;
+
+  //key -> paramName, value -> Variable
+  private Map<String, Variable> variableMap;
+
+  /**
+   * 试验节点上的标量字段（不含 variables），用于上报 $ABTestTrigger 扩展属性
+   */
+  private ObjectNode src;
+}
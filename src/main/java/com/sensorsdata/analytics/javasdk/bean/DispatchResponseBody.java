@@ -0,0 +1,98 @@
+package com.sensorsdata.analytics.javasdk.bean;
+
+import com.sensorsdata.analytics.javasdk.SensorsABTestConst;
+
+import com.sensorsdata.analytics.javasdk.bean.cache.Variable;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 解析后的单用户分流返回结果
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:16
+ */
+@Getter
+public class DispatchResponseBody {
+
+  private final String status;
+
+  /**
+   * 命中的试验，返回结果中缺失时为 null
+   */
+  private final List<DispatchExperiment> results;
+
+  /**
+   * 出组的试验，返回结果中缺失时为 null
+   */
+  private final List<DispatchExperiment> outList;
+
+  /**
+   * 埋点配置，返回结果中缺失时为 null
+   */
+  private final TrackConfig trackConfig;
+
+  /**
+   * 试验参数名到包含该参数的出组试验，解析返回结果时建立，只有请求的参数对应的出组试验会被转换
+   */
+  @Getter(AccessLevel.NONE)
+  private final Map<String, List<DispatchExperiment>> outListIndex;
+
+  public DispatchResponseBody(String status, List<DispatchExperiment> results, List<DispatchExperiment> outList,
+      TrackConfig trackConfig) {
+    this.status = status;
+    this.results = results;
+    this.outList = outList;
+    this.trackConfig = trackConfig;
+    this.outListIndex = indexByParam(outList);
+  }
+
+  /**
+   * 获取包含该试验参数的出组试验
+   *
+   * @param param 试验参数名
+   * @return 按返回顺序排列的出组试验，返回结果中缺失出组试验时为 null
+   */
+  public List<DispatchExperiment> getOutList(String param) {
+    if (outList == null) {
+      return null;
+    }
+    List<DispatchExperiment> experiments = outListIndex.get(param);
+    return experiments == null ? Collections.<DispatchExperiment>emptyList() : experiments;
+  }
+
+  public boolean isSuccess() {
+    return SensorsABTestConst.SUCCESS.equals(status);
+  }
+
+  private static Map<String, List<DispatchExperiment>> indexByParam(List<DispatchExperiment> outList) {
+    if (outList == null || outList.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, List<DispatchExperiment>> index = new HashMap<>();
+    for (DispatchExperiment experiment : outList) {
+      Map<String, Variable> variableMap = experiment.getVariableMap();
+      if (variableMap == null) {
+        continue;
+      }
+      for (String param : variableMap.keySet()) {
+        List<DispatchExperiment> experiments = index.get(param);
+        if (experiments == null) {
+          // 同一参数通常只出现在一个出组试验中
+          experiments = new ArrayList<>(1);
+          index.put(param, experiments);
+        }
+        experiments.add(experiment);
+      }
+    }
+    return index;
+  }
+}
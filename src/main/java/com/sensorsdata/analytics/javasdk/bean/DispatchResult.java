@@ -0,0 +1,30 @@
+package com.sensorsdata.analytics.javasdk.bean;
+
+import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperiment;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 一次分流请求的结果，合并请求时由发起请求的线程解析一次后共享给所有等待的线程
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:02
+ */
+@Getter
+@AllArgsConstructor
+public class DispatchResult {
+
+  public static final DispatchResult EMPTY = new DispatchResult(null, null);
+
+  /**
+   * 解析后的分流服务返回结果，请求失败时为 null
+   */
+  private final DispatchResponseBody response;
+
+  /**
+   * 解析后的用户分流结果（未按 cacheable 过滤）
+   */
+  private final UserHitExperiment userHitExperiment;
+}
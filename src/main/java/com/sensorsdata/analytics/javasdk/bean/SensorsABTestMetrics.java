@@ -0,0 +1,134 @@
+package com.sensorsdata.analytics.javasdk.bean;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * SDK 运行指标的只读快照，由 {@link com.sensorsdata.analytics.javasdk.ISensorsABTest#getMetrics()} 生成
+ * <p>各指标在生成快照时分别读取，相互之间不保证处于同一时刻；未开启对应功能时数值指标为 0</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 14:05
+ */
+@Getter
+@Builder
+@ToString
+public class SensorsABTestMetrics {
+
+  /**
+   * 加入相同用户的在途分流请求、未单独发起网络请求的次数
+   */
+  private final long coalescedDispatchCount;
+
+  /**
+   * 是否开启了异步上报
+   */
+  private final boolean asyncTrackEnabled;
+
+  /**
+   * 异步上报队列中等待上报的批次数
+   */
+  private final int asyncTrackQueueDepth;
+
+  /**
+   * 异步上报队列容量
+   */
+  private final int asyncTrackQueueCapacity;
+
+  /**
+   * 累计写入异步上报队列的批次数
+   */
+  private final long asyncTrackEnqueuedCount;
+
+  /**
+   * DROP_OLDEST 策略下被挤出队列的批次数
+   */
+  private final long asyncTrackDroppedOldestCount;
+
+  /**
+   * DROP_NEWEST 策略下未能写入队列的批次数
+   */
+  private final long asyncTrackDroppedNewestCount;
+
+  /**
+   * 异步上报队列已满时写入本地溢写队列、未被丢弃的批次数
+   */
+  private final long asyncTrackSpilledCount;
+
+  /**
+   * 后台线程上报成功的批次数
+   */
+  private final long asyncTrackTrackedCount;
+
+  /**
+   * 后台线程上报失败的批次数
+   */
+  private final long asyncTrackFailedCount;
+
+  /**
+   * 请求线程写入异步上报队列的平均耗时 ns
+   */
+  private final long asyncTrackAverageEnqueueNanos;
+
+  /**
+   * 请求线程写入异步上报队列的最大耗时 ns
+   */
+  private final long asyncTrackMaxEnqueueNanos;
+
+  /**
+   * 分流请求熔断器的当前状态，未开启熔断时为 null
+   */
+  private final CircuitBreakerStateEnum circuitBreakerState;
+
+  /**
+   * 熔断器进入 OPEN 状态的次数
+   */
+  private final long circuitBreakerOpenedCount;
+
+  /**
+   * 熔断器进入 HALF_OPEN 状态的次数
+   */
+  private final long circuitBreakerHalfOpenedCount;
+
+  /**
+   * 熔断器由 HALF_OPEN 恢复为 CLOSED 的次数
+   */
+  private final long circuitBreakerClosedCount;
+
+  /**
+   * 被熔断器直接拒绝的分流请求次数
+   */
+  private final long circuitBreakerShortCircuitedCalls;
+
+  /**
+   * 当前保留的试验组配置数量
+   */
+  private final int experimentGroupConfigCount;
+
+  /**
+   * 试验组配置元数据估算占用的内存（字节），生成快照时遍历全部配置估算
+   */
+  private final long experimentGroupConfigMemory;
+
+  /**
+   * 未命中结果缓存的条目数
+   */
+  private final long negativeCacheSize;
+
+  /**
+   * 未命中结果缓存的命中次数
+   */
+  private final long negativeCacheHitCount;
+
+  /**
+   * 未命中结果缓存的未命中次数
+   */
+  private final long negativeCacheMissCount;
+
+  /**
+   * 未命中结果缓存估算占用的内存（字节）
+   */
+  private final long negativeCacheMemory;
+}
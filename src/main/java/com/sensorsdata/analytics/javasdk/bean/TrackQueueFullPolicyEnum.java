@@ -0,0 +1,16 @@
+package com.sensorsdata.analytics.javasdk.bean;
+
+/**
+ * 异步上报队列已满时的处理策略
+ * <p>BLOCK：请求线程等待队列出现空位；DROP_OLDEST：丢弃队列中最早的事件后写入；DROP_NEWEST：直接丢弃本次事件，
+ * 请求线程不等待</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:17
+ */
+public enum TrackQueueFullPolicyEnum {
+  BLOCK,
+  DROP_OLDEST,
+  DROP_NEWEST
+}
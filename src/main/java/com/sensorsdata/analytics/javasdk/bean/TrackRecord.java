@@ -12,10 +12,11 @@ import com.sensorsdata.analytics.javasdk.bean.cache.ExperimentGroupConfig;
 import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperimentGroup;
 import com.sensorsdata.analytics.javasdk.bean.cache.UserOutExperimentGroup;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.Map;
+
 @Data
 @Builder
 public class TrackRecord {
@@ -34,7 +35,10 @@ public class TrackRecord {
 
   private boolean cacheable;
 
-  private JsonNode src;
+  /**
+   * $ABTestTrigger 事件的扩展字段
+   */
+  private Map<String, String> ext;
 
   private boolean isWhiteList;
 
@@ -50,7 +54,7 @@ public class TrackRecord {
         .subjectId(userHitExperimentGroup.getSubjectId())
         .subjectName(experimentGroupConfig.getSubjectName())
         .cacheable(userHitExperimentGroup.isCacheable())
-        .src(experimentGroupConfig.getSrc())
+        .ext(experimentGroupConfig.getExt())
         .isWhiteList(userHitExperimentGroup.isWhiteList())
         .build();
   }
@@ -65,7 +69,7 @@ public class TrackRecord {
         .abtestExperimentResultId(userOutExperimentGroup.getAbtestExperimentResultId())
         .abtestExperimentId(userOutExperimentGroup.getAbtestExperimentId())
         .abtestExperimentGroupId(userOutExperimentGroup.getAbtestExperimentGroupId())
-        .src(userOutExperimentGroup.getSrc())
+        .ext(userOutExperimentGroup.getExt())
         .cacheable(false)
         .isWhiteList(userOutExperimentGroup.isWhiteList())
         .build();
@@ -0,0 +1,16 @@
+package com.sensorsdata.analytics.javasdk.bean;
+
+/**
+ * 本地溢写队列落盘（fsync）策略
+ * <p>ALWAYS：每次写入与确认后立即落盘，宕机不丢失已写入的事件；INTERVAL：按固定间隔落盘，宕机最多丢失一个间隔内写入的
+ * 事件，重启后最多重复上报一个间隔内已确认的事件；NEVER：由操作系统决定何时落盘，仅进程崩溃时不丢失</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:43
+ */
+public enum TrackSpillFsyncPolicyEnum {
+  ALWAYS,
+  INTERVAL,
+  NEVER
+}
@@ -0,0 +1,41 @@
+package com.sensorsdata.analytics.javasdk.bean;
+
+/**
+ * 试验参数类型
+ * <p>UNKNOWN 表示服务端返回了 SDK 不支持的类型，此类参数总是返回默认值</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:02
+ */
+public enum VariableTypeEnum {
+  STRING,
+  INTEGER,
+  JSON,
+  BOOLEAN,
+  UNKNOWN;
+
+  /**
+   * 根据服务端返回的类型名获取参数类型
+   *
+   * @param type 类型名
+   * @return 参数类型，为 null 或不支持时返回 UNKNOWN
+   */
+  public static VariableTypeEnum of(String type) {
+    if (type == null) {
+      return UNKNOWN;
+    }
+    switch (type) {
+      case "STRING":
+        return STRING;
+      case "INTEGER":
+        return INTEGER;
+      case "JSON":
+        return JSON;
+      case "BOOLEAN":
+        return BOOLEAN;
+      default:
+        return UNKNOWN;
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.sensorsdata.analytics.javasdk.bean;
+
+/**
+ * 分流请求的传输数据格式
+ * <p>SMILE 为 Jackson 的二进制 JSON 格式，重复出现的字段名以回引用编码，体积与编解码开销均小于 JSON；
+ * 需要引入 jackson-dataformat-smile 依赖，服务端不支持时自动回退为 JSON</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:20
+ */
+public enum WireFormatEnum {
+  JSON("application/json"),
+  SMILE("application/x-jackson-smile");
+
+  String contentType;
+
+  WireFormatEnum(String contentType) {
+    this.contentType = contentType;
+  }
+
+  public String getContentType() {
+    return this.contentType;
+  }
+}
@@ -1,36 +1,111 @@
 package com.sensorsdata.analytics.javasdk.bean.cache;
 
 
-import com.fasterxml.jackson.databind.JsonNode;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
-@NoArgsConstructor
-@AllArgsConstructor
-@Data
-@Builder
-public class ExperimentGroupConfig implements Serializable {
+/**
+ * 试验组配置元数据
+ * <p>不可变的版本快照，配置变化时生成新的版本整体替换，读取方持有的快照始终是某一版本的完整内容</p>
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class ExperimentGroupConfig implements Serializable {
 
   private static final long serialVersionUID = -1848565541802260006L;
 
-  private String abtestExperimentId;
-  private String abtestExperimentGroupId;
-  private boolean isControlGroup;
+  private final String abtestExperimentId;
+  private final String abtestExperimentGroupId;
+  private final boolean isControlGroup;
 
-  private String abtestExperimentResultId;
+  private final String abtestExperimentResultId;
   //key -> paramName, value -> Variable
-  private Map<String, Variable> variableMap;
+  private final Map<String, Variable> variableMap;
 
-  private String abtestExperimentVersion;
+  private final String abtestExperimentVersion;
 
-  private transient JsonNode src;
+  /**
+   * $ABTestTrigger 事件的扩展字段，只包含埋点配置要求的字段
+   */
+  private final Map<String, String> ext;
 
-  private String subjectName;
+  private final String subjectName;
 
+  /**
+   * 配置版本，同一试验组配置每次替换加 1
+   */
+  private final long version;
 
+  @Builder(toBuilder = true)
+  private ExperimentGroupConfig(String abtestExperimentId, String abtestExperimentGroupId, boolean isControlGroup,
+      String abtestExperimentResultId, Map<String, Variable> variableMap, String abtestExperimentVersion,
+      Map<String, String> ext, String subjectName, long version) {
+    this.abtestExperimentId = abtestExperimentId;
+    this.abtestExperimentGroupId = abtestExperimentGroupId;
+    this.isControlGroup = isControlGroup;
+    this.abtestExperimentResultId = abtestExperimentResultId;
+    this.variableMap = variableMap == null ? null : Collections.unmodifiableMap(new HashMap<>(variableMap));
+    this.abtestExperimentVersion = abtestExperimentVersion;
+    this.ext = ext == null || ext.isEmpty() ? Collections.<String, String>emptyMap()
+        : Collections.unmodifiableMap(new HashMap<>(ext));
+    this.subjectName = subjectName;
+    this.version = version;
+  }
+
+  /**
+   * 是否与另一版本的可变部分（是否对照组、试验参数、扩展字段）相同
+   *
+   * @param other 另一版本的配置
+   * @return 是否相同
+   */
+  public boolean sameContent(ExperimentGroupConfig other) {
+    return isControlGroup == other.isControlGroup
+        && (variableMap == null ? other.variableMap == null : variableMap.equals(other.variableMap))
+        && ext.equals(other.ext);
+  }
+
+  /**
+   * 估算配置快照占用的内存，包括试验参数与扩展字段
+   *
+   * @return 估算的字节数
+   */
+  public long estimateMemory() {
+    // 对象本身约 56 字节
+    long bytes = 56 + UserHitExperiment.estimateString(abtestExperimentId)
+        + UserHitExperiment.estimateString(abtestExperimentGroupId)
+        + UserHitExperiment.estimateString(abtestExperimentResultId)
+        + UserHitExperiment.estimateString(abtestExperimentVersion)
+        + UserHitExperiment.estimateString(subjectName);
+    if (variableMap != null) {
+      // 只读包装与 HashMap 对象及桶数组约 80 字节
+      bytes += 80;
+      for (Map.Entry<String, Variable> entry : variableMap.entrySet()) {
+        // Map 节点约 32 字节，Variable 对象约 32 字节，整数、布尔值解码后共享或约 16 字节
+        Variable variable = entry.getValue();
+        bytes += 80 + UserHitExperiment.estimateString(entry.getKey());
+        if (variable != null) {
+          bytes += UserHitExperiment.estimateString(variable.getName())
+              + UserHitExperiment.estimateString(variable.getType())
+              + UserHitExperiment.estimateString(variable.getValue());
+        }
+      }
+    }
+    if (!ext.isEmpty()) {
+      // 只读包装与 HashMap 对象及桶数组约 80 字节
+      bytes += 80;
+      for (Map.Entry<String, String> entry : ext.entrySet()) {
+        // Map 节点约 32 字节，字段名与埋点配置共享
+        bytes += 32 + UserHitExperiment.estimateString(entry.getValue());
+      }
+    }
+    return bytes;
+  }
 }
@@ -0,0 +1,304 @@
+package com.sensorsdata.analytics.javasdk.bean.cache;
+
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+
+import com.google.common.collect.Ordering;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * 用户维度缓存的 key
+ * <p>对用户标识（distinctId、isLoginId、customIds）以及可选的限定字段（试验 ID、试验参数名等）直接按字符流计算
+ * 128 位 Murmur3 哈希，不再拼接中间字符串、也不再计算 MD5；字符串以长度前缀编码，避免不同字段拼接后产生歧义。
+ * customIds 按名称自然顺序参与计算，逻辑上相同的 customIds 得到相同的 key</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:39
+ */
+public final class UserCacheKey implements Serializable {
+
+  private static final long serialVersionUID = -3518842016587394171L;
+
+  private static final Comparator<String> NAME_ORDER = Ordering.natural().nullsFirst();
+
+  private final long high;
+
+  private final long low;
+
+  UserCacheKey(long high, long low) {
+    this.high = high;
+    this.low = low;
+  }
+
+  /**
+   * 用户分流结果缓存 key
+   *
+   * @param userInfo 用户标识信息
+   * @return 缓存 key
+   */
+  public static UserCacheKey of(UserInfo userInfo) {
+    Murmur3Hasher hasher = new Murmur3Hasher();
+    putUserInfo(hasher, userInfo);
+    return hasher.hash();
+  }
+
+  /**
+   * 用户在某个限定字段上的缓存 key，例如用户与试验 ID、用户与试验参数名
+   *
+   * @param userInfo  用户标识信息
+   * @param qualifier 限定字段
+   * @return 缓存 key
+   */
+  public static UserCacheKey of(UserInfo userInfo, String qualifier) {
+    Murmur3Hasher hasher = new Murmur3Hasher();
+    putUserInfo(hasher, userInfo);
+    hasher.putString(qualifier);
+    return hasher.hash();
+  }
+
+  /**
+   * 用户在某组自定义属性与限定字段上的缓存 key，例如携带自定义属性的分流请求、用户在试验参数上的未命中结果
+   * <p>自定义属性按名称自然顺序参与计算，属性值连同类型一起编码，列表逐个元素编码</p>
+   *
+   * @param userInfo   用户标识信息
+   * @param properties 自定义属性，为空时与不携带属性相同
+   * @param qualifier  限定字段
+   * @return 缓存 key
+   */
+  public static UserCacheKey of(UserInfo userInfo, Map<String, ?> properties, String qualifier) {
+    Murmur3Hasher hasher = new Murmur3Hasher();
+    putUserInfo(hasher, userInfo);
+    putProperties(hasher, properties);
+    hasher.putString(qualifier);
+    return hasher.hash();
+  }
+
+  private static void putUserInfo(Murmur3Hasher hasher, UserInfo userInfo) {
+    hasher.putString(userInfo.getDistinctId());
+    hasher.putChar(userInfo.isLoginId() ? '1' : '0');
+    Map<String, String> customIds = userInfo.getCustomIds();
+    if (customIds == null || customIds.isEmpty()) {
+      hasher.putInt(0);
+      return;
+    }
+    hasher.putInt(customIds.size());
+    if (customIds.size() == 1 || isNaturallySorted(customIds)) {
+      for (Map.Entry<String, String> entry : customIds.entrySet()) {
+        hasher.putString(entry.getKey());
+        hasher.putString(entry.getValue());
+      }
+      return;
+    }
+    // 未经规范化的 customIds 按名称排序后计算，保证与 Map 实现、插入顺序无关
+    String[] names = customIds.keySet().toArray(new String[customIds.size()]);
+    Arrays.sort(names, NAME_ORDER);
+    for (String name : names) {
+      hasher.putString(name);
+      hasher.putString(customIds.get(name));
+    }
+  }
+
+  private static void putProperties(Murmur3Hasher hasher, Map<String, ?> properties) {
+    if (properties == null || properties.isEmpty()) {
+      hasher.putInt(0);
+      return;
+    }
+    hasher.putInt(properties.size());
+    String[] names = properties.keySet().toArray(new String[properties.size()]);
+    Arrays.sort(names, NAME_ORDER);
+    for (String name : names) {
+      hasher.putString(name);
+      putValue(hasher, properties.get(name));
+    }
+  }
+
+  /**
+   * 以类型标记加取值编码属性值，字符串 "1" 与数字 1 得到不同的 key
+   */
+  private static void putValue(Murmur3Hasher hasher, Object value) {
+    if (value == null) {
+      hasher.putChar('0');
+    } else if (value instanceof String) {
+      hasher.putChar('S');
+      hasher.putString((String) value);
+    } else if (value instanceof Boolean) {
+      hasher.putChar('B');
+      hasher.putChar((Boolean) value ? '1' : '0');
+    } else if (value instanceof Number) {
+      hasher.putChar('N');
+      hasher.putString(value.toString());
+    } else if (value instanceof Date) {
+      long time = ((Date) value).getTime();
+      hasher.putChar('D');
+      hasher.putInt((int) time);
+      hasher.putInt((int) (time >>> 32));
+    } else if (value instanceof List<?>) {
+      List<?> list = (List<?>) value;
+      hasher.putChar('L');
+      hasher.putInt(list.size());
+      for (Object element : list) {
+        putValue(hasher, element);
+      }
+    } else {
+      hasher.putChar('O');
+      hasher.putString(value.getClass().getName());
+      hasher.putString(value.toString());
+    }
+  }
+
+  private static boolean isNaturallySorted(Map<String, String> customIds) {
+    return customIds instanceof SortedMap && ((SortedMap<String, String>) customIds).comparator() == null;
+  }
+
+  public long getHigh() {
+    return high;
+  }
+
+  public long getLow() {
+    return low;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof UserCacheKey)) {
+      return false;
+    }
+    UserCacheKey that = (UserCacheKey) o;
+    return high == that.high && low == that.low;
+  }
+
+  @Override
+  public int hashCode() {
+    // 哈希值已充分混合，直接截取即可
+    return (int) high;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%016x%016x", high, low);
+  }
+
+  /**
+   * Murmur3 x64 128 位哈希的流式实现，按小端序 UTF-16 处理字符，与 Guava Hashing.murmur3_128() 的
+   * putUnencodedChars 结果一致；每 16 字节混合一次，不保留输入数据
+   */
+  static final class Murmur3Hasher {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private long h1;
+
+    private long h2;
+
+    private long k1;
+
+    private long k2;
+
+    /**
+     * 当前 16 字节块中已填充的位数
+     */
+    private int bits;
+
+    private long length;
+
+    void putChar(char c) {
+      if (bits < 64) {
+        k1 |= (c & 0xffffL) << bits;
+      } else {
+        k2 |= (c & 0xffffL) << (bits - 64);
+      }
+      bits += 16;
+      length += 2;
+      if (bits == 128) {
+        mixBlock();
+      }
+    }
+
+    void putInt(int value) {
+      putChar((char) value);
+      putChar((char) (value >>> 16));
+    }
+
+    /**
+     * 以长度前缀编码字符串，null 的长度记为 -1
+     */
+    void putString(String value) {
+      if (value == null) {
+        putInt(-1);
+        return;
+      }
+      int len = value.length();
+      putInt(len);
+      for (int i = 0; i < len; i++) {
+        putChar(value.charAt(i));
+      }
+    }
+
+    UserCacheKey hash() {
+      if (bits > 0) {
+        h1 ^= mixK1(k1);
+        h2 ^= mixK2(k2);
+      }
+      h1 ^= length;
+      h2 ^= length;
+      h1 += h2;
+      h2 += h1;
+      h1 = fmix64(h1);
+      h2 = fmix64(h2);
+      h1 += h2;
+      h2 += h1;
+      return new UserCacheKey(h1, h2);
+    }
+
+    private void mixBlock() {
+      h1 ^= mixK1(k1);
+      h1 = Long.rotateLeft(h1, 27);
+      h1 += h2;
+      h1 = h1 * 5 + 0x52dce729;
+
+      h2 ^= mixK2(k2);
+      h2 = Long.rotateLeft(h2, 31);
+      h2 += h1;
+      h2 = h2 * 5 + 0x38495ab5;
+
+      k1 = 0;
+      k2 = 0;
+      bits = 0;
+    }
+
+    private static long mixK1(long k1) {
+      k1 *= C1;
+      k1 = Long.rotateLeft(k1, 31);
+      k1 *= C2;
+      return k1;
+    }
+
+    private static long mixK2(long k2) {
+      k2 *= C2;
+      k2 = Long.rotateLeft(k2, 33);
+      k2 *= C1;
+      return k2;
+    }
+
+    private static long fmix64(long k) {
+      k ^= k >>> 33;
+      k *= 0xff51afd7ed558ccdL;
+      k ^= k >>> 33;
+      k *= 0xc4ceb9fe1a85ec53L;
+      k ^= k >>> 33;
+      return k;
+    }
+  }
+}
@@ -31,6 +31,48 @@ public class UserHitExperiment implements Serializable {
     return userHitExperimentMap;
   }
 
+  /**
+   * 查找包含该试验参数的命中试验组
+   *
+   * @param param 试验参数名
+   * @return 命中试验组，没有试验包含该参数时返回 null
+   */
+  public UserHitExperimentGroup getUserHitExperimentGroup(String param) {
+    for (UserHitExperimentGroup userHitExperimentGroup : userHitExperimentMap.values()) {
+      Map<String, Variable> variableMap = userHitExperimentGroup.getExperimentGroupConfig().getVariableMap();
+      if (variableMap != null && variableMap.get(param) != null) {
+        return userHitExperimentGroup;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 估算占用的内存，包括命中试验组对象及其 subjectId，不包括共享的试验组配置
+   *
+   * @return 估算的字节数
+   */
+  public long estimateMemory() {
+    // 对象本身约 32 字节，ConcurrentHashMap 对象及桶数组约 80 字节
+    long bytes = 112;
+    for (Map.Entry<String, UserHitExperimentGroup> entry : userHitExperimentMap.entrySet()) {
+      // Map 节点约 32 字节，试验 ID 字符串，UserHitExperimentGroup 对象约 24 字节，subjectId 字符串
+      bytes += 56 + estimateString(entry.getKey()) + estimateString(entry.getValue().getSubjectId());
+    }
+    return bytes;
+  }
+
+  /**
+   * 估算字符串占用的内存
+   *
+   * @param value 字符串
+   * @return 估算的字节数，null 时为 0
+   */
+  public static long estimateString(String value) {
+    // String 对象与 char 数组头部约 40 字节
+    return value == null ? 0 : 40 + 2L * value.length();
+  }
+
   public void setUserHitExperimentMap(
       Map<String, UserHitExperimentGroup> userHitExperimentMap) {
     this.userHitExperimentMap = userHitExperimentMap;
@@ -5,7 +5,6 @@ package com.sensorsdata.analytics.javasdk.bean.cache;
  * @version 1.0.0
  * @since 2023/1/20 3:31 PM
  */
-import com.fasterxml.jackson.databind.JsonNode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -32,5 +31,8 @@ public class UserOutExperimentGroup {
 
   private Map<String, Variable> variableMap;
 
-  private JsonNode src;
+  /**
+   * $ABTestTrigger 事件的扩展字段，只包含埋点配置要求的字段
+   */
+  private Map<String, String> ext;
 }
@@ -1,32 +1,141 @@
 package com.sensorsdata.analytics.javasdk.bean.cache;
 
+import com.sensorsdata.analytics.javasdk.bean.VariableTypeEnum;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Builder;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 /**
  * 试验组信息
+ * <p>创建时按类型解码参数值，获取试验结果时只需判断默认值类型；无法解码的值（如非法的整数）视为无效，总是返回默认值</p>
  *
  * @author yanming@sensorsdata.cn
  * @version 1.0.0
  * @since 2022/11/22 3:18 PM
  */
-@Data
-@Builder
+@Getter
+@ToString(of = {"name", "type", "value"})
+@EqualsAndHashCode(of = {"name", "type", "value"})
 public class Variable implements Serializable {
 
 
   private static final long serialVersionUID = -7528133620595246565L;
 
-  private String name;   //参数名
-  private String type;   //参数类型
-  private String value;  //参数值
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+  private final String name;   //参数名
+  private final String type;   //参数类型
+  private final String value;  //参数值
+
+  /**
+   * 解析后的参数类型
+   */
+  private final VariableTypeEnum variableType;
 
+  /**
+   * 按类型解码后的参数值：Integer、Boolean 或 String，无效时为 null
+   */
+  private final Object decodedValue;
 
+  /**
+   * JSON 类型参数值解析后的树，首次使用时解析
+   */
+  private transient volatile JsonNode jsonValue;
+
+  @Builder
   public Variable(String name, String type, String value) {
     this.name = name;
     this.type = type;
     this.value = value;
+    this.variableType = VariableTypeEnum.of(type);
+    this.decodedValue = decode(variableType, value);
+  }
+
+  /**
+   * 获取与默认值类型匹配的参数值
+   *
+   * @param defaultValue 默认值
+   * @param <T>          默认值类型
+   * @return 参数类型与默认值类型匹配且参数值有效时返回参数值，否则返回 null
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T matchValue(T defaultValue) {
+    switch (variableType) {
+      case STRING:
+        if (defaultValue instanceof String) {
+          return (T) decodedValue;
+        }
+        break;
+      case INTEGER:
+        if (defaultValue instanceof Integer) {
+          return (T) decodedValue;
+        }
+        break;
+      case JSON:
+        if (defaultValue instanceof String && ((String) defaultValue).startsWith("{")
+            && ((String) defaultValue).endsWith("}")) {
+          return (T) decodedValue;
+        }
+        break;
+      case BOOLEAN:
+        if (defaultValue instanceof Boolean) {
+          return (T) decodedValue;
+        }
+        break;
+      //未命中类型
+      default:
+        break;
+    }
+    return null;
+  }
+
+  /**
+   * JSON 类型参数值解析后的树
+   *
+   * @return 解析后的树，非 JSON 类型或无法解析时返回 null
+   */
+  public JsonNode getJsonValue() {
+    if (variableType != VariableTypeEnum.JSON || value == null) {
+      return null;
+    }
+    JsonNode node = jsonValue;
+    if (node == null) {
+      try {
+        node = JSON_MAPPER.readTree(value);
+      } catch (IOException e) {
+        return null;
+      }
+      jsonValue = node;
+    }
+    return node;
+  }
+
+  private static Object decode(VariableTypeEnum variableType, String value) {
+    switch (variableType) {
+      case INTEGER:
+        try {
+          return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+          return null;
+        }
+      case BOOLEAN:
+        // 只接受 true、false，其他值视为无效，不能当作 false
+        if ("true".equalsIgnoreCase(value)) {
+          return Boolean.TRUE;
+        }
+        return "false".equalsIgnoreCase(value) ? Boolean.FALSE : null;
+      case STRING:
+      case JSON:
+        return value;
+      default:
+        return null;
+    }
   }
 }
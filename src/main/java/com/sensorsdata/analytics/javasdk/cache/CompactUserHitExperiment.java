@@ -0,0 +1,309 @@
+package com.sensorsdata.analytics.javasdk.cache;
+
+import com.sensorsdata.analytics.javasdk.bean.cache.ExperimentGroupConfig;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperiment;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperimentGroup;
+import com.sensorsdata.analytics.javasdk.bean.cache.Variable;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * 写入缓存的用户分流结果的紧凑表示
+ * <p>每个命中的试验组只保存一个 int：高位为 {@link ExperimentGroupConfigRegistry} 中的配置编号，低两位为白名单、可缓存标记，
+ * 按配置编号升序排列；subjectId 只保存一份，各试验组不同时才额外保存。创建后不可修改</p>
+ * <p>按参数名查找使用每个用户自己的参数索引：开放寻址的 int 数组，每个位置高 24 位为参数名的哈希值，低 8 位为试验组序号
+ * 加 1（0 表示空位），查找只需一次哈希探测，命中后在配置快照上确认参数存在。创建后有试验组配置的参数名发生变化、或命中试验组
+ * 超过 {@link #MAX_INDEXED_GROUPS} 个时，改为通过注册表的参数索引查找</p>
+ * <p>只作为缓存条目使用，依赖所属缓存的试验组配置注册表，不支持序列化；需要可修改、可序列化的分流结果时使用
+ * {@link com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperiment}</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:50
+ */
+public final class CompactUserHitExperiment {
+
+  private static final AtomicIntegerFieldUpdater<CompactUserHitExperiment> REFRESHING =
+      AtomicIntegerFieldUpdater.newUpdater(CompactUserHitExperiment.class, "refreshing");
+
+  private static final int WHITE_LIST = 1;
+
+  private static final int CACHEABLE = 1 << 1;
+
+  private static final int FLAG_BITS = 2;
+
+  private static final int GROUP_BITS = 8;
+
+  private static final int GROUP_MASK = (1 << GROUP_BITS) - 1;
+
+  /**
+   * 参数索引能表示的最大试验组数量
+   */
+  private static final int MAX_INDEXED_GROUPS = GROUP_MASK - 1;
+
+  private final ExperimentGroupConfigRegistry registry;
+
+  private final int[] assignments;
+
+  private final String subjectId;
+
+  /**
+   * 与 subjectId 不同的试验组才有值，全部相同时为 null
+   */
+  private final String[] subjectIds;
+
+  /**
+   * 参数索引，命中试验组过多时为 null
+   */
+  private final int[] paramTable;
+
+  /**
+   * 创建参数索引时注册表的参数名变化次数
+   */
+  private final long paramsVersion;
+
+  /**
+   * 创建时间，以此判断是否需要后台刷新
+   */
+  private volatile long createTime;
+
+  /**
+   * 是否已有后台刷新在进行（1 为刷新中），保证同一缓存结果只触发一次刷新
+   */
+  private volatile int refreshing;
+
+  /**
+   * @param registry  试验组配置注册表
+   * @param configIds 各命中试验组的配置编号，与 groups 一一对应
+   * @param groups    命中试验组
+   */
+  CompactUserHitExperiment(ExperimentGroupConfigRegistry registry, int[] configIds, UserHitExperimentGroup[] groups) {
+    this.registry = registry;
+    this.createTime = System.currentTimeMillis();
+    int count = configIds.length;
+    long[] order = new long[count];
+    for (int i = 0; i < count; i++) {
+      order[i] = ((long) configIds[i] << 32) | i;
+    }
+    Arrays.sort(order);
+    this.assignments = new int[count];
+    this.subjectId = count == 0 ? null : groups[(int) order[0]].getSubjectId();
+    String[] differentSubjectIds = null;
+    for (int i = 0; i < count; i++) {
+      UserHitExperimentGroup group = groups[(int) order[i]];
+      int flags = (group.isWhiteList() ? WHITE_LIST : 0) | (group.isCacheable() ? CACHEABLE : 0);
+      assignments[i] = (int) (order[i] >>> 32) << FLAG_BITS | flags;
+      if (!StringUtils.equals(subjectId, group.getSubjectId())) {
+        if (differentSubjectIds == null) {
+          differentSubjectIds = new String[count];
+        }
+        differentSubjectIds[i] = group.getSubjectId();
+      }
+    }
+    this.subjectIds = differentSubjectIds;
+    // 先记录变化次数再读取配置，之后参数名发生变化时查找会改用注册表索引
+    this.paramsVersion = registry.getParamsVersion();
+    this.paramTable = count > MAX_INDEXED_GROUPS ? null : buildParamTable();
+  }
+
+  /**
+   * 按配置编号升序加入参数。多个试验组包含同一参数时，线性探测先遇到编号最小的，与注册表索引的查找顺序一致
+   */
+  private int[] buildParamTable() {
+    List<String> params = new ArrayList<>();
+    List<Integer> indexes = new ArrayList<>();
+    for (int i = 0; i < assignments.length; i++) {
+      ExperimentGroupConfig config = registry.get(assignments[i] >>> FLAG_BITS);
+      Map<String, Variable> variableMap = config == null ? null : config.getVariableMap();
+      if (variableMap != null) {
+        for (String param : variableMap.keySet()) {
+          params.add(param);
+          indexes.add(i);
+        }
+      }
+    }
+    // 装载因子不超过 0.75
+    int capacity = Integer.highestOneBit(Math.max(2, params.size() * 4 / 3 + 1) - 1) << 1;
+    int[] table = new int[capacity];
+    for (int i = 0; i < params.size(); i++) {
+      int slot = slot(params.get(i), capacity);
+      while (table[slot] != 0) {
+        slot = (slot + 1) & (capacity - 1);
+      }
+      table[slot] = (hash(params.get(i)) & ~GROUP_MASK) | (indexes.get(i) + 1);
+    }
+    return table;
+  }
+
+  /**
+   * 按 experimentId 展开为 Map，每次调用都会创建新的对象，仅用于调试与兼容，查找试验参数请使用
+   * {@link #getUserHitExperimentGroup(String)}
+   *
+   * @return 只读的命中试验组，key 为 experimentId
+   */
+  public Map<String, UserHitExperimentGroup> getUserHitExperimentMap() {
+    Map<String, UserHitExperimentGroup> userHitExperimentMap = new LinkedHashMap<>();
+    for (int i = 0; i < assignments.length; i++) {
+      ExperimentGroupConfig config = registry.get(assignments[i] >>> FLAG_BITS);
+      if (config != null) {
+        userHitExperimentMap.put(config.getAbtestExperimentId(), toUserHitExperimentGroup(i, config));
+      }
+    }
+    return Collections.unmodifiableMap(userHitExperimentMap);
+  }
+
+  /**
+   * 查找包含该试验参数的命中试验组
+   *
+   * @param param 试验参数名
+   * @return 命中试验组，没有试验包含该参数时返回 null
+   */
+  public UserHitExperimentGroup getUserHitExperimentGroup(String param) {
+    int[] table = paramTable;
+    if (table == null || paramsVersion != registry.getParamsVersion()) {
+      return getUserHitExperimentGroupFromRegistry(param);
+    }
+    int mask = table.length - 1;
+    for (int slot = slot(param, table.length); table[slot] != 0; slot = (slot + 1) & mask) {
+      int entry = table[slot];
+      if (matches(entry, param)) {
+        int index = (entry & GROUP_MASK) - 1;
+        ExperimentGroupConfig config = registry.get(assignments[index] >>> FLAG_BITS);
+        Map<String, Variable> variableMap = config == null ? null : config.getVariableMap();
+        if (variableMap != null && variableMap.get(param) != null) {
+          return toUserHitExperimentGroup(index, config);
+        }
+      }
+    }
+    return null;
+  }
+
+  private UserHitExperimentGroup getUserHitExperimentGroupFromRegistry(String param) {
+    for (int configId : registry.getConfigIds(param)) {
+      int index = indexOf(configId);
+      if (index >= 0) {
+        // 参数索引在配置替换之后更新，命中后在读取到的配置快照上确认参数存在
+        ExperimentGroupConfig config = registry.get(configId);
+        Map<String, Variable> variableMap = config == null ? null : config.getVariableMap();
+        if (variableMap != null && variableMap.get(param) != null) {
+          return toUserHitExperimentGroup(index, config);
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 估算占用的内存，不包括共享的试验组配置
+   *
+   * @return 估算的字节数
+   */
+  public long estimateMemory() {
+    // 对象本身约 48 字节，int 数组头部 16 字节
+    long bytes = 64 + 4L * assignments.length + UserHitExperiment.estimateString(subjectId);
+    if (paramTable != null) {
+      bytes += 16 + 4L * paramTable.length;
+    }
+    if (subjectIds != null) {
+      bytes += 16 + 4L * subjectIds.length;
+      for (String id : subjectIds) {
+        bytes += UserHitExperiment.estimateString(id);
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * @return 命中的试验组数量
+   */
+  public int size() {
+    return assignments.length;
+  }
+
+  public long getCreateTime() {
+    return createTime;
+  }
+
+  public void setCreateTime(long createTime) {
+    this.createTime = createTime;
+  }
+
+  /**
+   * 标记开始后台刷新
+   *
+   * @return 是否由当前调用方负责刷新，已有刷新在进行时返回 false
+   */
+  public boolean startRefresh() {
+    return REFRESHING.compareAndSet(this, 0, 1);
+  }
+
+  /**
+   * 刷新失败时清除标记，允许后续请求再次触发刷新
+   */
+  public void cancelRefresh() {
+    refreshing = 0;
+  }
+
+  /**
+   * 缓存结果被淘汰或替换后，释放对试验组配置的引用
+   */
+  void releaseConfigs() {
+    for (int assignment : assignments) {
+      registry.release(assignment >>> FLAG_BITS);
+    }
+  }
+
+  private int indexOf(int configId) {
+    int low = 0;
+    int high = assignments.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midId = assignments[mid] >>> FLAG_BITS;
+      if (midId < configId) {
+        low = mid + 1;
+      } else if (midId > configId) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * 参数索引中哈希值相同的位置，仍需在配置上确认参数名
+   */
+  private static boolean matches(int entry, String param) {
+    return (entry & ~GROUP_MASK) == (hash(param) & ~GROUP_MASK);
+  }
+
+  /**
+   * 打散 String.hashCode 的高位，作为索引中保存的哈希值
+   */
+  private static int hash(String param) {
+    int h = param.hashCode() * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private static int slot(String param, int capacity) {
+    return (hash(param) >>> GROUP_BITS) & (capacity - 1);
+  }
+
+  private UserHitExperimentGroup toUserHitExperimentGroup(int index, ExperimentGroupConfig config) {
+    int assignment = assignments[index];
+    return UserHitExperimentGroup.builder()
+        .subjectId(subjectIds == null || subjectIds[index] == null ? subjectId : subjectIds[index])
+        .isWhiteList((assignment & WHITE_LIST) != 0)
+        .cacheable((assignment & CACHEABLE) != 0)
+        .experimentGroupConfig(config)
+        .build();
+  }
+}
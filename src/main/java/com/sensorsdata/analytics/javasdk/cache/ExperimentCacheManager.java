@@ -1,12 +1,10 @@
 package com.sensorsdata.analytics.javasdk.cache;
 
-import static com.sensorsdata.analytics.javasdk.SensorsABTestConst.NAME_KEY;
-import static com.sensorsdata.analytics.javasdk.SensorsABTestConst.TYPE_KEY;
-import static com.sensorsdata.analytics.javasdk.SensorsABTestConst.VALUE_KEY;
-
-import com.sensorsdata.analytics.javasdk.SensorsABTestConst;
+import com.sensorsdata.analytics.javasdk.bean.DispatchExperiment;
+import com.sensorsdata.analytics.javasdk.bean.TrackConfig;
 import com.sensorsdata.analytics.javasdk.bean.UserInfo;
 import com.sensorsdata.analytics.javasdk.bean.cache.ExperimentGroupConfig;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserCacheKey;
 import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperiment;
 import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperimentGroup;
 import com.sensorsdata.analytics.javasdk.bean.cache.UserOutExperimentGroup;
@@ -14,19 +12,21 @@ import com.sensorsdata.analytics.javasdk.bean.cache.Variable;
 import com.sensorsdata.analytics.javasdk.util.ABTestUtil;
 import com.sensorsdata.analytics.javasdk.util.LogUtil;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * AB Test 试验结果缓存管理器
@@ -37,28 +37,89 @@ import java.util.concurrent.TimeUnit;
  */
 public class ExperimentCacheManager {
 
-  private final LoadingCache<String, UserHitExperiment> experimentResultCache;
+  /**
+   * 试验组配置元数据的清理间隔（毫秒），在写入缓存时检查
+   */
+  private static final long CONFIG_SWEEP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
 
-  //元数据准备长期保留，不过期淘汰，否则引用这里的对象可能会出现各种不可知问题，且元数据占用内存很少，不会造成什么内存压力
-  private final ConcurrentHashMap<String, ExperimentGroupConfig> experimentGroupConfigCache;
+  private final LoadingCache<UserCacheKey, CompactUserHitExperiment> experimentResultCache;
+
+  /**
+   * 试验组配置元数据及其编号，写入缓存的用户分流结果只引用编号
+   * <p>缓存结果写入时增加引用，被淘汰或替换时释放；试验版本变化会不断产生新的试验结果 ID，没有引用且一个清理间隔内未再使用的
+   * 元数据定期回收</p>
+   */
+  private final ExperimentGroupConfigRegistry experimentGroupConfigRegistry;
+
+  /**
+   * 上一次清理试验组配置元数据的时间
+   */
+  private final AtomicLong lastConfigSweepTime = new AtomicLong(System.currentTimeMillis());
 
   private final LogUtil log;
 
+  /**
+   * 缓存结果的软过期时间（毫秒），超过后仍返回缓存结果并在后台刷新；为 0 时不刷新，只在缓存时间到达后淘汰
+   */
+  private final long refreshMilliseconds;
+
+  /**
+   * 未命中任何试验的分流结果缓存，key 由用户标识与试验参数名共同计算；未开启时为 null
+   */
+  private final Cache<UserCacheKey, Boolean> negativeResultCache;
+
 
   public ExperimentCacheManager(LogUtil log, int cacheTime, int cacheSize) {
+    this(log, cacheTime, cacheSize, 0);
+  }
+
+  /**
+   * @param cacheTime   缓存时间（分钟），到达后淘汰
+   * @param cacheSize   缓存用户数量
+   * @param refreshTime 软过期时间（分钟），到达后后台刷新，为 0 时不刷新
+   */
+  public ExperimentCacheManager(LogUtil log, int cacheTime, int cacheSize, int refreshTime) {
+    this(log, cacheTime, cacheSize, refreshTime, 0, 0);
+  }
+
+  /**
+   * @param cacheTime         缓存时间（分钟），到达后淘汰
+   * @param cacheSize         缓存用户数量
+   * @param refreshTime       软过期时间（分钟），到达后后台刷新，为 0 时不刷新
+   * @param negativeCacheTime 未命中结果的缓存时间（分钟），为 0 时不缓存
+   * @param negativeCacheSize 未命中结果的最大缓存条目数
+   */
+  public ExperimentCacheManager(LogUtil log, int cacheTime, int cacheSize, int refreshTime, int negativeCacheTime,
+      int negativeCacheSize) {
+    this.refreshMilliseconds = TimeUnit.MINUTES.toMillis(refreshTime);
+    this.negativeResultCache = negativeCacheTime <= 0 ? null : CacheBuilder.newBuilder()
+        .expireAfterWrite(negativeCacheTime, TimeUnit.MINUTES)
+        .maximumSize(negativeCacheSize)
+        .recordStats()
+        .<UserCacheKey, Boolean>build();
     this.experimentResultCache = CacheBuilder.newBuilder()
         .expireAfterWrite(cacheTime, TimeUnit.MINUTES)
         .maximumSize(cacheSize)
-        .build(new CacheLoader<String, UserHitExperiment>() {
+        .recordStats()
+        .removalListener(new RemovalListener<UserCacheKey, CompactUserHitExperiment>() {
           @Override
-          public UserHitExperiment load(String s) {
+          public void onRemoval(RemovalNotification<UserCacheKey, CompactUserHitExperiment> notification) {
+            if (notification.getValue() != null) {
+              notification.getValue().releaseConfigs();
+            }
+          }
+        })
+        .build(new CacheLoader<UserCacheKey, CompactUserHitExperiment>() {
+          @Override
+          public CompactUserHitExperiment load(UserCacheKey key) {
             return null;
           }
         });
     this.log = log;
-    this.log.info("Initializing experiment cache:size:{};duration:{}.", cacheSize, cacheTime);
+    this.log.info("Initializing experiment cache:size:{};duration:{};refresh:{};negativeSize:{};negativeDuration:{}.",
+        cacheSize, cacheTime, refreshTime, negativeCacheSize, negativeCacheTime);
 
-    this.experimentGroupConfigCache = new ConcurrentHashMap<>();
+    this.experimentGroupConfigRegistry = new ExperimentGroupConfigRegistry();
   }
 
   /**
@@ -69,13 +130,74 @@ public class ExperimentCacheManager {
    * @return 试验命中结果
    */
   public UserHitExperimentGroup getExperimentResultByCache(UserInfo userInfo, String experimentName) {
-    String key = ABTestUtil.generateUserResultCacheKey(userInfo, log);
-    UserHitExperiment experimentResult = this.experimentResultCache.getIfPresent(key);
+    UserCacheKey key = UserCacheKey.of(userInfo);
+    CompactUserHitExperiment experimentResult = this.experimentResultCache.getIfPresent(key);
     if (experimentResult == null) {
       log.debug("current key not found in cache.[key:{},experiment:{}]", key, experimentName);
       return null;
     }
-    return getExperimentResultFromUserHitExperiment(experimentName, experimentResult);
+    return experimentResult.getUserHitExperimentGroup(experimentName);
+  }
+
+  /**
+   * 用户在该试验参数上是否已缓存了未命中结果，自定义属性不同的请求分别缓存
+   *
+   * @param userInfo 用户信息标识
+   * @param param    试验参数名
+   * @return 是否命中未命中结果缓存
+   */
+  public boolean isNegativeResultCached(UserInfo userInfo, String param) {
+    return negativeResultCache != null
+        && negativeResultCache.getIfPresent(negativeResultKey(userInfo, param)) != null;
+  }
+
+  /**
+   * 缓存用户在该试验参数上的未命中结果，未开启未命中结果缓存时忽略
+   *
+   * @param userInfo 用户信息标识
+   * @param param    试验参数名
+   */
+  public void cacheNegativeResult(UserInfo userInfo, String param) {
+    if (negativeResultCache == null) {
+      return;
+    }
+    log.debug("Caches the negative result to the manager.[userInfo:{},param:{}]", userInfo, param);
+    negativeResultCache.put(negativeResultKey(userInfo, param), Boolean.TRUE);
+  }
+
+  /**
+   * 分流服务可能依据自定义属性决定是否命中试验，未命中结果的 key 需要包含自定义属性
+   */
+  private static UserCacheKey negativeResultKey(UserInfo userInfo, String param) {
+    return UserCacheKey.of(userInfo, userInfo.getCustomProperties(), param);
+  }
+
+  /**
+   * 缓存结果超过软过期时间时标记为刷新中，由调用方在后台重新请求分流结果
+   *
+   * @param userInfo 用户信息标识
+   * @return 是否需要由当前调用方发起刷新；未超过软过期时间、未开启刷新或已有刷新在进行时返回 false
+   */
+  public boolean markRefreshIfStale(UserInfo userInfo) {
+    if (refreshMilliseconds <= 0) {
+      return false;
+    }
+    CompactUserHitExperiment experimentResult = this.experimentResultCache.getIfPresent(UserCacheKey.of(userInfo));
+    return experimentResult != null
+        && System.currentTimeMillis() - experimentResult.getCreateTime() >= refreshMilliseconds
+        && experimentResult.startRefresh();
+  }
+
+  /**
+   * 后台刷新失败，清除刷新标记
+   *
+   * @param userInfo 用户信息标识
+   */
+  public void cancelRefresh(UserInfo userInfo) {
+    CompactUserHitExperiment experimentResult = this.experimentResultCache.getIfPresent(UserCacheKey.of(userInfo));
+    if (experimentResult != null) {
+      experimentResult.cancelRefresh();
+    }
   }
 
   public UserHitExperimentGroup getExperimentResultFromUserHitExperiment(String param,
@@ -86,33 +208,41 @@ public class ExperimentCacheManager {
       return null;
     }
 
-    Map<String, UserHitExperimentGroup> userHitExperimentMap = userHitExperiment.getUserHitExperimentMap();
-    for (Map.Entry<String, UserHitExperimentGroup> userHitExperimentGroupEntry : userHitExperimentMap.entrySet()) {
-      UserHitExperimentGroup userHitExperimentGroup = userHitExperimentGroupEntry.getValue();
-      Map<String, Variable> variableMap = userHitExperimentGroup.getExperimentGroupConfig().getVariableMap();
-      if (variableMap.get(param) != null) {
-        return userHitExperimentGroup;
-      }
-    }
-    return null;
-
+    return userHitExperiment.getUserHitExperimentGroup(param);
   }
 
   /**
-   * 解析用户分流结果，并加入缓存
+   * 将用户分流结果中能缓存的部分加入缓存
    *
    * @param userInfo          用户标识信息
-   * @param experimentResults 返回的分流结果
-   * @return 能缓存的用户分流结果
+   * @param userHitExperiment 解析后的用户分流结果
    */
-  public UserHitExperiment getUserHitExperimentWithUpdateCache(UserInfo userInfo,
-      JsonNode experimentResults) {
-    UserHitExperiment userHitExperiment = getUserHitExperimentWithoutUpdateCache(experimentResults);
-    String key = ABTestUtil.generateUserResultCacheKey(userInfo, log);
-    log.debug("Caches the current experiment to the manager.[key:{},experiment:{}]", key, experimentResults);
-    UserHitExperiment cachedUserHitExperiment = getCachedUserHitExperiment(userHitExperiment);
+  public void cacheUserHitExperiment(UserInfo userInfo, UserHitExperiment userHitExperiment) {
+    if (userHitExperiment == null) {
+      return;
+    }
+    UserCacheKey key = UserCacheKey.of(userInfo);
+    log.debug("Caches the current experiment to the manager.[key:{},userInfo:{}]", key, userInfo);
+    CompactUserHitExperiment cachedUserHitExperiment = getCachedUserHitExperiment(userHitExperiment);
     this.experimentResultCache.put(key, cachedUserHitExperiment);
-    return userHitExperiment;
+    long now = System.currentTimeMillis();
+    long lastSweepTime = lastConfigSweepTime.get();
+    if (now - lastSweepTime >= CONFIG_SWEEP_INTERVAL_MILLIS && lastConfigSweepTime.compareAndSet(lastSweepTime, now)) {
+      sweepExperimentGroupConfigs();
+    }
+  }
+
+  /**
+   * 清理过期的缓存结果并回收不再被引用的试验组配置元数据
+   *
+   * @return 本次回收的配置数量
+   */
+  public int sweepExperimentGroupConfigs() {
+    // 过期条目在清理时才触发淘汰通知，先释放它们持有的引用
+    this.experimentResultCache.cleanUp();
+    int reclaimed = experimentGroupConfigRegistry.sweep();
+    log.debug("Swept experiment group configs.[reclaimed:{},live:{}]", reclaimed, experimentGroupConfigRegistry.size());
+    return reclaimed;
   }
 
 
@@ -122,15 +252,22 @@ public class ExperimentCacheManager {
    * @param userHitExperiment 本次所有用户分流结果
    * @return 能缓存的用户分流结果
    */
-  private UserHitExperiment getCachedUserHitExperiment(UserHitExperiment userHitExperiment) {
-    UserHitExperiment cachedUserHitExperiment = new UserHitExperiment();
-    for (Map.Entry<String, UserHitExperimentGroup> userHitExperimentGroupEntry : userHitExperiment.getUserHitExperimentMap().entrySet()) {
-      if (isNeedCache(userHitExperimentGroupEntry.getValue())) {
-        cachedUserHitExperiment.addUserHitExperimentGroup(userHitExperimentGroupEntry.getKey(),
-            userHitExperimentGroupEntry.getValue());
+  private CompactUserHitExperiment getCachedUserHitExperiment(UserHitExperiment userHitExperiment) {
+    Map<String, UserHitExperimentGroup> userHitExperimentMap = userHitExperiment.getUserHitExperimentMap();
+    int[] configIds = new int[userHitExperimentMap.size()];
+    UserHitExperimentGroup[] groups = new UserHitExperimentGroup[userHitExperimentMap.size()];
+    int count = 0;
+    for (UserHitExperimentGroup userHitExperimentGroup : userHitExperimentMap.values()) {
+      if (isNeedCache(userHitExperimentGroup)) {
+        ExperimentGroupConfig config = userHitExperimentGroup.getExperimentGroupConfig();
+        configIds[count] = experimentGroupConfigRegistry.register(
+            generateExperimentGroupConfigCacheKey(config.getAbtestExperimentId(), config.getAbtestExperimentGroupId(),
+                config.getAbtestExperimentResultId()), config);
+        groups[count++] = userHitExperimentGroup;
       }
     }
-    return cachedUserHitExperiment;
+    return new CompactUserHitExperiment(experimentGroupConfigRegistry, Arrays.copyOf(configIds, count),
+        Arrays.copyOf(groups, count));
   }
 
   /**
@@ -147,107 +284,64 @@ public class ExperimentCacheManager {
   }
 
   /**
-   * 将Json的variable转换成缓存中使用的variableMap
+   * 解析用户分流结果，按默认埋点配置提取扩展字段
    *
-   * @param variables Json variable字段
-   * @return variable Map
+   * @param experimentResults 返回的分流结果
+   * @return 能缓存的用户分流结果
    */
-  private Map<String, Variable> convertToVariable(JsonNode variables) {
-    HashMap<String, Variable> variableMap = new HashMap<>();
-    if (variables == null) {
-      return variableMap;
-    }
-    Iterator<JsonNode> iterator = variables.elements();
-    while (iterator.hasNext()) {
-      JsonNode next = iterator.next();
-      Variable variable =
-          new Variable(getTextValueFromJsonNode(next, NAME_KEY), getTextValueFromJsonNode(next, TYPE_KEY),
-              getTextValueFromJsonNode(next, VALUE_KEY));
-      variableMap.put(variable.getName(), variable);
-    }
-    return variableMap;
-  }
-
-  private String getTextValueFromJsonNode(JsonNode node, String name) {
-    JsonNode value = node.findValue(name);
-    if (value != null) {
-      return value.asText();
-    }
-    return null;
+  public UserHitExperiment getUserHitExperimentWithoutUpdateCache(List<DispatchExperiment> experimentResults) {
+    return getUserHitExperimentWithoutUpdateCache(experimentResults,
+        TrackConfig.getDefaultTrackConfig().getTriggerContentExt());
   }
 
-  private boolean getBooleanValueFromJsonNode(JsonNode node, String name, boolean defaultValue) {
-    JsonNode value = node.findValue(name);
-    if (value != null) {
-      return value.asBoolean();
-    }
-    return defaultValue;
-  }
-
-
   /**
    * 解析用户分流结果
+   * <p>试验组配置只保存埋点配置要求的扩展字段，不持有原始内容；埋点配置变化后，下一次返回该试验组时扩展字段随之变化，
+   * 发布为新版本</p>
    *
    * @param experimentResults 返回的分流结果
+   * @param extFields         当前埋点配置中的扩展字段名
    * @return 能缓存的用户分流结果
    */
-  public UserHitExperiment getUserHitExperimentWithoutUpdateCache(JsonNode experimentResults) {
+  public UserHitExperiment getUserHitExperimentWithoutUpdateCache(List<DispatchExperiment> experimentResults,
+      List<String> extFields) {
     if (experimentResults == null) {
       log.debug("Experiment is null");
       return null;
     }
 
     UserHitExperiment userHitExperiment = new UserHitExperiment();
-    Iterator<JsonNode> resIterator = experimentResults.elements();
-    while (resIterator.hasNext()) {
-      JsonNode node = resIterator.next();
-      //必填字段
-      String experimentId = getTextValueFromJsonNode(node, SensorsABTestConst.EXPERIMENT_ID_KEY);
-      String experimentGroupId = getTextValueFromJsonNode(node, SensorsABTestConst.EXPERIMENT_GROUP_ID_KEY);
-      JsonNode variables = node.findValue(SensorsABTestConst.VARIABLES_KEY);
-      boolean isControlGroup = node.findValue(SensorsABTestConst.IS_CONTROL_GROUP_KEY).asBoolean();
-      boolean isWhiteList = node.findValue(SensorsABTestConst.IS_WHITE_LIST_KEY).asBoolean();
-
-      //非必填字段
-      String abtestExperimentResultId =
-          getTextValueFromJsonNode(node, SensorsABTestConst.ABTEST_EXPERIMENT_RESULT_ID_KEY);
-      String abtestExperimentVersion = getTextValueFromJsonNode(node, SensorsABTestConst.ABTEST_EXPERIMENT_VERSION_KEY);
-      String subjectName = getTextValueFromJsonNode(node, SensorsABTestConst.ABTEST_SUBJECT_NAME_KEY);
-      String subjectId = getTextValueFromJsonNode(node, SensorsABTestConst.ABTEST_SUBJECT_ID_KEY);
-
-      boolean cacheable = getBooleanValueFromJsonNode(node, SensorsABTestConst.ABTEST_CACHEABLE_KEY, true);
-
-
+    for (DispatchExperiment experiment : experimentResults) {
+      String experimentId = experiment.getAbtestExperimentId();
+      String experimentGroupId = experiment.getAbtestExperimentGroupId();
+      String abtestExperimentResultId = experiment.getAbtestExperimentResultId();
 
       ExperimentGroupConfig newExperimentGroupConfig = ExperimentGroupConfig
           .builder()
           .abtestExperimentId(experimentId)
           .abtestExperimentGroupId(experimentGroupId)
           .abtestExperimentResultId(abtestExperimentResultId)
-          .isControlGroup(isControlGroup)
-          .abtestExperimentVersion(abtestExperimentVersion)
-          .src(node)
-          .variableMap(convertToVariable(variables))
-          .subjectName(subjectName)
+          .isControlGroup(getBooleanValue(experiment.getIsControlGroup(), false))
+          .abtestExperimentVersion(experiment.getAbtestExperimentVersion())
+          .ext(ABTestUtil.extractExt(experiment.getSrc(), extFields))
+          .variableMap(experiment.getVariableMap())
+          .subjectName(experiment.getSubjectName())
           .build();
 
 
       //生成cache key
-      String experimentGroupCacheKey;
-      if (abtestExperimentResultId != null && !abtestExperimentResultId.isEmpty()) {
-        experimentGroupCacheKey = abtestExperimentResultId;
-      } else {
-        experimentGroupCacheKey = generateExperimentGroupConfigCacheKey(experimentId, experimentGroupId);
-      }
-      //更新试验配置元数据缓存
-      saveOrUpdateExperimentGroupConfig(newExperimentGroupConfig, experimentGroupCacheKey);
+      String experimentGroupCacheKey =
+          generateExperimentGroupConfigCacheKey(experimentId, experimentGroupId, abtestExperimentResultId);
+      //更新试验配置元数据缓存，引用发布后的当前版本
+      ExperimentGroupConfig experimentGroupConfig =
+          experimentGroupConfigRegistry.publish(experimentGroupCacheKey, newExperimentGroupConfig);
 
       UserHitExperimentGroup userHitExperimentGroup
           = UserHitExperimentGroup.builder()
-          .subjectId(subjectId)
-          .isWhiteList(isWhiteList)
-          .cacheable(cacheable)
-          .experimentGroupConfig(experimentGroupConfigCache.get(experimentGroupCacheKey))
+          .subjectId(experiment.getSubjectId())
+          .isWhiteList(getBooleanValue(experiment.getIsWhiteList(), false))
+          .cacheable(getBooleanValue(experiment.getCacheable(), true))
+          .experimentGroupConfig(experimentGroupConfig)
           .build();
 
       userHitExperiment.addUserHitExperimentGroup(experimentId, userHitExperimentGroup);
@@ -256,20 +350,10 @@ public class ExperimentCacheManager {
     return userHitExperiment;
   }
 
-  private void saveOrUpdateExperimentGroupConfig(ExperimentGroupConfig newExperimentGroupConfig,
-      String experimentGroupCacheKey) {
-    ExperimentGroupConfig experimentGroupConfig = experimentGroupConfigCache.get(experimentGroupCacheKey);
-    if (experimentGroupConfig == null) {
-      experimentGroupConfigCache.putIfAbsent(experimentGroupCacheKey, newExperimentGroupConfig);
-    } else {
-      experimentGroupConfig.setControlGroup(newExperimentGroupConfig.isControlGroup());
-      experimentGroupConfig.setVariableMap(newExperimentGroupConfig.getVariableMap());
-      experimentGroupConfig.setSrc(newExperimentGroupConfig.getSrc());
-    }
+  private boolean getBooleanValue(Boolean value, boolean defaultValue) {
+    return value == null ? defaultValue : value;
   }
 
-
-
   /**
    * 获取当前缓存大小
    *
@@ -279,6 +363,77 @@ public class ExperimentCacheManager {
     return this.experimentResultCache.size();
   }
 
+  /**
+   * 获取试验结果缓存的命中统计
+   *
+   * @return 命中次数、未命中次数、命中率等统计信息
+   */
+  public CacheStats getCacheStats() {
+    return this.experimentResultCache.stats();
+  }
+
+  /**
+   * 估算试验结果缓存占用的内存
+   * <p>包括每个缓存条目、key 以及缓存内部节点，不包括所有用户共享的试验组配置；遍历全部条目，不宜频繁调用</p>
+   *
+   * @return 估算的字节数
+   */
+  public long estimateCacheMemory() {
+    long bytes = 0;
+    for (CompactUserHitExperiment userHitExperiment : this.experimentResultCache.asMap().values()) {
+      // UserCacheKey 对象约 32 字节，缓存节点约 64 字节
+      bytes += 96 + userHitExperiment.estimateMemory();
+    }
+    return bytes;
+  }
+
+  /**
+   * 获取当前保留的试验组配置数量
+   *
+   * @return 试验组配置数量
+   */
+  public int getExperimentGroupConfigCount() {
+    return experimentGroupConfigRegistry.size();
+  }
+
+  /**
+   * 估算试验组配置元数据占用的内存，包括配置的扩展字段；遍历全部配置，不宜频繁调用
+   *
+   * @return 估算的字节数
+   */
+  public long estimateExperimentGroupConfigMemory() {
+    return experimentGroupConfigRegistry.estimateMemory();
+  }
+
+  /**
+   * 获取未命中结果缓存大小
+   *
+   * @return 缓存条目数，未开启时为 0
+   */
+  public long getNegativeCacheSize() {
+    return negativeResultCache == null ? 0 : negativeResultCache.size();
+  }
+
+  /**
+   * 获取未命中结果缓存的命中统计
+   *
+   * @return 命中统计，未开启时为空统计
+   */
+  public CacheStats getNegativeCacheStats() {
+    return negativeResultCache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : negativeResultCache.stats();
+  }
+
+  /**
+   * 估算未命中结果缓存占用的内存
+   * <p>key 为定长的 128 位哈希，按条目数乘以单个条目的固定开销估算</p>
+   *
+   * @return 估算的字节数
+   */
+  public long estimateNegativeCacheMemory() {
+    // UserCacheKey 对象约 32 字节，缓存节点（key/value 引用、hash、写入时间、访问队列指针）约 64 字节
+    return getNegativeCacheSize() * 96;
+  }
+
 
   /**
    * 生成元数据缓存的key experimentId_experimentGroupId
@@ -291,7 +446,31 @@ public class ExperimentCacheManager {
     return experimentId + "_" + experimentGroupId;
   }
 
-  public List<UserOutExperimentGroup> getUserOutExperimentGroups(String param, JsonNode outResults) {
+  /**
+   * 生成元数据缓存的key，有试验结果ID时使用试验结果ID，否则为 experimentId_experimentGroupId
+   */
+  private String generateExperimentGroupConfigCacheKey(String experimentId, String experimentGroupId,
+      String abtestExperimentResultId) {
+    if (abtestExperimentResultId != null && !abtestExperimentResultId.isEmpty()) {
+      return abtestExperimentResultId;
+    }
+    return generateExperimentGroupConfigCacheKey(experimentId, experimentGroupId);
+  }
+
+  public List<UserOutExperimentGroup> getUserOutExperimentGroups(String param, List<DispatchExperiment> outResults) {
+    return getUserOutExperimentGroups(param, outResults, TrackConfig.getDefaultTrackConfig().getTriggerContentExt());
+  }
+
+  /**
+   * 解析包含该试验参数的出组试验
+   *
+   * @param param      试验参数名
+   * @param outResults 返回的出组试验
+   * @param extFields  当前埋点配置中的扩展字段名
+   * @return 出组试验，只保存扩展字段，不持有原始内容
+   */
+  public List<UserOutExperimentGroup> getUserOutExperimentGroups(String param, List<DispatchExperiment> outResults,
+      List<String> extFields) {
 
     if (outResults == null) {
       log.debug("Experiment is null");
@@ -299,34 +478,20 @@ public class ExperimentCacheManager {
     }
 
     List<UserOutExperimentGroup> userOutExperimentGroups = new ArrayList<>();
-
-    Iterator<JsonNode> resIterator = outResults.elements();
-    while (resIterator.hasNext()) {
-      JsonNode node = resIterator.next();
-      //必填字段
-      String experimentId = getTextValueFromJsonNode(node, SensorsABTestConst.EXPERIMENT_ID_KEY);
-      String experimentGroupId = getTextValueFromJsonNode(node, SensorsABTestConst.EXPERIMENT_GROUP_ID_KEY);
-      String abtestExperimentResultId =
-          getTextValueFromJsonNode(node, SensorsABTestConst.ABTEST_EXPERIMENT_RESULT_ID_KEY);
-      String abtestExperimentVersion = getTextValueFromJsonNode(node, SensorsABTestConst.ABTEST_EXPERIMENT_VERSION_KEY);
-      String subjectName = getTextValueFromJsonNode(node, SensorsABTestConst.ABTEST_SUBJECT_NAME_KEY);
-      String subjectId = getTextValueFromJsonNode(node, SensorsABTestConst.ABTEST_SUBJECT_ID_KEY);
-      JsonNode variables = node.findValue(SensorsABTestConst.VARIABLES_KEY);
-      boolean isWhiteList = getBooleanValueFromJsonNode(node, SensorsABTestConst.IS_WHITE_LIST_KEY, false);
-
-      Map<String, Variable> variableMap = convertToVariable(variables);
+    for (DispatchExperiment experiment : outResults) {
+      Map<String, Variable> variableMap = experiment.getVariableMap();
       if (variableMap.containsKey(param)) {
         userOutExperimentGroups.add(UserOutExperimentGroup.builder()
             .param(param)
-            .subjectId(subjectId)
-            .subjectName(subjectName)
-            .abtestExperimentId(experimentId)
-            .abtestExperimentGroupId(experimentGroupId)
-            .abtestExperimentResultId(abtestExperimentResultId)
+            .subjectId(experiment.getSubjectId())
+            .subjectName(experiment.getSubjectName())
+            .abtestExperimentId(experiment.getAbtestExperimentId())
+            .abtestExperimentGroupId(experiment.getAbtestExperimentGroupId())
+            .abtestExperimentResultId(experiment.getAbtestExperimentResultId())
             .variableMap(variableMap)
-            .whiteList(isWhiteList)
-            .abtestExperimentVersion(abtestExperimentVersion)
-            .src(node).build());
+            .whiteList(getBooleanValue(experiment.getIsWhiteList(), false))
+            .abtestExperimentVersion(experiment.getAbtestExperimentVersion())
+            .ext(ABTestUtil.extractExt(experiment.getSrc(), extFields)).build());
       }
     }
     return userOutExperimentGroups;
@@ -335,15 +500,8 @@ public class ExperimentCacheManager {
 
   public ExperimentGroupConfig getExperimentGroupConfig(String experimentId, String experimentGroupId,
       String abtestExperimentResultId) {
-    //生成cache key
-    String experimentGroupCacheKey;
-    if (abtestExperimentResultId != null && !abtestExperimentResultId.isEmpty()) {
-      experimentGroupCacheKey = abtestExperimentResultId;
-    } else {
-      experimentGroupCacheKey = generateExperimentGroupConfigCacheKey(experimentId, experimentGroupId);
-    }
-
-    return experimentGroupConfigCache.get(experimentGroupCacheKey);
+    return experimentGroupConfigRegistry.get(
+        generateExperimentGroupConfigCacheKey(experimentId, experimentGroupId, abtestExperimentResultId));
   }
 
 }
@@ -0,0 +1,366 @@
+package com.sensorsdata.analytics.javasdk.cache;
+
+import com.sensorsdata.analytics.javasdk.bean.cache.ExperimentGroupConfig;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperiment;
+import com.sensorsdata.analytics.javasdk.bean.cache.Variable;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 试验组配置注册表
+ * <p>为每个试验组配置分配一个从 0 开始递增的 int 编号，缓存的用户分流结果只保存编号；同时维护试验参数名到包含该参数的
+ * 配置编号的索引。配置数量远小于缓存用户数量，注册与参数变化时整体复制，读取无锁</p>
+ * <p>每个编号对应一个原子引用，保存不可变的配置快照；配置变化时以 CAS 替换为新版本，读取方总是拿到某一版本的完整配置</p>
+ * <p>缓存的用户分流结果通过 {@link #register} 与 {@link #release} 维护配置的引用计数。{@link #sweep()} 按代回收：没有引用、
+ * 且上一次清理以来未被注册或发布的配置被移除；回收的编号再隔一次清理才重新分配，避免仍持有旧缓存结果的读取方读到其他配置</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:50
+ */
+public class ExperimentGroupConfigRegistry {
+
+  private static final int[] EMPTY_IDS = new int[0];
+
+  /**
+   * 试验组配置缓存 key 到配置槽位
+   */
+  private final ConcurrentHashMap<String, ConfigSlot> slotsByKey = new ConcurrentHashMap<>();
+
+  /**
+   * 编号到配置槽位，只在持有锁时整体替换
+   */
+  private volatile ConfigSlot[] slots = new ConfigSlot[0];
+
+  /**
+   * 试验参数名到包含该参数的配置编号（升序），只在持有锁时整体替换
+   */
+  private volatile Map<String, int[]> paramIndex = Collections.emptyMap();
+
+  /**
+   * 已注册配置的参数名变化次数，缓存的用户分流结果据此判断自身的参数索引是否仍然有效
+   */
+  private volatile long paramsVersion;
+
+  /**
+   * 每个编号当前已加入索引的参数名，持有锁时访问
+   */
+  private final List<Set<String>> indexedParams = new ArrayList<>();
+
+  /**
+   * 当前清理代数，注册与发布时记录到配置槽位
+   */
+  private volatile long generation;
+
+  /**
+   * 上一次清理回收、尚未可以重新分配的编号，持有锁时访问
+   */
+  private List<Integer> pendingIds = new ArrayList<>();
+
+  /**
+   * 可以重新分配的编号，持有锁时访问
+   */
+  private final List<Integer> freeIds = new ArrayList<>();
+
+  /**
+   * 注册试验组配置并增加一次引用，已注册时直接返回已有编号，不更新配置；引用方不再使用时需调用 {@link #release}
+   *
+   * @param key    试验组配置缓存 key
+   * @param config 试验组配置
+   * @return 配置编号
+   */
+  public int register(String key, ExperimentGroupConfig config) {
+    while (true) {
+      ConfigSlot slot = slotsByKey.get(key);
+      if (slot == null) {
+        slot = addSlot(key, config);
+      }
+      int refs = slot.refs.get();
+      // 小于 0 表示正在被回收，等待回收完成后重新注册
+      if (refs >= 0 && slot.refs.compareAndSet(refs, refs + 1)) {
+        slot.generation = generation;
+        return slot.id;
+      }
+    }
+  }
+
+  /**
+   * 释放一次对配置的引用
+   *
+   * @param id 配置编号
+   */
+  public void release(int id) {
+    ConfigSlot slot = slots[id];
+    if (slot != null) {
+      slot.refs.decrementAndGet();
+    }
+  }
+
+  /**
+   * 发布试验组配置：未注册时注册；已注册且是否对照组、试验参数、扩展字段有变化时，在当前版本基础上替换这些字段并生成新版本
+   *
+   * @param key    试验组配置缓存 key
+   * @param config 本次分流结果中的试验组配置
+   * @return 发布后的当前版本
+   */
+  public ExperimentGroupConfig publish(String key, ExperimentGroupConfig config) {
+    ConfigSlot slot = slotsByKey.get(key);
+    if (slot == null || slot.refs.get() < 0) {
+      slot = addSlot(key, config);
+    }
+    slot.generation = generation;
+    while (true) {
+      ExperimentGroupConfig current = slot.get();
+      if (current.sameContent(config)) {
+        return current;
+      }
+      ExperimentGroupConfig next = current.toBuilder()
+          .isControlGroup(config.isControlGroup())
+          .variableMap(config.getVariableMap())
+          .ext(config.getExt())
+          .version(current.getVersion() + 1)
+          .build();
+      if (slot.compareAndSet(current, next)) {
+        if (!sameParams(current.getVariableMap(), next.getVariableMap())) {
+          synchronized (this) {
+            reindex(slot.id);
+            paramsVersion++;
+          }
+        }
+        return next;
+      }
+    }
+  }
+
+  /**
+   * 根据编号获取试验组配置的当前版本
+   *
+   * @param id 配置编号
+   * @return 试验组配置，已被回收时返回 null
+   */
+  public ExperimentGroupConfig get(int id) {
+    ConfigSlot slot = slots[id];
+    return slot == null ? null : slot.get();
+  }
+
+  /**
+   * 根据缓存 key 获取试验组配置的当前版本
+   *
+   * @param key 试验组配置缓存 key
+   * @return 试验组配置，未注册时返回 null
+   */
+  public ExperimentGroupConfig get(String key) {
+    ConfigSlot slot = slotsByKey.get(key);
+    return slot == null ? null : slot.get();
+  }
+
+  /**
+   * 获取包含该试验参数的配置编号
+   *
+   * @param param 试验参数名
+   * @return 升序的配置编号，没有配置包含该参数时为空数组；返回的数组不可修改
+   */
+  public int[] getConfigIds(String param) {
+    int[] configIds = paramIndex.get(param);
+    return configIds == null ? EMPTY_IDS : configIds;
+  }
+
+  /**
+   * 获取参数名变化次数，读取后再读取的配置至少与该次数对应的参数一致
+   *
+   * @return 已注册配置的参数名变化次数
+   */
+  public long getParamsVersion() {
+    return paramsVersion;
+  }
+
+  /**
+   * @return 已注册且未被回收的试验组配置数量
+   */
+  public int size() {
+    return slotsByKey.size();
+  }
+
+  /**
+   * 估算配置元数据占用的内存，包括配置快照、扩展字段、编号数组与参数索引；遍历全部配置，不宜频繁调用
+   *
+   * @return 估算的字节数
+   */
+  public long estimateMemory() {
+    ConfigSlot[] current = slots;
+    // 编号数组头部 16 字节，每个位置 4 字节
+    long bytes = 16 + 4L * current.length;
+    for (ConfigSlot slot : current) {
+      if (slot != null) {
+        // 槽位、引用计数对象约 48 字节，key 映射节点约 32 字节
+        bytes += 80 + UserHitExperiment.estimateString(slot.key) + slot.get().estimateMemory();
+      }
+    }
+    for (Map.Entry<String, int[]> entry : paramIndex.entrySet()) {
+      // 索引节点约 32 字节，int 数组头部 16 字节
+      bytes += 48 + UserHitExperiment.estimateString(entry.getKey()) + 4L * entry.getValue().length;
+    }
+    return bytes;
+  }
+
+  /**
+   * 回收没有被缓存结果引用、且上一次清理以来未被注册或发布的配置，并开始新的一代
+   *
+   * @return 本次回收的配置数量
+   */
+  public synchronized int sweep() {
+    long sweepGeneration = generation;
+    freeIds.addAll(pendingIds);
+    pendingIds = new ArrayList<>();
+    ConfigSlot[] newSlots = null;
+    for (ConfigSlot slot : slots) {
+      if (slot == null || slot.generation >= sweepGeneration || !slot.refs.compareAndSet(0, -1)) {
+        continue;
+      }
+      if (newSlots == null) {
+        newSlots = slots.clone();
+      }
+      newSlots[slot.id] = null;
+      slotsByKey.remove(slot.key, slot);
+      updateIndex(slot.id, Collections.<String>emptySet());
+      pendingIds.add(slot.id);
+    }
+    if (newSlots != null) {
+      slots = newSlots;
+    }
+    generation = sweepGeneration + 1;
+    return pendingIds.size();
+  }
+
+  /**
+   * @return 缓存 key 到试验组配置当前版本的只读视图
+   */
+  public Map<String, ExperimentGroupConfig> asMap() {
+    return Collections.unmodifiableMap(Maps.transformValues(slotsByKey,
+        new Function<ConfigSlot, ExperimentGroupConfig>() {
+          @Override
+          public ExperimentGroupConfig apply(ConfigSlot slot) {
+            return slot.get();
+          }
+        }));
+  }
+
+  private synchronized ConfigSlot addSlot(String key, ExperimentGroupConfig config) {
+    ConfigSlot slot = slotsByKey.get(key);
+    if (slot != null) {
+      return slot;
+    }
+    if (freeIds.isEmpty()) {
+      slot = new ConfigSlot(slots.length, key, config);
+      indexedParams.add(Collections.<String>emptySet());
+    } else {
+      slot = new ConfigSlot(freeIds.remove(freeIds.size() - 1), key, config);
+    }
+    slot.generation = generation;
+    ConfigSlot[] newSlots = Arrays.copyOf(slots, Math.max(slots.length, slot.id + 1));
+    newSlots[slot.id] = slot;
+    slots = newSlots;
+    reindex(slot.id);
+    slotsByKey.put(key, slot);
+    return slot;
+  }
+
+  private void reindex(int id) {
+    Map<String, Variable> variableMap = slots[id].get().getVariableMap();
+    updateIndex(id, variableMap == null ? Collections.<String>emptySet() : new HashSet<>(variableMap.keySet()));
+  }
+
+  private void updateIndex(int id, Set<String> params) {
+    Set<String> oldParams = indexedParams.get(id);
+    if (params.equals(oldParams)) {
+      return;
+    }
+    Map<String, int[]> newIndex = new HashMap<>(paramIndex);
+    for (String param : oldParams) {
+      if (!params.contains(param)) {
+        int[] remaining = remove(newIndex.get(param), id);
+        if (remaining.length == 0) {
+          newIndex.remove(param);
+        } else {
+          newIndex.put(param, remaining);
+        }
+      }
+    }
+    for (String param : params) {
+      if (!oldParams.contains(param)) {
+        newIndex.put(param, add(newIndex.get(param), id));
+      }
+    }
+    indexedParams.set(id, params);
+    paramIndex = newIndex;
+  }
+
+  private static boolean sameParams(Map<String, Variable> left, Map<String, Variable> right) {
+    if (left == null || right == null) {
+      return left == right;
+    }
+    return left.keySet().equals(right.keySet());
+  }
+
+  private static int[] add(int[] configIds, int id) {
+    if (configIds == null) {
+      return new int[]{id};
+    }
+    int[] result = Arrays.copyOf(configIds, configIds.length + 1);
+    result[configIds.length] = id;
+    Arrays.sort(result);
+    return result;
+  }
+
+  private static int[] remove(int[] configIds, int id) {
+    int[] result = new int[configIds.length - 1];
+    int index = 0;
+    for (int configId : configIds) {
+      if (configId != id) {
+        result[index++] = configId;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 配置槽位，编号固定，保存配置的当前版本
+   */
+  private static final class ConfigSlot extends AtomicReference<ExperimentGroupConfig> {
+
+    private static final long serialVersionUID = 2953281647781467270L;
+
+    private final int id;
+
+    private final String key;
+
+    /**
+     * 缓存结果的引用数，-1 表示已被回收
+     */
+    private final AtomicInteger refs = new AtomicInteger();
+
+    /**
+     * 最近一次注册或发布时的清理代数
+     */
+    private volatile long generation;
+
+    private ConfigSlot(int id, String key, ExperimentGroupConfig config) {
+      super(config);
+      this.id = id;
+      this.key = key;
+    }
+  }
+}
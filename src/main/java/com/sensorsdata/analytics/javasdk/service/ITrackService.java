@@ -14,4 +14,15 @@ import java.util.Map;
 public interface ITrackService {
 
   void trackABTestTrigger(List<TrackRecord> toTrack, Map<String, Object> additionalProperties) throws InvalidArgumentException;
+
+  /**
+   * 组装 $ABTestTrigger 事件后写入本地溢写队列而不是立即上报，用于异步上报队列已满等无法及时上报的场景
+   *
+   * @param toTrack              待上报的埋点记录
+   * @param additionalProperties 附加属性
+   * @return 未开启本地溢写时返回 false，不做任何处理
+   * @throws InvalidArgumentException 参数校验不合法抛出该异常
+   */
+  boolean spillABTestTrigger(List<TrackRecord> toTrack, Map<String, Object> additionalProperties)
+      throws InvalidArgumentException;
 }
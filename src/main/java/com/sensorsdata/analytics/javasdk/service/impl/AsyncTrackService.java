@@ -0,0 +1,396 @@
+package com.sensorsdata.analytics.javasdk.service.impl;
+
+import com.sensorsdata.analytics.javasdk.bean.TrackQueueFullPolicyEnum;
+import com.sensorsdata.analytics.javasdk.bean.TrackRecord;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+import com.sensorsdata.analytics.javasdk.service.ITrackService;
+import com.sensorsdata.analytics.javasdk.util.BoundedRingBuffer;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步上报 $ABTestTrigger 事件
+ * <p>请求线程只把待上报的埋点记录写入有界无锁队列，由后台线程取出后交给 delegate 组装属性、查询事件缓存并上报，
+ * 分析 SDK 的耗时不再计入请求耗时。队列已满时按 {@link TrackQueueFullPolicyEnum} 处理；开启了本地溢写时，
+ * DROP_NEWEST、DROP_OLDEST 策略下被丢弃的埋点记录改为由 delegate 写入溢写队列，之后补报</p>
+ * <p>上报在后台线程执行，参数校验失败等异常只记录日志与失败次数，不再抛给调用方</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:17
+ */
+public class AsyncTrackService implements ITrackService, Closeable {
+
+  /**
+   * 队列为空时后台线程等待唤醒的最长时间，写入队列时会唤醒等待中的后台线程
+   */
+  private static final long IDLE_WAIT_MILLIS = 100;
+
+  /**
+   * BLOCK 策略下队列已满时请求线程的休眠时间
+   */
+  private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+  private static final String EVENT_TIME = "$time";
+
+  private final LogUtil log;
+
+  private final ITrackService delegate;
+
+  private final TrackQueueFullPolicyEnum queueFullPolicy;
+
+  private final BoundedRingBuffer<TrackTask> queue;
+
+  private final List<Thread> workers;
+
+  private volatile boolean closed;
+
+  /**
+   * 队列为空时后台线程在该对象上等待
+   */
+  private final Object idleLock = new Object();
+
+  /**
+   * 正在等待的后台线程数，持有 idleLock 时修改
+   */
+  private volatile int idleWorkers;
+
+  /**
+   * 写入队列的累计耗时与最大耗时，包括 BLOCK 策略下的等待时间
+   */
+  private final AtomicLong enqueueNanos = new AtomicLong();
+
+  private final AtomicLong maxEnqueueNanos = new AtomicLong();
+
+  private final AtomicLong droppedOldestCount = new AtomicLong();
+
+  private final AtomicLong droppedNewestCount = new AtomicLong();
+
+  private final AtomicLong spilledCount = new AtomicLong();
+
+  private final AtomicLong trackedCount = new AtomicLong();
+
+  private final AtomicLong failedCount = new AtomicLong();
+
+  /**
+   * @param log             log 实例
+   * @param delegate        实际上报事件的服务
+   * @param queueSize       队列容量，按 2 的幂向上取整，最小为 2
+   * @param workerCount     后台线程数
+   * @param queueFullPolicy 队列已满时的处理策略
+   */
+  public AsyncTrackService(LogUtil log, ITrackService delegate, int queueSize, int workerCount,
+      TrackQueueFullPolicyEnum queueFullPolicy) {
+    this.log = log;
+    this.delegate = delegate;
+    this.queueFullPolicy = queueFullPolicy;
+    this.queue = new BoundedRingBuffer<>(queueSize);
+    ThreadFactory threadFactory =
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sensors-abtest-track-%d").build();
+    this.workers = new ArrayList<>(workerCount);
+    for (int i = 0; i < workerCount; i++) {
+      Thread worker = threadFactory.newThread(new Runnable() {
+        @Override
+        public void run() {
+          drainLoop();
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    this.log.info("Initializing async track service:queueSize:{};workers:{};queueFullPolicy:{}.", queue.capacity(),
+        workerCount, queueFullPolicy);
+  }
+
+  /**
+   * 将埋点记录写入上报队列后立即返回；服务关闭后在当前线程直接上报
+   *
+   * @param toTrack    待上报的埋点记录
+   * @param properties 附加属性，写入队列时复制一份；未指定事件时间（$time）时以写入时间作为事件时间
+   * @throws InvalidArgumentException 仅在服务关闭后直接上报时抛出
+   */
+  @Override
+  public void trackABTestTrigger(List<TrackRecord> toTrack, Map<String, Object> properties)
+      throws InvalidArgumentException {
+    if (toTrack == null || toTrack.isEmpty()) {
+      return;
+    }
+    if (closed) {
+      delegate.trackABTestTrigger(toTrack, properties);
+      return;
+    }
+    long begin = System.nanoTime();
+    TrackTask task = new TrackTask(toTrack, properties);
+    if (enqueue(task)) {
+      signalWorker();
+    } else if (closed) {
+      delegate.trackABTestTrigger(task.toTrack, task.properties);
+      return;
+    }
+    long cost = System.nanoTime() - begin;
+    enqueueNanos.addAndGet(cost);
+    long max = maxEnqueueNanos.get();
+    while (cost > max && !maxEnqueueNanos.compareAndSet(max, cost)) {
+      max = maxEnqueueNanos.get();
+    }
+  }
+
+  /**
+   * @return 是否写入队列，BLOCK 策略下等待期间服务关闭时返回 false
+   */
+  private boolean enqueue(TrackTask task) {
+    switch (queueFullPolicy) {
+      case BLOCK:
+        while (!queue.offer(task)) {
+          if (closed) {
+            return false;
+          }
+          LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        return true;
+      case DROP_OLDEST:
+        while (!queue.offer(task)) {
+          TrackTask oldest = queue.poll();
+          if (oldest != null && !spill(oldest)) {
+            droppedOldestCount.incrementAndGet();
+          }
+        }
+        return true;
+      default:
+        if (queue.offer(task)) {
+          return true;
+        }
+        if (!spill(task)) {
+          droppedNewestCount.incrementAndGet();
+          log.debug("The async track queue is full, drop the newest event.[toTrack:{}]", task.toTrack);
+        }
+        return false;
+    }
+  }
+
+  /**
+   * 队列已满时将要丢弃的埋点记录写入溢写队列
+   *
+   * @return 未开启本地溢写或写入失败时返回 false
+   */
+  private boolean spill(TrackTask task) {
+    try {
+      if (delegate.spillABTestTrigger(task.toTrack, task.properties)) {
+        spilledCount.incrementAndGet();
+        return true;
+      }
+    } catch (InvalidArgumentException | RuntimeException e) {
+      log.error("Failed to spill ABTest event.[toTrack:{}]", task.toTrack, e);
+    }
+    return false;
+  }
+
+  @Override
+  public boolean spillABTestTrigger(List<TrackRecord> toTrack, Map<String, Object> properties)
+      throws InvalidArgumentException {
+    return delegate.spillABTestTrigger(toTrack, properties);
+  }
+
+  /**
+   * 有后台线程在等待时唤醒其中一个
+   */
+  private void signalWorker() {
+    if (idleWorkers > 0) {
+      synchronized (idleLock) {
+        idleLock.notify();
+      }
+    }
+  }
+
+  private void drainLoop() {
+    while (true) {
+      TrackTask task = queue.poll();
+      if (task == null) {
+        if (closed) {
+          return;
+        }
+        task = awaitTask();
+      }
+      if (task != null) {
+        track(task);
+      }
+    }
+  }
+
+  /**
+   * 队列为空时等待写入线程唤醒
+   * <p>先登记为等待中再检查队列：写入线程推进写入位置后才检查等待线程数，二者至少有一方能看到对方。写入位置已推进但元素
+   * 尚未发布时让出 CPU 后重试</p>
+   *
+   * @return 取到的埋点记录，超时、被中断或服务关闭时返回 null
+   */
+  private TrackTask awaitTask() {
+    synchronized (idleLock) {
+      idleWorkers++;
+      try {
+        TrackTask task = queue.poll();
+        while (task == null && !closed) {
+          if (queue.size() > 0) {
+            Thread.yield();
+          } else {
+            idleLock.wait(IDLE_WAIT_MILLIS);
+          }
+          task = queue.poll();
+        }
+        return task;
+      } catch (InterruptedException e) {
+        log.debug("Async track worker is interrupted while waiting.");
+        return null;
+      } finally {
+        idleWorkers--;
+      }
+    }
+  }
+
+  private void track(TrackTask task) {
+    try {
+      delegate.trackABTestTrigger(task.toTrack, task.properties);
+      trackedCount.incrementAndGet();
+    } catch (InvalidArgumentException | RuntimeException e) {
+      failedCount.incrementAndGet();
+      log.error("Failed async track ABTest event.[toTrack:{}]", task.toTrack, e);
+    }
+  }
+
+  /**
+   * 当前队列中等待上报的批次数
+   *
+   * @return 队列深度
+   */
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  /**
+   * @return 队列容量
+   */
+  public int getQueueCapacity() {
+    return queue.capacity();
+  }
+
+  /**
+   * @return 累计写入队列的批次数
+   */
+  public long getEnqueuedCount() {
+    return queue.getOfferedCount();
+  }
+
+  /**
+   * @return DROP_OLDEST 策略下被挤出队列的批次数
+   */
+  public long getDroppedOldestCount() {
+    return droppedOldestCount.get();
+  }
+
+  /**
+   * @return DROP_NEWEST 策略下未能写入队列的批次数
+   */
+  public long getDroppedNewestCount() {
+    return droppedNewestCount.get();
+  }
+
+  /**
+   * @return 队列已满时写入溢写队列、未被丢弃的批次数
+   */
+  public long getSpilledCount() {
+    return spilledCount.get();
+  }
+
+  /**
+   * @return 后台线程上报成功的批次数
+   */
+  public long getTrackedCount() {
+    return trackedCount.get();
+  }
+
+  /**
+   * @return 后台线程上报失败的批次数
+   */
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  /**
+   * @return 请求线程写入队列的平均耗时 ns
+   */
+  public long getAverageEnqueueNanos() {
+    long count = queue.getOfferedCount() + droppedNewestCount.get();
+    if (queueFullPolicy == TrackQueueFullPolicyEnum.DROP_NEWEST) {
+      // DROP_NEWEST 策略下写入溢写队列的批次同样未能写入队列
+      count += spilledCount.get();
+    }
+    return count == 0 ? 0 : enqueueNanos.get() / count;
+  }
+
+  /**
+   * @return 请求线程写入队列的最大耗时 ns
+   */
+  public long getMaxEnqueueNanos() {
+    return maxEnqueueNanos.get();
+  }
+
+  /**
+   * 停止接收新的批次，等待后台线程上报完队列中剩余的埋点记录
+   */
+  @Override
+  public void close() {
+    closed = true;
+    synchronized (idleLock) {
+      idleLock.notifyAll();
+    }
+    long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MILLIS;
+    for (Thread worker : workers) {
+      long remaining = deadline - System.currentTimeMillis();
+      try {
+        if (remaining > 0) {
+          worker.join(remaining);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    // 关闭前后并发写入、或后台线程未及时退出时，剩余的批次在当前线程上报
+    TrackTask task;
+    while ((task = queue.poll()) != null) {
+      track(task);
+    }
+    log.info("Async track service closed.[tracked:{},failed:{},droppedOldest:{},droppedNewest:{}]",
+        trackedCount.get(), failedCount.get(), droppedOldestCount.get(), droppedNewestCount.get());
+  }
+
+  private static class TrackTask {
+    private final List<TrackRecord> toTrack;
+    private final Map<String, Object> properties;
+
+    /**
+     * 复制附加属性，并记录写入队列的时间作为事件时间，不受排队时间影响
+     */
+    TrackTask(List<TrackRecord> toTrack, Map<String, Object> properties) {
+      this.toTrack = toTrack;
+      this.properties = properties == null ? new HashMap<String, Object>() : new HashMap<>(properties);
+      if (!this.properties.containsKey(EVENT_TIME)) {
+        this.properties.put(EVENT_TIME, new Date());
+      }
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package com.sensorsdata.analytics.javasdk.service.impl;
+
+import static com.sensorsdata.analytics.javasdk.SensorsABTestConst.INVALID_ABTEST_UNIQUE_ID;
+
+import com.sensorsdata.analytics.javasdk.SensorsABTestConst;
+import com.sensorsdata.analytics.javasdk.bean.TrackConfig;
+import com.sensorsdata.analytics.javasdk.bean.TrackRecord;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * $ABTestTrigger 事件属性模板
+ * <p>试验 ID、试验组 ID、扩展字段以及 abtest_result 只取决于试验组配置与当前埋点配置，按（试验 ID、试验组 ID、试验结果 ID、
+ * 扩展字段）缓存为只读 Map，每个事件只需在模板上叠加用户相关的属性。埋点配置更新后，在下一次读取时整体丢弃已缓存的模板</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:30
+ */
+public class TrackPropertyTemplateCache {
+
+  private static final int MAX_TEMPLATES = 4096;
+
+  private static final String ABTEST_RESULT = "abtest_result";
+
+  private volatile Templates templates;
+
+  /**
+   * 获取埋点记录对应的属性模板
+   *
+   * @param trackConfig 当前埋点配置
+   * @param trackRecord 埋点记录
+   * @return 只读的属性模板
+   */
+  public Map<String, Object> get(TrackConfig trackConfig, TrackRecord trackRecord) {
+    Templates current = templates;
+    if (current == null || current.trackConfig != trackConfig) {
+      current = new Templates(trackConfig);
+      templates = current;
+    }
+    TemplateKey key = new TemplateKey(trackRecord);
+    Map<String, Object> template = current.cache.getIfPresent(key);
+    if (template == null) {
+      template = build(trackConfig, trackRecord);
+      current.cache.put(key, template);
+    }
+    return template;
+  }
+
+  /**
+   * @return 当前埋点配置下缓存的模板数量
+   */
+  public long size() {
+    Templates current = templates;
+    return current == null ? 0 : current.cache.size();
+  }
+
+  private static Map<String, Object> build(TrackConfig trackConfig, TrackRecord trackRecord) {
+    Map<String, Object> template = new HashMap<>();
+    template.put(SensorsABTestConst.EXPERIMENT_ID, trackRecord.getAbtestExperimentId());
+    //出组的情况没试验组字段
+    if (trackRecord.getAbtestExperimentGroupId() != null) {
+      template.put(SensorsABTestConst.EXPERIMENT_GROUP_ID, trackRecord.getAbtestExperimentGroupId());
+    }
+    Map<String, String> extFields = trackRecord.getExt();
+    List<String> triggerContentExt = trackConfig.getTriggerContentExt();
+    if (extFields != null && !extFields.isEmpty() && triggerContentExt != null) {
+      for (String ext : triggerContentExt) {
+        String field = extFields.get(ext);
+        if (field != null) {
+          template.put("$" + ext, field);
+        }
+      }
+    }
+    if (trackConfig.isPropertySetSwitch() && trackRecord.getAbtestExperimentResultId() != null
+        && !INVALID_ABTEST_UNIQUE_ID.equals(trackRecord.getAbtestExperimentResultId())) {
+      template.put(ABTEST_RESULT, Collections.singletonList(trackRecord.getAbtestExperimentResultId()));
+    }
+    return Collections.unmodifiableMap(template);
+  }
+
+  /**
+   * 同一埋点配置下的模板
+   */
+  private static final class Templates {
+
+    private final TrackConfig trackConfig;
+
+    private final Cache<TemplateKey, Map<String, Object>> cache =
+        CacheBuilder.newBuilder().maximumSize(MAX_TEMPLATES).build();
+
+    private Templates(TrackConfig trackConfig) {
+      this.trackConfig = trackConfig;
+    }
+  }
+
+  private static final class TemplateKey {
+
+    private final String experimentId;
+
+    private final String experimentGroupId;
+
+    private final String experimentResultId;
+
+    private final Map<String, String> ext;
+
+    private TemplateKey(TrackRecord trackRecord) {
+      this.experimentId = trackRecord.getAbtestExperimentId();
+      this.experimentGroupId = trackRecord.getAbtestExperimentGroupId();
+      this.experimentResultId = trackRecord.getAbtestExperimentResultId();
+      this.ext = trackRecord.getExt();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof TemplateKey)) {
+        return false;
+      }
+      TemplateKey that = (TemplateKey) o;
+      return Objects.equal(experimentId, that.experimentId)
+          && Objects.equal(experimentGroupId, that.experimentGroupId)
+          && Objects.equal(experimentResultId, that.experimentResultId)
+          && (ext == that.ext || Objects.equal(ext, that.ext));
+    }
+
+    @Override
+    public int hashCode() {
+      // 扩展字段通常与试验结果 ID 一一对应，不参与哈希
+      int result = experimentId == null ? 0 : experimentId.hashCode();
+      result = 31 * result + (experimentGroupId == null ? 0 : experimentGroupId.hashCode());
+      return 31 * result + (experimentResultId == null ? 0 : experimentResultId.hashCode());
+    }
+  }
+}
@@ -1,7 +1,5 @@
 package com.sensorsdata.analytics.javasdk.service.impl;
 
-import static com.sensorsdata.analytics.javasdk.SensorsABTestConst.INVALID_ABTEST_UNIQUE_ID;
-
 import com.sensorsdata.analytics.javasdk.ISensorsAnalytics;
 import com.sensorsdata.analytics.javasdk.SensorsABTestConst;
 import com.sensorsdata.analytics.javasdk.bean.TrackConfig;
@@ -10,18 +8,18 @@ import com.sensorsdata.analytics.javasdk.cache.EventCacheManager;
 import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
 import com.sensorsdata.analytics.javasdk.service.ITrackConfigService;
 import com.sensorsdata.analytics.javasdk.service.ITrackService;
+import com.sensorsdata.analytics.javasdk.util.EpochDayClock;
 import com.sensorsdata.analytics.javasdk.util.LogUtil;
+import com.sensorsdata.analytics.javasdk.util.OverlayPropertiesMap;
+import com.sensorsdata.analytics.javasdk.util.TrackEventBatcher;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import org.apache.commons.lang3.time.DateFormatUtils;
 
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 埋点配置管理
@@ -43,9 +41,14 @@ public class TrackService implements ITrackService {
   private final LogUtil log;
 
   /**
-   * 是否当天首次触发
+   * 最近一次附加 $lib_plugin_version 的日期（自 1970-01-01 起的天数），每天只有一个事件能更新成功
+   */
+  private final AtomicLong triggerDay = new AtomicLong(Long.MIN_VALUE);
+
+  /**
+   * 判断是否跨天的时钟
    */
-  private volatile String trigger;
+  private final EpochDayClock epochDayClock;
 
   /**
    * 是否启用事件缓存
@@ -60,42 +63,49 @@ public class TrackService implements ITrackService {
 
   private final ITrackConfigService trackConfigService;
 
+  /**
+   * 批量上报事件，未开启批量上报时为 null
+   */
+  private final TrackEventBatcher trackEventBatcher;
+
+  /**
+   * 按试验组配置与埋点配置缓存的事件属性模板
+   */
+  private final TrackPropertyTemplateCache propertyTemplateCache = new TrackPropertyTemplateCache();
+
 
   public TrackService(EventCacheManager eventCacheManager, LogUtil log, boolean enableEventCache,
       ISensorsAnalytics sensorsAnalytics, ITrackConfigService trackConfigService) {
+    this(eventCacheManager, log, enableEventCache, sensorsAnalytics, trackConfigService, null);
+  }
+
+  public TrackService(EventCacheManager eventCacheManager, LogUtil log, boolean enableEventCache,
+      ISensorsAnalytics sensorsAnalytics, ITrackConfigService trackConfigService,
+      TrackEventBatcher trackEventBatcher) {
+    this(eventCacheManager, log, enableEventCache, sensorsAnalytics, trackConfigService, trackEventBatcher,
+        new EpochDayClock());
+  }
+
+  public TrackService(EventCacheManager eventCacheManager, LogUtil log, boolean enableEventCache,
+      ISensorsAnalytics sensorsAnalytics, ITrackConfigService trackConfigService,
+      TrackEventBatcher trackEventBatcher, EpochDayClock epochDayClock) {
     this.eventCacheManager = eventCacheManager;
     this.log = log;
     this.enableEventCache = enableEventCache;
     this.sensorsAnalytics = sensorsAnalytics;
     this.trackConfigService = trackConfigService;
+    this.trackEventBatcher = trackEventBatcher;
+    this.epochDayClock = epochDayClock;
   }
 
 
-  private String findField(JsonNode node, String name) {
-    if (node == null) {
-      return null;
-    }
-
-    try {
-      JsonNode value = node.findValue(name);
-      if (value != null) {
-        return value.asText();
-      }
-    } catch (Exception e) {
-      log.warn("find field exception, node: [{}], fieldName: [{}]", node, name, e);
-    }
-    return null;
-  }
-
-
-
   private void firstTrigger(TrackRecord trackRecord, Map<String, Object> currentProperties) {
     String abTestExperimentId = trackRecord.getAbtestExperimentId();
     String abTestExperimentGroupId = trackRecord.getAbtestExperimentGroupId();
     //判断是否为当天首次上传，重启服务，升级 SDK 版本都会触发
-    String day = DateFormatUtils.ISO_8601_EXTENDED_DATE_FORMAT.format(Calendar.getInstance());
-    if (trigger == null || trigger.isEmpty() || !day.equals(trigger)) {
-      trigger = day;
+    long day = epochDayClock.currentEpochDay();
+    long lastDay = triggerDay.get();
+    if (day != lastDay && triggerDay.compareAndSet(lastDay, day)) {
       List<String> versions = Lists.newArrayList();
       versions.add(
           String.format("%s:%s", SensorsABTestConst.AB_TEST_EVENT_LIB_VERSION, SensorsABTestConst.VERSION));
@@ -116,39 +126,38 @@ public class TrackService implements ITrackService {
   }
 
 
-  private String getExtPropertyName(String ext) {
-    return "$" + ext;
-  }
-
   /**
-   * 补充$ABTestTrigger事件扩展属性
+   * 触发事件上报
    *
-   * @param trackConfig       埋点配置
-   * @param trackRecord       埋点记录
-   * @param currentProperties 当前属性Map
+   * @param toTrack    待上报的埋点记录
+   * @param properties 附加属性
+   * @throws com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException 参数校验不合法抛出该异常
    */
-  private void supplyExtProperties(TrackConfig trackConfig, TrackRecord trackRecord,
-      Map<String, Object> currentProperties) {
-    List<String> triggerContentExt = trackConfig.getTriggerContentExt();
-    for (String ext : triggerContentExt) {
-      String field = findField(trackRecord.getSrc(), ext);
-      if (field != null) {
-        log.debug("field is not null, set property, name: [{}], value: [{}]", ext, field);
-        currentProperties.put(getExtPropertyName(ext), field);
-      }
-    }
+  @Override
+  public void trackABTestTrigger(List<TrackRecord> toTrack, Map<String, Object> properties)
+      throws InvalidArgumentException {
+    trackABTestTrigger(toTrack, properties, false);
   }
 
-
   /**
-   * 触发事件上报
+   * 组装事件后写入批量上报的本地溢写队列
    *
-   * @param toTrack    带上报的埋点记录
+   * @param toTrack    待上报的埋点记录
    * @param properties 附加属性
+   * @return 未开启批量上报或本地溢写时返回 false
    * @throws com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException 参数校验不合法抛出该异常
    */
   @Override
-  public void trackABTestTrigger(List<TrackRecord> toTrack, Map<String, Object> properties)
+  public boolean spillABTestTrigger(List<TrackRecord> toTrack, Map<String, Object> properties)
+      throws InvalidArgumentException {
+    if (trackEventBatcher == null || !trackEventBatcher.isSpillEnabled()) {
+      return false;
+    }
+    trackABTestTrigger(toTrack, properties, true);
+    return true;
+  }
+
+  private void trackABTestTrigger(List<TrackRecord> toTrack, Map<String, Object> properties, boolean spill)
       throws InvalidArgumentException {
 
     if (properties == null) {
@@ -159,6 +168,9 @@ public class TrackService implements ITrackService {
     }
     // 获取埋点配置
     TrackConfig trackConfig = trackConfigService.getTrackConfig();
+    // 批量上报时，同一批次中相同的附加属性只保存一份，各事件在其上叠加自己的属性
+    Map<String, Object> sharedProperties =
+        trackEventBatcher == null ? null : trackEventBatcher.shareProperties(properties);
     /*
       track record记录的情况大多数为跳组、出组的情况，不能走缓存
       因为在后端多实例部署的情况下，无法确定上次请求命中的是哪个实例，命中的是哪个组
@@ -169,36 +181,36 @@ public class TrackService implements ITrackService {
     for (TrackRecord trackRecord : toTrack) {
       String distinctId = trackRecord.getUserInfo().getDistinctId();
       boolean isLoginId = trackRecord.getUserInfo().isLoginId();
-      String abTestExperimentId = trackRecord.getAbtestExperimentId();
-      String abTestExperimentGroupId = trackRecord.getAbtestExperimentGroupId();
       if (checkTrackRecord(trackRecord)) {
         continue;
       }
       if (trackConfig.isTriggerSwitch()) {
-        HashMap<String, Object> currentProperties = Maps.newHashMap(properties);
-
         if (isHitCache(trackRecord)) continue;
 
-        currentProperties.put(SensorsABTestConst.EXPERIMENT_ID, abTestExperimentId);
-        //出组的情况没试验组字段
-        if (abTestExperimentGroupId != null) {
-          currentProperties.put(SensorsABTestConst.EXPERIMENT_GROUP_ID, abTestExperimentGroupId);
+        // 试验 ID、试验组 ID、扩展字段、abtest_result 来自属性模板，只有用户相关的属性逐个事件写入
+        Map<String, Object> template = propertyTemplateCache.get(trackConfig, trackRecord);
+        Map<String, Object> currentProperties;
+        if (sharedProperties == null) {
+          // 直接交给分析 SDK 时属性会被修改（例如移除预置属性），需要完整可写的属性
+          currentProperties = Maps.newHashMap(properties);
+          currentProperties.putAll(template);
+        } else if (properties.isEmpty()) {
+          currentProperties = new OverlayPropertiesMap(template);
+        } else {
+          currentProperties = new OverlayPropertiesMap(sharedProperties);
+          currentProperties.putAll(template);
         }
         putCustomIds(trackRecord, currentProperties);
         putAnonymousId(trackRecord, currentProperties);
-        supplyExtProperties(trackConfig, trackRecord, currentProperties);
         firstTrigger(trackRecord, currentProperties);
-        if (trackConfig.isPropertySetSwitch()) {
-          propertySet(trackRecord, currentProperties);
-        }
-        track(trackRecord, distinctId, isLoginId, currentProperties);
+        track(trackRecord, distinctId, isLoginId, currentProperties, spill);
       }
 
 
     }
   }
 
-  private void putAnonymousId(TrackRecord trackRecord, HashMap<String, Object> currentProperties) {
+  private void putAnonymousId(TrackRecord trackRecord, Map<String, Object> currentProperties) {
 
     if (trackRecord.getSubjectName() != null && SensorsABTestConst.DEVICE_SUBJECT_NAME.equalsIgnoreCase(
         trackRecord.getSubjectName())) {
@@ -212,10 +224,20 @@ public class TrackService implements ITrackService {
   }
 
   private void track(TrackRecord trackRecord, String distinctId, boolean isLoginId,
-      Map<String, Object> currentProperties) throws InvalidArgumentException {
+      Map<String, Object> currentProperties, boolean spill) throws InvalidArgumentException {
     String abTestExperimentId = trackRecord.getAbtestExperimentId();
     String abTestExperimentGroupId = trackRecord.getAbtestExperimentGroupId();
-    this.sensorsAnalytics.track(distinctId, isLoginId, SensorsABTestConst.EVENT_TYPE, currentProperties);
+    if (spill) {
+      if (!trackEventBatcher.spill(distinctId, isLoginId, SensorsABTestConst.EVENT_TYPE, currentProperties)) {
+        log.warn("The track spill queue rejected the AB event, drop it.[userInfo:{},experimentId:{}]",
+            trackRecord.getUserInfo(), abTestExperimentId);
+        return;
+      }
+    } else if (trackEventBatcher != null) {
+      trackEventBatcher.track(distinctId, isLoginId, SensorsABTestConst.EVENT_TYPE, currentProperties);
+    } else {
+      this.sensorsAnalytics.track(distinctId, isLoginId, SensorsABTestConst.EVENT_TYPE, currentProperties);
+    }
     log.debug(
         "Successfully trigger AB event.[userInfo:{},experimentId:{},abTestExperimentGroupId:{}]",
         trackRecord.getUserInfo(), abTestExperimentId, abTestExperimentGroupId);
@@ -239,17 +261,11 @@ public class TrackService implements ITrackService {
     return false;
   }
 
-  private void putCustomIds(TrackRecord trackRecord, HashMap<String, Object> currentProperties) {
+  private void putCustomIds(TrackRecord trackRecord, Map<String, Object> currentProperties) {
     Map<String, String> customIds = trackRecord.getUserInfo().getCustomIds();
     if (null != customIds) {
       currentProperties.putAll(customIds);
     }
   }
 
-  private void propertySet(TrackRecord trackRecord, Map<String, Object> currentProperties) {
-    if (trackRecord.getAbtestExperimentResultId() != null && !INVALID_ABTEST_UNIQUE_ID.equals(
-        trackRecord.getAbtestExperimentResultId())) {
-      currentProperties.put("abtest_result", Lists.newArrayList(trackRecord.getAbtestExperimentResultId()));
-    }
-  }
 }
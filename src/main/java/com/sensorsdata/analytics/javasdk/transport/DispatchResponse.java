@@ -0,0 +1,47 @@
+package com.sensorsdata.analytics.javasdk.transport;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 分流请求的网络返回结果
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:11
+ */
+@Getter
+public class DispatchResponse {
+
+  /**
+   * HTTP 状态码
+   */
+  private final int statusCode;
+
+  /**
+   * 返回头，名称不区分大小写
+   */
+  private final Map<String, String> headers;
+
+  /**
+   * 返回体
+   */
+  private final byte[] body;
+
+  public DispatchResponse(int statusCode, Map<String, String> headers, byte[] body) {
+    this.statusCode = statusCode;
+    Map<String, String> caseInsensitiveHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    if (headers != null) {
+      caseInsensitiveHeaders.putAll(headers);
+    }
+    this.headers = Collections.unmodifiableMap(caseInsensitiveHeaders);
+    this.body = body == null ? new byte[0] : body;
+  }
+
+  public String getHeader(String name) {
+    return headers.get(name);
+  }
+}
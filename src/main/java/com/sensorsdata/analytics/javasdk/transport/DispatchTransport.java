@@ -0,0 +1,44 @@
+package com.sensorsdata.analytics.javasdk.transport;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * 分流请求的网络传输层，可通过 ABGlobalConfig.Builder#setDispatchTransport 替换默认实现
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:11
+ */
+public interface DispatchTransport extends Closeable {
+
+  /**
+   * 同步发送请求
+   *
+   * @param url                 请求地址
+   * @param payload             请求体
+   * @param headers             请求头
+   * @param timeoutMilliseconds 超时时间 ms
+   * @return 请求结果
+   * @throws IOException 网络异常
+   */
+  DispatchResponse send(String url, byte[] payload, Map<String, String> headers, int timeoutMilliseconds)
+      throws IOException;
+
+  /**
+   * 异步发送请求
+   *
+   * @param url                 请求地址
+   * @param payload             请求体
+   * @param headers             请求头
+   * @param timeoutMilliseconds 超时时间 ms
+   * @param executor            阻塞式实现用于执行请求的线程池，非阻塞实现可忽略
+   * @return 请求结果，网络异常时 future 以 IOException 失败
+   */
+  ListenableFuture<DispatchResponse> sendAsync(String url, byte[] payload, Map<String, String> headers,
+      int timeoutMilliseconds, Executor executor);
+}
@@ -0,0 +1,117 @@
+package com.sensorsdata.analytics.javasdk.transport.impl;
+
+import com.sensorsdata.analytics.javasdk.transport.DispatchResponse;
+import com.sensorsdata.analytics.javasdk.transport.DispatchTransport;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * 基于 Apache HttpClient 4 连接池的传输实现，SDK 默认使用
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:11
+ */
+public class ApacheHttpClientTransport implements DispatchTransport {
+
+  private static final String TIME_OUT = "timeout";
+
+  private final CloseableHttpClient httpClient;
+
+  public ApacheHttpClientTransport(HttpClientBuilder httpClientBuilder, int maxTotal, int maxPerRoute) {
+    PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager();
+    cm.setMaxTotal(maxTotal);
+    cm.setDefaultMaxPerRoute(maxPerRoute);
+    httpClient = httpClientBuilder
+        .setUserAgent("SensorsAnalytics AB Test SDK")
+        .setConnectionManager(cm)
+        .setKeepAliveStrategy(new SensorsKeepAliveStrategy())
+        .build();
+  }
+
+  @Override
+  public DispatchResponse send(String url, byte[] payload, Map<String, String> headers, int timeoutMilliseconds)
+      throws IOException {
+    HttpPost httpPost = new HttpPost(url);
+    RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(timeoutMilliseconds)
+        .setConnectionRequestTimeout(timeoutMilliseconds)
+        .setSocketTimeout(timeoutMilliseconds)
+        .setStaleConnectionCheckEnabled(true)
+        .build();
+    httpPost.setConfig(requestConfig);
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      httpPost.setHeader(header.getKey(), header.getValue());
+    }
+    if (payload != null && payload.length != 0) {
+      httpPost.setEntity(new ByteArrayEntity(payload));
+    }
+    try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+      Map<String, String> responseHeaders = new HashMap<>();
+      for (Header header : response.getAllHeaders()) {
+        if (!responseHeaders.containsKey(header.getName())) {
+          responseHeaders.put(header.getName(), header.getValue());
+        }
+      }
+      byte[] body = response.getEntity() == null ? null : EntityUtils.toByteArray(response.getEntity());
+      return new DispatchResponse(response.getStatusLine().getStatusCode(), responseHeaders, body);
+    }
+  }
+
+  @Override
+  public ListenableFuture<DispatchResponse> sendAsync(final String url, final byte[] payload,
+      final Map<String, String> headers, final int timeoutMilliseconds, Executor executor) {
+    ListenableFutureTask<DispatchResponse> task = ListenableFutureTask.create(new Callable<DispatchResponse>() {
+      @Override
+      public DispatchResponse call() throws IOException {
+        return send(url, payload, headers, timeoutMilliseconds);
+      }
+    });
+    executor.execute(task);
+    return task;
+  }
+
+  @Override
+  public void close() throws IOException {
+    httpClient.close();
+  }
+
+  static class SensorsKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+    @Override
+    public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+      HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+      while (it.hasNext()) {
+        HeaderElement he = it.nextElement();
+        String param = he.getName();
+        String value = he.getValue();
+        if (value != null && param.equalsIgnoreCase(TIME_OUT)) {
+          return Long.parseLong(value) * 1000;
+        }
+      }
+      return 60 * 1000;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.sensorsdata.analytics.javasdk.transport.impl;
+
+import com.sensorsdata.analytics.javasdk.transport.DispatchResponse;
+import com.sensorsdata.analytics.javasdk.transport.DispatchTransport;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * 基于 JDK HttpURLConnection 的传输实现，不依赖第三方 HTTP 客户端，连接复用由 JDK keep-alive 缓存负责
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:11
+ */
+public class UrlConnectionTransport implements DispatchTransport {
+
+  private static final String USER_AGENT = "SensorsAnalytics AB Test SDK";
+
+  @Override
+  public DispatchResponse send(String url, byte[] payload, Map<String, String> headers, int timeoutMilliseconds)
+      throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    try {
+      connection.setRequestMethod("POST");
+      connection.setConnectTimeout(timeoutMilliseconds);
+      connection.setReadTimeout(timeoutMilliseconds);
+      connection.setUseCaches(false);
+      connection.setRequestProperty("User-Agent", USER_AGENT);
+      for (Map.Entry<String, String> header : headers.entrySet()) {
+        connection.setRequestProperty(header.getKey(), header.getValue());
+      }
+      if (payload != null && payload.length != 0) {
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(payload.length);
+        try (OutputStream os = connection.getOutputStream()) {
+          os.write(payload);
+        }
+      }
+      int statusCode = connection.getResponseCode();
+      Map<String, String> responseHeaders = new HashMap<>();
+      for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+        // key 为 null 的是状态行
+        if (header.getKey() != null && !header.getValue().isEmpty()) {
+          responseHeaders.put(header.getKey(), header.getValue().get(0));
+        }
+      }
+      InputStream is = statusCode >= HttpURLConnection.HTTP_BAD_REQUEST
+          ? connection.getErrorStream() : connection.getInputStream();
+      byte[] body = null;
+      if (is != null) {
+        // 完整读取并关闭输入流，连接才会回到 keep-alive 缓存中复用
+        try (InputStream in = is) {
+          body = ByteStreams.toByteArray(in);
+        }
+      }
+      return new DispatchResponse(statusCode, responseHeaders, body);
+    } catch (IOException e) {
+      connection.disconnect();
+      throw e;
+    }
+  }
+
+  @Override
+  public ListenableFuture<DispatchResponse> sendAsync(final String url, final byte[] payload,
+      final Map<String, String> headers, final int timeoutMilliseconds, Executor executor) {
+    ListenableFutureTask<DispatchResponse> task = ListenableFutureTask.create(new Callable<DispatchResponse>() {
+      @Override
+      public DispatchResponse call() throws IOException {
+        return send(url, payload, headers, timeoutMilliseconds);
+      }
+    });
+    executor.execute(task);
+    return task;
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -2,20 +2,23 @@ package com.sensorsdata.analytics.javasdk.util;
 
 import com.sensorsdata.analytics.javasdk.SensorsABParams;
 import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserCacheKey;
 import com.sensorsdata.analytics.javasdk.common.Pair;
 import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.regex.Pattern;
 
 /**
@@ -151,26 +154,80 @@ public class ABTestUtil {
   }
 
   /**
-   * 生成用户命中缓存key
+   * 自定义主体名称的驻留池，同一名称在所有请求间共享同一个 String 实例
+   */
+  private static final Interner<String> CUSTOM_ID_NAMES = Interners.newWeakInterner();
+
+  /**
+   * 生成自定义主体的规范表示：按名称排序，名称驻留
+   * <p>逻辑上相同的 customIds 无论来自哪种 Map 实现、插入顺序如何，规范化后的遍历顺序都相同，
+   * 由此生成的缓存 key 也相同</p>
+   *
+   * @param customIds 自定义主体
+   * @return 按名称自然顺序排序的自定义主体；为 null、为空或含有 null 名称时原样返回
+   */
+  public static Map<String, String> canonicalCustomIds(Map<String, String> customIds) {
+    if (customIds == null || customIds.isEmpty()) {
+      return customIds;
+    }
+    SortedMap<String, String> canonical = new TreeMap<>();
+    for (Map.Entry<String, String> entry : customIds.entrySet()) {
+      if (entry.getKey() == null) {
+        // 含有 null 名称的 customIds 会在参数校验时被拒绝，无需规范化
+        return customIds;
+      }
+      canonical.put(CUSTOM_ID_NAMES.intern(entry.getKey()), entry.getValue());
+    }
+    return canonical;
+  }
+
+  /**
+   * 从试验的原始内容中提取 $ABTestTrigger 事件需要的扩展字段
+   * <p>只保留埋点配置要求的字段的文本值，提取后不再需要持有原始内容</p>
    *
-   * @param userInfo 用户标识信息
-   * @param log 日志打印工具
-   * @return 缓存key
+   * @param src    试验的原始内容
+   * @param fields 埋点配置中的扩展字段名
+   * @return 字段名到文本值的只读 Map，没有字段时为空 Map
    */
-  public static String generateUserResultCacheKey(UserInfo userInfo, LogUtil log) {
-    String key = generateDefaultUserResultCacheKey(userInfo);
-    try {
-      MessageDigest instance = MessageDigest.getInstance("MD5");
-      instance.update(key.getBytes(StandardCharsets.UTF_8));
-      return new String(instance.digest(), StandardCharsets.UTF_8);
-    } catch (NoSuchAlgorithmException ignore) {
-      log.error("failed generate cache md5 key,so use original key.[distinctId:{},isLoginId:{},customIds:{}].",
-          userInfo.getDistinctId(), userInfo.isLoginId(), map2Str(userInfo.getCustomIds()));
+  public static Map<String, String> extractExt(JsonNode src, List<String> fields) {
+    if (src == null || fields == null || fields.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, String> ext = null;
+    for (String field : fields) {
+      JsonNode value = src.findValue(field);
+      if (value == null) {
+        continue;
+      }
+      if (ext == null) {
+        ext = new HashMap<>(fields.size() * 2);
+      }
+      ext.put(field, value.asText());
+    }
+    if (ext == null) {
+      return Collections.emptyMap();
     }
-    return key;
+    if (ext.size() == 1) {
+      Map.Entry<String, String> entry = ext.entrySet().iterator().next();
+      return Collections.singletonMap(entry.getKey(), entry.getValue());
+    }
+    return Collections.unmodifiableMap(ext);
   }
 
-  private static String generateDefaultUserResultCacheKey(UserInfo userInfo) {
-    return String.format("%s_%b_%s", userInfo.getDistinctId(), userInfo.isLoginId(), map2Str(userInfo.getCustomIds()));
+  /**
+   * 生成分流请求合并使用的 key，请求参数完全相同的在途请求才会被合并
+   * <p>自定义属性不为空时请求会携带参数名，此时自定义属性与参数名也属于 key 的一部分；各字段以长度前缀编码，
+   * 不同的用户标识、属性不会得到相同的 key</p>
+   *
+   * @param userInfo  用户标识信息
+   * @param paramName 试验参数名
+   * @return 请求合并 key
+   */
+  public static UserCacheKey generateDispatchKey(UserInfo userInfo, String paramName) {
+    Map<String, Object> customProperties = userInfo.getCustomProperties();
+    if (customProperties == null || customProperties.isEmpty()) {
+      return UserCacheKey.of(userInfo);
+    }
+    return UserCacheKey.of(userInfo, customProperties, paramName);
   }
 }
@@ -0,0 +1,136 @@
+package com.sensorsdata.analytics.javasdk.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界的多生产者、多消费者无锁环形队列
+ * <p>每个槽位带一个序号：序号等于写入位置时可写，等于写入位置 + 1 时可读；生产者与消费者分别以 CAS 推进写入、读取位置，
+ * 抢到位置后再写入元素并发布新的序号。队列满或空时立即返回，不阻塞调用方</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:17
+ */
+public class BoundedRingBuffer<E> {
+
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private final int mask;
+
+  private final AtomicReferenceArray<E> elements;
+
+  private final AtomicLongArray sequences;
+
+  /**
+   * 下一个写入位置，即累计写入的元素数量
+   */
+  private final AtomicLong tail = new AtomicLong();
+
+  /**
+   * 下一个读取位置，即累计读取的元素数量
+   */
+  private final AtomicLong head = new AtomicLong();
+
+  /**
+   * @param capacity 容量，按 2 的幂向上取整，最小为 2
+   */
+  public BoundedRingBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    // 容量为 1 时，位置 n 的可读序号与位置 n + 1 的可写序号相同，至少需要 2 个槽位
+    int size = capacity >= MAX_CAPACITY ? MAX_CAPACITY : Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+    this.mask = size - 1;
+    this.elements = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * 写入元素
+   *
+   * @param element 元素，不能为 null
+   * @return 队列已满时返回 false
+   */
+  public boolean offer(E element) {
+    if (element == null) {
+      throw new NullPointerException("element");
+    }
+    long position = tail.get();
+    while (true) {
+      int index = (int) position & mask;
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          elements.lazySet(index, element);
+          sequences.lazySet(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  /**
+   * 读取并移除最早写入的元素
+   *
+   * @return 队列为空时返回 null
+   */
+  public E poll() {
+    long position = head.get();
+    while (true) {
+      int index = (int) position & mask;
+      long difference = sequences.get(index) - (position + 1);
+      if (difference == 0) {
+        if (head.compareAndSet(position, position + 1)) {
+          E element = elements.get(index);
+          elements.lazySet(index, null);
+          sequences.lazySet(index, position + mask + 1);
+          return element;
+        }
+        position = head.get();
+      } else if (difference < 0) {
+        return null;
+      } else {
+        position = head.get();
+      }
+    }
+  }
+
+  /**
+   * 当前元素数量，并发写入与读取时为近似值
+   *
+   * @return 元素数量
+   */
+  public int size() {
+    while (true) {
+      long before = head.get();
+      long currentTail = tail.get();
+      if (head.get() == before) {
+        return (int) Math.max(0, Math.min(currentTail - before, capacity()));
+      }
+    }
+  }
+
+  /**
+   * @return 队列容量
+   */
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * @return 累计成功写入的元素数量
+   */
+  public long getOfferedCount() {
+    return tail.get();
+  }
+}
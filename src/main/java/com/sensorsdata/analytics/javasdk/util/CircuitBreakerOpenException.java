@@ -0,0 +1,19 @@
+package com.sensorsdata.analytics.javasdk.util;
+
+import java.io.IOException;
+
+/**
+ * 熔断器处于打开状态，请求未发出即被拒绝
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:29
+ */
+public class CircuitBreakerOpenException extends IOException {
+
+  private static final long serialVersionUID = 3129562460238715473L;
+
+  public CircuitBreakerOpenException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,232 @@
+package com.sensorsdata.analytics.javasdk.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 请求压缩与返回结果解压
+ * <p>Deflater/Inflater 持有堆外内存，频繁创建与回收代价较高，这里按线程数量池化复用；gzip 头尾由本类直接读写，
+ * 避免 GZIPOutputStream/GZIPInputStream 每次请求重新创建 Deflater/Inflater</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:24
+ */
+public class CompressionCodec {
+
+  public static final String GZIP = "gzip";
+
+  public static final String DEFLATE = "deflate";
+
+  private static final int GZIP_MAGIC = 0x8b1f;
+
+  private static final int FHCRC = 2;
+
+  private static final int FEXTRA = 4;
+
+  private static final int FNAME = 8;
+
+  private static final int FCOMMENT = 16;
+
+  private static final int BUFFER_SIZE = 4096;
+
+  /**
+   * 默认的解压后最大长度，分流返回结果远小于该值；超出时视为异常数据，避免异常的代理或服务端返回的压缩炸弹耗尽内存
+   */
+  public static final int DEFAULT_MAX_DECODED_SIZE = 16 * 1024 * 1024;
+
+  private final int threshold;
+
+  private final int level;
+
+  private final int maxDecodedSize;
+
+  private final BlockingQueue<Deflater> deflaters;
+
+  /**
+   * 无 zlib 头的 Inflater，用于 gzip 以及不规范的 raw deflate 返回结果
+   */
+  private final BlockingQueue<Inflater> rawInflaters;
+
+  private final BlockingQueue<Inflater> zlibInflaters;
+
+  public CompressionCodec(int threshold, int level) {
+    this(threshold, level, DEFAULT_MAX_DECODED_SIZE);
+  }
+
+  public CompressionCodec(int threshold, int level, int maxDecodedSize) {
+    this.threshold = threshold;
+    this.level = level;
+    this.maxDecodedSize = maxDecodedSize;
+    int poolSize = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    this.deflaters = new ArrayBlockingQueue<>(poolSize);
+    this.rawInflaters = new ArrayBlockingQueue<>(poolSize);
+    this.zlibInflaters = new ArrayBlockingQueue<>(poolSize);
+  }
+
+  /**
+   * 请求体是否需要压缩
+   */
+  public boolean shouldCompress(byte[] payload) {
+    return payload != null && payload.length >= threshold;
+  }
+
+  /**
+   * gzip 压缩
+   */
+  public byte[] gzip(byte[] data) {
+    Deflater deflater = deflaters.poll();
+    if (deflater == null) {
+      deflater = new Deflater(level, true);
+    }
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+      // gzip 头：magic、CM=8(deflate)、FLG、MTIME、XFL、OS
+      out.write(new byte[] {(byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> 8), Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0},
+          0, 10);
+      deflater.setInput(data);
+      deflater.finish();
+      byte[] buffer = new byte[BUFFER_SIZE];
+      while (!deflater.finished()) {
+        int count = deflater.deflate(buffer);
+        out.write(buffer, 0, count);
+      }
+      CRC32 crc = new CRC32();
+      crc.update(data);
+      writeIntLE(out, (int) crc.getValue());
+      writeIntLE(out, data.length);
+      return out.toByteArray();
+    } finally {
+      deflater.reset();
+      if (!deflaters.offer(deflater)) {
+        deflater.end();
+      }
+    }
+  }
+
+  /**
+   * 按 Content-Encoding 解压返回结果
+   *
+   * @param encoding Content-Encoding，为空或不支持的编码时原样返回
+   * @param data     返回体
+   * @return 解压后的数据
+   * @throws IOException 数据格式错误，或解压后的长度超过上限
+   */
+  public byte[] decode(String encoding, byte[] data) throws IOException {
+    if (encoding == null || data.length == 0) {
+      return data;
+    }
+    String normalized = encoding.trim().toLowerCase();
+    if (GZIP.equals(normalized) || "x-gzip".equals(normalized)) {
+      return gunzip(data);
+    }
+    if (DEFLATE.equals(normalized)) {
+      // 部分服务端的 deflate 编码不带 zlib 头，按头部校验区分，解压失败（包括超过长度上限）时不再重试
+      if (hasZlibHeader(data)) {
+        return inflate(zlibInflaters, false, data, 0, data.length);
+      }
+      return inflate(rawInflaters, true, data, 0, data.length);
+    }
+    return data;
+  }
+
+  private byte[] gunzip(byte[] data) throws IOException {
+    if (data.length < 18 || readShortLE(data, 0) != GZIP_MAGIC || data[2] != Deflater.DEFLATED) {
+      throw new IOException("Not in gzip format.");
+    }
+    int flags = data[3] & 0xff;
+    int offset = 10;
+    if ((flags & FEXTRA) != 0) {
+      offset += 2 + readShortLE(data, offset);
+    }
+    if ((flags & FNAME) != 0) {
+      offset = skipZeroTerminated(data, offset);
+    }
+    if ((flags & FCOMMENT) != 0) {
+      offset = skipZeroTerminated(data, offset);
+    }
+    if ((flags & FHCRC) != 0) {
+      offset += 2;
+    }
+    if (offset > data.length - 8) {
+      throw new IOException("Corrupt gzip header.");
+    }
+    byte[] result = inflate(rawInflaters, true, data, offset, data.length - 8 - offset);
+    CRC32 crc = new CRC32();
+    crc.update(result);
+    if ((int) crc.getValue() != readIntLE(data, data.length - 8) || result.length != readIntLE(data, data.length - 4)) {
+      throw new IOException("Corrupt gzip trailer.");
+    }
+    return result;
+  }
+
+  private byte[] inflate(BlockingQueue<Inflater> pool, boolean nowrap, byte[] data, int offset, int length)
+      throws IOException {
+    Inflater inflater = pool.poll();
+    if (inflater == null) {
+      inflater = new Inflater(nowrap);
+    }
+    try {
+      inflater.setInput(data, offset, length);
+      ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(length * 4L, maxDecodedSize));
+      byte[] buffer = new byte[BUFFER_SIZE];
+      while (!inflater.finished()) {
+        int count = inflater.inflate(buffer);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new IOException("Unexpected end of compressed data.");
+        }
+        if (count > maxDecodedSize - out.size()) {
+          throw new IOException(String.format("Decompressed data exceeds %d bytes.", maxDecodedSize));
+        }
+        out.write(buffer, 0, count);
+      }
+      return out.toByteArray();
+    } catch (DataFormatException e) {
+      throw new IOException("Invalid compressed data.", e);
+    } finally {
+      inflater.reset();
+      if (!pool.offer(inflater)) {
+        inflater.end();
+      }
+    }
+  }
+
+  /**
+   * zlib 头：CM 为 8（deflate），且前两个字节按大端序是 31 的倍数
+   */
+  private static boolean hasZlibHeader(byte[] data) {
+    return data.length >= 2 && (data[0] & 0x0f) == Deflater.DEFLATED
+        && (((data[0] & 0xff) << 8) | (data[1] & 0xff)) % 31 == 0;
+  }
+
+  private static int skipZeroTerminated(byte[] data, int offset) throws IOException {
+    while (offset < data.length && data[offset] != 0) {
+      offset++;
+    }
+    if (offset >= data.length) {
+      throw new IOException("Corrupt gzip header.");
+    }
+    return offset + 1;
+  }
+
+  private static int readShortLE(byte[] data, int offset) {
+    return (data[offset] & 0xff) | ((data[offset + 1] & 0xff) << 8);
+  }
+
+  private static int readIntLE(byte[] data, int offset) {
+    return readShortLE(data, offset) | (readShortLE(data, offset + 2) << 16);
+  }
+
+  private static void writeIntLE(ByteArrayOutputStream out, int value) {
+    out.write(value & 0xff);
+    out.write((value >> 8) & 0xff);
+    out.write((value >> 16) & 0xff);
+    out.write((value >> 24) & 0xff);
+  }
+}
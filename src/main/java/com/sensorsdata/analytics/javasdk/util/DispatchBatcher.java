@@ -0,0 +1,256 @@
+package com.sensorsdata.analytics.javasdk.util;
+
+import com.sensorsdata.analytics.javasdk.bean.DispatchResponseBody;
+import com.sensorsdata.analytics.javasdk.transport.DispatchResponse;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 跨用户批量分流请求
+ * <p>在时间窗口内（或达到最大批量时）收集多个线程未命中缓存的分流请求，合并为一次网络请求发送，再按顺序拆分回各用户的结果。</p>
+ * <p>请求格式：{"requests": [单用户请求参数, ...]}；返回格式：{"status": "SUCCESS", "responses": [单用户返回结果, ...]}，
+ * responses 与 requests 顺序一一对应</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:08
+ */
+public class DispatchBatcher implements Closeable {
+
+  public static final String REQUESTS_KEY = "requests";
+
+  public static final String RESPONSES_KEY = "responses";
+
+  private final LogUtil log;
+
+  private final HttpConsumer httpConsumer;
+
+  /**
+   * 批量请求的发送线程池，与业务异步线程池隔离，避免等待批量结果的线程占满线程池导致批量请求无法发出；
+   * 线程数与等待队列均不超过连接池大小，分流服务变慢时不会无限创建线程，超出的批次直接以空结果完成
+   */
+  private final ExecutorService sender;
+
+  private final DispatchWireFormat wireFormat;
+
+  private final DispatchResponseDecoder decoder;
+
+  private final String batchApiUrl;
+
+  private final long windowNanos;
+
+  private final int maxBatchSize;
+
+  private final BlockingQueue<PendingRequest> pendingRequests = new LinkedBlockingQueue<>();
+
+  private final Thread flusher;
+
+  private volatile boolean closed;
+
+  public DispatchBatcher(LogUtil log, HttpConsumer httpConsumer, DispatchWireFormat wireFormat,
+      DispatchResponseDecoder decoder, String batchApiUrl, int windowMilliseconds, int maxBatchSize,
+      int maxSenders) {
+    this.log = log;
+    this.httpConsumer = httpConsumer;
+    ThreadPoolExecutor senderPool = new ThreadPoolExecutor(maxSenders, maxSenders, 60L, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(maxSenders),
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sensors-abtest-batch-sender-%d").build());
+    senderPool.allowCoreThreadTimeOut(true);
+    this.sender = senderPool;
+    this.wireFormat = wireFormat;
+    this.decoder = decoder;
+    this.batchApiUrl = batchApiUrl;
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMilliseconds);
+    this.maxBatchSize = maxBatchSize;
+    this.flusher = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        flushLoop();
+      }
+    }, "sensors-abtest-dispatch-batcher");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+    this.log.info("Initializing dispatch batcher:batchApiUrl:{};window:{} ms;maxBatchSize:{};maxSenders:{}.",
+        batchApiUrl, windowMilliseconds, maxBatchSize, maxSenders);
+  }
+
+  /**
+   * 提交单个用户的分流请求，等待与其他请求一起批量发送
+   *
+   * @param params              单用户请求参数
+   * @param timeoutMilliseconds 请求超时时间 ms
+   * @return 单用户返回结果，请求失败、批量结果中缺失或批量器已关闭时为 null
+   */
+  public ListenableFuture<DispatchResponseBody> submit(Map<String, Object> params, int timeoutMilliseconds) {
+    SettableFuture<DispatchResponseBody> future = SettableFuture.create();
+    if (closed) {
+      future.set(null);
+      return future;
+    }
+    pendingRequests.add(new PendingRequest(params, timeoutMilliseconds, future));
+    if (closed) {
+      // 与 close 并发时 flusher 可能已经退出，由提交线程完成剩余的请求
+      completeRemaining();
+    }
+    return future;
+  }
+
+  private void flushLoop() {
+    List<PendingRequest> batch = new ArrayList<>(maxBatchSize);
+    while (!closed) {
+      try {
+        PendingRequest first = pendingRequests.take();
+        batch.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            break;
+          }
+          PendingRequest next = pendingRequests.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        send(new ArrayList<>(batch));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        complete(batch, null);
+        break;
+      } catch (IOException | RuntimeException e) {
+        log.error("Failed to send batch dispatch request.[size:{}]", batch.size(), e);
+        complete(batch, null);
+      } finally {
+        batch.clear();
+      }
+    }
+    completeRemaining();
+  }
+
+  private void completeRemaining() {
+    List<PendingRequest> remaining = new ArrayList<>();
+    pendingRequests.drainTo(remaining);
+    complete(remaining, null);
+  }
+
+  /**
+   * 异步发送一批请求，发送期间 flusher 线程继续攒下一批
+   */
+  private void send(final List<PendingRequest> batch) throws IOException {
+    List<Map<String, Object>> requests = new ArrayList<>(batch.size());
+    int timeoutMilliseconds = 0;
+    for (PendingRequest pendingRequest : batch) {
+      requests.add(pendingRequest.params);
+      timeoutMilliseconds = Math.max(timeoutMilliseconds, pendingRequest.timeoutMilliseconds);
+    }
+    byte[] payload = wireFormat.encode(Collections.singletonMap(REQUESTS_KEY, requests));
+    Futures.addCallback(httpConsumer.exchangeAsync(batchApiUrl, payload, wireFormat.getContentType(),
+        wireFormat.getAccept(), timeoutMilliseconds, sender),
+        new FutureCallback<DispatchResponse>() {
+          @Override
+          public void onSuccess(DispatchResponse response) {
+            if (wireFormat.fallbackIfRejected(response)) {
+              resend(batch);
+              return;
+            }
+            handleResult(batch, response);
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            if (t instanceof CircuitBreakerOpenException) {
+              log.debug("The dispatch circuit breaker is open, skip batch dispatch.[size:{}]", batch.size());
+            } else if (t instanceof RejectedExecutionException) {
+              log.warn("Too many batch dispatch requests in flight, skip batch dispatch.[size:{}]", batch.size());
+            } else {
+              log.error("Failed to network request of batch dispatch.[size:{}]", batch.size(), t);
+            }
+            complete(batch, null);
+          }
+        });
+  }
+
+  private void resend(List<PendingRequest> batch) {
+    try {
+      send(batch);
+    } catch (IOException | RuntimeException e) {
+      log.error("Failed to send batch dispatch request.[size:{}]", batch.size(), e);
+      complete(batch, null);
+    }
+  }
+
+  private void handleResult(List<PendingRequest> batch, DispatchResponse response) {
+    byte[] result = response.getBody();
+    log.debug("Successfully get the batch dispatch result.[size:{},bytes:{}]", batch.size(), result.length);
+    List<DispatchResponseBody> responses;
+    try {
+      responses = decoder.decodeBatch(result);
+    } catch (IOException e) {
+      log.error("Failed to parse batch dispatch result.[size:{}]", batch.size(), e);
+      complete(batch, null);
+      return;
+    }
+    if (responses == null) {
+      log.error("Batch dispatch request failed.[size:{},statusCode:{},bytes:{}]", batch.size(),
+          response.getStatusCode(), result.length);
+      complete(batch, null);
+      return;
+    }
+    for (int i = 0; i < batch.size(); i++) {
+      batch.get(i).future.set(i < responses.size() ? responses.get(i) : null);
+    }
+  }
+
+  private void complete(List<PendingRequest> batch, DispatchResponseBody response) {
+    for (PendingRequest pendingRequest : batch) {
+      pendingRequest.future.set(response);
+    }
+  }
+
+  /**
+   * 当前等待发送的请求数量
+   *
+   * @return 队列中的请求数量
+   */
+  public int getPendingSize() {
+    return pendingRequests.size();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    flusher.interrupt();
+    sender.shutdown();
+  }
+
+  private static class PendingRequest {
+    private final Map<String, Object> params;
+    private final int timeoutMilliseconds;
+    private final SettableFuture<DispatchResponseBody> future;
+
+    PendingRequest(Map<String, Object> params, int timeoutMilliseconds, SettableFuture<DispatchResponseBody> future) {
+      this.params = params;
+      this.timeoutMilliseconds = timeoutMilliseconds;
+      this.future = future;
+    }
+  }
+}
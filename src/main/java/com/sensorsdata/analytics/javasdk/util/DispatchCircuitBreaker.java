@@ -0,0 +1,241 @@
+package com.sensorsdata.analytics.javasdk.util;
+
+import com.sensorsdata.analytics.javasdk.bean.CircuitBreakerStateEnum;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分流请求熔断器
+ * <p>CLOSED 状态下以固定大小的环形窗口记录最近 windowSize 次请求的结果，请求数达到最小统计数量后，失败率或慢调用率
+ * 超过阈值即进入 OPEN；OPEN 状态持续 openMilliseconds 后进入 HALF_OPEN，放行少量探测请求，探测结果仍超过阈值则重新
+ * 进入 OPEN，否则恢复为 CLOSED 并清空统计窗口</p>
+ * <p>状态变更与请求统计在同一把锁内完成，相比网络请求本身的耗时可以忽略</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:29
+ */
+public class DispatchCircuitBreaker {
+
+  /**
+   * 计算失败率前的最小请求数量
+   */
+  private static final int MINIMUM_CALLS = 10;
+
+  /**
+   * HALF_OPEN 状态下放行的探测请求数量
+   */
+  private static final int HALF_OPEN_CALLS = 5;
+
+  private static final byte FAILURE = 1;
+
+  private static final byte SLOW = 2;
+
+  private final LogUtil log;
+
+  private final int failureRateThreshold;
+
+  private final long slowCallMilliseconds;
+
+  private final int slowCallRateThreshold;
+
+  private final long openMilliseconds;
+
+  private final int minimumCalls;
+
+  /**
+   * 最近请求结果的环形窗口，每个元素为 FAILURE 与 SLOW 的组合
+   */
+  private final byte[] outcomes;
+
+  private int position;
+
+  private int calls;
+
+  private int failedCalls;
+
+  private int slowCalls;
+
+  private int halfOpenPermitted;
+
+  private int halfOpenCalls;
+
+  private int halfOpenFailedCalls;
+
+  private int halfOpenSlowCalls;
+
+  private volatile CircuitBreakerStateEnum state = CircuitBreakerStateEnum.CLOSED;
+
+  private long openedAt;
+
+  private final AtomicLong shortCircuitedCalls = new AtomicLong();
+
+  private final AtomicLong openedCount = new AtomicLong();
+
+  private final AtomicLong halfOpenedCount = new AtomicLong();
+
+  private final AtomicLong closedCount = new AtomicLong();
+
+  /**
+   * @param windowSize            统计窗口大小（请求次数）
+   * @param failureRateThreshold  失败率阈值（百分比）
+   * @param slowCallMilliseconds  超过该耗时的请求视为慢调用
+   * @param slowCallRateThreshold 慢调用率阈值（百分比）
+   * @param openMilliseconds      OPEN 状态持续时间
+   */
+  public DispatchCircuitBreaker(LogUtil log, int windowSize, int failureRateThreshold, long slowCallMilliseconds,
+      int slowCallRateThreshold, long openMilliseconds) {
+    this.log = log;
+    this.outcomes = new byte[windowSize];
+    this.minimumCalls = Math.min(MINIMUM_CALLS, windowSize);
+    this.failureRateThreshold = failureRateThreshold;
+    this.slowCallMilliseconds = slowCallMilliseconds;
+    this.slowCallRateThreshold = slowCallRateThreshold;
+    this.openMilliseconds = openMilliseconds;
+  }
+
+  /**
+   * 申请发起一次请求，申请成功后必须调用 {@link #onSuccess} 或 {@link #onFailure} 记录结果
+   *
+   * @return 是否放行；OPEN 状态或 HALF_OPEN 状态下探测请求已满时返回 false
+   */
+  public boolean tryAcquire() {
+    if (state == CircuitBreakerStateEnum.CLOSED) {
+      return true;
+    }
+    synchronized (this) {
+      if (state == CircuitBreakerStateEnum.OPEN && System.currentTimeMillis() - openedAt >= openMilliseconds) {
+        transitionTo(CircuitBreakerStateEnum.HALF_OPEN);
+      }
+      if (state == CircuitBreakerStateEnum.CLOSED) {
+        return true;
+      }
+      if (state == CircuitBreakerStateEnum.HALF_OPEN && halfOpenPermitted < HALF_OPEN_CALLS) {
+        halfOpenPermitted++;
+        return true;
+      }
+    }
+    shortCircuitedCalls.incrementAndGet();
+    return false;
+  }
+
+  public void onSuccess(long durationMilliseconds) {
+    record(durationMilliseconds >= slowCallMilliseconds ? SLOW : 0);
+  }
+
+  public void onFailure(long durationMilliseconds) {
+    record(durationMilliseconds >= slowCallMilliseconds ? FAILURE | SLOW : FAILURE);
+  }
+
+  private synchronized void record(byte outcome) {
+    switch (state) {
+      case CLOSED:
+        recordClosed(outcome);
+        break;
+      case HALF_OPEN:
+        recordHalfOpen(outcome);
+        break;
+      default:
+        // OPEN 之前发出的请求迟到的结果不再计入
+        break;
+    }
+  }
+
+  private void recordClosed(byte outcome) {
+    if (calls == outcomes.length) {
+      byte evicted = outcomes[position];
+      failedCalls -= evicted & FAILURE;
+      slowCalls -= (evicted & SLOW) >> 1;
+    } else {
+      calls++;
+    }
+    outcomes[position] = outcome;
+    position = (position + 1) % outcomes.length;
+    failedCalls += outcome & FAILURE;
+    slowCalls += (outcome & SLOW) >> 1;
+    if (calls >= minimumCalls && exceedsThreshold(calls, failedCalls, slowCalls)) {
+      transitionTo(CircuitBreakerStateEnum.OPEN);
+    }
+  }
+
+  private void recordHalfOpen(byte outcome) {
+    halfOpenCalls++;
+    halfOpenFailedCalls += outcome & FAILURE;
+    halfOpenSlowCalls += (outcome & SLOW) >> 1;
+    if (halfOpenCalls < HALF_OPEN_CALLS) {
+      return;
+    }
+    if (exceedsThreshold(halfOpenCalls, halfOpenFailedCalls, halfOpenSlowCalls)) {
+      transitionTo(CircuitBreakerStateEnum.OPEN);
+    } else {
+      transitionTo(CircuitBreakerStateEnum.CLOSED);
+    }
+  }
+
+  private boolean exceedsThreshold(int total, int failed, int slow) {
+    return failed * 100 >= failureRateThreshold * total || slow * 100 >= slowCallRateThreshold * total;
+  }
+
+  private void transitionTo(CircuitBreakerStateEnum target) {
+    CircuitBreakerStateEnum source = state;
+    switch (target) {
+      case OPEN:
+        openedAt = System.currentTimeMillis();
+        openedCount.incrementAndGet();
+        log.warn("Dispatch circuit breaker opened.[from:{},calls:{},failedCalls:{},slowCalls:{}]", source,
+            source == CircuitBreakerStateEnum.CLOSED ? calls : halfOpenCalls,
+            source == CircuitBreakerStateEnum.CLOSED ? failedCalls : halfOpenFailedCalls,
+            source == CircuitBreakerStateEnum.CLOSED ? slowCalls : halfOpenSlowCalls);
+        break;
+      case HALF_OPEN:
+        halfOpenPermitted = 0;
+        halfOpenCalls = 0;
+        halfOpenFailedCalls = 0;
+        halfOpenSlowCalls = 0;
+        halfOpenedCount.incrementAndGet();
+        log.info("Dispatch circuit breaker half opened, permit {} trial requests.", HALF_OPEN_CALLS);
+        break;
+      default:
+        position = 0;
+        calls = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+        closedCount.incrementAndGet();
+        log.info("Dispatch circuit breaker closed.");
+        break;
+    }
+    state = target;
+  }
+
+  public CircuitBreakerStateEnum getState() {
+    return state;
+  }
+
+  /**
+   * 被熔断器直接拒绝的请求次数
+   */
+  public long getShortCircuitedCalls() {
+    return shortCircuitedCalls.get();
+  }
+
+  /**
+   * 进入 OPEN 状态的次数
+   */
+  public long getOpenedCount() {
+    return openedCount.get();
+  }
+
+  /**
+   * 进入 HALF_OPEN 状态的次数
+   */
+  public long getHalfOpenedCount() {
+    return halfOpenedCount.get();
+  }
+
+  /**
+   * 由 HALF_OPEN 恢复为 CLOSED 的次数
+   */
+  public long getClosedCount() {
+    return closedCount.get();
+  }
+}
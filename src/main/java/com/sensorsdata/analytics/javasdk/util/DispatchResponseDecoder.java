@@ -0,0 +1,245 @@
+package com.sensorsdata.analytics.javasdk.util;
+
+import com.sensorsdata.analytics.javasdk.SensorsABTestConst;
+import com.sensorsdata.analytics.javasdk.bean.DispatchExperiment;
+import com.sensorsdata.analytics.javasdk.bean.DispatchResponseBody;
+import com.sensorsdata.analytics.javasdk.bean.TrackConfig;
+import com.sensorsdata.analytics.javasdk.bean.cache.Variable;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分流返回结果的流式解析器
+ * <p>基于 JsonParser 顺序读取一次返回体，直接生成试验、出组试验以及埋点配置，不再构建完整的 JsonNode 树，
+ * 也不再对每个字段做递归的 findValue 查找。返回体可以是 JSON 或 Smile，由 DispatchWireFormat 选择解析器</p>
+ * <p>试验的 src 保留试验节点上除 variables 以外的全部字段（包括嵌套的对象和数组），埋点扩展字段仍按递归查找
+ * 从中提取</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:16
+ */
+public class DispatchResponseDecoder {
+
+  private final ObjectMapper objectMapper;
+
+  private final DispatchWireFormat wireFormat;
+
+  public DispatchResponseDecoder(ObjectMapper objectMapper, DispatchWireFormat wireFormat) {
+    this.objectMapper = objectMapper;
+    this.wireFormat = wireFormat;
+  }
+
+  /**
+   * 解析单用户分流返回结果
+   *
+   * @param body 返回体
+   * @return 解析结果，返回体为空时返回 null
+   * @throws IOException 返回体不是合法的 JSON
+   */
+  public DispatchResponseBody decode(byte[] body) throws IOException {
+    if (body == null || body.length == 0) {
+      return null;
+    }
+    try (JsonParser parser = wireFormat.createParser(body)) {
+      return parser.nextToken() == JsonToken.START_OBJECT ? readResponse(parser) : null;
+    }
+  }
+
+  /**
+   * 解析批量分流返回结果
+   *
+   * @param body 返回体
+   * @return 按请求顺序排列的单用户结果；返回体为空或状态不为 SUCCESS 时返回 null
+   * @throws IOException 返回体不是合法的 JSON
+   */
+  public List<DispatchResponseBody> decodeBatch(byte[] body) throws IOException {
+    if (body == null || body.length == 0) {
+      return null;
+    }
+    try (JsonParser parser = wireFormat.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return null;
+      }
+      String status = null;
+      List<DispatchResponseBody> responses = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if (SensorsABTestConst.STATUS_KEY.equals(fieldName)) {
+          status = readText(parser, token);
+        } else if (DispatchBatcher.RESPONSES_KEY.equals(fieldName) && token == JsonToken.START_ARRAY) {
+          responses = new ArrayList<>();
+          while (parser.nextToken() != JsonToken.END_ARRAY) {
+            responses.add(parser.getCurrentToken() == JsonToken.START_OBJECT ? readResponse(parser) : skip(parser));
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return SensorsABTestConst.SUCCESS.equals(status) ? responses : null;
+    }
+  }
+
+  private DispatchResponseBody readResponse(JsonParser parser) throws IOException {
+    String status = null;
+    List<DispatchExperiment> results = null;
+    List<DispatchExperiment> outList = null;
+    TrackConfig trackConfig = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      switch (fieldName) {
+        case SensorsABTestConst.STATUS_KEY:
+          status = readText(parser, token);
+          break;
+        case SensorsABTestConst.RESULTS_KEY:
+          results = readExperiments(parser, token);
+          break;
+        case SensorsABTestConst.OUT_LIST_KEY:
+          outList = readExperiments(parser, token);
+          break;
+        case SensorsABTestConst.ABTEST_TRACK_CONFIG_KEY:
+          if (token == JsonToken.START_OBJECT) {
+            trackConfig = objectMapper.readValue(parser, TrackConfig.class);
+          } else {
+            parser.skipChildren();
+          }
+          break;
+        default:
+          parser.skipChildren();
+          break;
+      }
+    }
+    return new DispatchResponseBody(status, results, outList, trackConfig);
+  }
+
+  private List<DispatchExperiment> readExperiments(JsonParser parser, JsonToken token) throws IOException {
+    if (token != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return null;
+    }
+    List<DispatchExperiment> experiments = new ArrayList<>();
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (parser.getCurrentToken() == JsonToken.START_OBJECT) {
+        experiments.add(readExperiment(parser));
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return experiments;
+  }
+
+  private DispatchExperiment readExperiment(JsonParser parser) throws IOException {
+    DispatchExperiment.DispatchExperimentBuilder builder = DispatchExperiment.builder();
+    ObjectNode src = objectMapper.createObjectNode();
+    Map<String, Variable> variableMap = new HashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if (SensorsABTestConst.VARIABLES_KEY.equals(fieldName)) {
+        readVariables(parser, token, variableMap);
+        continue;
+      }
+      JsonNode value = parser.readValueAsTree();
+      src.set(fieldName, value);
+      if (!token.isScalarValue()) {
+        continue;
+      }
+      switch (fieldName) {
+        case SensorsABTestConst.EXPERIMENT_ID_KEY:
+          builder.abtestExperimentId(value.asText());
+          break;
+        case SensorsABTestConst.EXPERIMENT_GROUP_ID_KEY:
+          builder.abtestExperimentGroupId(value.asText());
+          break;
+        case SensorsABTestConst.ABTEST_EXPERIMENT_RESULT_ID_KEY:
+          builder.abtestExperimentResultId(value.asText());
+          break;
+        case SensorsABTestConst.ABTEST_EXPERIMENT_VERSION_KEY:
+          builder.abtestExperimentVersion(value.asText());
+          break;
+        case SensorsABTestConst.ABTEST_SUBJECT_NAME_KEY:
+          builder.subjectName(value.asText());
+          break;
+        case SensorsABTestConst.ABTEST_SUBJECT_ID_KEY:
+          builder.subjectId(value.asText());
+          break;
+        case SensorsABTestConst.IS_CONTROL_GROUP_KEY:
+          builder.isControlGroup(value.asBoolean());
+          break;
+        case SensorsABTestConst.IS_WHITE_LIST_KEY:
+          builder.isWhiteList(value.asBoolean());
+          break;
+        case SensorsABTestConst.ABTEST_CACHEABLE_KEY:
+          builder.cacheable(value.asBoolean());
+          break;
+        default:
+          break;
+      }
+    }
+    return builder.variableMap(variableMap).src(src).build();
+  }
+
+  private void readVariables(JsonParser parser, JsonToken token, Map<String, Variable> variableMap)
+      throws IOException {
+    if (token != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+        parser.skipChildren();
+        continue;
+      }
+      String name = null;
+      String type = null;
+      String value = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        JsonToken valueToken = parser.nextToken();
+        switch (fieldName) {
+          case SensorsABTestConst.NAME_KEY:
+            name = readText(parser, valueToken);
+            break;
+          case SensorsABTestConst.TYPE_KEY:
+            type = readText(parser, valueToken);
+            break;
+          case SensorsABTestConst.VALUE_KEY:
+            value = readText(parser, valueToken);
+            break;
+          default:
+            parser.skipChildren();
+            break;
+        }
+      }
+      variableMap.put(name, new Variable(name, type, value));
+    }
+  }
+
+  /**
+   * 与 JsonNode#asText 保持一致：标量返回文本形式，对象和数组返回空字符串
+   */
+  private String readText(JsonParser parser, JsonToken token) throws IOException {
+    if (token.isScalarValue()) {
+      return parser.getText();
+    }
+    parser.skipChildren();
+    return "";
+  }
+
+  private DispatchResponseBody skip(JsonParser parser) throws IOException {
+    parser.skipChildren();
+    return null;
+  }
+}
@@ -0,0 +1,123 @@
+package com.sensorsdata.analytics.javasdk.util;
+
+import com.sensorsdata.analytics.javasdk.bean.WireFormatEnum;
+import com.sensorsdata.analytics.javasdk.transport.DispatchResponse;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * 分流请求的数据格式协商
+ * <p>配置为 SMILE 时请求体以 Smile 编码，并通过 Accept 告知服务端优先返回 Smile；服务端以 406/415 拒绝时
+ * 自动回退为 JSON 并不再尝试 Smile；400 可能由请求参数本身引起，不触发回退。返回体根据 Smile 头部标识解析，服务端返回 JSON 时同样可以正常处理</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:20
+ */
+public class DispatchWireFormat {
+
+  private static final String SMILE_FACTORY_CLASS = "com.fasterxml.jackson.dataformat.smile.SmileFactory";
+
+  private static final String SMILE_ACCEPT =
+      WireFormatEnum.SMILE.getContentType() + ", " + WireFormatEnum.JSON.getContentType() + ";q=0.9";
+
+  private final LogUtil log;
+
+  private final ObjectMapper jsonMapper;
+
+  /**
+   * Smile 编解码器，未配置 SMILE 或缺少 jackson-dataformat-smile 依赖时为 null
+   */
+  private final ObjectMapper smileMapper;
+
+  private volatile boolean binaryEnabled;
+
+  public DispatchWireFormat(LogUtil log, ObjectMapper jsonMapper, WireFormatEnum wireFormat) {
+    this.log = log;
+    this.jsonMapper = jsonMapper;
+    this.smileMapper = wireFormat == WireFormatEnum.SMILE ? createSmileMapper(log, jsonMapper) : null;
+    this.binaryEnabled = smileMapper != null;
+  }
+
+  /**
+   * 当前请求是否使用 Smile 编码
+   */
+  public boolean isBinary() {
+    return binaryEnabled;
+  }
+
+  public byte[] encode(Object value) throws JsonProcessingException {
+    return binaryEnabled ? smileMapper.writeValueAsBytes(value) : jsonMapper.writeValueAsBytes(value);
+  }
+
+  public String getContentType() {
+    return binaryEnabled ? WireFormatEnum.SMILE.getContentType() : WireFormatEnum.JSON.getContentType();
+  }
+
+  public String getAccept() {
+    return binaryEnabled ? SMILE_ACCEPT : WireFormatEnum.JSON.getContentType();
+  }
+
+  /**
+   * 服务端拒绝 Smile 请求时回退为 JSON
+   *
+   * @param response 本次请求结果
+   * @return 是否发生回退，发生回退时调用方需以 JSON 重新发送本次请求
+   */
+  public boolean fallbackIfRejected(DispatchResponse response) {
+    if (!binaryEnabled) {
+      return false;
+    }
+    int statusCode = response.getStatusCode();
+    if (statusCode == HttpURLConnection.HTTP_NOT_ACCEPTABLE
+        || statusCode == HttpURLConnection.HTTP_UNSUPPORTED_TYPE) {
+      binaryEnabled = false;
+      log.warn("The dispatch server rejected smile request, fallback to json.[statusCode:{}]", statusCode);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * 根据返回体头部标识选择解析器，Smile 数据以 ":)\n" 开头
+   */
+  public JsonParser createParser(byte[] body) throws IOException {
+    if (smileMapper != null && body.length >= 3 && body[0] == ':' && body[1] == ')' && body[2] == '\n') {
+      return smileMapper.getFactory().createParser(body);
+    }
+    return jsonMapper.getFactory().createParser(body);
+  }
+
+  private static ObjectMapper createSmileMapper(LogUtil log, ObjectMapper jsonMapper) {
+    try {
+      Class.forName(SMILE_FACTORY_CLASS);
+    } catch (ClassNotFoundException e) {
+      log.warn("The jackson-dataformat-smile is not found in classpath, use json wire format.");
+      return null;
+    }
+    return SmileSupport.createMapper(jsonMapper);
+  }
+
+  /**
+   * 隔离对 Smile 类的引用，未引入依赖时不会触发类加载
+   */
+  private static class SmileSupport {
+
+    static ObjectMapper createMapper(ObjectMapper jsonMapper) {
+      SmileFactory factory = new SmileFactory();
+      factory.enable(SmileGenerator.Feature.CHECK_SHARED_NAMES);
+      factory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+      ObjectMapper smileMapper = new ObjectMapper(factory);
+      smileMapper.setConfig(jsonMapper.getSerializationConfig());
+      smileMapper.setConfig(jsonMapper.getDeserializationConfig());
+      return smileMapper;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.sensorsdata.analytics.javasdk.util;
+
+import com.google.common.math.LongMath;
+
+import java.math.RoundingMode;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按时区计算当前是自 1970-01-01 起的第几天
+ * <p>缓存当天的天数与下一次需要重新计算的时间点，未到该时间点时只需读取一次当前时间。下一次计算的时间点取次日零点与
+ * 一小时后两者中较早的一个，夏令时切换导致时区偏移变化时最多一小时内得到修正</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:34
+ */
+public class EpochDayClock {
+
+  private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+  private static final long REFRESH_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+  /**
+   * 当前时间来源，测试时可替换
+   */
+  public interface TimeSource {
+
+    /**
+     * @return 当前时间戳，单位毫秒
+     */
+    long currentTimeMillis();
+  }
+
+  public static final TimeSource SYSTEM = new TimeSource() {
+    @Override
+    public long currentTimeMillis() {
+      return System.currentTimeMillis();
+    }
+  };
+
+  private final TimeSource timeSource;
+
+  private final TimeZone timeZone;
+
+  private volatile CachedDay cachedDay;
+
+  /**
+   * 使用系统时间与默认时区
+   */
+  public EpochDayClock() {
+    this(SYSTEM, TimeZone.getDefault());
+  }
+
+  public EpochDayClock(TimeSource timeSource, TimeZone timeZone) {
+    this.timeSource = timeSource;
+    this.timeZone = (TimeZone) timeZone.clone();
+  }
+
+  /**
+   * @return 当前时区下自 1970-01-01 起的天数
+   */
+  public long currentEpochDay() {
+    long now = timeSource.currentTimeMillis();
+    CachedDay current = cachedDay;
+    if (current == null || now < current.validFrom || now >= current.validUntil) {
+      current = compute(now);
+      cachedDay = current;
+    }
+    return current.epochDay;
+  }
+
+  private CachedDay compute(long now) {
+    long epochDay = epochDay(now);
+    long nextDay = (epochDay + 1) * DAY_MILLIS;
+    // 先按当前偏移估算次日零点，再按该时间点的偏移修正一次
+    long nextDayStart = nextDay - timeZone.getOffset(now);
+    nextDayStart = nextDay - timeZone.getOffset(nextDayStart - 1);
+    return new CachedDay(epochDay, now, Math.min(nextDayStart, now + REFRESH_INTERVAL_MILLIS));
+  }
+
+  private long epochDay(long millis) {
+    return LongMath.divide(millis + timeZone.getOffset(millis), DAY_MILLIS, RoundingMode.FLOOR);
+  }
+
+  /**
+   * 天数以及在 [validFrom, validUntil) 内可直接使用该天数，时间回拨到 validFrom 之前时重新计算
+   */
+  private static final class CachedDay {
+
+    private final long epochDay;
+
+    private final long validFrom;
+
+    private final long validUntil;
+
+    private CachedDay(long epochDay, long validFrom, long validUntil) {
+      this.epochDay = epochDay;
+      this.validFrom = validFrom;
+      this.validUntil = validUntil;
+    }
+  }
+}
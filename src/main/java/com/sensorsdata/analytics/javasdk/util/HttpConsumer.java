@@ -1,26 +1,25 @@
 package com.sensorsdata.analytics.javasdk.util;
 
+import com.sensorsdata.analytics.javasdk.transport.DispatchResponse;
+import com.sensorsdata.analytics.javasdk.transport.DispatchTransport;
+import com.sensorsdata.analytics.javasdk.transport.impl.ApacheHttpClientTransport;
+
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.Header;
-import org.apache.http.HeaderElement;
-import org.apache.http.HeaderElementIterator;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.conn.ConnectionKeepAliveStrategy;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.apache.http.message.BasicHeaderElementIterator;
-import org.apache.http.protocol.HTTP;
-import org.apache.http.protocol.HttpContext;
-import org.apache.http.util.EntityUtils;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
 
 /**
  * 网络请求模块
@@ -31,7 +30,7 @@ import java.nio.charset.StandardCharsets;
  */
 public class HttpConsumer implements Closeable {
 
-  private CloseableHttpClient httpClient;
+  private DispatchTransport transport;
 
   private LogUtil log;
 
@@ -41,7 +40,7 @@ public class HttpConsumer implements Closeable {
 
   private static final String JSON_MIMETYPE = "application/json";
 
-  private static final String TIME_OUT = "timeout";
+  private static final String ACCEPT = "Accept";
 
   private static final String REQUEST_ID_HEADER = "X-Request-Id";
 
@@ -51,75 +50,229 @@ public class HttpConsumer implements Closeable {
 
   private static final String AB_REQUEST_PROCESSING_TIME_HEADER = "X-AB-Request-Process-Time";
 
-  private PoolingHttpClientConnectionManager cm;
+  private static final String CONTENT_ENCODING = "Content-Encoding";
+
+  private static final String ACCEPT_ENCODING = "Accept-Encoding";
 
-  private SensorsKeepAliveStrategy strategy = new SensorsKeepAliveStrategy();
+  private static final String SUPPORTED_ENCODINGS = CompressionCodec.GZIP + ", " + CompressionCodec.DEFLATE;
 
   private boolean enableRecordRequestCostTime;
 
+  /**
+   * 请求压缩与返回结果解压，为 null 时不开启压缩
+   */
+  private CompressionCodec compressionCodec;
+
+  /**
+   * 分流请求熔断器，为 null 时不开启熔断
+   */
+  private DispatchCircuitBreaker circuitBreaker;
+
   public HttpConsumer(LogUtil log, boolean enableRecordRequestCostTime, HttpClientBuilder httpClientBuilder,
       String serverUrl, int maxTotal, int maxPerRoute) {
+    this(log, enableRecordRequestCostTime, new ApacheHttpClientTransport(httpClientBuilder, maxTotal, maxPerRoute),
+        serverUrl);
+  }
+
+  public HttpConsumer(LogUtil log, boolean enableRecordRequestCostTime, DispatchTransport transport,
+      String serverUrl) {
+    this(log, enableRecordRequestCostTime, transport, serverUrl, null);
+  }
+
+  public HttpConsumer(LogUtil log, boolean enableRecordRequestCostTime, DispatchTransport transport,
+      String serverUrl, CompressionCodec compressionCodec) {
+    this(log, enableRecordRequestCostTime, transport, serverUrl, compressionCodec, null);
+  }
+
+  public HttpConsumer(LogUtil log, boolean enableRecordRequestCostTime, DispatchTransport transport,
+      String serverUrl, CompressionCodec compressionCodec, DispatchCircuitBreaker circuitBreaker) {
     this.log = log;
     this.enableRecordRequestCostTime = enableRecordRequestCostTime;
     this.serverUrl = serverUrl;
-    cm = new PoolingHttpClientConnectionManager();
-    cm.setMaxTotal(maxTotal);
-    cm.setDefaultMaxPerRoute(maxPerRoute);
-    httpClient = httpClientBuilder
-        .setUserAgent("SensorsAnalytics AB Test SDK")
-        .setConnectionManager(cm)
-        .setKeepAliveStrategy(strategy)
-        .build();
+    this.transport = transport;
+    this.compressionCodec = compressionCodec;
+    this.circuitBreaker = circuitBreaker;
   }
 
   public String consume(String data, int timeoutMilliseconds) throws IOException {
-    HttpPost httpPost = new HttpPost(serverUrl);
-    RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(timeoutMilliseconds)
-        .setConnectionRequestTimeout(timeoutMilliseconds)
-        .setSocketTimeout(timeoutMilliseconds)
-        .setStaleConnectionCheckEnabled(true)
-        .build();
-    httpPost.setConfig(requestConfig);
-    // 设置header
+    return consume(serverUrl, data, timeoutMilliseconds);
+  }
+
+  public String consume(String url, String data, int timeoutMilliseconds) throws IOException {
+    DispatchResponse response =
+        exchange(url, toPayload(data), JSON_MIMETYPE, JSON_MIMETYPE, timeoutMilliseconds);
+    return new String(response.getBody(), StandardCharsets.UTF_8);
+  }
+
+  public DispatchResponse exchange(byte[] payload, String contentType, String accept, int timeoutMilliseconds)
+      throws IOException {
+    return exchange(serverUrl, payload, contentType, accept, timeoutMilliseconds);
+  }
+
+  /**
+   * 发送请求并返回原始结果，由调用方根据状态码与返回体格式解析
+   *
+   * @throws CircuitBreakerOpenException 熔断器打开，请求未发出
+   */
+  public DispatchResponse exchange(String url, byte[] payload, String contentType, String accept,
+      int timeoutMilliseconds) throws IOException {
+    acquire();
     long requestStartTime = System.currentTimeMillis();
-    httpPost.setHeader(AB_REQUEST_START_TIME_HEADER, String.valueOf(requestStartTime));
-    httpPost.setHeader(CONTENT_TYPE, JSON_MIMETYPE);
-    if (data != null && data.length() != 0) {
-      StringEntity param = new StringEntity(data, StandardCharsets.UTF_8);
-      httpPost.setEntity(param);
-    }
-    // 处理请求结果
-    try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
-      if (enableRecordRequestCostTime) {
-        return handleResponseAndRecordRequestTimeCost(response, requestStartTime, System.currentTimeMillis());
-      }
-      return handleResponse(response);
+    // 取得熔断器许可后，任何异常都需要记录为失败，否则半开状态的试探许可无法归还
+    DispatchResponse response;
+    try {
+      // 设置header
+      Map<String, String> headers = buildHeaders(requestStartTime, contentType, accept);
+      byte[] body = compress(payload, headers);
+      response = transport.send(url, body, headers, timeoutMilliseconds);
     } catch (Exception e) {
-      // 遇到接错误或其他网络错误，则没有 response ，需自补充耗时记录
-      if (enableRecordRequestCostTime) {
-        recordABRequestCostTimeFromHeader(null, requestStartTime, System.currentTimeMillis());
-      }
+      handleFailure(requestStartTime);
       throw e;
     }
+    return decompress(handleResponse(response, requestStartTime));
+  }
+
+  /**
+   * 异步发送请求
+   *
+   * @param executor 阻塞式传输实现执行请求的线程池
+   * @return 原始结果，网络异常时 future 以 IOException 失败，熔断器打开时以 CircuitBreakerOpenException 失败
+   */
+  public ListenableFuture<DispatchResponse> exchangeAsync(String url, byte[] payload, String contentType,
+      String accept, int timeoutMilliseconds, Executor executor) {
+    try {
+      acquire();
+    } catch (CircuitBreakerOpenException e) {
+      return Futures.immediateFailedFuture(e);
+    }
+    final long requestStartTime = System.currentTimeMillis();
+    ListenableFuture<DispatchResponse> future;
+    try {
+      Map<String, String> headers = buildHeaders(requestStartTime, contentType, accept);
+      byte[] body = compress(payload, headers);
+      future = transport.sendAsync(url, body, headers, timeoutMilliseconds, executor);
+    } catch (RuntimeException e) {
+      // 例如线程池拒绝执行，请求未发出也需要记录为失败，归还熔断器许可
+      handleFailure(requestStartTime);
+      return Futures.immediateFailedFuture(e);
+    }
+    Futures.addCallback(future, new FutureCallback<DispatchResponse>() {
+      @Override
+      public void onSuccess(DispatchResponse response) {
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        handleFailure(requestStartTime);
+      }
+    }, MoreExecutors.directExecutor());
+    return Futures.transform(future, new AsyncFunction<DispatchResponse, DispatchResponse>() {
+      @Override
+      public ListenableFuture<DispatchResponse> apply(DispatchResponse response) throws IOException {
+        return Futures.immediateFuture(decompress(handleResponse(response, requestStartTime)));
+      }
+    }, MoreExecutors.directExecutor());
+  }
+
+  /**
+   * 获取分流请求熔断器
+   *
+   * @return 熔断器，未开启熔断时为 null
+   */
+  public DispatchCircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
   }
 
   @Override
   public void close() throws IOException {
-    if (httpClient != null) {
-      httpClient.close();
+    if (transport != null) {
+      transport.close();
+    }
+  }
+
+  private Map<String, String> buildHeaders(long requestStartTime, String contentType, String accept) {
+    Map<String, String> headers = new HashMap<>();
+    headers.put(AB_REQUEST_START_TIME_HEADER, String.valueOf(requestStartTime));
+    headers.put(CONTENT_TYPE, contentType);
+    headers.put(ACCEPT, accept);
+    if (compressionCodec != null) {
+      headers.put(ACCEPT_ENCODING, SUPPORTED_ENCODINGS);
+    }
+    return headers;
+  }
+
+  /**
+   * 请求体达到压缩阈值时以 gzip 压缩，并补充 Content-Encoding
+   */
+  private byte[] compress(byte[] payload, Map<String, String> headers) {
+    if (compressionCodec == null || !compressionCodec.shouldCompress(payload)) {
+      return payload;
+    }
+    headers.put(CONTENT_ENCODING, CompressionCodec.GZIP);
+    return compressionCodec.gzip(payload);
+  }
+
+  /**
+   * 按 Content-Encoding 解压返回体；ApacheHttpClientTransport 已自动解压并移除该头部，此处主要针对其他传输实现
+   */
+  private DispatchResponse decompress(DispatchResponse response) throws IOException {
+    if (compressionCodec == null) {
+      return response;
+    }
+    String encoding = response.getHeader(CONTENT_ENCODING);
+    if (encoding == null || "identity".equalsIgnoreCase(encoding.trim())) {
+      return response;
+    }
+    Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    headers.putAll(response.getHeaders());
+    headers.remove(CONTENT_ENCODING);
+    return new DispatchResponse(response.getStatusCode(), headers,
+        compressionCodec.decode(encoding, response.getBody()));
+  }
+
+  private byte[] toPayload(String data) {
+    if (data == null || data.length() == 0) {
+      return null;
+    }
+    return data.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private void acquire() throws CircuitBreakerOpenException {
+    if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+      throw new CircuitBreakerOpenException("The dispatch circuit breaker is open, request is not permitted.");
     }
   }
 
-  private String handleResponse(HttpResponse response) throws IOException {
-    return EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+  private DispatchResponse handleResponse(DispatchResponse response, long requestStartTime) {
+    long requestEndTime = System.currentTimeMillis();
+    if (circuitBreaker != null) {
+      // 5xx 视为服务端异常，其余状态码说明服务端可以正常响应
+      if (response.getStatusCode() >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+        circuitBreaker.onFailure(requestEndTime - requestStartTime);
+      } else {
+        circuitBreaker.onSuccess(requestEndTime - requestStartTime);
+      }
+    }
+    if (enableRecordRequestCostTime) {
+      recordABRequestCostTimeFromHeader(response, requestStartTime, requestEndTime);
+    }
+    return response;
   }
 
-  private String handleResponseAndRecordRequestTimeCost(HttpResponse response, long requestStartTime, long requestEndTime) throws IOException {
-    recordABRequestCostTimeFromHeader(response, requestStartTime, requestEndTime);
-    return handleResponse(response);
+  /**
+   * 遇到连接错误或其他网络错误，则没有 response ，需自补充耗时记录
+   */
+  private void handleFailure(long requestStartTime) {
+    long requestEndTime = System.currentTimeMillis();
+    if (circuitBreaker != null) {
+      circuitBreaker.onFailure(requestEndTime - requestStartTime);
+    }
+    if (enableRecordRequestCostTime) {
+      recordABRequestCostTimeFromHeader(null, requestStartTime, requestEndTime);
+    }
   }
 
-  private void recordABRequestCostTimeFromHeader(HttpResponse response, long requestStartTime, long requestEndTime) {
+  private void recordABRequestCostTimeFromHeader(DispatchResponse response, long requestStartTime, long requestEndTime) {
     try {
       String requestId = getABRequestIdFromResponse(response);
       String requestTotalTime = String.valueOf(requestEndTime - requestStartTime);
@@ -135,47 +288,27 @@ public class HttpConsumer implements Closeable {
     }
   }
 
-  private String getABRequestIdFromResponse(HttpResponse response) {
+  private String getABRequestIdFromResponse(DispatchResponse response) {
     if (response != null) {
-      Header requestIdHeader = response.getFirstHeader(AB_REQUEST_ID_HEADER);
-      if (requestIdHeader == null) {
-        requestIdHeader = response.getFirstHeader(REQUEST_ID_HEADER);
+      String requestId = response.getHeader(AB_REQUEST_ID_HEADER);
+      if (requestId == null) {
+        requestId = response.getHeader(REQUEST_ID_HEADER);
       }
-      if (requestIdHeader != null && StringUtils.isNotBlank(requestIdHeader.getValue())) {
-        return requestIdHeader.getValue();
+      if (StringUtils.isNotBlank(requestId)) {
+        return requestId;
       }
     }
     return "unknown (not found)";
   }
 
-  private String getAbRequestProcessTimeFromResponse(HttpResponse response) {
+  private String getAbRequestProcessTimeFromResponse(DispatchResponse response) {
     if (response != null) {
-      Header requestProcessTimeHeader = response.getFirstHeader(AB_REQUEST_PROCESSING_TIME_HEADER);
-      if (requestProcessTimeHeader != null && StringUtils.isNotBlank(requestProcessTimeHeader.getValue())) {
-        return requestProcessTimeHeader.getValue();
+      String requestProcessTime = response.getHeader(AB_REQUEST_PROCESSING_TIME_HEADER);
+      if (StringUtils.isNotBlank(requestProcessTime)) {
+        return requestProcessTime;
       }
     }
     return "unknown (not found)";
   }
 
-  static class SensorsKeepAliveStrategy implements ConnectionKeepAliveStrategy {
-
-    @Override
-    public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
-      HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
-      while (it.hasNext()) {
-        HeaderElement he = it.nextElement();
-        String param = he.getName();
-        String value = he.getValue();
-        if (value != null && param.equalsIgnoreCase(TIME_OUT)) {
-          return Long.parseLong(value) * 1000;
-        }
-      }
-      return 60 * 1000;
-    }
-  }
-
 }
-
-
-
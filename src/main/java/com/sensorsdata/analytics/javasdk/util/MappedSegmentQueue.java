@@ -0,0 +1,461 @@
+package com.sensorsdata.analytics.javasdk.util;
+
+import com.sensorsdata.analytics.javasdk.bean.TrackSpillFsyncPolicyEnum;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * 基于内存映射分段文件的本地持久化队列（预写日志）
+ * <p>记录按写入顺序追加到当前分段，每条记录为 [长度][CRC32][内容]，写满后写入分段结束标记并新建分段。读取进度
+ * （分段编号与位置）记录在 checkpoint 文件中，{@link #peek} 读取下一条记录，{@link #commit} 确认后推进进度，
+ * 已读完的分段随即删除，因此每条记录至少交付一次</p>
+ * <p>重启时从 checkpoint 开始扫描，长度为 0、CRC 校验失败或不完整的记录视为未写完，丢弃该位置之后的内容；
+ * checkpoint 损坏时从最早的分段开始读取。落盘策略决定宕机时丢失与重复的范围，见 {@link TrackSpillFsyncPolicyEnum}</p>
+ * <p>删除分段与关闭队列时尽力释放内存映射（JDK 8 及以下调用 cleaner，JDK 9 及以上调用 Unsafe#invokeCleaner），
+ * 释放失败时等待 GC 回收</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:43
+ */
+public class MappedSegmentQueue implements Closeable {
+
+  private static final String SEGMENT_SUFFIX = ".wal";
+
+  private static final String CHECKPOINT_FILE = "checkpoint";
+
+  private static final int CHECKPOINT_BYTES = 16;
+
+  private static final int RECORD_HEADER_BYTES = 8;
+
+  /**
+   * 分段结束标记，写满的分段在最后一条记录之后写入，分段中总是预留该标记的空间
+   */
+  private static final int END_OF_SEGMENT = -1;
+
+  private static final int END_OF_SEGMENT_BYTES = 4;
+
+  /**
+   * JDK 9 及以上释放内存映射的 Unsafe 实例与 invokeCleaner 方法，JDK 8 及以下为 null
+   */
+  private static final Object UNSAFE;
+
+  private static final Method INVOKE_CLEANER;
+
+  static {
+    Object unsafe = null;
+    Method invokeCleaner = null;
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      unsafe = theUnsafe.get(null);
+    } catch (Exception e) {
+      invokeCleaner = null;
+    }
+    UNSAFE = unsafe;
+    INVOKE_CLEANER = invokeCleaner;
+  }
+
+  private final LogUtil log;
+
+  private final File directory;
+
+  private final int segmentBytes;
+
+  private final long maxDiskBytes;
+
+  private final TrackSpillFsyncPolicyEnum fsyncPolicy;
+
+  /**
+   * 分段编号与文件
+   */
+  private final TreeMap<Long, File> segments = new TreeMap<>();
+
+  private final MappedByteBuffer checkpoint;
+
+  private long diskBytes;
+
+  private long readSegment;
+
+  private MappedByteBuffer readBuffer;
+
+  private int readPosition;
+
+  /**
+   * 最近一次 peek 返回的记录占用的字节数，commit 后清零
+   */
+  private int peekedBytes;
+
+  private long writeSegment;
+
+  private MappedByteBuffer writeBuffer;
+
+  private int writePosition;
+
+  private long pendingCount;
+
+  private boolean closed;
+
+  /**
+   * @param log          日志
+   * @param directory    队列目录，不存在时创建
+   * @param segmentBytes 新建分段文件的大小 byte
+   * @param maxDiskBytes 分段文件最多占用的磁盘空间 byte
+   * @param fsyncPolicy  落盘策略，INTERVAL 策略需要调用方定期调用 {@link #force}
+   * @throws IOException 目录或文件无法创建、映射时抛出
+   */
+  public MappedSegmentQueue(LogUtil log, File directory, int segmentBytes, long maxDiskBytes,
+      TrackSpillFsyncPolicyEnum fsyncPolicy) throws IOException {
+    this.log = log;
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    this.maxDiskBytes = maxDiskBytes;
+    this.fsyncPolicy = fsyncPolicy;
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Failed to create the spill directory: " + directory);
+    }
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        if (name.endsWith(SEGMENT_SUFFIX)) {
+          try {
+            segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), file);
+          } catch (NumberFormatException e) {
+            log.warn("Ignore unknown file in the spill directory.[file:{}]", file);
+          }
+        }
+      }
+    }
+    this.checkpoint = map(new File(directory, CHECKPOINT_FILE), CHECKPOINT_BYTES);
+    if (segments.isEmpty()) {
+      this.writeSegment = 0;
+      this.writeBuffer = createSegment(0);
+      this.readSegment = 0;
+      this.readBuffer = writeBuffer;
+      writeCheckpoint();
+    } else {
+      recover();
+    }
+  }
+
+  /**
+   * 从 checkpoint 恢复读取进度，扫描未读的记录确定写入位置
+   */
+  private void recover() throws IOException {
+    long segment = checkpoint.getLong(0);
+    int position = checkpoint.getInt(8);
+    if (checkpoint.getInt(12) != checkpointChecksum(segment, position) || !segments.containsKey(segment)
+        || position < 0 || position > segments.get(segment).length()) {
+      log.warn("The spill checkpoint is invalid, read from the oldest segment.[segment:{},position:{}]", segment,
+          position);
+      segment = segments.firstKey();
+      position = 0;
+    }
+    // 删除已读完但未来得及删除的分段
+    while (segments.firstKey() < segment) {
+      File file = segments.remove(segments.firstKey());
+      if (!file.delete()) {
+        log.warn("Failed to delete the finished spill segment.[file:{}]", file);
+      }
+    }
+    readSegment = segment;
+    readPosition = position;
+    long lastSegment = segments.lastKey();
+    for (Map.Entry<Long, File> entry : segments.entrySet()) {
+      // 最后一个分段继续写入，不足一个分段大小时（例如新建分段后未来得及扩展文件）按分段大小扩展
+      int size = (int) entry.getValue().length();
+      MappedByteBuffer buffer =
+          map(entry.getValue(), entry.getKey() == lastSegment ? Math.max(size, segmentBytes) : size);
+      diskBytes += buffer.capacity();
+      int current = entry.getKey() == readSegment ? readPosition : 0;
+      byte[] record;
+      while ((record = readRecord(buffer, current)) != null) {
+        current += RECORD_HEADER_BYTES + record.length;
+        pendingCount++;
+      }
+      if (entry.getKey() == readSegment) {
+        readBuffer = buffer;
+      }
+      if (entry.getKey() == lastSegment) {
+        // 清除未写完的记录，之后从该位置继续写入
+        for (int i = current; i < buffer.capacity(); i++) {
+          buffer.put(i, (byte) 0);
+        }
+        writeSegment = lastSegment;
+        writeBuffer = buffer;
+        writePosition = current;
+      } else {
+        if (!isEndOfSegment(buffer, current)) {
+          log.warn("Discard the incomplete tail of spill segment.[segment:{},position:{}]", entry.getKey(),
+              current);
+        }
+        // 中间的分段读到时重新映射
+        if (entry.getKey() != readSegment) {
+          unmap(buffer);
+        }
+      }
+    }
+    writeCheckpoint();
+    log.info("Recovered spill queue.[directory:{},pending:{},segments:{}]", directory, pendingCount,
+        segments.size());
+  }
+
+  /**
+   * 追加一条记录
+   *
+   * @param record 记录内容
+   * @return 磁盘空间超过上限或记录超过分段大小时返回 false
+   * @throws IOException 新建分段失败时抛出
+   */
+  public synchronized boolean append(byte[] record) throws IOException {
+    checkOpen();
+    int required = RECORD_HEADER_BYTES + record.length;
+    if (writePosition + required + END_OF_SEGMENT_BYTES > writeBuffer.capacity()) {
+      if (required + END_OF_SEGMENT_BYTES > segmentBytes || diskBytes + segmentBytes > maxDiskBytes) {
+        return false;
+      }
+      rollSegment();
+    }
+    // 经 ByteBuffer 与 Buffer 调用，避免在 JDK 9 及以上编译时绑定到 JDK 8 不存在的协变重写方法
+    ByteBuffer payload = ((ByteBuffer) writeBuffer).duplicate();
+    ((Buffer) payload).position(writePosition + RECORD_HEADER_BYTES);
+    payload.put(record);
+    writeBuffer.putInt(writePosition + 4, checksum(record));
+    // 最后写入长度，长度非 0 表示记录完整
+    writeBuffer.putInt(writePosition, record.length);
+    writePosition += required;
+    pendingCount++;
+    if (fsyncPolicy == TrackSpillFsyncPolicyEnum.ALWAYS) {
+      writeBuffer.force();
+    }
+    return true;
+  }
+
+  private void rollSegment() throws IOException {
+    writeBuffer.putInt(writePosition, END_OF_SEGMENT);
+    if (fsyncPolicy != TrackSpillFsyncPolicyEnum.NEVER) {
+      writeBuffer.force();
+    }
+    long segment = writeSegment + 1;
+    MappedByteBuffer buffer = createSegment(segment);
+    if (writeBuffer != readBuffer) {
+      // 写满的分段读到时重新映射
+      unmap(writeBuffer);
+    }
+    writeSegment = segment;
+    writeBuffer = buffer;
+    writePosition = 0;
+  }
+
+  /**
+   * 读取下一条记录但不推进读取进度，连续调用返回同一条记录
+   *
+   * @return 记录内容，没有未读记录时返回 null
+   * @throws IOException 映射下一个分段失败时抛出
+   */
+  public synchronized byte[] peek() throws IOException {
+    checkOpen();
+    peekedBytes = 0;
+    while (true) {
+      if (readSegment == writeSegment && readPosition >= writePosition) {
+        return null;
+      }
+      byte[] record = readRecord(readBuffer, readPosition);
+      if (record != null) {
+        peekedBytes = RECORD_HEADER_BYTES + record.length;
+        return record;
+      }
+      if (readSegment == writeSegment) {
+        // 写入中的分段记录不完整，只可能是文件被外部修改，跳过剩余部分
+        log.error("The spill segment is corrupted, skip the remaining records.[segment:{},position:{}]",
+            readSegment, readPosition);
+        readPosition = writePosition;
+        pendingCount = 0;
+        writeCheckpoint();
+        return null;
+      }
+      nextReadSegment();
+    }
+  }
+
+  /**
+   * 确认最近一次 {@link #peek} 返回的记录已处理，推进读取进度
+   */
+  public synchronized void commit() {
+    checkOpen();
+    if (peekedBytes == 0) {
+      throw new IllegalStateException("There is no peeked record to commit.");
+    }
+    readPosition += peekedBytes;
+    peekedBytes = 0;
+    pendingCount--;
+    writeCheckpoint();
+  }
+
+  private void nextReadSegment() throws IOException {
+    long finished = readSegment;
+    MappedByteBuffer finishedBuffer = readBuffer;
+    readSegment = segments.higherKey(finished);
+    readBuffer = readSegment == writeSegment ? writeBuffer
+        : map(segments.get(readSegment), (int) segments.get(readSegment).length());
+    readPosition = 0;
+    writeCheckpoint();
+    deleteSegment(finished, finishedBuffer);
+  }
+
+  /**
+   * 将已写入的记录与读取进度落盘
+   */
+  public synchronized void force() {
+    if (closed) {
+      return;
+    }
+    writeBuffer.force();
+    checkpoint.force();
+  }
+
+  /**
+   * @return 未读的记录数量
+   */
+  public synchronized long size() {
+    return pendingCount;
+  }
+
+  /**
+   * @return 分段文件占用的磁盘空间 byte
+   */
+  public synchronized long getDiskBytes() {
+    return diskBytes;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    writeBuffer.force();
+    checkpoint.force();
+    closed = true;
+    if (readBuffer != writeBuffer) {
+      unmap(readBuffer);
+    }
+    unmap(writeBuffer);
+    unmap(checkpoint);
+    readBuffer = null;
+    writeBuffer = null;
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("The spill queue is closed.");
+    }
+  }
+
+  private void writeCheckpoint() {
+    checkpoint.putLong(0, readSegment);
+    checkpoint.putInt(8, readPosition);
+    checkpoint.putInt(12, checkpointChecksum(readSegment, readPosition));
+    if (fsyncPolicy == TrackSpillFsyncPolicyEnum.ALWAYS) {
+      checkpoint.force();
+    }
+  }
+
+  private MappedByteBuffer createSegment(long segment) throws IOException {
+    File file = new File(directory, String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    MappedByteBuffer buffer = map(file, segmentBytes);
+    segments.put(segment, file);
+    diskBytes += segmentBytes;
+    return buffer;
+  }
+
+  private void deleteSegment(long segment, MappedByteBuffer buffer) {
+    // 先释放映射，否则部分平台（例如 Windows）无法删除文件
+    unmap(buffer);
+    File file = segments.remove(segment);
+    diskBytes -= file.length();
+    if (!file.delete()) {
+      log.warn("Failed to delete the finished spill segment.[file:{}]", file);
+    }
+  }
+
+  /**
+   * 读取 position 处的完整记录，不存在或不完整时返回 null
+   */
+  private static byte[] readRecord(MappedByteBuffer buffer, int position) {
+    if (position + RECORD_HEADER_BYTES > buffer.capacity()) {
+      return null;
+    }
+    int length = buffer.getInt(position);
+    if (length <= 0 || length > buffer.capacity() - position - RECORD_HEADER_BYTES) {
+      return null;
+    }
+    byte[] record = new byte[length];
+    ByteBuffer payload = ((ByteBuffer) buffer).duplicate();
+    ((Buffer) payload).position(position + RECORD_HEADER_BYTES);
+    payload.get(record);
+    return checksum(record) == buffer.getInt(position + 4) ? record : null;
+  }
+
+  private static boolean isEndOfSegment(MappedByteBuffer buffer, int position) {
+    return position + END_OF_SEGMENT_BYTES <= buffer.capacity() && buffer.getInt(position) == END_OF_SEGMENT;
+  }
+
+  private static int checksum(byte[] record) {
+    CRC32 crc32 = new CRC32();
+    crc32.update(record);
+    return (int) crc32.getValue();
+  }
+
+  private static int checkpointChecksum(long segment, int position) {
+    CRC32 crc32 = new CRC32();
+    crc32.update(ByteBuffer.allocate(12).putLong(segment).putInt(position).array());
+    return (int) crc32.getValue();
+  }
+
+  /**
+   * 尽力释放内存映射，释放后不能再访问该 buffer
+   */
+  private void unmap(MappedByteBuffer buffer) {
+    try {
+      if (INVOKE_CLEANER != null) {
+        INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        return;
+      }
+      Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+      cleanerMethod.setAccessible(true);
+      Object cleaner = cleanerMethod.invoke(buffer);
+      if (cleaner != null) {
+        cleaner.getClass().getMethod("clean").invoke(cleaner);
+      }
+    } catch (Exception e) {
+      log.debug("Failed to unmap the spill segment, it will be released by GC.", e);
+    }
+  }
+
+  private static MappedByteBuffer map(File file, int size) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    try {
+      if (randomAccessFile.length() < size) {
+        randomAccessFile.setLength(size);
+      }
+      return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+}
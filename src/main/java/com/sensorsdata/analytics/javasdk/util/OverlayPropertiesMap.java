@@ -0,0 +1,135 @@
+package com.sensorsdata.analytics.javasdk.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 事件属性：在多个事件共享的只读属性之上叠加本事件的属性
+ * <p>共享属性不复制，{@link #put} 只写入叠加层，同名属性以叠加层为准；不支持删除。分析 SDK 上报时会复制一份属性，
+ * 因此每个事件只需分配叠加层</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:25
+ */
+public class OverlayPropertiesMap extends AbstractMap<String, Object> {
+
+  private final Map<String, Object> shared;
+
+  private final Map<String, Object> overlay;
+
+  /**
+   * 叠加层中不与共享属性同名的属性数量
+   */
+  private int added;
+
+  private Set<Entry<String, Object>> entrySet;
+
+  /**
+   * @param shared 共享属性，创建后不能再修改
+   */
+  public OverlayPropertiesMap(Map<String, Object> shared) {
+    this.shared = shared;
+    this.overlay = new HashMap<>();
+  }
+
+  @Override
+  public Object get(Object key) {
+    Object value = overlay.get(key);
+    if (value != null || overlay.containsKey(key)) {
+      return value;
+    }
+    return shared.get(key);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return overlay.containsKey(key) || shared.containsKey(key);
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    if (!overlay.containsKey(key)) {
+      if (!shared.containsKey(key)) {
+        added++;
+      }
+      overlay.put(key, value);
+      return shared.get(key);
+    }
+    return overlay.put(key, value);
+  }
+
+  @Override
+  public int size() {
+    return shared.size() + added;
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+          return OverlayPropertiesMap.this.size();
+        }
+      };
+    }
+    return entrySet;
+  }
+
+  /**
+   * 先遍历叠加层，再遍历未被覆盖的共享属性
+   */
+  private class EntryIterator implements Iterator<Entry<String, Object>> {
+
+    private final Iterator<Entry<String, Object>> overlayIterator = overlay.entrySet().iterator();
+
+    private final Iterator<Entry<String, Object>> sharedIterator = shared.entrySet().iterator();
+
+    private Entry<String, Object> next;
+
+    @Override
+    public boolean hasNext() {
+      if (next != null) {
+        return true;
+      }
+      if (overlayIterator.hasNext()) {
+        next = overlayIterator.next();
+        return true;
+      }
+      while (sharedIterator.hasNext()) {
+        Entry<String, Object> entry = sharedIterator.next();
+        if (!overlay.containsKey(entry.getKey())) {
+          next = entry;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public Entry<String, Object> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Entry<String, Object> entry = next;
+      next = null;
+      return entry;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("overlay properties do not support remove");
+    }
+  }
+}
@@ -0,0 +1,357 @@
+package com.sensorsdata.analytics.javasdk.util;
+
+import com.sensorsdata.analytics.javasdk.ISensorsAnalytics;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 批量上报事件
+ * <p>事件先写入当前批次，批次达到 batchSize 或距上次定时刷新超过 flushIntervalMilliseconds 时，由刷新线程依次交给分析 SDK
+ * 上报；等待刷新的批次过多时，写满批次的线程直接刷新，避免积压。分析 SDK 未提供批量接口，批量的收益在于请求线程不再进入
+ * 分析 SDK 的同步上报逻辑，以及同一批次中相同的附加属性只保存一份</p>
+ * <p>上报在刷新线程执行，参数校验失败等异常只记录日志与失败次数</p>
+ * <p>配置了本地溢写队列时，等待刷新的批次过多的情况下批次写入溢写队列，不再由写满批次的线程直接刷新；分析 SDK
+ * 抛出运行时异常的事件也写入溢写队列，不再丢弃。刷新线程定时刷新后，如果没有等待刷新的批次，按写入顺序补报溢写队列中的
+ * 事件</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:25
+ */
+public class TrackEventBatcher implements Closeable {
+
+  private static final int MAX_PENDING_BATCHES = 16;
+
+  /**
+   * 共享的附加属性数量上限，超过后清空重新收集
+   */
+  private static final int MAX_SHARED_PROPERTIES = 256;
+
+  private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+  private static final String EVENT_TIME = "$time";
+
+  private final LogUtil log;
+
+  private final ISensorsAnalytics sensorsAnalytics;
+
+  private final int batchSize;
+
+  private final ScheduledExecutorService flusher;
+
+  /**
+   * 本地溢写队列，未开启时为 null
+   */
+  private final TrackSpillQueue spillQueue;
+
+  private final Object lock = new Object();
+
+  /**
+   * 当前批次，持有 lock 时访问
+   */
+  private List<TrackEvent> batch;
+
+  private final ConcurrentHashMap<Map<String, Object>, Map<String, Object>> sharedProperties =
+      new ConcurrentHashMap<>();
+
+  private final AtomicInteger pendingBatches = new AtomicInteger();
+
+  private final AtomicLong trackedCount = new AtomicLong();
+
+  private final AtomicLong failedCount = new AtomicLong();
+
+  private final AtomicLong spilledFailedCount = new AtomicLong();
+
+  private final AtomicLong flushedBatchCount = new AtomicLong();
+
+  private volatile boolean closed;
+
+  public TrackEventBatcher(LogUtil log, ISensorsAnalytics sensorsAnalytics, int batchSize,
+      int flushIntervalMilliseconds) {
+    this(log, sensorsAnalytics, batchSize, flushIntervalMilliseconds, null);
+  }
+
+  /**
+   * @param spillQueue 本地溢写队列，可以为 null，关闭时一并关闭
+   */
+  public TrackEventBatcher(LogUtil log, ISensorsAnalytics sensorsAnalytics, int batchSize,
+      int flushIntervalMilliseconds, TrackSpillQueue spillQueue) {
+    this.log = log;
+    this.sensorsAnalytics = sensorsAnalytics;
+    this.batchSize = batchSize;
+    this.spillQueue = spillQueue;
+    this.batch = new ArrayList<>(batchSize);
+    this.flusher = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sensors-abtest-track-batcher-%d").build());
+    this.flusher.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        flush(swapBatch());
+        replaySpilled();
+      }
+    }, flushIntervalMilliseconds, flushIntervalMilliseconds, TimeUnit.MILLISECONDS);
+    this.log.info("Initializing track event batcher:batchSize:{};flushInterval:{} ms;spill:{}.", batchSize,
+        flushIntervalMilliseconds, spillQueue != null);
+  }
+
+  /**
+   * 获取与 properties 内容相同的共享只读属性，同一批次中附加属性相同的事件共用一份
+   *
+   * @param properties 附加属性
+   * @return 只读属性，不能修改
+   */
+  public Map<String, Object> shareProperties(Map<String, Object> properties) {
+    if (properties == null || properties.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, Object> shared = sharedProperties.get(properties);
+    if (shared != null) {
+      return shared;
+    }
+    shared = Collections.unmodifiableMap(new HashMap<>(properties));
+    if (sharedProperties.size() >= MAX_SHARED_PROPERTIES) {
+      sharedProperties.clear();
+    }
+    Map<String, Object> existing = sharedProperties.putIfAbsent(shared, shared);
+    return existing == null ? shared : existing;
+  }
+
+  /**
+   * 将事件写入当前批次；关闭后直接上报。未指定事件时间（$time）时以写入时间作为事件时间，不受刷新延迟影响
+   *
+   * @param distinctId 用户 ID
+   * @param isLoginId  是否为登录 ID
+   * @param eventName  事件名
+   * @param properties 事件属性，需要可写入，写入后不能再修改
+   */
+  public void track(String distinctId, boolean isLoginId, String eventName, Map<String, Object> properties) {
+    if (!properties.containsKey(EVENT_TIME)) {
+      properties.put(EVENT_TIME, new Date());
+    }
+    TrackEvent event = new TrackEvent(distinctId, isLoginId, eventName, properties);
+    if (closed) {
+      flush(Collections.singletonList(event));
+      return;
+    }
+    List<TrackEvent> full = null;
+    synchronized (lock) {
+      batch.add(event);
+      if (batch.size() >= batchSize) {
+        full = batch;
+        batch = new ArrayList<>(batchSize);
+      }
+    }
+    if (full != null) {
+      submit(full);
+    } else if (closed) {
+      // 与 close 并发写入时，close 可能已经取走了当前批次
+      flush(swapBatch());
+    }
+  }
+
+  /**
+   * 将事件直接写入溢写队列，例如异步上报队列已满时的事件；关闭后或溢写队列拒绝写入时返回 false。未指定事件时间（$time）
+   * 时以写入时间作为事件时间
+   *
+   * @param distinctId 用户 ID
+   * @param isLoginId  是否为登录 ID
+   * @param eventName  事件名
+   * @param properties 事件属性
+   * @return 是否写入溢写队列
+   */
+  public boolean spill(String distinctId, boolean isLoginId, String eventName, Map<String, Object> properties) {
+    if (spillQueue == null || closed) {
+      return false;
+    }
+    if (!properties.containsKey(EVENT_TIME)) {
+      properties.put(EVENT_TIME, new Date());
+    }
+    return spillQueue.spill(distinctId, isLoginId, eventName, properties);
+  }
+
+  /**
+   * @return 是否配置了本地溢写队列
+   */
+  public boolean isSpillEnabled() {
+    return spillQueue != null;
+  }
+
+  private void submit(final List<TrackEvent> full) {
+    if (pendingBatches.incrementAndGet() <= MAX_PENDING_BATCHES) {
+      try {
+        flusher.execute(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              flush(full);
+            } finally {
+              pendingBatches.decrementAndGet();
+            }
+          }
+        });
+        return;
+      } catch (RejectedExecutionException e) {
+        log.debug("The track event batcher is closed, flush in current thread.[size:{}]", full.size());
+      }
+    }
+    pendingBatches.decrementAndGet();
+    flush(spillQueue == null || closed ? full : spill(full));
+  }
+
+  /**
+   * 写入溢写队列
+   *
+   * @return 未能写入的事件
+   */
+  private List<TrackEvent> spill(List<TrackEvent> events) {
+    List<TrackEvent> rejected = Collections.emptyList();
+    for (TrackEvent event : events) {
+      if (!spillQueue.spill(event.distinctId, event.isLoginId, event.eventName, event.properties)) {
+        if (rejected.isEmpty()) {
+          rejected = new ArrayList<>();
+        }
+        rejected.add(event);
+      }
+    }
+    return rejected;
+  }
+
+  /**
+   * 没有等待刷新的批次时，说明分析 SDK 已跟上写入速度，按批次大小分段补报溢写队列中的事件
+   */
+  private void replaySpilled() {
+    if (spillQueue == null) {
+      return;
+    }
+    while (pendingBatches.get() == 0 && !closed && spillQueue.replay(sensorsAnalytics, batchSize) == batchSize) {
+      log.debug("Replayed spilled track events.[pending:{}]", spillQueue.getPendingCount());
+    }
+  }
+
+  private List<TrackEvent> swapBatch() {
+    synchronized (lock) {
+      if (batch.isEmpty()) {
+        return Collections.emptyList();
+      }
+      List<TrackEvent> current = batch;
+      batch = new ArrayList<>(batchSize);
+      return current;
+    }
+  }
+
+  private void flush(List<TrackEvent> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    for (TrackEvent event : events) {
+      try {
+        sensorsAnalytics.track(event.distinctId, event.isLoginId, event.eventName, event.properties);
+        trackedCount.incrementAndGet();
+      } catch (RuntimeException e) {
+        // 分析 SDK 暂时不可用时写入溢写队列，之后补报；参数校验失败的事件补报也会失败，直接丢弃
+        if (spillQueue != null
+            && spillQueue.spill(event.distinctId, event.isLoginId, event.eventName, event.properties)) {
+          spilledFailedCount.incrementAndGet();
+          log.warn("Failed to track event in batch, spill it.[distinctId:{},isLoginId:{},event:{}]",
+              event.distinctId, event.isLoginId, event.eventName, e);
+        } else {
+          failed(event, e);
+        }
+      } catch (InvalidArgumentException e) {
+        failed(event, e);
+      }
+    }
+    flushedBatchCount.incrementAndGet();
+  }
+
+  private void failed(TrackEvent event, Exception e) {
+    failedCount.incrementAndGet();
+    log.error("Failed to track event in batch.[distinctId:{},isLoginId:{},event:{}]", event.distinctId,
+        event.isLoginId, event.eventName, e);
+  }
+
+  /**
+   * @return 当前批次中等待上报的事件数量
+   */
+  public int getPendingSize() {
+    synchronized (lock) {
+      return batch.size();
+    }
+  }
+
+  /**
+   * @return 上报成功的事件数量
+   */
+  public long getTrackedCount() {
+    return trackedCount.get();
+  }
+
+  /**
+   * @return 上报失败且未能写入溢写队列、已丢弃的事件数量
+   */
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  /**
+   * @return 上报失败后写入溢写队列的事件数量
+   */
+  public long getSpilledFailedCount() {
+    return spilledFailedCount.get();
+  }
+
+  /**
+   * @return 已刷新的批次数量
+   */
+  public long getFlushedBatchCount() {
+    return flushedBatchCount.get();
+  }
+
+  /**
+   * 停止定时刷新，等待已提交的批次上报完成后上报当前批次；溢写队列中未补报的事件保留到下次启动
+   */
+  @Override
+  public void close() {
+    closed = true;
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush(swapBatch());
+    if (spillQueue != null) {
+      spillQueue.close();
+    }
+  }
+
+  private static class TrackEvent {
+    private final String distinctId;
+    private final boolean isLoginId;
+    private final String eventName;
+    private final Map<String, Object> properties;
+
+    TrackEvent(String distinctId, boolean isLoginId, String eventName, Map<String, Object> properties) {
+      this.distinctId = distinctId;
+      this.isLoginId = isLoginId;
+      this.eventName = eventName;
+      this.properties = properties;
+    }
+  }
+}
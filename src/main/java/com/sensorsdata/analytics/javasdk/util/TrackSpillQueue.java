@@ -0,0 +1,268 @@
+package com.sensorsdata.analytics.javasdk.util;
+
+import com.sensorsdata.analytics.javasdk.ISensorsAnalytics;
+import com.sensorsdata.analytics.javasdk.bean.TrackSpillFsyncPolicyEnum;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 事件本地溢写队列
+ * <p>分析 SDK 上报变慢或失败导致内存中的事件积压时，事件写入本地持久化队列 {@link MappedSegmentQueue}，之后由
+ * {@link #replay} 按写入顺序补报。补报时事件时间（$time）为写入时间，Date 类型的属性还原为 Date</p>
+ * <p>补报确认后才推进读取进度，分析 SDK 抛出运行时异常时停止本轮补报，下次从同一事件继续；参数校验失败的事件
+ * 记录失败次数后跳过</p>
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:43
+ */
+public class TrackSpillQueue implements Closeable {
+
+  private static final String DISTINCT_ID = "distinct_id";
+
+  private static final String LOGIN_ID = "login_id";
+
+  private static final String EVENT = "event";
+
+  private static final String TIME = "time";
+
+  private static final String PROPERTIES = "properties";
+
+  /**
+   * 值为 Date 的属性名，Date 以时间戳写入
+   */
+  private static final String DATE_PROPERTIES = "date_properties";
+
+  private static final String EVENT_TIME = "$time";
+
+  private final LogUtil log;
+
+  private final MappedSegmentQueue queue;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /**
+   * 按间隔落盘的线程，其他落盘策略为 null
+   */
+  private final ScheduledExecutorService forcer;
+
+  private final AtomicLong spilledCount = new AtomicLong();
+
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  private final AtomicLong replayedCount = new AtomicLong();
+
+  private final AtomicLong failedCount = new AtomicLong();
+
+  /**
+   * @param log                       日志
+   * @param directory                 队列目录
+   * @param segmentBytes              分段文件大小 byte
+   * @param maxDiskBytes              最多占用的磁盘空间 byte
+   * @param fsyncPolicy               落盘策略
+   * @param fsyncIntervalMilliseconds 按间隔落盘时的间隔 ms
+   * @throws IOException 队列目录或文件无法打开时抛出
+   */
+  public TrackSpillQueue(LogUtil log, File directory, int segmentBytes, long maxDiskBytes,
+      TrackSpillFsyncPolicyEnum fsyncPolicy, int fsyncIntervalMilliseconds) throws IOException {
+    this.log = log;
+    this.queue = new MappedSegmentQueue(log, directory, segmentBytes, maxDiskBytes, fsyncPolicy);
+    if (fsyncPolicy == TrackSpillFsyncPolicyEnum.INTERVAL) {
+      this.forcer = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sensors-abtest-track-spill-%d").build());
+      this.forcer.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            queue.force();
+          } catch (RuntimeException e) {
+            TrackSpillQueue.this.log.error("Failed to force the track spill queue.", e);
+          }
+        }
+      }, fsyncIntervalMilliseconds, fsyncIntervalMilliseconds, TimeUnit.MILLISECONDS);
+    } else {
+      this.forcer = null;
+    }
+    this.log.info("Initializing track spill queue:directory:{};segmentBytes:{};maxDiskBytes:{};fsyncPolicy:{}.",
+        directory, segmentBytes, maxDiskBytes, fsyncPolicy);
+  }
+
+  /**
+   * 写入一个事件
+   *
+   * @param distinctId 用户 ID
+   * @param isLoginId  是否为登录 ID
+   * @param eventName  事件名
+   * @param properties 事件属性
+   * @return 磁盘空间已满或写入失败时返回 false
+   */
+  public boolean spill(String distinctId, boolean isLoginId, String eventName, Map<String, Object> properties) {
+    Map<String, Object> record = new HashMap<>();
+    record.put(DISTINCT_ID, distinctId);
+    record.put(LOGIN_ID, isLoginId);
+    record.put(EVENT, eventName);
+    record.put(TIME, System.currentTimeMillis());
+    Map<String, Object> values = new HashMap<>();
+    List<String> dateProperties = new ArrayList<>();
+    if (properties != null) {
+      for (Map.Entry<String, Object> entry : properties.entrySet()) {
+        if (entry.getValue() instanceof Date) {
+          values.put(entry.getKey(), ((Date) entry.getValue()).getTime());
+          dateProperties.add(entry.getKey());
+        } else {
+          values.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    record.put(PROPERTIES, values);
+    if (!dateProperties.isEmpty()) {
+      record.put(DATE_PROPERTIES, dateProperties);
+    }
+    try {
+      if (queue.append(objectMapper.writeValueAsBytes(record))) {
+        spilledCount.incrementAndGet();
+        return true;
+      }
+      log.debug("The track spill queue is full.[distinctId:{},event:{}]", distinctId, eventName);
+    } catch (IOException | RuntimeException e) {
+      log.error("Failed to spill track event.[distinctId:{},event:{}]", distinctId, eventName, e);
+    }
+    rejectedCount.incrementAndGet();
+    return false;
+  }
+
+  /**
+   * 按写入顺序补报事件
+   *
+   * @param sensorsAnalytics 分析 SDK 实例
+   * @param maxEvents        本次最多处理的事件数量
+   * @return 本次处理（补报成功或因参数不合法跳过）的事件数量，小于 maxEvents 表示队列已空或分析 SDK 尚未恢复
+   */
+  @SuppressWarnings("unchecked")
+  public int replay(ISensorsAnalytics sensorsAnalytics, int maxEvents) {
+    int processed = 0;
+    while (processed < maxEvents) {
+      byte[] bytes;
+      try {
+        bytes = queue.peek();
+      } catch (IOException e) {
+        log.error("Failed to read the track spill queue.", e);
+        break;
+      }
+      if (bytes == null) {
+        break;
+      }
+      Map<String, Object> record;
+      try {
+        record = objectMapper.readValue(bytes, Map.class);
+      } catch (IOException e) {
+        failedCount.incrementAndGet();
+        log.error("Failed to decode spilled track event, skip it.", e);
+        queue.commit();
+        processed++;
+        continue;
+      }
+      String distinctId = (String) record.get(DISTINCT_ID);
+      String eventName = (String) record.get(EVENT);
+      try {
+        sensorsAnalytics.track(distinctId, Boolean.TRUE.equals(record.get(LOGIN_ID)), eventName, properties(record));
+        replayedCount.incrementAndGet();
+      } catch (InvalidArgumentException e) {
+        failedCount.incrementAndGet();
+        log.error("Failed to replay spilled track event, skip it.[distinctId:{},event:{}]", distinctId, eventName, e);
+      } catch (RuntimeException e) {
+        log.warn("Failed to replay spilled track event, retry later.[distinctId:{},event:{}]", distinctId,
+            eventName, e);
+        break;
+      }
+      queue.commit();
+      processed++;
+    }
+    return processed;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> properties(Map<String, Object> record) {
+    Map<String, Object> properties = (Map<String, Object>) record.get(PROPERTIES);
+    List<String> dateProperties = (List<String>) record.get(DATE_PROPERTIES);
+    if (dateProperties != null) {
+      for (String key : dateProperties) {
+        properties.put(key, new Date(((Number) properties.get(key)).longValue()));
+      }
+    }
+    if (!properties.containsKey(EVENT_TIME)) {
+      properties.put(EVENT_TIME, new Date(((Number) record.get(TIME)).longValue()));
+    }
+    return properties;
+  }
+
+  /**
+   * @return 等待补报的事件数量
+   */
+  public long getPendingCount() {
+    return queue.size();
+  }
+
+  /**
+   * @return 占用的磁盘空间 byte
+   */
+  public long getDiskBytes() {
+    return queue.getDiskBytes();
+  }
+
+  /**
+   * @return 写入成功的事件数量
+   */
+  public long getSpilledCount() {
+    return spilledCount.get();
+  }
+
+  /**
+   * @return 因磁盘空间已满或写入失败未写入的事件数量
+   */
+  public long getRejectedCount() {
+    return rejectedCount.get();
+  }
+
+  /**
+   * @return 补报成功的事件数量
+   */
+  public long getReplayedCount() {
+    return replayedCount.get();
+  }
+
+  /**
+   * @return 补报时无法解析或参数不合法而跳过的事件数量
+   */
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  /**
+   * 停止定时落盘，落盘后关闭队列，未补报的事件在下次启动后继续补报
+   */
+  @Override
+  public void close() {
+    if (forcer != null) {
+      forcer.shutdown();
+    }
+    queue.close();
+    log.info("Track spill queue closed.[pending:{},spilled:{},rejected:{},replayed:{},failed:{}]", queue.size(),
+        spilledCount.get(), rejectedCount.get(), replayedCount.get(), failedCount.get());
+  }
+}
@@ -1,16 +1,19 @@
 package com.sensorsdata.analytics.javasdk;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
 import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
 import com.sensorsdata.analytics.javasdk.util.ABTestUtil;
 
 import com.google.common.collect.Maps;
 import org.junit.Test;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -81,4 +84,39 @@ public class ABTestUtilTest {
       fail();
     }
   }
+
+  /**
+   * 取值中包含分隔符的用户标识、属性不会与其它用户合并到同一个在途请求
+   */
+  @Test
+  public void dispatchKeyIsUnambiguous() {
+    Map<String, String> joined = new LinkedHashMap<>();
+    joined.put("a", "1, b=2");
+    Map<String, String> split = new LinkedHashMap<>();
+    split.put("a", "1");
+    split.put("b", "2");
+    assertNotEquals(ABTestUtil.generateDispatchKey(userInfo(joined, null), "p"),
+        ABTestUtil.generateDispatchKey(userInfo(split, null), "p"));
+
+    Map<String, Object> joinedProperties = new LinkedHashMap<String, Object>(joined);
+    Map<String, Object> splitProperties = new LinkedHashMap<String, Object>(split);
+    assertNotEquals(ABTestUtil.generateDispatchKey(userInfo(null, joinedProperties), "p"),
+        ABTestUtil.generateDispatchKey(userInfo(null, splitProperties), "p"));
+    assertNotEquals(ABTestUtil.generateDispatchKey(userInfo(null, splitProperties), "p"),
+        ABTestUtil.generateDispatchKey(userInfo(null, splitProperties), "q"));
+
+    Map<String, Object> reordered = new LinkedHashMap<>();
+    reordered.put("b", "2");
+    reordered.put("a", "1");
+    assertEquals(ABTestUtil.generateDispatchKey(userInfo(null, splitProperties), "p"),
+        ABTestUtil.generateDispatchKey(userInfo(null, reordered), "p"));
+    // 没有自定义属性时请求不携带参数名，不同参数名的请求可以合并
+    assertEquals(ABTestUtil.generateDispatchKey(userInfo(split, null), "p"),
+        ABTestUtil.generateDispatchKey(userInfo(split, null), "q"));
+  }
+
+  private static UserInfo userInfo(Map<String, String> customIds, Map<String, Object> properties) {
+    return UserInfo.builder().distinctId("u").isLoginId(true).customIds(customIds).customProperties(properties)
+        .build();
+  }
 }
@@ -1,6 +1,7 @@
 package com.sensorsdata.analytics.javasdk;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
 import com.sensorsdata.analytics.javasdk.bean.Experiment;
 import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
@@ -11,6 +12,12 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.Assert.*;
 
@@ -529,4 +536,89 @@ public class AsyncFetchRegressionTest extends SensorsBaseTest {
     assertEquals("3", eventCacheByReflect.getIfPresent(generateKey(result2.getDistinctId(), result2.getIsLoginId(), result2.getAbTestExperimentId(), customIdMap)));
   }
   
+  /**
+   * fetchABTestAsync 返回 future，网络请求、结果转换以及事件上报在异步线程中完成
+   */
+  @Test
+  public void fetchABTestAsyncReturnResult()
+      throws InvalidArgumentException, NoSuchFieldException, IllegalAccessException, InterruptedException,
+      ExecutionException, TimeoutException {
+    initSASDK();
+    initInstance(ABGlobalConfig.builder().setApiUrl(url).setSensorsAnalytics(sa).build());
+    initInnerClassInfo(sensorsABTest);
+
+    Experiment<Integer> result =
+        sensorsABTest.fetchABTestAsync(SensorsABParams.starter(distinctId, false, "int_experiment", -1).build())
+            .get(5, TimeUnit.SECONDS);
+
+    assertEquals(distinctId, result.getDistinctId());
+    assertEquals("2", result.getAbTestExperimentId());
+    assertEquals(Integer.valueOf(123), result.getResult());
+    // 异步接口同样不存储实验缓存
+    assertEquals(0, experimentCacheManagerByReflect.getCacheSize());
+    // future 完成时事件已经上报
+    assertEquals(1, eventCacheByReflect.size());
+  }
+
+  /**
+   * fetchABTestAsync 使用用户指定的线程池，参数不合法时直接返回默认值
+   */
+  @Test
+  public void fetchABTestAsyncWithCustomExecutor()
+      throws InvalidArgumentException, InterruptedException, ExecutionException, TimeoutException {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      initSASDK();
+      initInstance(ABGlobalConfig.builder().setApiUrl(url).setSensorsAnalytics(sa).setAsyncExecutor(executor).build());
+
+      Experiment<String> result =
+          sensorsABTest.fetchABTestAsync(SensorsABParams.starter(distinctId, false, "str_experiment", "grey").build())
+              .get(5, TimeUnit.SECONDS);
+      assertEquals("test", result.getResult());
+
+      Experiment<String> invalid =
+          sensorsABTest.fetchABTestAsync(SensorsABParams.starter("", false, "str_experiment", "grey").build())
+              .get(5, TimeUnit.SECONDS);
+      assertEquals("grey", invalid.getResult());
+
+      // SDK 不关闭用户指定的线程池
+      sensorsABTest.shutdown();
+      assertFalse(executor.isShutdown());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * 超时时间从提交时开始计算，在线程池队列中等待超时的请求不再发出，返回默认值
+   */
+  @Test
+  public void fetchABTestAsyncTimesOutInQueue()
+      throws InvalidArgumentException, InterruptedException, ExecutionException, TimeoutException {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    final CountDownLatch release = new CountDownLatch(1);
+    try {
+      initSASDK();
+      initInstance(ABGlobalConfig.builder().setApiUrl(url).setSensorsAnalytics(sa).setAsyncExecutor(executor).build());
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      });
+      ListenableFuture<Experiment<String>> future = sensorsABTest.fetchABTestAsync(
+          SensorsABParams.starter(distinctId, false, "str_experiment", "grey").timeoutMilliseconds(100).build());
+      Thread.sleep(300);
+      release.countDown();
+      assertEquals("grey", future.get(5, TimeUnit.SECONDS).getResult());
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
 }
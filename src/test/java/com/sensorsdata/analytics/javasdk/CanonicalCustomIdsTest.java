@@ -0,0 +1,133 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.Experiment;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserCacheKey;
+import com.sensorsdata.analytics.javasdk.util.ABTestUtil;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * 自定义主体规范化后，缓存 key 与 customIds 的 Map 实现、插入顺序无关
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:43
+ */
+public class CanonicalCustomIdsTest extends SensorsBaseTest {
+
+  @Before
+  public void init() {
+    initSASDK();
+  }
+
+  @Test
+  public void cacheHitIndependentOfMapImplementation() throws Exception {
+    initInstance(ABGlobalConfig.builder().setApiUrl(url).setSensorsAnalytics(sa).build());
+    initInnerClassInfo(sensorsABTest);
+    TestServlet.REQUEST_COUNT.set(0);
+    List<Map<String, String>> customIdsList = customIdsInDifferentOrders();
+    for (Map<String, String> customIds : customIdsList) {
+      Experiment<Integer> experiment = sensorsABTest.fastFetchABTest(
+          SensorsABParams.starter("canonical_user", true, "int_experiment", -1).customIds(customIds).build());
+      assertEquals(Integer.valueOf(123), experiment.getResult());
+    }
+    assertEquals(1, TestServlet.REQUEST_COUNT.get());
+    assertEquals(1, experimentCacheManagerByReflect.getCacheSize());
+    assertEquals(customIdsList.size() - 1, experimentCacheManagerByReflect.getCacheStats().hitCount());
+    // 同一用户同一试验只上报一次 $ABTestTrigger
+    assertEquals(1, eventCacheByReflect.size());
+  }
+
+  @Test
+  public void fetchABTestsWithDifferentOrders() throws Exception {
+    initInstance(ABGlobalConfig.builder().setApiUrl(url).setSensorsAnalytics(sa).build());
+    initInnerClassInfo(sensorsABTest);
+    TestServlet.REQUEST_COUNT.set(0);
+    Map<String, Object> paramDefaults = new LinkedHashMap<>();
+    paramDefaults.put("int_experiment", -1);
+    for (Map<String, String> customIds : customIdsInDifferentOrders()) {
+      assertEquals(123,
+          sensorsABTest.fetchABTests("canonical_user", true, paramDefaults, customIds, true, 3000).get("int_experiment")
+              .getResult());
+    }
+    assertEquals(1, TestServlet.REQUEST_COUNT.get());
+    assertEquals(1, experimentCacheManagerByReflect.getCacheSize());
+  }
+
+  @Test
+  public void canonicalCustomIds() {
+    Map<String, String> customIds = new LinkedHashMap<>();
+    customIds.put(new String("union_id"), "u-1");
+    customIds.put(new String("device_id"), "d-1");
+    Map<String, String> canonical = ABTestUtil.canonicalCustomIds(customIds);
+    assertTrue(canonical instanceof SortedMap);
+    assertEquals(customIds, canonical);
+    assertEquals("device_id", canonical.keySet().iterator().next());
+
+    Map<String, String> other = new HashMap<>();
+    other.put(new String("device_id"), "d-2");
+    String internedName = ABTestUtil.canonicalCustomIds(other).keySet().iterator().next();
+    assertSame(canonical.keySet().iterator().next(), internedName);
+
+    assertEquals(null, ABTestUtil.canonicalCustomIds(null));
+    assertTrue(ABTestUtil.canonicalCustomIds(new HashMap<String, String>()).isEmpty());
+  }
+
+  /**
+   * 直接使用未规范化的 customIds 生成 key 时也与顺序无关
+   */
+  @Test
+  public void cacheKeyIndependentOfOrder() {
+    List<Map<String, String>> customIdsList = customIdsInDifferentOrders();
+    UserCacheKey expected = UserCacheKey.of(userInfo(customIdsList.get(0)), "1");
+    for (Map<String, String> customIds : customIdsList) {
+      assertEquals(expected, UserCacheKey.of(userInfo(customIds), "1"));
+      assertEquals(expected, UserCacheKey.of(userInfo(ABTestUtil.canonicalCustomIds(customIds)), "1"));
+    }
+  }
+
+  private UserInfo userInfo(Map<String, String> customIds) {
+    return UserInfo.builder().distinctId("canonical_user").isLoginId(true).customIds(customIds).build();
+  }
+
+  private List<Map<String, String>> customIdsInDifferentOrders() {
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      names.add("custom_id_" + i);
+    }
+    List<Map<String, String>> result = new ArrayList<>();
+    Map<String, String> hashMap = new HashMap<>();
+    Map<String, String> treeMap = new TreeMap<>(Collections.<String>reverseOrder());
+    for (String name : names) {
+      hashMap.put(name, name + "_value");
+      treeMap.put(name, name + "_value");
+    }
+    result.add(hashMap);
+    result.add(treeMap);
+    for (int i = 0; i < 3; i++) {
+      Collections.rotate(names, 2);
+      Map<String, String> linkedHashMap = new LinkedHashMap<>();
+      for (String name : names) {
+        linkedHashMap.put(name, name + "_value");
+      }
+      result.add(linkedHashMap);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,137 @@
+package com.sensorsdata.analytics.javasdk;
+
+import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.Experiment;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+import com.sensorsdata.analytics.javasdk.util.DispatchBatcher;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 跨用户批量分流请求的吞吐对比，通过 benchmark profile 执行：mvn test -Pbenchmark
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 10:21
+ */
+public class DispatchBatchBenchmark extends SensorsBaseTest {
+
+  private static final String BATCH_URL = "http://localhost:8890/batch";
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(DispatchBatchBenchmark.class), LogLevelEnum.INFO);
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final AtomicInteger batchCount = new AtomicInteger();
+
+  private Server batchServer;
+
+  @Before
+  public void init() throws Exception {
+    initSASDK();
+    batchServer = new Server(8890);
+    ServletContextHandler handler = new ServletContextHandler();
+    handler.addServlet(new ServletHolder(new HttpServlet() {
+      @Override
+      protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        batchCount.incrementAndGet();
+        JsonNode requests = objectMapper.readTree(request.getInputStream()).get(DispatchBatcher.REQUESTS_KEY);
+        ObjectNode res = objectMapper.createObjectNode();
+        res.put("status", "SUCCESS");
+        ArrayNode responses = res.putArray(DispatchBatcher.RESPONSES_KEY);
+        for (int i = 0; i < requests.size(); i++) {
+          responses.add(objectMapper.readTree(TestServlet.DISPATCH_RESPONSE));
+        }
+        response.getOutputStream().write(objectMapper.writeValueAsString(res).getBytes(StandardCharsets.UTF_8));
+      }
+    }), "/batch");
+    batchServer.setHandler(handler);
+    batchServer.start();
+  }
+
+  @After
+  public void close() throws Exception {
+    batchServer.stop();
+  }
+
+  /**
+   * 单请求与批量请求的吞吐对比
+   */
+  @Test
+  public void throughputComparison() throws Exception {
+    int total = 2000;
+    initInstance(ABGlobalConfig.builder().setApiUrl(url).setSensorsAnalytics(sa).build());
+    long single = runLoad(total);
+    sensorsABTest.shutdown();
+    initInstance(batchConfig(5));
+    long batched = runLoad(total);
+    log.info("single: {} ms, batched: {} ms, batch requests: {}", single, batched, batchCount.get());
+  }
+
+  private long runLoad(int total) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(64);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<Experiment<Integer>>> futures = new ArrayList<>(total);
+      for (int i = 0; i < total; i++) {
+        futures.add(executor.submit(fetch("load_user_" + i, start)));
+      }
+      long begin = System.nanoTime();
+      start.countDown();
+      for (Future<Experiment<Integer>> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+      return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private ABGlobalConfig batchConfig(int windowMilliseconds) throws InvalidArgumentException {
+    return ABGlobalConfig.builder()
+        .setApiUrl(url)
+        .setSensorsAnalytics(sa)
+        .enableBatchDispatch(true)
+        .setBatchApiUrl(BATCH_URL)
+        .setBatchWindowMilliseconds(windowMilliseconds)
+        .build();
+  }
+
+  private Callable<Experiment<Integer>> fetch(final String distinctId, final CountDownLatch start) {
+    return new Callable<Experiment<Integer>>() {
+      @Override
+      public Experiment<Integer> call() throws Exception {
+        start.await();
+        return sensorsABTest.asyncFetchABTest(distinctId, false, "int_experiment", -1);
+      }
+    };
+  }
+}
@@ -0,0 +1,261 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.DispatchResponseBody;
+import com.sensorsdata.analytics.javasdk.bean.Experiment;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.WireFormatEnum;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+import com.sensorsdata.analytics.javasdk.util.DispatchBatcher;
+import com.sensorsdata.analytics.javasdk.util.DispatchResponseDecoder;
+import com.sensorsdata.analytics.javasdk.util.DispatchWireFormat;
+import com.sensorsdata.analytics.javasdk.util.HttpConsumer;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.http.impl.client.HttpClients;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 跨用户批量分流请求
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:08
+ */
+public class DispatchBatchTest extends SensorsBaseTest {
+
+  private static final int THREADS = 16;
+
+  private static final String BATCH_URL = "http://localhost:8890/batch";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final AtomicInteger batchCount = new AtomicInteger();
+
+  private final AtomicInteger batchedRequestCount = new AtomicInteger();
+
+  private volatile boolean batchFailure;
+
+  private volatile CountDownLatch releaseBatch;
+
+  private Server batchServer;
+
+  @Before
+  public void init() throws Exception {
+    initSASDK();
+    batchServer = new Server(8890);
+    ServletContextHandler handler = new ServletContextHandler();
+    handler.addServlet(new ServletHolder(new HttpServlet() {
+      @Override
+      protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        batchCount.incrementAndGet();
+        CountDownLatch release = releaseBatch;
+        if (release != null) {
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        JsonNode requests = objectMapper.readTree(request.getInputStream()).get(DispatchBatcher.REQUESTS_KEY);
+        ObjectNode res = objectMapper.createObjectNode();
+        res.put("status", batchFailure ? "FAILED" : "SUCCESS");
+        ArrayNode responses = res.putArray(DispatchBatcher.RESPONSES_KEY);
+        for (int i = 0; i < requests.size(); i++) {
+          batchedRequestCount.incrementAndGet();
+          responses.add(objectMapper.readTree(TestServlet.DISPATCH_RESPONSE));
+        }
+        response.getOutputStream().write(objectMapper.writeValueAsString(res).getBytes(StandardCharsets.UTF_8));
+      }
+    }), "/batch");
+    batchServer.setHandler(handler);
+    batchServer.start();
+  }
+
+  @After
+  public void close() throws Exception {
+    batchServer.stop();
+  }
+
+  /**
+   * 不同用户的并发请求在时间窗口内合并为少量批量请求
+   */
+  @Test
+  public void concurrentRequestsAreBatched() throws Exception {
+    initInstance(batchConfig(200));
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<Experiment<Integer>>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(fetch("batch_user_" + i, start)));
+      }
+      start.countDown();
+      for (Future<Experiment<Integer>> future : futures) {
+        assertEquals(Integer.valueOf(123), future.get(5, TimeUnit.SECONDS).getResult());
+      }
+      assertEquals(THREADS, batchedRequestCount.get());
+      assertTrue(batchCount.get() < THREADS);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * 批量请求失败时返回默认值
+   */
+  @Test
+  public void batchFailureReturnDefaultValue() throws InvalidArgumentException {
+    batchFailure = true;
+    initInstance(batchConfig(5));
+    Experiment<Integer> result = sensorsABTest.asyncFetchABTest("batch_user", false, "int_experiment", -1);
+    assertEquals(Integer.valueOf(-1), result.getResult());
+    assertEquals(1, batchCount.get());
+  }
+
+  /**
+   * 关闭时正在攒批的请求，以及与 close 并发提交的请求都能完成，不会一直等待
+   */
+  @Test
+  public void submitRacingCloseAlwaysCompletes() throws Exception {
+    final LogUtil log = new LogUtil(LoggerFactory.getLogger(DispatchBatchTest.class), LogLevelEnum.INFO);
+    DispatchWireFormat wireFormat = new DispatchWireFormat(log, objectMapper, WireFormatEnum.JSON);
+    HttpConsumer httpConsumer = new HttpConsumer(log, false, HttpClients.custom(), BATCH_URL, 10, 10);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      DispatchBatcher collecting = new DispatchBatcher(log, httpConsumer, wireFormat,
+          new DispatchResponseDecoder(objectMapper, wireFormat), BATCH_URL, 60000, 100, 10);
+      ListenableFuture<DispatchResponseBody> pending = collecting.submit(new HashMap<String, Object>(), 1000);
+      long deadline = System.currentTimeMillis() + 5000;
+      while (collecting.getPendingSize() > 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(1);
+      }
+      collecting.close();
+      assertNull(pending.get(5, TimeUnit.SECONDS));
+
+      for (int round = 0; round < 20; round++) {
+        final DispatchBatcher batcher = new DispatchBatcher(log, httpConsumer, wireFormat,
+            new DispatchResponseDecoder(objectMapper, wireFormat), BATCH_URL, 1, 100, 10);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<ListenableFuture<DispatchResponseBody>>> submitted = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+          submitted.add(executor.submit(new Callable<ListenableFuture<DispatchResponseBody>>() {
+            @Override
+            public ListenableFuture<DispatchResponseBody> call() throws Exception {
+              start.await();
+              return batcher.submit(new HashMap<String, Object>(), 1000);
+            }
+          }));
+        }
+        start.countDown();
+        batcher.close();
+        for (Future<ListenableFuture<DispatchResponseBody>> future : submitted) {
+          future.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+      httpConsumer.close();
+    }
+  }
+
+  /**
+   * 分流服务变慢时发送线程与等待队列都有上限，超出的批次直接以空结果完成
+   */
+  @Test
+  public void sendersAreBounded() throws Exception {
+    releaseBatch = new CountDownLatch(1);
+    LogUtil log = new LogUtil(LoggerFactory.getLogger(DispatchBatchTest.class), LogLevelEnum.INFO);
+    DispatchWireFormat wireFormat = new DispatchWireFormat(log, objectMapper, WireFormatEnum.JSON);
+    HttpConsumer httpConsumer = new HttpConsumer(log, false, HttpClients.custom(), BATCH_URL, 10, 10);
+    DispatchBatcher batcher = new DispatchBatcher(log, httpConsumer, wireFormat,
+        new DispatchResponseDecoder(objectMapper, wireFormat), BATCH_URL, 1, 1, 1);
+    try {
+      ListenableFuture<DispatchResponseBody> sending = batcher.submit(new HashMap<String, Object>(), 5000);
+      long deadline = System.currentTimeMillis() + 5000;
+      while (batchCount.get() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(1);
+      }
+      ListenableFuture<DispatchResponseBody> queued = batcher.submit(new HashMap<String, Object>(), 5000);
+      while (batcher.getPendingSize() > 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(1);
+      }
+      ListenableFuture<DispatchResponseBody> rejected = batcher.submit(new HashMap<String, Object>(), 5000);
+      assertNull(rejected.get(5, TimeUnit.SECONDS));
+      assertEquals(1, batchCount.get());
+
+      releaseBatch.countDown();
+      assertEquals("SUCCESS", sending.get(5, TimeUnit.SECONDS).getStatus());
+      assertEquals("SUCCESS", queued.get(5, TimeUnit.SECONDS).getStatus());
+      assertEquals(2, batchCount.get());
+    } finally {
+      releaseBatch.countDown();
+      batcher.close();
+      httpConsumer.close();
+    }
+  }
+
+  /**
+   * 开启批量分流时必须配置批量分流地址
+   */
+  @Test(expected = InvalidArgumentException.class)
+  public void batchApiUrlIsRequired() throws InvalidArgumentException {
+    ABGlobalConfig.builder()
+        .setApiUrl(url)
+        .setSensorsAnalytics(sa)
+        .enableBatchDispatch(true)
+        .build();
+  }
+
+  private ABGlobalConfig batchConfig(int windowMilliseconds) throws InvalidArgumentException {
+    return ABGlobalConfig.builder()
+        .setApiUrl(url)
+        .setSensorsAnalytics(sa)
+        .enableBatchDispatch(true)
+        .setBatchApiUrl(BATCH_URL)
+        .setBatchWindowMilliseconds(windowMilliseconds)
+        .build();
+  }
+
+  private Callable<Experiment<Integer>> fetch(final String distinctId, final CountDownLatch start) {
+    return new Callable<Experiment<Integer>>() {
+      @Override
+      public Experiment<Integer> call() throws Exception {
+        start.await();
+        return sensorsABTest.asyncFetchABTest(distinctId, false, "int_experiment", -1);
+      }
+    };
+  }
+}
@@ -0,0 +1,225 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.CircuitBreakerStateEnum;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.SensorsABTestMetrics;
+import com.sensorsdata.analytics.javasdk.transport.DispatchResponse;
+import com.sensorsdata.analytics.javasdk.transport.DispatchTransport;
+import com.sensorsdata.analytics.javasdk.util.DispatchCircuitBreaker;
+import com.sensorsdata.analytics.javasdk.util.HttpConsumer;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 分流请求熔断
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:29
+ */
+public class DispatchCircuitBreakerTest extends SensorsBaseTest {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(DispatchCircuitBreakerTest.class),
+      LogLevelEnum.INFO);
+
+  private final AtomicInteger requestCount = new AtomicInteger();
+
+  private volatile boolean failing;
+
+  private Server breakerServer;
+
+  @Before
+  public void init() throws Exception {
+    initSASDK();
+    breakerServer = new Server(8893);
+    ServletContextHandler handler = new ServletContextHandler();
+    handler.addServlet(new ServletHolder(new HttpServlet() {
+      @Override
+      protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        requestCount.incrementAndGet();
+        if (failing) {
+          response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+          return;
+        }
+        response.getOutputStream().write(TestServlet.DISPATCH_RESPONSE.getBytes(StandardCharsets.UTF_8));
+      }
+    }), "/breaker");
+    breakerServer.setHandler(handler);
+    breakerServer.start();
+  }
+
+  @After
+  public void close() throws Exception {
+    breakerServer.stop();
+  }
+
+  @Test
+  public void openOnFailureRateAndRecover() throws Exception {
+    initInstance(ABGlobalConfig.builder()
+        .setApiUrl("http://localhost:8893/breaker")
+        .setSensorsAnalytics(sa)
+        .enableCircuitBreaker(true)
+        .setCircuitBreakerWindowSize(10)
+        .setCircuitBreakerOpenMilliseconds(300)
+        .build());
+    // 正常时写入缓存
+    assertEquals(Integer.valueOf(123),
+        sensorsABTest.fastFetchABTest("breaker_user", false, "int_experiment", -1).getResult());
+
+    failing = true;
+    for (int i = 0; i < 20 && sensorsABTest.getMetrics().getCircuitBreakerState() == CircuitBreakerStateEnum.CLOSED; i++) {
+      assertEquals(Integer.valueOf(-1),
+          sensorsABTest.asyncFetchABTest("failing_user_" + i, false, "int_experiment", -1).getResult());
+    }
+    SensorsABTestMetrics metrics = sensorsABTest.getMetrics();
+    assertEquals(CircuitBreakerStateEnum.OPEN, metrics.getCircuitBreakerState());
+    assertEquals(1, metrics.getCircuitBreakerOpenedCount());
+
+    // 熔断打开后不再发出请求，有缓存时返回缓存结果，否则直接返回默认值
+    int requests = requestCount.get();
+    assertEquals(Integer.valueOf(123),
+        sensorsABTest.asyncFetchABTest("breaker_user", false, "int_experiment", -1).getResult());
+    assertEquals(Integer.valueOf(-1),
+        sensorsABTest.asyncFetchABTest("other_user", false, "int_experiment", -1).getResult());
+    assertEquals(requests, requestCount.get());
+    assertEquals(1, sensorsABTest.getMetrics().getCircuitBreakerShortCircuitedCalls());
+
+    // 服务恢复后，探测请求成功即恢复为 CLOSED
+    failing = false;
+    Thread.sleep(400);
+    for (int i = 0; i < 5; i++) {
+      assertEquals(Integer.valueOf(123),
+          sensorsABTest.asyncFetchABTest("recover_user_" + i, false, "int_experiment", -1).getResult());
+    }
+    metrics = sensorsABTest.getMetrics();
+    assertEquals(CircuitBreakerStateEnum.CLOSED, metrics.getCircuitBreakerState());
+    assertEquals(1, metrics.getCircuitBreakerHalfOpenedCount());
+    assertEquals(1, metrics.getCircuitBreakerClosedCount());
+  }
+
+  @Test
+  public void openOnSlowCallRate() {
+    DispatchCircuitBreaker circuitBreaker = new DispatchCircuitBreaker(log, 10, 50, 100, 50, 60000);
+    for (int i = 0; i < 9; i++) {
+      assertTrue(circuitBreaker.tryAcquire());
+      circuitBreaker.onSuccess(i < 5 ? 200 : 10);
+    }
+    assertEquals(CircuitBreakerStateEnum.CLOSED, circuitBreaker.getState());
+    assertTrue(circuitBreaker.tryAcquire());
+    circuitBreaker.onSuccess(10);
+    assertEquals(CircuitBreakerStateEnum.OPEN, circuitBreaker.getState());
+    assertFalse(circuitBreaker.tryAcquire());
+  }
+
+  /**
+   * 统计窗口只保留最近 windowSize 次请求，早期的失败会被滑出窗口
+   */
+  @Test
+  public void slidingWindowEvictsOldOutcomes() {
+    DispatchCircuitBreaker circuitBreaker = new DispatchCircuitBreaker(log, 10, 50, 1000, 100, 60000);
+    for (int i = 0; i < 4; i++) {
+      circuitBreaker.onFailure(10);
+    }
+    for (int i = 0; i < 100; i++) {
+      circuitBreaker.onSuccess(10);
+    }
+    for (int i = 0; i < 4; i++) {
+      circuitBreaker.onFailure(10);
+    }
+    assertEquals(CircuitBreakerStateEnum.CLOSED, circuitBreaker.getState());
+    circuitBreaker.onFailure(10);
+    assertEquals(CircuitBreakerStateEnum.OPEN, circuitBreaker.getState());
+  }
+
+  @Test
+  public void halfOpenTrialFailureReopens() throws InterruptedException {
+    DispatchCircuitBreaker circuitBreaker = new DispatchCircuitBreaker(log, 10, 50, 1000, 100, 50);
+    for (int i = 0; i < 10; i++) {
+      circuitBreaker.onFailure(10);
+    }
+    assertEquals(CircuitBreakerStateEnum.OPEN, circuitBreaker.getState());
+    Thread.sleep(100);
+    for (int i = 0; i < 5; i++) {
+      assertTrue(circuitBreaker.tryAcquire());
+    }
+    assertEquals(CircuitBreakerStateEnum.HALF_OPEN, circuitBreaker.getState());
+    // 探测请求数量已满
+    assertFalse(circuitBreaker.tryAcquire());
+    for (int i = 0; i < 5; i++) {
+      circuitBreaker.onFailure(10);
+    }
+    assertEquals(CircuitBreakerStateEnum.OPEN, circuitBreaker.getState());
+    assertEquals(2, circuitBreaker.getOpenedCount());
+    assertEquals(1, circuitBreaker.getShortCircuitedCalls());
+  }
+
+  /**
+   * 取得许可后请求未能发出（例如线程池拒绝执行）也记录为失败，半开状态的探测许可不会泄漏
+   */
+  @Test
+  public void rejectedRequestsReleasePermits() throws Exception {
+    DispatchCircuitBreaker circuitBreaker = new DispatchCircuitBreaker(log, 10, 50, 1000, 100, 50);
+    HttpConsumer httpConsumer = new HttpConsumer(log, false, new DispatchTransport() {
+      @Override
+      public DispatchResponse send(String url, byte[] payload, Map<String, String> headers,
+          int timeoutMilliseconds) {
+        throw new RejectedExecutionException("rejected");
+      }
+
+      @Override
+      public ListenableFuture<DispatchResponse> sendAsync(String url, byte[] payload, Map<String, String> headers,
+          int timeoutMilliseconds, Executor executor) {
+        throw new RejectedExecutionException("rejected");
+      }
+
+      @Override
+      public void close() {
+      }
+    }, "http://localhost:8893/breaker", null, circuitBreaker);
+    for (int i = 0; i < 5; i++) {
+      assertTrue(httpConsumer.exchangeAsync(null, null, "application/json", "application/json", 1000,
+          MoreExecutors.directExecutor()).isDone());
+    }
+    for (int i = 0; i < 5; i++) {
+      try {
+        httpConsumer.exchange(null, "application/json", "application/json", 1000);
+      } catch (RejectedExecutionException e) {
+        // expected
+      }
+    }
+    assertEquals(CircuitBreakerStateEnum.OPEN, circuitBreaker.getState());
+    Thread.sleep(100);
+    for (int i = 0; i < 5; i++) {
+      assertTrue(httpConsumer.exchangeAsync(null, null, "application/json", "application/json", 1000,
+          MoreExecutors.directExecutor()).isDone());
+    }
+    assertEquals(CircuitBreakerStateEnum.OPEN, circuitBreaker.getState());
+    assertEquals(2, circuitBreaker.getOpenedCount());
+  }
+}
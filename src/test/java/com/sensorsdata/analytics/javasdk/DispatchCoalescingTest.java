@@ -0,0 +1,121 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+
+import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.Experiment;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 相同用户并发分流请求合并
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:02
+ */
+public class DispatchCoalescingTest extends SensorsBaseTest {
+
+  private static final int THREADS = 8;
+
+  private Server blockingServer;
+
+  private final AtomicInteger requestCount = new AtomicInteger();
+
+  private final CountDownLatch requestArrived = new CountDownLatch(1);
+
+  private final CountDownLatch releaseResponse = new CountDownLatch(1);
+
+  @Before
+  public void init() throws Exception {
+    initSASDK();
+    blockingServer = new Server(8889);
+    ServletContextHandler handler = new ServletContextHandler();
+    handler.addServlet(new ServletHolder(new TestServlet() {
+      @Override
+      protected void doPost(HttpServletRequest request, HttpServletResponse response)
+          throws ServletException, IOException {
+        requestCount.incrementAndGet();
+        requestArrived.countDown();
+        try {
+          releaseResponse.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.doPost(request, response);
+      }
+    }), "/test");
+    blockingServer.setHandler(handler);
+    blockingServer.start();
+  }
+
+  @After
+  public void close() throws Exception {
+    blockingServer.stop();
+  }
+
+  @Test
+  public void concurrentIdenticalRequestsShareOneDispatch() throws Exception {
+    initInstance(ABGlobalConfig.builder()
+        .setApiUrl("http://localhost:8889/test")
+        .setSensorsAnalytics(sa)
+        .build());
+    initInnerClassInfo(sensorsABTest);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Experiment<Integer>>> futures = new ArrayList<>();
+      futures.add(executor.submit(fetch()));
+      requestArrived.await(5, TimeUnit.SECONDS);
+      for (int i = 1; i < THREADS; i++) {
+        futures.add(executor.submit(fetch()));
+      }
+      // 等待其余线程全部加入在途请求后再放行服务端响应
+      long deadline = System.currentTimeMillis() + 5000;
+      while (sensorsABTest.getMetrics().getCoalescedDispatchCount() < THREADS - 1
+          && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      releaseResponse.countDown();
+
+      for (Future<Experiment<Integer>> future : futures) {
+        assertEquals(Integer.valueOf(123), future.get(5, TimeUnit.SECONDS).getResult());
+      }
+      assertEquals(1, requestCount.get());
+      assertEquals(THREADS - 1, sensorsABTest.getMetrics().getCoalescedDispatchCount());
+      assertEquals(1, experimentCacheManagerByReflect.getCacheSize());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Callable<Experiment<Integer>> fetch() {
+    return new Callable<Experiment<Integer>>() {
+      @Override
+      public Experiment<Integer> call() throws InvalidArgumentException {
+        return sensorsABTest.fastFetchABTest("coalesce_user", false, "int_experiment", -1);
+      }
+    };
+  }
+}
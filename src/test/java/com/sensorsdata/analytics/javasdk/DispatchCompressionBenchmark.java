@@ -0,0 +1,69 @@
+package com.sensorsdata.analytics.javasdk;
+
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.util.CompressionCodec;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 分流请求压缩编解码的性能对比，通过 benchmark profile 执行：mvn test -Pbenchmark
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 10:21
+ */
+public class DispatchCompressionBenchmark {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(DispatchCompressionBenchmark.class),
+      LogLevelEnum.INFO);
+
+  private final CompressionCodec codec = new CompressionCodec(0, Deflater.DEFAULT_COMPRESSION);
+
+  /**
+   * 池化编解码与每次创建 GZIPOutputStream/GZIPInputStream 的耗时对比
+   */
+  @Test
+  public void pooledCodecComparison() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 50; i++) {
+      sb.append(TestServlet.DISPATCH_RESPONSE);
+    }
+    byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+    log.info("raw: {} bytes, gzip: {} bytes", data.length, codec.gzip(data).length);
+    int rounds = 20000;
+    for (int round = 0; round < 2; round++) {
+      long begin = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        codec.decode("gzip", codec.gzip(data));
+      }
+      long pooled = System.nanoTime() - begin;
+      begin = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(gzipByStream(data))));
+      }
+      long stream = System.nanoTime() - begin;
+      log.info("pooled: {} us/op, stream: {} us/op", TimeUnit.NANOSECONDS.toMicros(pooled) / rounds,
+          TimeUnit.NANOSECONDS.toMicros(stream) / rounds);
+    }
+  }
+
+  private static byte[] gzipByStream(byte[] data) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(data);
+    }
+    return out.toByteArray();
+  }
+}
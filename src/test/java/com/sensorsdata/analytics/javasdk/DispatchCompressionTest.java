@@ -0,0 +1,198 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.Experiment;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+import com.sensorsdata.analytics.javasdk.transport.impl.UrlConnectionTransport;
+import com.sensorsdata.analytics.javasdk.util.CompressionCodec;
+import com.sensorsdata.analytics.javasdk.util.SensorsAnalyticsUtil;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.io.ByteStreams;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 分流请求压缩
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:24
+ */
+public class DispatchCompressionTest extends SensorsBaseTest {
+
+  private final CompressionCodec codec = new CompressionCodec(0, Deflater.DEFAULT_COMPRESSION);
+
+  /**
+   * 服务端收到的请求 Content-Encoding
+   */
+  private final List<String> requestEncodings = new CopyOnWriteArrayList<>();
+
+  private Server compressionServer;
+
+  @Before
+  public void init() throws Exception {
+    initSASDK();
+    compressionServer = new Server(8892);
+    ServletContextHandler handler = new ServletContextHandler();
+    handler.addServlet(new ServletHolder(new HttpServlet() {
+      @Override
+      protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String encoding = request.getHeader("Content-Encoding");
+        requestEncodings.add(String.valueOf(encoding));
+        InputStream in = "gzip".equals(encoding) ? new GZIPInputStream(request.getInputStream())
+            : request.getInputStream();
+        JsonNode params = SensorsAnalyticsUtil.getJsonObjectMapper().readTree(in);
+        assertEquals("compression_user", params.get("anonymous_id").asText());
+        byte[] body = TestServlet.DISPATCH_RESPONSE.getBytes(StandardCharsets.UTF_8);
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+          response.setHeader("Content-Encoding", "gzip");
+          body = gzipByStream(body);
+        }
+        response.setContentType("application/json");
+        response.getOutputStream().write(body);
+      }
+    }), "/compression");
+    compressionServer.setHandler(handler);
+    compressionServer.start();
+  }
+
+  @After
+  public void close() throws Exception {
+    compressionServer.stop();
+  }
+
+  @Test
+  public void gzipInteroperability() throws IOException {
+    byte[] data = TestServlet.DISPATCH_RESPONSE.getBytes(StandardCharsets.UTF_8);
+    byte[] compressed = codec.gzip(data);
+    assertTrue(compressed.length < data.length);
+    assertArrayEquals(data, ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+    assertArrayEquals(data, codec.decode("gzip", gzipByStream(data)));
+    // 复用池中的 Deflater/Inflater
+    for (int i = 0; i < 10; i++) {
+      assertArrayEquals(data, codec.decode("GZIP", codec.gzip(data)));
+    }
+  }
+
+  @Test
+  public void deflateWithAndWithoutZlibHeader() throws IOException {
+    byte[] data = TestServlet.DISPATCH_RESPONSE.getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+    try (DeflaterOutputStream out = new DeflaterOutputStream(zlib)) {
+      out.write(data);
+    }
+    assertArrayEquals(data, codec.decode("deflate", zlib.toByteArray()));
+    ByteArrayOutputStream raw = new ByteArrayOutputStream();
+    try (DeflaterOutputStream out = new DeflaterOutputStream(raw, new Deflater(Deflater.DEFAULT_COMPRESSION, true))) {
+      out.write(data);
+    }
+    assertArrayEquals(data, codec.decode("deflate", raw.toByteArray()));
+    assertArrayEquals(data, codec.decode("identity", data));
+  }
+
+  @Test(expected = IOException.class)
+  public void corruptGzip() throws IOException {
+    byte[] compressed = codec.gzip(TestServlet.DISPATCH_RESPONSE.getBytes(StandardCharsets.UTF_8));
+    compressed[compressed.length - 5] ^= 1;
+    codec.decode("gzip", compressed);
+  }
+
+  /**
+   * 解压后超过上限的返回结果（例如压缩炸弹）直接失败，不会继续解压
+   */
+  @Test
+  public void decodedSizeIsLimited() throws IOException {
+    CompressionCodec limitedCodec = new CompressionCodec(0, Deflater.DEFAULT_COMPRESSION, 1024 * 1024);
+    byte[] bomb = limitedCodec.gzip(new byte[4 * 1024 * 1024]);
+    assertTrue(bomb.length < 8 * 1024);
+    ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+    try (DeflaterOutputStream out = new DeflaterOutputStream(zlib)) {
+      out.write(new byte[4 * 1024 * 1024]);
+    }
+    for (String encoding : new String[] {"gzip", "deflate"}) {
+      try {
+        limitedCodec.decode(encoding, "gzip".equals(encoding) ? bomb : zlib.toByteArray());
+        fail();
+      } catch (IOException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("exceeds"));
+      }
+    }
+    byte[] data = new byte[1024 * 1024];
+    assertArrayEquals(data, limitedCodec.decode("gzip", limitedCodec.gzip(data)));
+  }
+
+  @Test
+  public void threshold() {
+    CompressionCodec thresholdCodec = new CompressionCodec(100, Deflater.DEFAULT_COMPRESSION);
+    assertFalse(thresholdCodec.shouldCompress(new byte[99]));
+    assertTrue(thresholdCodec.shouldCompress(new byte[100]));
+    assertFalse(thresholdCodec.shouldCompress(null));
+  }
+
+  /**
+   * UrlConnectionTransport 不会自动解压，由 HttpConsumer 按 Content-Encoding 解压返回体
+   */
+  @Test
+  public void fetchWithCompression() throws InvalidArgumentException {
+    initInstance(compressionConfig(0));
+    assertEquals(Integer.valueOf(123), fetch().getResult());
+    assertEquals("gzip", requestEncodings.get(0));
+  }
+
+  @Test
+  public void smallRequestNotCompressed() throws InvalidArgumentException {
+    initInstance(compressionConfig(1024 * 1024));
+    assertEquals(Integer.valueOf(123), fetch().getResult());
+    assertEquals("null", requestEncodings.get(0));
+  }
+
+  private ABGlobalConfig compressionConfig(int threshold) throws InvalidArgumentException {
+    return ABGlobalConfig.builder()
+        .setApiUrl("http://localhost:8892/compression")
+        .setSensorsAnalytics(sa)
+        .setDispatchTransport(new UrlConnectionTransport())
+        .enableCompression(true)
+        .setCompressionThreshold(threshold)
+        .build();
+  }
+
+  private Experiment<Integer> fetch() {
+    return sensorsABTest.asyncFetchABTest("compression_user", false, "int_experiment", -1);
+  }
+
+  private static byte[] gzipByStream(byte[] data) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(data);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,130 @@
+package com.sensorsdata.analytics.javasdk;
+
+import com.sensorsdata.analytics.javasdk.bean.DispatchResponseBody;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.WireFormatEnum;
+import com.sensorsdata.analytics.javasdk.cache.ExperimentCacheManager;
+import com.sensorsdata.analytics.javasdk.util.DispatchResponseDecoder;
+import com.sensorsdata.analytics.javasdk.util.DispatchWireFormat;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+import com.sensorsdata.analytics.javasdk.util.SensorsAnalyticsUtil;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分流返回结果解析与出组试验查找的性能对比，通过 benchmark profile 执行：mvn test -Pbenchmark
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 10:21
+ */
+public class DispatchResponseDecoderBenchmark {
+
+  private final ObjectMapper objectMapper = SensorsAnalyticsUtil.getJsonObjectMapper();
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(DispatchResponseDecoderBenchmark.class),
+      LogLevelEnum.INFO);
+
+  private final ExperimentCacheManager cacheManager = new ExperimentCacheManager(log, 10, 100);
+
+  private final DispatchResponseDecoder decoder = new DispatchResponseDecoder(objectMapper,
+      new DispatchWireFormat(log, objectMapper, WireFormatEnum.JSON));
+
+  /**
+   * 200 个出组试验时，逐个扫描与按参数索引获取出组试验的耗时对比
+   */
+  @Test
+  public void outListLookupComparison() throws IOException {
+    DispatchResponseBody body = decoder.decode(buildPayload(SensorsABTestConst.OUT_LIST_KEY, 200));
+    String[] params = {"param_0_0", "param_50_1", "param_100_2", "param_150_3", "param_199_0"};
+    int rounds = 200000;
+    long sink = 0;
+    for (int i = 0; i < rounds; i++) {
+      String param = params[i % params.length];
+      sink += cacheManager.getUserOutExperimentGroups(param, body.getOutList()).size();
+      sink += cacheManager.getUserOutExperimentGroups(param, body.getOutList(param)).size();
+    }
+    long begin = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      String param = params[i % params.length];
+      sink += cacheManager.getUserOutExperimentGroups(param, body.getOutList()).size();
+    }
+    long scan = System.nanoTime() - begin;
+    begin = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      String param = params[i % params.length];
+      sink += cacheManager.getUserOutExperimentGroups(param, body.getOutList(param)).size();
+    }
+    long indexed = System.nanoTime() - begin;
+    log.info("out list scan: {} ns/op, indexed: {} ns/op ({})", scan / rounds, indexed / rounds, sink);
+  }
+
+  /**
+   * 流式解析与 readTree + findValue 在 50 个试验的返回结果上的耗时对比
+   */
+  @Test
+  public void decodeComparison() throws IOException {
+    byte[] payload = buildPayload(SensorsABTestConst.RESULTS_KEY, 50);
+    int rounds = 20000;
+    for (int i = 0; i < rounds; i++) {
+      decoder.decode(payload);
+      decodeByTree(payload);
+    }
+    long begin = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      decoder.decode(payload);
+    }
+    long streaming = System.nanoTime() - begin;
+    begin = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      decodeByTree(payload);
+    }
+    long tree = System.nanoTime() - begin;
+    log.info("streaming: {} us/op, tree: {} us/op", TimeUnit.NANOSECONDS.toMicros(streaming) / rounds,
+        TimeUnit.NANOSECONDS.toMicros(tree) / rounds);
+  }
+
+  private int decodeByTree(byte[] payload) throws IOException {
+    JsonNode response = objectMapper.readTree(payload);
+    int count = response.findValue("status").asText().length();
+    for (JsonNode node : response.findValue("results")) {
+      count += node.findValue("abtest_experiment_id").asText().length();
+      count += node.findValue("abtest_experiment_group_id").asText().length();
+      count += node.findValue("is_control_group").asBoolean() ? 1 : 0;
+      count += node.findValue("is_white_list").asBoolean() ? 1 : 0;
+      for (JsonNode variable : node.findValue("variables")) {
+        count += variable.findValue("name").asText().length() + variable.findValue("value").asText().length();
+      }
+    }
+    return count;
+  }
+
+  private byte[] buildPayload(String listKey, int experiments) {
+    StringBuilder sb = new StringBuilder("{\"status\":\"SUCCESS\",\"").append(listKey).append("\":[");
+    for (int i = 0; i < experiments; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"abtest_experiment_id\":\"").append(i).append("\",\"abtest_experiment_group_id\":\"1\",")
+          .append("\"abtest_experiment_result_id\":\"").append(1000 + i).append("\",")
+          .append("\"abtest_experiment_version\":\"2\",\"is_control_group\":false,\"is_white_list\":false,")
+          .append("\"experiment_type\":\"CODE\",\"subject_id\":\"user\",\"subject_name\":\"USER\",\"variables\":[");
+      for (int j = 0; j < 4; j++) {
+        if (j > 0) {
+          sb.append(',');
+        }
+        sb.append("{\"name\":\"param_").append(i).append('_').append(j)
+            .append("\",\"type\":\"STRING\",\"value\":\"value_").append(j).append("\"}");
+      }
+      sb.append("]}");
+    }
+    return sb.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
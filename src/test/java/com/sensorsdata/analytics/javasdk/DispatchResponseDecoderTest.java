@@ -0,0 +1,173 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.DispatchExperiment;
+import com.sensorsdata.analytics.javasdk.bean.DispatchResponseBody;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.WireFormatEnum;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserOutExperimentGroup;
+import com.sensorsdata.analytics.javasdk.cache.ExperimentCacheManager;
+import com.sensorsdata.analytics.javasdk.util.ABTestUtil;
+import com.sensorsdata.analytics.javasdk.util.DispatchResponseDecoder;
+import com.sensorsdata.analytics.javasdk.util.DispatchWireFormat;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+import com.sensorsdata.analytics.javasdk.util.SensorsAnalyticsUtil;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分流返回结果流式解析
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:16
+ */
+public class DispatchResponseDecoderTest {
+
+  private final ObjectMapper objectMapper = SensorsAnalyticsUtil.getJsonObjectMapper();
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(DispatchResponseDecoderTest.class),
+      LogLevelEnum.INFO);
+
+  private final ExperimentCacheManager cacheManager = new ExperimentCacheManager(log, 10, 100);
+
+  private final DispatchResponseDecoder decoder = new DispatchResponseDecoder(objectMapper,
+      new DispatchWireFormat(log, objectMapper, WireFormatEnum.JSON));
+
+  @Test
+  public void decodeResults() throws IOException {
+    DispatchResponseBody body = decoder.decode(TestServlet.DISPATCH_RESPONSE.getBytes(StandardCharsets.UTF_8));
+    assertTrue(body.isSuccess());
+    assertEquals(5, body.getResults().size());
+    assertNull(body.getOutList());
+    assertNull(body.getTrackConfig());
+
+    DispatchExperiment experiment = body.getResults().get(0);
+    assertEquals("2", experiment.getAbtestExperimentId());
+    assertEquals("1", experiment.getAbtestExperimentGroupId());
+    assertFalse(experiment.getIsControlGroup());
+    assertFalse(experiment.getIsWhiteList());
+    assertNull(experiment.getCacheable());
+    assertEquals(4, experiment.getVariableMap().size());
+    assertEquals("123", experiment.getVariableMap().get("int_experiment").getValue());
+    assertEquals("INTEGER", experiment.getVariableMap().get("int_experiment").getType());
+    assertEquals("{\"name\":\"hello\"}", experiment.getVariableMap().get("json_experiment").getValue());
+    // src 保留试验节点上除 variables 以外的字段
+    assertEquals("CODE", experiment.getSrc().get("experiment_type").asText());
+    assertNull(experiment.getSrc().get("variables"));
+  }
+
+  @Test
+  public void decodeOutListAndTrackConfig() throws IOException {
+    String response = "{\"out_list\":[{\"abtest_experiment_id\":\"7\",\"abtest_experiment_group_id\":\"0\","
+        + "\"abtest_experiment_version\":\"3\",\"abtest_experiment_result_id\":\"100\",\"subject_id\":\"s1\","
+        + "\"cacheable\":false,\"nested\":{\"status\":\"FAILED\"},"
+        + "\"variables\":[{\"name\":\"out_param\",\"type\":\"INTEGER\",\"value\":1}]}],"
+        + "\"track_config\":{\"item_switch\":true,\"trigger_switch\":false,"
+        + "\"trigger_content_ext\":[\"abtest_experiment_version\"]},"
+        + "\"status\":\"SUCCESS\"}";
+    DispatchResponseBody body = decoder.decode(response.getBytes(StandardCharsets.UTF_8));
+    assertTrue(body.isSuccess());
+    assertNull(body.getResults());
+    DispatchExperiment out = body.getOutList().get(0);
+    assertEquals("7", out.getAbtestExperimentId());
+    assertEquals("3", out.getAbtestExperimentVersion());
+    assertEquals("100", out.getAbtestExperimentResultId());
+    assertEquals("s1", out.getSubjectId());
+    assertFalse(out.getCacheable());
+    assertNull(out.getIsWhiteList());
+    assertEquals("1", out.getVariableMap().get("out_param").getValue());
+    assertEquals("FAILED", out.getSrc().get("nested").get("status").asText());
+    assertFalse(body.getTrackConfig().isTriggerSwitch());
+    assertEquals(1, body.getTrackConfig().getTriggerContentExt().size());
+  }
+
+  /**
+   * 扩展字段位于嵌套对象中或值为对象、数组时，仍能从 src 中提取
+   */
+  @Test
+  public void nestedExtFieldsAreKept() throws IOException {
+    String response = "{\"results\":[{\"abtest_experiment_id\":\"1\",\"abtest_experiment_group_id\":\"0\","
+        + "\"detail\":{\"layer_id\":\"L1\"},\"tags\":[\"a\",\"b\"],\"scene\":{\"id\":3},"
+        + "\"variables\":[]}],\"status\":\"SUCCESS\"}";
+    DispatchExperiment experiment =
+        decoder.decode(response.getBytes(StandardCharsets.UTF_8)).getResults().get(0);
+    Map<String, String> ext = ABTestUtil.extractExt(experiment.getSrc(), Arrays.asList("layer_id", "tags", "scene"));
+    assertEquals("L1", ext.get("layer_id"));
+    assertEquals(experiment.getSrc().get("tags").asText(), ext.get("tags"));
+    assertEquals(experiment.getSrc().get("scene").asText(), ext.get("scene"));
+    assertEquals(3, ext.size());
+  }
+
+  @Test
+  public void indexOutListByParam() throws IOException {
+    DispatchResponseBody body = decoder.decode(buildPayload(SensorsABTestConst.OUT_LIST_KEY, 20));
+    assertEquals(20, body.getOutList().size());
+    List<DispatchExperiment> outList = body.getOutList("param_7_2");
+    assertEquals(1, outList.size());
+    assertSame(body.getOutList().get(7), outList.get(0));
+    assertTrue(body.getOutList("not_exist").isEmpty());
+
+    List<UserOutExperimentGroup> groups = cacheManager.getUserOutExperimentGroups("param_7_2", outList);
+    assertEquals(1, groups.size());
+    assertEquals("7", groups.get(0).getAbtestExperimentId());
+    assertEquals(cacheManager.getUserOutExperimentGroups("param_7_2", body.getOutList()), groups);
+
+    // 缺失出组试验时与 getOutList() 保持一致
+    assertNull(decoder.decode(TestServlet.DISPATCH_RESPONSE.getBytes(StandardCharsets.UTF_8)).getOutList("param"));
+  }
+
+  @Test
+  public void decodeFailedStatus() throws IOException {
+    DispatchResponseBody body = decoder.decode("{\"status\":\"FAILED\"}".getBytes(StandardCharsets.UTF_8));
+    assertFalse(body.isSuccess());
+    assertNull(decoder.decode(new byte[0]));
+  }
+
+  @Test
+  public void decodeBatch() throws IOException {
+    String response = "{\"status\":\"SUCCESS\",\"responses\":[" + TestServlet.DISPATCH_RESPONSE
+        + ",{\"status\":\"FAILED\"}]}";
+    List<DispatchResponseBody> bodies = decoder.decodeBatch(response.getBytes(StandardCharsets.UTF_8));
+    assertEquals(2, bodies.size());
+    assertTrue(bodies.get(0).isSuccess());
+    assertEquals(5, bodies.get(0).getResults().size());
+    assertFalse(bodies.get(1).isSuccess());
+    assertNull(decoder.decodeBatch("{\"status\":\"FAILED\"}".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private byte[] buildPayload(String listKey, int experiments) {
+    StringBuilder sb = new StringBuilder("{\"status\":\"SUCCESS\",\"").append(listKey).append("\":[");
+    for (int i = 0; i < experiments; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"abtest_experiment_id\":\"").append(i).append("\",\"abtest_experiment_group_id\":\"1\",")
+          .append("\"abtest_experiment_result_id\":\"").append(1000 + i).append("\",")
+          .append("\"abtest_experiment_version\":\"2\",\"is_control_group\":false,\"is_white_list\":false,")
+          .append("\"experiment_type\":\"CODE\",\"subject_id\":\"user\",\"subject_name\":\"USER\",\"variables\":[");
+      for (int j = 0; j < 4; j++) {
+        if (j > 0) {
+          sb.append(',');
+        }
+        sb.append("{\"name\":\"param_").append(i).append('_').append(j)
+            .append("\",\"type\":\"STRING\",\"value\":\"value_").append(j).append("\"}");
+      }
+      sb.append("]}");
+    }
+    return sb.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,64 @@
+package com.sensorsdata.analytics.javasdk;
+
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.transport.DispatchTransport;
+import com.sensorsdata.analytics.javasdk.transport.impl.ApacheHttpClientTransport;
+import com.sensorsdata.analytics.javasdk.transport.impl.UrlConnectionTransport;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import org.apache.http.impl.client.HttpClients;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分流请求传输层的延迟对比，通过 benchmark profile 执行：mvn test -Pbenchmark
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 10:21
+ */
+public class DispatchTransportBenchmark extends SensorsBaseTest {
+
+  private static final byte[] PAYLOAD = "{\"anonymous_id\":\"transport_user\"}".getBytes(StandardCharsets.UTF_8);
+
+  private static final Map<String, String> HEADERS = Collections.singletonMap("Content-type", "application/json");
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(DispatchTransportBenchmark.class),
+      LogLevelEnum.INFO);
+
+  @Before
+  public void init() {
+    initSASDK();
+  }
+
+  /**
+   * 不同传输实现的延迟对比
+   */
+  @Test
+  public void transportLatencyComparison() throws Exception {
+    DispatchTransport[] transports = {
+        new ApacheHttpClientTransport(HttpClients.custom(), 10, 10), new UrlConnectionTransport()};
+    int rounds = 5000;
+    for (DispatchTransport transport : transports) {
+      try {
+        for (int i = 0; i < 500; i++) {
+          transport.send(url, PAYLOAD, HEADERS, 3000);
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+          transport.send(url, PAYLOAD, HEADERS, 3000);
+        }
+        long avg = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin) / rounds;
+        log.info("{}: {} us/request", transport.getClass().getSimpleName(), avg);
+      } finally {
+        transport.close();
+      }
+    }
+  }
+}
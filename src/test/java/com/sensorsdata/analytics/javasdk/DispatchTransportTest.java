@@ -0,0 +1,84 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.Experiment;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+import com.sensorsdata.analytics.javasdk.transport.DispatchResponse;
+import com.sensorsdata.analytics.javasdk.transport.DispatchTransport;
+import com.sensorsdata.analytics.javasdk.transport.impl.ApacheHttpClientTransport;
+import com.sensorsdata.analytics.javasdk.transport.impl.UrlConnectionTransport;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分流请求传输层
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:11
+ */
+public class DispatchTransportTest extends SensorsBaseTest {
+
+  private static final byte[] PAYLOAD = "{\"anonymous_id\":\"transport_user\"}".getBytes(StandardCharsets.UTF_8);
+
+  private static final Map<String, String> HEADERS = Collections.singletonMap("Content-type", "application/json");
+
+  @Before
+  public void init() {
+    initSASDK();
+  }
+
+  @Test
+  public void apacheHttpClientTransportSend() throws Exception {
+    try (DispatchTransport transport = new ApacheHttpClientTransport(HttpClients.custom(), 10, 10)) {
+      assertResponse(transport.send(url, PAYLOAD, HEADERS, 3000));
+      assertResponse(transport.sendAsync(url, PAYLOAD, HEADERS, 3000, MoreExecutors.directExecutor())
+          .get(3, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void urlConnectionTransportSend() throws Exception {
+    try (DispatchTransport transport = new UrlConnectionTransport()) {
+      assertResponse(transport.send(url, PAYLOAD, HEADERS, 3000));
+      assertResponse(transport.sendAsync(url, PAYLOAD, HEADERS, 3000, MoreExecutors.directExecutor())
+          .get(3, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void urlConnectionTransportNetworkError() throws IOException {
+    new UrlConnectionTransport().send("http://localhost:1/test", PAYLOAD, HEADERS, 1000);
+  }
+
+  /**
+   * 通过 ABGlobalConfig 指定传输实现
+   */
+  @Test
+  public void fetchWithConfiguredTransport() throws InvalidArgumentException {
+    initInstance(ABGlobalConfig.builder()
+        .setApiUrl(url)
+        .setSensorsAnalytics(sa)
+        .setDispatchTransport(new UrlConnectionTransport())
+        .build());
+    Experiment<Integer> result = sensorsABTest.asyncFetchABTest("transport_user", false, "int_experiment", -1);
+    assertEquals(Integer.valueOf(123), result.getResult());
+  }
+
+  private void assertResponse(DispatchResponse response) {
+    assertEquals(200, response.getStatusCode());
+    assertTrue(new String(response.getBody(), StandardCharsets.UTF_8).contains("\"SUCCESS\""));
+  }
+}
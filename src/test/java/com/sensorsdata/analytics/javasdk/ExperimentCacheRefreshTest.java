@@ -0,0 +1,95 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.Experiment;
+import com.sensorsdata.analytics.javasdk.cache.CompactUserHitExperiment;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 试验结果缓存软过期后的后台刷新
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:32
+ */
+public class ExperimentCacheRefreshTest extends SensorsBaseTest {
+
+  @Before
+  public void init() {
+    initSASDK();
+  }
+
+  /**
+   * 超过软过期时间后仍返回缓存结果，并且多次请求只触发一次后台刷新
+   */
+  @Test
+  public void refreshStaleEntryInBackground() throws Exception {
+    initInstance(ABGlobalConfig.builder()
+        .setApiUrl(url)
+        .setSensorsAnalytics(sa)
+        .setExperimentCacheTime(10)
+        .setExperimentCacheRefreshTime(5)
+        .build());
+    initInnerClassInfo(sensorsABTest);
+    TestServlet.REQUEST_COUNT.set(0);
+    assertEquals(Integer.valueOf(123), fetch().getResult());
+    assertEquals(Integer.valueOf(123), fetch().getResult());
+    assertEquals(1, TestServlet.REQUEST_COUNT.get());
+
+    CompactUserHitExperiment stale = experimentResultCacheByReflect.asMap().values().iterator().next();
+    stale.setCreateTime(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(6));
+    for (int i = 0; i < 10; i++) {
+      assertEquals(Integer.valueOf(123), fetch().getResult());
+    }
+    for (int i = 0; i < 100 && experimentResultCacheByReflect.asMap().values().iterator().next() == stale; i++) {
+      Thread.sleep(20);
+    }
+    assertEquals(2, TestServlet.REQUEST_COUNT.get());
+    CompactUserHitExperiment refreshed = experimentResultCacheByReflect.asMap().values().iterator().next();
+    assertTrue(refreshed != stale);
+    assertTrue(System.currentTimeMillis() - refreshed.getCreateTime() < TimeUnit.MINUTES.toMillis(1));
+
+    // 刷新后的结果未超过软过期时间，不再触发刷新
+    assertEquals(Integer.valueOf(123), fetch().getResult());
+    Thread.sleep(100);
+    assertEquals(2, TestServlet.REQUEST_COUNT.get());
+  }
+
+  @Test
+  public void refreshDisabledByDefault() throws Exception {
+    initInstance(ABGlobalConfig.builder().setApiUrl(url).setSensorsAnalytics(sa).build());
+    initInnerClassInfo(sensorsABTest);
+    TestServlet.REQUEST_COUNT.set(0);
+    assertEquals(Integer.valueOf(123), fetch().getResult());
+    experimentResultCacheByReflect.asMap().values().iterator().next().setCreateTime(0);
+    assertEquals(Integer.valueOf(123), fetch().getResult());
+    Thread.sleep(100);
+    assertEquals(1, TestServlet.REQUEST_COUNT.get());
+  }
+
+  /**
+   * 软过期时间不小于缓存时间时视为未开启刷新
+   */
+  @Test
+  public void invalidRefreshTime() throws InvalidArgumentException {
+    ABGlobalConfig config = ABGlobalConfig.builder()
+        .setApiUrl(url)
+        .setSensorsAnalytics(sa)
+        .setExperimentCacheTime(10)
+        .setExperimentCacheRefreshTime(10)
+        .build();
+    assertEquals(Integer.valueOf(0), config.getExperimentCacheRefreshTime());
+  }
+
+  private Experiment<Integer> fetch() {
+    return sensorsABTest.fastFetchABTest("refresh_user", false, "int_experiment", -1);
+  }
+}
@@ -0,0 +1,177 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.bean.cache.ExperimentGroupConfig;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperiment;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperimentGroup;
+import com.sensorsdata.analytics.javasdk.bean.cache.Variable;
+import com.sensorsdata.analytics.javasdk.cache.ExperimentCacheManager;
+import com.sensorsdata.analytics.javasdk.cache.ExperimentGroupConfigRegistry;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 试验组配置版本快照的并发读写：多个线程同时发布配置，读取方看到的每个快照内容一致，且版本不回退
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:55
+ */
+public class ExperimentGroupConfigConcurrencyTest {
+
+  private static final String CONFIG_KEY = "0_0";
+
+  private static final long DURATION_MILLIS = 500;
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(ExperimentGroupConfigConcurrencyTest.class),
+      LogLevelEnum.INFO);
+
+  private ExperimentCacheManager cacheManager;
+
+  private ExperimentGroupConfigRegistry registry;
+
+  private UserInfo userInfo;
+
+  @Before
+  public void init() throws NoSuchFieldException, IllegalAccessException {
+    cacheManager = new ExperimentCacheManager(log, 10, 1000);
+    Field field = ExperimentCacheManager.class.getDeclaredField("experimentGroupConfigRegistry");
+    field.setAccessible(true);
+    registry = (ExperimentGroupConfigRegistry) field.get(cacheManager);
+    userInfo = UserInfo.builder().distinctId("user").isLoginId(false).build();
+    UserHitExperiment userHitExperiment = new UserHitExperiment();
+    userHitExperiment.addUserHitExperimentGroup("0", UserHitExperimentGroup.builder()
+        .subjectId("user")
+        .cacheable(true)
+        .experimentGroupConfig(config(true))
+        .build());
+    cacheManager.cacheUserHitExperiment(userInfo, userHitExperiment);
+  }
+
+  @Test
+  public void readersSeeConsistentSnapshots() throws InterruptedException {
+    final AtomicBoolean running = new AtomicBoolean(true);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final AtomicLong reads = new AtomicLong();
+    int writers = 2;
+    int readers = 4;
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch finish = new CountDownLatch(writers + readers);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < writers; i++) {
+      final boolean controlFirst = i % 2 == 0;
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            boolean control = controlFirst;
+            while (running.get()) {
+              registry.publish(CONFIG_KEY, config(control));
+              control = !control;
+            }
+          } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+          } finally {
+            finish.countDown();
+          }
+        }
+      }));
+    }
+    for (int i = 0; i < readers; i++) {
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            long lastVersion = -1;
+            while (running.get()) {
+              ExperimentGroupConfig current = registry.get(CONFIG_KEY);
+              assertConsistent(current);
+              assertTrue(current.getVersion() >= lastVersion);
+              lastVersion = current.getVersion();
+
+              UserHitExperimentGroup cached = cacheManager.getExperimentResultByCache(userInfo, "param_common");
+              assertNotNull(cached);
+              assertConsistent(cached.getExperimentGroupConfig());
+              assertTrue(cached.getExperimentGroupConfig().getVersion() >= lastVersion);
+              lastVersion = cached.getExperimentGroupConfig().getVersion();
+
+              // 按变化的参数查找时，命中的快照一定包含该参数
+              UserHitExperimentGroup controlGroup = cacheManager.getExperimentResultByCache(userInfo, "param_control");
+              if (controlGroup != null) {
+                assertTrue(controlGroup.getExperimentGroupConfig().isControlGroup());
+                assertConsistent(controlGroup.getExperimentGroupConfig());
+              }
+              reads.incrementAndGet();
+            }
+          } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+          } finally {
+            finish.countDown();
+          }
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    start.countDown();
+    Thread.sleep(DURATION_MILLIS);
+    running.set(false);
+    assertTrue(finish.await(10, TimeUnit.SECONDS));
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+    assertTrue(reads.get() > 0);
+    assertTrue(registry.get(CONFIG_KEY).getVersion() > 0);
+    assertEquals(1, registry.size());
+  }
+
+  /**
+   * 同一快照内：是否对照组、试验参数值、参数名、扩展字段必须来自同一次发布
+   */
+  private static void assertConsistent(ExperimentGroupConfig config) {
+    String expected = config.isControlGroup() ? "control" : "treatment";
+    Map<String, Variable> variableMap = config.getVariableMap();
+    assertEquals(expected, variableMap.get("param_common").getValue());
+    assertEquals(2, variableMap.size());
+    assertTrue(variableMap.containsKey("param_" + expected));
+    assertEquals(expected, config.getExt().get("abtest_experiment_version"));
+    assertEquals("0", config.getAbtestExperimentId());
+  }
+
+  private static ExperimentGroupConfig config(boolean control) {
+    String value = control ? "control" : "treatment";
+    Map<String, Variable> variableMap = new HashMap<>();
+    variableMap.put("param_common", new Variable("param_common", "STRING", value));
+    variableMap.put("param_" + value, new Variable("param_" + value, "STRING", value));
+    return ExperimentGroupConfig.builder()
+        .abtestExperimentId("0")
+        .abtestExperimentGroupId("0")
+        .isControlGroup(control)
+        .variableMap(variableMap)
+        .ext(Collections.singletonMap("abtest_experiment_version", value))
+        .build();
+  }
+}
@@ -0,0 +1,190 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.DispatchExperiment;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.bean.cache.ExperimentGroupConfig;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperiment;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperimentGroup;
+import com.sensorsdata.analytics.javasdk.bean.cache.Variable;
+import com.sensorsdata.analytics.javasdk.cache.ExperimentCacheManager;
+import com.sensorsdata.analytics.javasdk.cache.ExperimentGroupConfigRegistry;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 试验组配置元数据按引用与清理代数回收
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:59
+ */
+public class ExperimentGroupConfigSweepTest {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(ExperimentGroupConfigSweepTest.class),
+      LogLevelEnum.INFO);
+
+  private ExperimentCacheManager cacheManager;
+
+  @Before
+  public void init() {
+    cacheManager = new ExperimentCacheManager(log, 10, 100);
+  }
+
+  /**
+   * 试验版本不断变化产生新的试验结果 ID，没有缓存结果引用的旧配置被回收，数量不随版本数增长
+   */
+  @Test
+  public void unreferencedConfigsAreReclaimed() {
+    UserInfo userInfo = userInfo("user");
+    for (int version = 0; version < 50; version++) {
+      cacheManager.cacheUserHitExperiment(userInfo, dispatch(version, true));
+      cacheManager.sweepExperimentGroupConfigs();
+      // 当前版本被缓存结果引用；上一版本刚被替换，本次清理前一代内仍被使用过，下一次清理回收
+      assertTrue(cacheManager.getExperimentGroupConfigCount() <= 2);
+      UserHitExperimentGroup group = cacheManager.getExperimentResultByCache(userInfo, "param");
+      assertEquals("result_" + version, group.getExperimentGroupConfig().getAbtestExperimentResultId());
+    }
+    cacheManager.sweepExperimentGroupConfigs();
+    assertEquals(1, cacheManager.getExperimentGroupConfigCount());
+    assertNotNull(cacheManager.getExperimentResultByCache(userInfo, "param"));
+  }
+
+  /**
+   * 不缓存的分流结果也会发布配置，供触发事件时读取扩展字段；一个清理间隔内未再使用后回收
+   */
+  @Test
+  public void uncachedConfigsSurviveOneGeneration() {
+    cacheManager.getUserHitExperimentWithoutUpdateCache(Collections.singletonList(experiment(1, false)));
+    assertNotNull(cacheManager.getExperimentGroupConfig("1", "0", "result_1"));
+
+    assertEquals(0, cacheManager.sweepExperimentGroupConfigs());
+    assertNotNull(cacheManager.getExperimentGroupConfig("1", "0", "result_1"));
+
+    assertEquals(1, cacheManager.sweepExperimentGroupConfigs());
+    assertNull(cacheManager.getExperimentGroupConfig("1", "0", "result_1"));
+    assertEquals(0, cacheManager.getExperimentGroupConfigCount());
+  }
+
+  /**
+   * 被缓存结果引用的配置不回收；缓存结果替换后引用释放
+   */
+  @Test
+  public void referencedConfigsSurvive() {
+    for (int i = 0; i < 10; i++) {
+      cacheManager.cacheUserHitExperiment(userInfo("user_" + i), dispatch(i % 2, true));
+    }
+    for (int i = 0; i < 3; i++) {
+      cacheManager.sweepExperimentGroupConfigs();
+    }
+    assertEquals(2, cacheManager.getExperimentGroupConfigCount());
+    for (int i = 0; i < 10; i++) {
+      assertEquals("result_" + i % 2, cacheManager.getExperimentResultByCache(userInfo("user_" + i), "param")
+          .getExperimentGroupConfig().getAbtestExperimentResultId());
+    }
+
+    for (int i = 0; i < 10; i++) {
+      cacheManager.cacheUserHitExperiment(userInfo("user_" + i), dispatch(2, true));
+    }
+    cacheManager.sweepExperimentGroupConfigs();
+    cacheManager.sweepExperimentGroupConfigs();
+    assertEquals(1, cacheManager.getExperimentGroupConfigCount());
+  }
+
+  /**
+   * 回收的编号隔一次清理后重新分配，仍被引用的配置编号不变
+   */
+  @Test
+  public void reclaimedIdsAreReusedAfterQuarantine() {
+    ExperimentGroupConfigRegistry registry = new ExperimentGroupConfigRegistry();
+    int kept = registry.register("kept", config("kept"));
+    int dropped = registry.register("dropped", config("dropped"));
+    registry.release(dropped);
+    registry.sweep();
+    assertEquals(1, registry.sweep());
+    assertNull(registry.get(dropped));
+    assertArrayEquals(new int[]{kept}, registry.getConfigIds("param"));
+
+    // 隔离期内不重新分配
+    int next = registry.register("next", config("next"));
+    assertEquals(2, next);
+    registry.sweep();
+    assertEquals(dropped, registry.register("reused", config("reused")));
+    assertEquals("kept", registry.get(kept).getAbtestExperimentResultId());
+    assertEquals("reused", registry.get(dropped).getAbtestExperimentResultId());
+    assertEquals(3, registry.size());
+  }
+
+  /**
+   * 估算的内存包含配置的扩展字段，回收后随之减少
+   */
+  @Test
+  public void estimatesRetainedBytes() {
+    ExperimentGroupConfigRegistry registry = new ExperimentGroupConfigRegistry();
+    long empty = registry.estimateMemory();
+    int id = registry.register("result", config("result"));
+    long one = registry.estimateMemory();
+    assertTrue(one - empty > config("result").estimateMemory());
+    registry.release(id);
+    registry.sweep();
+    registry.sweep();
+    assertTrue(registry.estimateMemory() < one);
+
+    cacheManager.cacheUserHitExperiment(userInfo("user"), dispatch(0, true));
+    assertTrue(cacheManager.estimateExperimentGroupConfigMemory() > config("result_0").estimateMemory());
+  }
+
+  private UserHitExperiment dispatch(int version, boolean cacheable) {
+    return cacheManager.getUserHitExperimentWithoutUpdateCache(
+        Collections.singletonList(experiment(version, cacheable)));
+  }
+
+  private static DispatchExperiment experiment(int version, boolean cacheable) {
+    ObjectNode src = JsonNodeFactory.instance.objectNode();
+    src.put("abtest_experiment_result_id", "result_" + version);
+    return DispatchExperiment.builder()
+        .abtestExperimentId(String.valueOf(version))
+        .abtestExperimentGroupId("0")
+        .abtestExperimentResultId("result_" + version)
+        .subjectId("user")
+        .cacheable(cacheable)
+        .variableMap(variableMap())
+        .src(src)
+        .build();
+  }
+
+  private static ExperimentGroupConfig config(String resultId) {
+    return ExperimentGroupConfig.builder()
+        .abtestExperimentId(resultId)
+        .abtestExperimentGroupId("0")
+        .abtestExperimentResultId(resultId)
+        .variableMap(variableMap())
+        .ext(Collections.singletonMap("abtest_experiment_result_id", resultId))
+        .build();
+  }
+
+  private static Map<String, Variable> variableMap() {
+    Map<String, Variable> variableMap = new HashMap<>();
+    variableMap.put("param", new Variable("param", "STRING", "value"));
+    return variableMap;
+  }
+
+  private static UserInfo userInfo(String distinctId) {
+    return UserInfo.builder().distinctId(distinctId).isLoginId(false).build();
+  }
+}
@@ -7,7 +7,7 @@ import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
 import com.sensorsdata.analytics.javasdk.bean.Experiment;
 import com.sensorsdata.analytics.javasdk.bean.cache.ExperimentGroupConfig;
 import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperimentGroup;
-import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperiment;
+import com.sensorsdata.analytics.javasdk.cache.CompactUserHitExperiment;
 import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
 import com.sensorsdata.analytics.javasdk.util.SensorsAnalyticsUtil;
 
@@ -321,7 +321,8 @@ public class FastFetchCustomIdsTest extends SensorsBaseTest {
             .build());
 
     assertEquals("123", experiment.getResult().toString());
-    UserHitExperiment userHitExperiment = experimentResultCacheByReflect.getIfPresent(generateCacheKey("a123", true, customIds));
+    CompactUserHitExperiment userHitExperiment =
+        experimentResultCacheByReflect.getIfPresent(generateCacheKey("a123", true, customIds));
 
     Map<String, UserHitExperimentGroup> userHitExperimentMap = userHitExperiment.getUserHitExperimentMap();
     assertEquals(5, userHitExperimentMap.size());
@@ -357,7 +358,8 @@ public class FastFetchCustomIdsTest extends SensorsBaseTest {
             .build());
 
     assertEquals("123", experiment.getResult().toString());
-    UserHitExperiment userHitExperiment = experimentResultCacheByReflect.getIfPresent(generateCacheKey("a123", true, customIds));
+    CompactUserHitExperiment userHitExperiment =
+        experimentResultCacheByReflect.getIfPresent(generateCacheKey("a123", true, customIds));
     assertNotNull(userHitExperiment);
 
     //TODO 现在是否请求网络需要人工检查日志，需要自动化
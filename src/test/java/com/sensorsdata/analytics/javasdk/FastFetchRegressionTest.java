@@ -1,6 +1,7 @@
 package com.sensorsdata.analytics.javasdk;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
 import com.sensorsdata.analytics.javasdk.bean.Experiment;
 import com.sensorsdata.analytics.javasdk.bean.cache.ExperimentGroupConfig;
@@ -11,6 +12,9 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.Assert.*;
 
@@ -351,4 +355,25 @@ public class FastFetchRegressionTest extends SensorsBaseTest {
         assertEquals("1", experiment.getAbTestExperimentGroupId());
     }
 
+
+    /**
+     * fastFetchABTestAsync 命中缓存时直接返回已完成的 future
+     */
+    @Test
+    public void fastFetchABTestAsyncHitCache()
+            throws InvalidArgumentException, NoSuchFieldException, IllegalAccessException, InterruptedException,
+            ExecutionException, TimeoutException {
+        initInstance(ABGlobalConfig.builder().setApiUrl(url).setSensorsAnalytics(sa).build());
+        initInnerClassInfo(sensorsABTest);
+
+        Experiment<String> first = sensorsABTest
+            .fastFetchABTestAsync(SensorsABParams.starter(distinctId, false, "str_experiment", "grey").build())
+            .get(5, TimeUnit.SECONDS);
+        assertEquals("test", first.getResult());
+        assertEquals(1, experimentCacheManagerByReflect.getCacheSize());
+
+        ListenableFuture<Experiment<Integer>> second = sensorsABTest
+            .fastFetchABTestAsync(SensorsABParams.starter(distinctId, false, "int_experiment", -1).build());
+        assertEquals(Integer.valueOf(123), second.get(5, TimeUnit.SECONDS).getResult());
+    }
 }
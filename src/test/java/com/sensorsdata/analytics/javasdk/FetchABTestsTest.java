@@ -0,0 +1,92 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.Experiment;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * fetchABTests 一次解析多个试验参数
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:03
+ */
+public class FetchABTestsTest extends SensorsBaseTest {
+
+  private final Map<String, Object> paramDefaults = new LinkedHashMap<>();
+
+  @Before
+  public void init() throws InvalidArgumentException, NoSuchFieldException, IllegalAccessException {
+    initSASDK();
+    initInstance(ABGlobalConfig.builder().setApiUrl(url).setSensorsAnalytics(sa).build());
+    initInnerClassInfo(sensorsABTest);
+    paramDefaults.put("str_experiment", "grey");
+    paramDefaults.put("int_experiment", -1);
+    paramDefaults.put("bool_experiment", true);
+    paramDefaults.put("int_abtest1", -1);
+    paramDefaults.put("not_exist_param", "default");
+    TestServlet.REQUEST_COUNT.set(0);
+  }
+
+  /**
+   * 多个参数只发起一次分流请求，并按参数返回对应类型的结果
+   */
+  @Test
+  public void fetchMultiParamsWithOneDispatch() {
+    Map<String, Experiment<?>> experiments = sensorsABTest.fetchABTests("multi_user", false, paramDefaults);
+
+    assertEquals(1, TestServlet.REQUEST_COUNT.get());
+    assertEquals(5, experiments.size());
+    assertEquals("test", experiments.get("str_experiment").getResult());
+    assertEquals(123, experiments.get("int_experiment").getResult());
+    assertEquals(false, experiments.get("bool_experiment").getResult());
+    assertEquals(222, experiments.get("int_abtest1").getResult());
+    assertEquals("3", experiments.get("int_abtest1").getAbTestExperimentId());
+    assertEquals("default", experiments.get("not_exist_param").getResult());
+    assertNull(experiments.get("not_exist_param").getAbTestExperimentId());
+
+    // 试验 2、3 各上报一次
+    assertEquals(2, eventCacheByReflect.size());
+    assertEquals(1, experimentCacheManagerByReflect.getCacheSize());
+  }
+
+  /**
+   * 缓存覆盖全部参数时不再发起分流请求
+   */
+  @Test
+  public void fetchMultiParamsFromCache() {
+    paramDefaults.remove("not_exist_param");
+    sensorsABTest.fetchABTests("multi_user", false, paramDefaults);
+    Map<String, Experiment<?>> experiments = sensorsABTest.fetchABTests("multi_user", false, paramDefaults);
+
+    assertEquals(1, TestServlet.REQUEST_COUNT.get());
+    assertEquals(123, experiments.get("int_experiment").getResult());
+  }
+
+  /**
+   * 参数不合法或默认值类型不匹配时返回默认值
+   */
+  @Test
+  public void fetchMultiParamsWithInvalidParam() {
+    paramDefaults.put("str_experiment", 1L);
+    paramDefaults.put("int_experiment", "wrong type");
+    Map<String, Experiment<?>> experiments = sensorsABTest.fetchABTests("multi_user", false, paramDefaults);
+
+    assertEquals(1L, experiments.get("str_experiment").getResult());
+    assertEquals("wrong type", experiments.get("int_experiment").getResult());
+    assertEquals(false, experiments.get("bool_experiment").getResult());
+
+    Map<String, Experiment<?>> empty = sensorsABTest.fetchABTests("", false, paramDefaults);
+    assertEquals("default", empty.get("not_exist_param").getResult());
+    assertEquals(1, TestServlet.REQUEST_COUNT.get());
+  }
+}
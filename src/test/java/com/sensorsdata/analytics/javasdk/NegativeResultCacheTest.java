@@ -0,0 +1,135 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.Experiment;
+import com.sensorsdata.analytics.javasdk.bean.SensorsABTestMetrics;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 未命中任何试验的分流结果缓存
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:35
+ */
+public class NegativeResultCacheTest extends SensorsBaseTest {
+
+  @Before
+  public void init() {
+    initSASDK();
+  }
+
+  @Test
+  public void serveNegativeResultFromCache() throws Exception {
+    initInstance(negativeCacheConfig(10));
+    initInnerClassInfo(sensorsABTest);
+    TestServlet.REQUEST_COUNT.set(0);
+    for (int i = 0; i < 3; i++) {
+      Experiment<String> experiment =
+          sensorsABTest.fastFetchABTest("negative_user", false, "not_exist_param", "default");
+      assertEquals("default", experiment.getResult());
+      assertNull(experiment.getAbTestExperimentId());
+    }
+    assertEquals(1, TestServlet.REQUEST_COUNT.get());
+    assertEquals(1, experimentCacheManagerByReflect.getNegativeCacheSize());
+    assertEquals(2, experimentCacheManagerByReflect.getNegativeCacheStats().hitCount());
+    assertTrue(experimentCacheManagerByReflect.estimateNegativeCacheMemory() > 0);
+    SensorsABTestMetrics metrics = sensorsABTest.getMetrics();
+    assertEquals(1, metrics.getNegativeCacheSize());
+    assertEquals(2, metrics.getNegativeCacheHitCount());
+    assertEquals(experimentCacheManagerByReflect.estimateNegativeCacheMemory(), metrics.getNegativeCacheMemory());
+
+    // 已命中的参数仍由试验结果缓存提供，统计互不影响
+    assertEquals(Integer.valueOf(123),
+        sensorsABTest.fastFetchABTest("negative_user", false, "int_experiment", -1).getResult());
+    assertEquals(1, TestServlet.REQUEST_COUNT.get());
+    assertEquals(1, experimentCacheManagerByReflect.getCacheSize());
+    assertEquals(1, experimentCacheManagerByReflect.getNegativeCacheSize());
+  }
+
+  @Test
+  public void fetchABTestsWithNegativeResult() throws Exception {
+    initInstance(negativeCacheConfig(10));
+    initInnerClassInfo(sensorsABTest);
+    TestServlet.REQUEST_COUNT.set(0);
+    Map<String, Object> paramDefaults = new LinkedHashMap<>();
+    paramDefaults.put("int_experiment", -1);
+    paramDefaults.put("not_exist_param", "default");
+    for (int i = 0; i < 3; i++) {
+      Map<String, Experiment<?>> experiments =
+          sensorsABTest.fetchABTests("negative_user", false, paramDefaults);
+      assertEquals(123, experiments.get("int_experiment").getResult());
+      assertEquals("default", experiments.get("not_exist_param").getResult());
+    }
+    assertEquals(1, TestServlet.REQUEST_COUNT.get());
+  }
+
+  /**
+   * 自定义属性不同的请求不共享未命中结果
+   */
+  @Test
+  public void negativeResultIsKeyedByProperties() throws Exception {
+    initInstance(negativeCacheConfig(10));
+    initInnerClassInfo(sensorsABTest);
+    TestServlet.REQUEST_COUNT.set(0);
+    Map<String, Object> cityA = new LinkedHashMap<>();
+    cityA.put("city", "A");
+    Map<String, Object> cityB = new LinkedHashMap<>();
+    cityB.put("city", "B");
+    for (int i = 0; i < 2; i++) {
+      assertEquals("default",
+          sensorsABTest.fastFetchABTest("negative_user", false, "not_exist_param", "default", cityA).getResult());
+    }
+    assertEquals(1, TestServlet.REQUEST_COUNT.get());
+    assertEquals("default",
+        sensorsABTest.fastFetchABTest("negative_user", false, "not_exist_param", "default", cityB).getResult());
+    assertEquals(2, TestServlet.REQUEST_COUNT.get());
+    sensorsABTest.fastFetchABTest("negative_user", false, "not_exist_param", "default");
+    assertEquals(3, TestServlet.REQUEST_COUNT.get());
+    assertEquals(3, experimentCacheManagerByReflect.getNegativeCacheSize());
+  }
+
+  /**
+   * 不读取缓存的请求不使用也不写入未命中结果缓存
+   */
+  @Test
+  public void asyncFetchBypassesNegativeCache() throws Exception {
+    initInstance(negativeCacheConfig(10));
+    initInnerClassInfo(sensorsABTest);
+    TestServlet.REQUEST_COUNT.set(0);
+    sensorsABTest.asyncFetchABTest("negative_user", false, "not_exist_param", "default");
+    sensorsABTest.asyncFetchABTest("negative_user", false, "not_exist_param", "default");
+    assertEquals(2, TestServlet.REQUEST_COUNT.get());
+    assertEquals(0, experimentCacheManagerByReflect.getNegativeCacheSize());
+  }
+
+  @Test
+  public void negativeCacheDisabledByDefault() throws Exception {
+    initInstance(ABGlobalConfig.builder().setApiUrl(url).setSensorsAnalytics(sa).build());
+    initInnerClassInfo(sensorsABTest);
+    TestServlet.REQUEST_COUNT.set(0);
+    sensorsABTest.fastFetchABTest("negative_user", false, "not_exist_param", "default");
+    sensorsABTest.fastFetchABTest("negative_user", false, "not_exist_param", "default");
+    assertEquals(2, TestServlet.REQUEST_COUNT.get());
+    assertEquals(0, experimentCacheManagerByReflect.getNegativeCacheSize());
+  }
+
+  private ABGlobalConfig negativeCacheConfig(int negativeCacheTime) throws InvalidArgumentException {
+    return ABGlobalConfig.builder()
+        .setApiUrl(url)
+        .setSensorsAnalytics(sa)
+        .setNegativeCacheTime(negativeCacheTime)
+        .setNegativeCacheSize(100)
+        .build();
+  }
+}
@@ -0,0 +1,74 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.SensorsABTestMetrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 通过公开接口读取 SDK 运行指标
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 14:05
+ */
+public class SensorsABTestMetricsTest extends SensorsBaseTest {
+
+  @Before
+  public void init() {
+    initSASDK();
+  }
+
+  @After
+  public void close() {
+    if (sensorsABTest != null) {
+      sensorsABTest.shutdown();
+    }
+  }
+
+  @Test
+  public void asyncTrackMetrics() throws Exception {
+    initInstance(ABGlobalConfig.builder()
+        .setApiUrl(url)
+        .setSensorsAnalytics(sa)
+        .enableAsyncTrack(true)
+        .setAsyncTrackQueueSize(16)
+        .build());
+    assertEquals(Integer.valueOf(123),
+        sensorsABTest.asyncFetchABTest("metrics_user", false, "int_experiment", -1).getResult());
+    SensorsABTestMetrics metrics = sensorsABTest.getMetrics();
+    assertTrue(metrics.isAsyncTrackEnabled());
+    assertEquals(16, metrics.getAsyncTrackQueueCapacity());
+    assertEquals(1, metrics.getAsyncTrackEnqueuedCount());
+    assertEquals(0, metrics.getAsyncTrackDroppedNewestCount());
+    assertEquals(0, metrics.getAsyncTrackDroppedOldestCount());
+    assertEquals(0, metrics.getAsyncTrackSpilledCount());
+    assertTrue(metrics.getAsyncTrackMaxEnqueueNanos() > 0);
+  }
+
+  @Test
+  public void metricsWithDefaultConfig() throws Exception {
+    initInstance(ABGlobalConfig.builder().setApiUrl(url).setSensorsAnalytics(sa).build());
+    SensorsABTestMetrics metrics = sensorsABTest.getMetrics();
+    assertFalse(metrics.isAsyncTrackEnabled());
+    assertEquals(0, metrics.getAsyncTrackQueueCapacity());
+    assertNull(metrics.getCircuitBreakerState());
+  }
+
+  @Test
+  public void experimentGroupConfigMetrics() throws Exception {
+    initInstance(ABGlobalConfig.builder().setApiUrl(url).setSensorsAnalytics(sa).build());
+    assertEquals(0, sensorsABTest.getMetrics().getExperimentGroupConfigCount());
+    sensorsABTest.fastFetchABTest("metrics_user", false, "int_experiment", -1);
+    SensorsABTestMetrics metrics = sensorsABTest.getMetrics();
+    assertTrue(metrics.getExperimentGroupConfigCount() > 0);
+    assertTrue(metrics.getExperimentGroupConfigMemory() > 0);
+  }
+}
@@ -2,10 +2,13 @@ package com.sensorsdata.analytics.javasdk;
 
 import com.google.common.cache.LoadingCache;
 import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
 import com.sensorsdata.analytics.javasdk.bean.cache.ExperimentGroupConfig;
-import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperiment;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserCacheKey;
+import com.sensorsdata.analytics.javasdk.cache.CompactUserHitExperiment;
 import com.sensorsdata.analytics.javasdk.cache.EventCacheManager;
 import com.sensorsdata.analytics.javasdk.cache.ExperimentCacheManager;
+import com.sensorsdata.analytics.javasdk.cache.ExperimentGroupConfigRegistry;
 import com.sensorsdata.analytics.javasdk.consumer.ConcurrentLoggingConsumer;
 import com.sensorsdata.analytics.javasdk.consumer.Consumer;
 import org.eclipse.jetty.server.Server;
@@ -17,13 +20,8 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
-import static com.sensorsdata.analytics.javasdk.util.ABTestUtil.map2Str;
 import static org.junit.Assert.*;
 
 /**
@@ -50,16 +48,16 @@ public class SensorsBaseTest {
   protected ExperimentCacheManager experimentCacheManagerByReflect;
 
   //试验结果缓存对象
-  protected LoadingCache<String, UserHitExperiment> experimentResultCacheByReflect;
+  protected LoadingCache<UserCacheKey, CompactUserHitExperiment> experimentResultCacheByReflect;
 
 
-  protected ConcurrentHashMap<String, ExperimentGroupConfig> experimentGroupConfigCacheByReflect;
+  protected Map<String, ExperimentGroupConfig> experimentGroupConfigCacheByReflect;
 
   //事件缓存管理器
   protected EventCacheManager eventCacheManagerByReflect;
 
   //事件缓存对象
-  protected LoadingCache<String, Object> eventCacheByReflect;
+  protected LoadingCache<UserCacheKey, Object> eventCacheByReflect;
 
   protected static Server server;
 
@@ -149,28 +147,14 @@ public class SensorsBaseTest {
     experimentGroupConfigCacheByReflect = getExperimentGroupCacheByReflect(experimentCacheManagerByReflect);
   }
 
-  protected String generateCacheKey(String distinctId, boolean isLoginId, Map<String, String> customIds) {
-    String key = String.format("%s_%b_%s", distinctId, isLoginId, map2Str(customIds));
-    try {
-      MessageDigest instance = MessageDigest.getInstance("MD5");
-      instance.update(key.getBytes(StandardCharsets.UTF_8));
-      return new String(instance.digest(), StandardCharsets.UTF_8);
-    } catch (NoSuchAlgorithmException e) {
-      fail();
-    }
-    return key;
+  protected UserCacheKey generateCacheKey(String distinctId, boolean isLoginId, Map<String, String> customIds) {
+    return UserCacheKey.of(UserInfo.builder().distinctId(distinctId).isLoginId(isLoginId).customIds(customIds).build());
   }
 
-  protected String generateKey(String distinctId, Boolean isLoginId, String experimentId, Map<String, String> customIds) {
-    String key = String.format("%s_%b_%s_%s", distinctId, isLoginId, experimentId, map2Str(customIds));
-    try {
-      MessageDigest instance = MessageDigest.getInstance("MD5");
-      instance.update(key.getBytes(StandardCharsets.UTF_8));
-      return new String(instance.digest(), StandardCharsets.UTF_8);
-    } catch (NoSuchAlgorithmException e) {
-      fail();
-    }
-    return key;
+  protected UserCacheKey generateKey(String distinctId, Boolean isLoginId, String experimentId,
+      Map<String, String> customIds) {
+    return UserCacheKey.of(
+        UserInfo.builder().distinctId(distinctId).isLoginId(isLoginId).customIds(customIds).build(), experimentId);
   }
 
   /**
@@ -224,9 +208,9 @@ public class SensorsBaseTest {
    * 通过反射 experimentCacheManager 实例获取试验结果缓存
    *
    * @param experimentCacheManager ExperimentCacheManager
-   * @return LoadingCache<String, Object>
+   * @return LoadingCache<UserCacheKey, Object>
    */
-  protected LoadingCache<String, UserHitExperiment> getExperimentResultCacheByReflect(
+  protected LoadingCache<UserCacheKey, CompactUserHitExperiment> getExperimentResultCacheByReflect(
       ExperimentCacheManager experimentCacheManager)
       throws NoSuchFieldException, IllegalAccessException {
 
@@ -234,7 +218,7 @@ public class SensorsBaseTest {
 
     Field cacheField = experimentCacheManagerClass.getDeclaredField("experimentResultCache");
     cacheField.setAccessible(true);
-    return (LoadingCache<String, UserHitExperiment>) cacheField.get(experimentCacheManager);
+    return (LoadingCache<UserCacheKey, CompactUserHitExperiment>) cacheField.get(experimentCacheManager);
   }
 
   /**
@@ -255,31 +239,31 @@ public class SensorsBaseTest {
    * 通过反射 eventCacheManager 实例获取试验结果缓存
    *
    * @param eventCacheManager EventCacheManager
-   * @return LoadingCache<String, Object>
+   * @return LoadingCache<UserCacheKey, Object>
    */
-  protected LoadingCache<String, Object> getEventCacheByReflect(EventCacheManager eventCacheManager)
+  protected LoadingCache<UserCacheKey, Object> getEventCacheByReflect(EventCacheManager eventCacheManager)
       throws NoSuchFieldException, IllegalAccessException {
     Class<? extends EventCacheManager> eventCacheManagerClass = eventCacheManager.getClass();
     Field cacheField = eventCacheManagerClass.getDeclaredField("eventCache");
     cacheField.setAccessible(true);
-    return (LoadingCache<String, Object>) cacheField.get(eventCacheManager);
+    return (LoadingCache<UserCacheKey, Object>) cacheField.get(eventCacheManager);
   }
 
   /**
    * 通过反射 experimentCacheManager 实例获取试验组配置缓存
    *
    * @param experimentCacheManager 试验配置管理
-   * @return 试验组配置缓存
+   * @return 试验组配置缓存 key 到当前版本的只读视图
    * @throws NoSuchFieldException
    * @throws IllegalAccessException
    */
-  protected ConcurrentHashMap<String, ExperimentGroupConfig> getExperimentGroupCacheByReflect(
+  protected Map<String, ExperimentGroupConfig> getExperimentGroupCacheByReflect(
       ExperimentCacheManager experimentCacheManager)
       throws NoSuchFieldException, IllegalAccessException {
     Class<? extends ExperimentCacheManager> eventCacheManagerClass = experimentCacheManager.getClass();
-    Field cacheField = eventCacheManagerClass.getDeclaredField("experimentGroupConfigCache");
+    Field cacheField = eventCacheManagerClass.getDeclaredField("experimentGroupConfigRegistry");
     cacheField.setAccessible(true);
-    return (ConcurrentHashMap<String, ExperimentGroupConfig>) cacheField.get(experimentCacheManager);
+    return ((ExperimentGroupConfigRegistry) cacheField.get(experimentCacheManager)).asMap();
   }
 
 
@@ -0,0 +1,60 @@
+package com.sensorsdata.analytics.javasdk;
+
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+import com.sensorsdata.analytics.javasdk.util.SensorsAnalyticsUtil;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON 与 Smile 数据格式的性能对比，通过 benchmark profile 执行：mvn test -Pbenchmark
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 10:21
+ */
+public class SmileWireFormatBenchmark {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(SmileWireFormatBenchmark.class),
+      LogLevelEnum.INFO);
+
+  private final ObjectMapper jsonMapper = SensorsAnalyticsUtil.getJsonObjectMapper();
+
+  private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()
+      .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES));
+
+  /**
+   * JSON 与 Smile 在 50 个试验的返回结果上的体积和编解码耗时对比
+   */
+  @Test
+  public void sizeAndCpuComparison() throws IOException {
+    StringBuilder sb = new StringBuilder("{\"status\":\"SUCCESS\",\"results\":[");
+    for (int i = 0; i < 50; i++) {
+      sb.append(i == 0 ? "" : ",").append("{\"abtest_experiment_id\":\"").append(i)
+          .append("\",\"abtest_experiment_group_id\":\"1\",\"abtest_experiment_version\":\"2\",")
+          .append("\"is_control_group\":false,\"is_white_list\":false,\"experiment_type\":\"CODE\",")
+          .append("\"variables\":[{\"name\":\"param_").append(i).append("\",\"type\":\"STRING\",\"value\":\"v\"}]}");
+    }
+    JsonNode payload = jsonMapper.readTree(sb.append("]}").toString());
+    byte[] json = jsonMapper.writeValueAsBytes(payload);
+    byte[] smile = smileMapper.writeValueAsBytes(payload);
+    log.info("json: {} bytes, smile: {} bytes", json.length, smile.length);
+    int rounds = 20000;
+    for (ObjectMapper mapper : new ObjectMapper[] {jsonMapper, smileMapper, jsonMapper, smileMapper}) {
+      long begin = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        mapper.readTree(mapper.writeValueAsBytes(payload));
+      }
+      log.info("{}: {} us/op", mapper.getFactory().getFormatName(),
+          TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin) / rounds);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.ABGlobalConfig;
+import com.sensorsdata.analytics.javasdk.bean.Experiment;
+import com.sensorsdata.analytics.javasdk.bean.WireFormatEnum;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+import com.sensorsdata.analytics.javasdk.util.SensorsAnalyticsUtil;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Smile 数据格式协商
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:20
+ */
+public class SmileWireFormatTest extends SensorsBaseTest {
+
+  private static final String SMILE = "application/x-jackson-smile";
+
+  private final ObjectMapper jsonMapper = SensorsAnalyticsUtil.getJsonObjectMapper();
+
+  private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()
+      .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES));
+
+  /**
+   * 服务端收到的请求 Content-Type
+   */
+  private final List<String> requestContentTypes = new CopyOnWriteArrayList<>();
+
+  private Server smileServer;
+
+  @Before
+  public void init() throws Exception {
+    initSASDK();
+    smileServer = new Server(8891);
+    ServletContextHandler handler = new ServletContextHandler();
+    handler.addServlet(new ServletHolder(new HttpServlet() {
+      @Override
+      protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        requestContentTypes.add(request.getContentType());
+        boolean smile = SMILE.equals(request.getContentType());
+        JsonNode params = (smile ? smileMapper : jsonMapper).readTree(request.getInputStream());
+        assertEquals("smile_user", params.get("anonymous_id").asText());
+        JsonNode res = jsonMapper.readTree(TestServlet.DISPATCH_RESPONSE);
+        if (request.getHeader("Accept").startsWith(SMILE)) {
+          response.setContentType(SMILE);
+          response.getOutputStream().write(smileMapper.writeValueAsBytes(res));
+        } else {
+          response.setContentType("application/json");
+          response.getOutputStream().write(jsonMapper.writeValueAsBytes(res));
+        }
+      }
+    }), "/smile");
+    handler.addServlet(new ServletHolder(new HttpServlet() {
+      @Override
+      protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        requestContentTypes.add(request.getContentType());
+        if (SMILE.equals(request.getContentType())) {
+          response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+          return;
+        }
+        response.getOutputStream().write(TestServlet.DISPATCH_RESPONSE.getBytes(StandardCharsets.UTF_8));
+      }
+    }), "/json");
+    handler.addServlet(new ServletHolder(new HttpServlet() {
+      @Override
+      protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        requestContentTypes.add(request.getContentType());
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+      }
+    }), "/bad");
+    smileServer.setHandler(handler);
+    smileServer.start();
+  }
+
+  @After
+  public void close() throws Exception {
+    smileServer.stop();
+  }
+
+  @Test
+  public void fetchWithSmile() throws InvalidArgumentException {
+    initInstance(smileConfig("http://localhost:8891/smile"));
+    assertEquals(Integer.valueOf(123), fetch().getResult());
+    assertEquals(1, requestContentTypes.size());
+    assertEquals(SMILE, requestContentTypes.get(0));
+  }
+
+  /**
+   * 服务端不支持 Smile 时回退为 JSON，后续请求直接使用 JSON
+   */
+  @Test
+  public void fallbackToJson() throws InvalidArgumentException {
+    initInstance(smileConfig("http://localhost:8891/json"));
+    assertEquals(Integer.valueOf(123), fetch().getResult());
+    assertEquals(2, requestContentTypes.size());
+    assertEquals(SMILE, requestContentTypes.get(0));
+    assertTrue(requestContentTypes.get(1).startsWith("application/json"));
+
+    assertEquals(Integer.valueOf(123), fetch().getResult());
+    assertEquals(3, requestContentTypes.size());
+    assertTrue(requestContentTypes.get(2).startsWith("application/json"));
+  }
+
+  /**
+   * 400 可能是请求参数本身的问题，不回退为 JSON，后续请求仍使用 Smile
+   */
+  @Test
+  public void badRequestKeepsSmile() throws InvalidArgumentException {
+    initInstance(smileConfig("http://localhost:8891/bad"));
+    assertEquals(Integer.valueOf(-1), fetch().getResult());
+    assertEquals(Integer.valueOf(-1), fetch().getResult());
+    assertEquals(2, requestContentTypes.size());
+    assertEquals(SMILE, requestContentTypes.get(0));
+    assertEquals(SMILE, requestContentTypes.get(1));
+  }
+
+  private ABGlobalConfig smileConfig(String apiUrl) throws InvalidArgumentException {
+    return ABGlobalConfig.builder()
+        .setApiUrl(apiUrl)
+        .setSensorsAnalytics(sa)
+        .setWireFormat(WireFormatEnum.SMILE)
+        .build();
+  }
+
+  private Experiment<Integer> fetch() {
+    return sensorsABTest.asyncFetchABTest("smile_user", false, "int_experiment", -1);
+  }
+}
@@ -2,6 +2,7 @@ package com.sensorsdata.analytics.javasdk;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
@@ -18,98 +19,109 @@ import javax.servlet.http.HttpServletResponse;
  */
 public class TestServlet extends HttpServlet {
 
+  /**
+   * 收到的分流请求次数
+   */
+  static final AtomicInteger REQUEST_COUNT = new AtomicInteger();
+
+  /**
+   * 单用户分流请求的返回结果
+   */
+  static final String DISPATCH_RESPONSE = "{"
+      + "    \"status\": \"SUCCESS\","
+      + "    \"results\": ["
+      + "        {"
+      + "            \"abtest_experiment_id\": \"2\","
+      + "            \"abtest_experiment_group_id\": \"1\","
+      + "            \"is_control_group\": false,"
+      + "            \"is_white_list\": false,"
+      + "            \"experiment_type\": \"CODE\","
+      + "            \"variables\": ["
+      + "                {"
+      + "                    \"name\": \"str_experiment\","
+      + "                    \"type\": \"STRING\","
+      + "                    \"value\": \"test\""
+      + "                },"
+      + "                {"
+      + "                    \"name\": \"bool_experiment\","
+      + "                    \"type\": \"BOOLEAN\","
+      + "                    \"value\": \"false\""
+      + "                },"
+      + "                {"
+      + "                    \"name\": \"int_experiment\","
+      + "                    \"type\": \"INTEGER\","
+      + "                    \"value\": \"123\""
+      + "                },"
+      + "                {"
+      + "                    \"name\": \"json_experiment\","
+      + "                    \"type\": \"JSON\","
+      + "                    \"value\": \"{\\\"name\\\":\\\"hello\\\"}\""
+      + "                }"
+      + "            ]"
+      + "        },"
+      + "        {"
+      + "            \"abtest_experiment_id\": \"3\","
+      + "            \"abtest_experiment_group_id\": \"1\","
+      + "            \"is_control_group\": false,"
+      + "            \"is_white_list\": false,"
+      + "            \"experiment_type\": \"CODE\","
+      + "            \"variables\": ["
+      + "                {"
+      + "                    \"name\": \"int_abtest1\","
+      + "                    \"type\": \"INTEGER\","
+      + "                    \"value\": \"222\""
+      + "                }"
+      + "            ]"
+      + "        },"
+      + "        {"
+      + "            \"abtest_experiment_id\": \"4\","
+      + "            \"abtest_experiment_group_id\": \"-1\","
+      + "            \"is_control_group\": false,"
+      + "            \"is_white_list\": false,"
+      + "            \"experiment_type\": \"CODE\","
+      + "            \"variables\": ["
+      + "                {"
+      + "                    \"name\": \"test_group_id\","
+      + "                    \"type\": \"JSON\","
+      + "                    \"value\": \"{\\\"name\\\":\\\"helloWord\\\"}\""
+      + "                }"
+      + "            ]"
+      + "        },"
+      + "        {"
+      + "            \"abtest_experiment_id\": \"5\","
+      + "            \"abtest_experiment_group_id\": \"2\","
+      + "            \"is_control_group\": false,"
+      + "            \"is_white_list\": false,"
+      + "            \"experiment_type\": \"CODE\","
+      + "            \"variables\": ["
+      + "                {"
+      + "                    \"name\": \"test_group_id2\","
+      + "                    \"type\": \"JSON\","
+      + "                    \"value\": \"{\\\"name\\\":\\\"helloWord2\\\"}\""
+      + "                }"
+      + "            ]"
+      + "        },"
+      + "        {"
+      + "            \"abtest_experiment_id\": \"6\","
+      + "            \"abtest_experiment_group_id\": \"3\","
+      + "            \"is_control_group\": false,"
+      + "            \"is_white_list\": false,"
+      + "            \"experiment_type\": \"CODE\","
+      + "            \"variables\": ["
+      + "                {"
+      + "                    \"name\": \"test_group_id3\","
+      + "                    \"type\": \"JSON\","
+      + "                    \"value\": \"{\\\"name\\\":\\\"helloWord3\\\"}\""
+      + "                }"
+      + "            ]"
+      + "        }"
+      + "    ]"
+      + "}";
+
   @Override
   protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-    String res = "{"
-        + "    \"status\": \"SUCCESS\","
-        + "    \"results\": ["
-        + "        {"
-        + "            \"abtest_experiment_id\": \"2\","
-        + "            \"abtest_experiment_group_id\": \"1\","
-        + "            \"is_control_group\": false,"
-        + "            \"is_white_list\": false,"
-        + "            \"experiment_type\": \"CODE\","
-        + "            \"variables\": ["
-        + "                {"
-        + "                    \"name\": \"str_experiment\","
-        + "                    \"type\": \"STRING\","
-        + "                    \"value\": \"test\""
-        + "                },"
-        + "                {"
-        + "                    \"name\": \"bool_experiment\","
-        + "                    \"type\": \"BOOLEAN\","
-        + "                    \"value\": \"false\""
-        + "                },"
-        + "                {"
-        + "                    \"name\": \"int_experiment\","
-        + "                    \"type\": \"INTEGER\","
-        + "                    \"value\": \"123\""
-        + "                },"
-        + "                {"
-        + "                    \"name\": \"json_experiment\","
-        + "                    \"type\": \"JSON\","
-        + "                    \"value\": \"{\\\"name\\\":\\\"hello\\\"}\""
-        + "                }"
-        + "            ]"
-        + "        },"
-        + "        {"
-        + "            \"abtest_experiment_id\": \"3\","
-        + "            \"abtest_experiment_group_id\": \"1\","
-        + "            \"is_control_group\": false,"
-        + "            \"is_white_list\": false,"
-        + "            \"experiment_type\": \"CODE\","
-        + "            \"variables\": ["
-        + "                {"
-        + "                    \"name\": \"int_abtest1\","
-        + "                    \"type\": \"INTEGER\","
-        + "                    \"value\": \"222\""
-        + "                }"
-        + "            ]"
-        + "        },"
-        + "        {"
-        + "            \"abtest_experiment_id\": \"4\","
-        + "            \"abtest_experiment_group_id\": \"-1\","
-        + "            \"is_control_group\": false,"
-        + "            \"is_white_list\": false,"
-        + "            \"experiment_type\": \"CODE\","
-        + "            \"variables\": ["
-        + "                {"
-        + "                    \"name\": \"test_group_id\","
-        + "                    \"type\": \"JSON\","
-        + "                    \"value\": \"{\\\"name\\\":\\\"helloWord\\\"}\""
-        + "                }"
-        + "            ]"
-        + "        },"
-        + "        {"
-        + "            \"abtest_experiment_id\": \"5\","
-        + "            \"abtest_experiment_group_id\": \"2\","
-        + "            \"is_control_group\": false,"
-        + "            \"is_white_list\": false,"
-        + "            \"experiment_type\": \"CODE\","
-        + "            \"variables\": ["
-        + "                {"
-        + "                    \"name\": \"test_group_id2\","
-        + "                    \"type\": \"JSON\","
-        + "                    \"value\": \"{\\\"name\\\":\\\"helloWord2\\\"}\""
-        + "                }"
-        + "            ]"
-        + "        },"
-        + "        {"
-        + "            \"abtest_experiment_id\": \"6\","
-        + "            \"abtest_experiment_group_id\": \"3\","
-        + "            \"is_control_group\": false,"
-        + "            \"is_white_list\": false,"
-        + "            \"experiment_type\": \"CODE\","
-        + "            \"variables\": ["
-        + "                {"
-        + "                    \"name\": \"test_group_id3\","
-        + "                    \"type\": \"JSON\","
-        + "                    \"value\": \"{\\\"name\\\":\\\"helloWord3\\\"}\""
-        + "                }"
-        + "            ]"
-        + "        }"
-        + "    ]"
-        + "}";
+    REQUEST_COUNT.incrementAndGet();
+    String res = DISPATCH_RESPONSE;
     ServletOutputStream os = response.getOutputStream();
     os.write(res.getBytes(StandardCharsets.UTF_8));
     os.flush();
@@ -0,0 +1,118 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.DispatchExperiment;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.bean.cache.ExperimentGroupConfig;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserOutExperimentGroup;
+import com.sensorsdata.analytics.javasdk.bean.cache.Variable;
+import com.sensorsdata.analytics.javasdk.cache.ExperimentCacheManager;
+import com.sensorsdata.analytics.javasdk.util.ABTestUtil;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 试验组配置与出组试验只保存埋点配置要求的扩展字段
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:06
+ */
+public class TriggerContentExtTest {
+
+  private static final String RESULT_ID = "abtest_experiment_result_id";
+
+  private static final String VERSION = "abtest_experiment_version";
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(TriggerContentExtTest.class), LogLevelEnum.INFO);
+
+  private ExperimentCacheManager cacheManager;
+
+  @Before
+  public void init() {
+    cacheManager = new ExperimentCacheManager(log, 10, 100);
+  }
+
+  @Test
+  public void keepsOnlyConfiguredFields() {
+    cacheManager.getUserHitExperimentWithoutUpdateCache(Collections.singletonList(experiment()),
+        Collections.singletonList(RESULT_ID));
+    ExperimentGroupConfig config = cacheManager.getExperimentGroupConfig("1", "0", "result_1");
+    assertEquals(Collections.singletonMap(RESULT_ID, "result_1"), config.getExt());
+  }
+
+  /**
+   * 埋点配置增加扩展字段后，下一次返回该试验组时发布包含新字段的版本，已缓存的用户读取到新版本
+   */
+  @Test
+  public void reExtractsAfterTrackConfigChange() {
+    UserInfo userInfo = UserInfo.builder().distinctId("user").isLoginId(false).build();
+    cacheManager.cacheUserHitExperiment(userInfo, cacheManager.getUserHitExperimentWithoutUpdateCache(
+        Collections.singletonList(experiment()), Collections.singletonList(RESULT_ID)));
+    assertEquals(0, cacheManager.getExperimentResultByCache(userInfo, "param").getExperimentGroupConfig()
+        .getVersion());
+
+    List<String> extFields = Arrays.asList(RESULT_ID, VERSION, "not_exist");
+    cacheManager.getUserHitExperimentWithoutUpdateCache(Collections.singletonList(experiment()), extFields);
+    ExperimentGroupConfig config = cacheManager.getExperimentResultByCache(userInfo, "param")
+        .getExperimentGroupConfig();
+    assertEquals(1, config.getVersion());
+    assertEquals("result_1", config.getExt().get(RESULT_ID));
+    assertEquals("3", config.getExt().get(VERSION));
+    assertEquals(2, config.getExt().size());
+  }
+
+  @Test
+  public void outGroupsKeepOnlyConfiguredFields() {
+    List<UserOutExperimentGroup> outGroups = cacheManager.getUserOutExperimentGroups("param",
+        Collections.singletonList(experiment()), Collections.singletonList(VERSION));
+    assertEquals(Collections.singletonMap(VERSION, "3"), outGroups.get(0).getExt());
+  }
+
+  @Test
+  public void extractsTextValues() {
+    ObjectNode src = JsonNodeFactory.instance.objectNode();
+    src.put(RESULT_ID, 1001);
+    src.put(VERSION, "3");
+    assertTrue(ABTestUtil.extractExt(src, Collections.<String>emptyList()).isEmpty());
+    assertTrue(ABTestUtil.extractExt(null, Collections.singletonList(RESULT_ID)).isEmpty());
+    assertTrue(ABTestUtil.extractExt(src, Collections.singletonList("not_exist")).isEmpty());
+    Map<String, String> ext = ABTestUtil.extractExt(src, Arrays.asList(RESULT_ID, VERSION));
+    assertEquals("1001", ext.get(RESULT_ID));
+    assertEquals("3", ext.get(VERSION));
+  }
+
+  private static DispatchExperiment experiment() {
+    ObjectNode src = JsonNodeFactory.instance.objectNode();
+    src.put("abtest_experiment_id", "1");
+    src.put(RESULT_ID, "result_1");
+    src.put(VERSION, "3");
+    src.put("experiment_type", "CODE");
+    Map<String, Variable> variableMap = new HashMap<>();
+    variableMap.put("param", new Variable("param", "STRING", "value"));
+    return DispatchExperiment.builder()
+        .abtestExperimentId("1")
+        .abtestExperimentGroupId("0")
+        .abtestExperimentResultId("result_1")
+        .abtestExperimentVersion("3")
+        .subjectId("user")
+        .cacheable(true)
+        .variableMap(variableMap)
+        .src(src)
+        .build();
+  }
+}
@@ -0,0 +1,75 @@
+package com.sensorsdata.analytics.javasdk;
+
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserCacheKey;
+import com.sensorsdata.analytics.javasdk.util.ABTestUtil;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 用户缓存 key 生成的性能对比，通过 benchmark profile 执行：mvn test -Pbenchmark
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 10:21
+ */
+public class UserCacheKeyBenchmark {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(UserCacheKeyBenchmark.class), LogLevelEnum.INFO);
+
+  /**
+   * 与原 MD5 + String.format 生成 key 的耗时与内存分配对比
+   */
+  @Test
+  public void keyGenerationComparison() throws NoSuchAlgorithmException {
+    Map<String, String> customIds = new LinkedHashMap<>();
+    customIds.put("device_id", "d-0001");
+    UserInfo userInfo = UserInfo.builder().distinctId("distinct_id_0123456789").isLoginId(true)
+        .customIds(customIds).build();
+    int rounds = 1000000;
+    long sink = 0;
+    for (int i = 0; i < rounds; i++) {
+      sink += UserCacheKey.of(userInfo).hashCode() + md5Key(userInfo).hashCode();
+    }
+    com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+
+    long bytes = threadMXBean.getThreadAllocatedBytes(threadId);
+    long begin = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      sink += UserCacheKey.of(userInfo).hashCode();
+    }
+    long murmurTime = System.nanoTime() - begin;
+    long murmurBytes = threadMXBean.getThreadAllocatedBytes(threadId) - bytes;
+
+    bytes = threadMXBean.getThreadAllocatedBytes(threadId);
+    begin = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      sink += md5Key(userInfo).hashCode();
+    }
+    long md5Time = System.nanoTime() - begin;
+    long md5Bytes = threadMXBean.getThreadAllocatedBytes(threadId) - bytes;
+
+    log.info("murmur3: {} ns/op {} B/op, md5: {} ns/op {} B/op ({})", murmurTime / rounds, murmurBytes / rounds,
+        md5Time / rounds, md5Bytes / rounds, sink);
+  }
+
+  private static String md5Key(UserInfo userInfo) throws NoSuchAlgorithmException {
+    String key = String.format("%s_%b_%s", userInfo.getDistinctId(), userInfo.isLoginId(),
+        ABTestUtil.map2Str(userInfo.getCustomIds()));
+    MessageDigest instance = MessageDigest.getInstance("MD5");
+    instance.update(key.getBytes(StandardCharsets.UTF_8));
+    return new String(instance.digest(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,156 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserCacheKey;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 用户缓存 key
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:39
+ */
+public class UserCacheKeyTest {
+
+  /**
+   * 与 Guava murmur3_128 对相同输入流的计算结果一致
+   */
+  @Test
+  public void matchesMurmur3Reference() {
+    Map<String, String> customIds = new LinkedHashMap<>();
+    customIds.put("device_id", "d-0001");
+    customIds.put("union_id", "中文标识");
+    String[] distinctIds = {"", "a", "a123", "0123456789abcdef0123456789", "用户"};
+    for (String distinctId : distinctIds) {
+      for (boolean isLoginId : new boolean[]{true, false}) {
+        UserInfo userInfo = userInfo(distinctId, isLoginId, customIds);
+        assertReference(reference(userInfo, null, false), UserCacheKey.of(userInfo));
+        assertReference(reference(userInfo, "experiment_1", true), UserCacheKey.of(userInfo, "experiment_1"));
+        UserInfo noCustomIds = userInfo(distinctId, isLoginId, null);
+        assertReference(reference(noCustomIds, null, false), UserCacheKey.of(noCustomIds));
+      }
+    }
+  }
+
+  @Test
+  public void equalsAndHashCode() {
+    Map<String, String> customIds = new LinkedHashMap<>();
+    customIds.put("device_id", "d-0001");
+    UserCacheKey key = UserCacheKey.of(userInfo("a123", true, customIds));
+    UserCacheKey same = UserCacheKey.of(userInfo("a123", true, new LinkedHashMap<>(customIds)));
+    assertEquals(key, same);
+    assertEquals(key.hashCode(), same.hashCode());
+    assertEquals(key.toString(), same.toString());
+    assertEquals(32, key.toString().length());
+
+    assertNotEquals(key, UserCacheKey.of(userInfo("a123", false, customIds)));
+    assertNotEquals(key, UserCacheKey.of(userInfo("a123", true, null)));
+    assertNotEquals(key, UserCacheKey.of(userInfo("a123", true, customIds), "1"));
+    // 空的 customIds 与 null 视为相同
+    assertEquals(UserCacheKey.of(userInfo("a123", true, null)),
+        UserCacheKey.of(userInfo("a123", true, new LinkedHashMap<String, String>())));
+  }
+
+  /**
+   * 字段以长度前缀编码，拼接后相同的不同字段不会得到相同的 key
+   */
+  @Test
+  public void fieldBoundariesAreUnambiguous() {
+    Map<String, String> left = new LinkedHashMap<>();
+    left.put("ab", "c");
+    Map<String, String> right = new LinkedHashMap<>();
+    right.put("a", "bc");
+    assertNotEquals(UserCacheKey.of(userInfo("u", true, left)), UserCacheKey.of(userInfo("u", true, right)));
+    assertNotEquals(UserCacheKey.of(userInfo("u_true", false, null)), UserCacheKey.of(userInfo("u", true, null)));
+    assertNotEquals(UserCacheKey.of(userInfo(null, false, null)), UserCacheKey.of(userInfo("null", false, null)));
+    assertNotEquals(UserCacheKey.of(userInfo("u", false, null), "1_2"),
+        UserCacheKey.of(userInfo("u", false, null), "1"));
+  }
+
+  /**
+   * 自定义属性按名称排序、连同取值类型一起参与计算
+   */
+  @Test
+  public void propertiesAreEncodedWithType() {
+    UserInfo userInfo = userInfo("u", true, null);
+    Map<String, Object> properties = new LinkedHashMap<>();
+    properties.put("city", "A");
+    properties.put("age", 1);
+    Map<String, Object> reordered = new LinkedHashMap<>();
+    reordered.put("age", 1);
+    reordered.put("city", "A");
+    assertEquals(UserCacheKey.of(userInfo, properties, "p"), UserCacheKey.of(userInfo, reordered, "p"));
+
+    reordered.put("age", "1");
+    assertNotEquals(UserCacheKey.of(userInfo, properties, "p"), UserCacheKey.of(userInfo, reordered, "p"));
+    reordered.put("age", 1);
+    reordered.put("city", "B");
+    assertNotEquals(UserCacheKey.of(userInfo, properties, "p"), UserCacheKey.of(userInfo, reordered, "p"));
+    assertEquals(UserCacheKey.of(userInfo, null, "p"),
+        UserCacheKey.of(userInfo, new LinkedHashMap<String, Object>(), "p"));
+  }
+
+  @Test
+  public void noCollisionOnSyntheticIds() {
+    int count = 1000000;
+    Set<UserCacheKey> keys = new HashSet<>(count * 2);
+    Map<String, String> customIds = new LinkedHashMap<>();
+    for (int i = 0; i < count; i++) {
+      customIds.put("device_id", "device_" + (i % 1000));
+      keys.add(UserCacheKey.of(userInfo("user_" + i, (i & 1) == 0, customIds)));
+    }
+    assertEquals(count, keys.size());
+  }
+
+  private static void assertReference(HashCode expected, UserCacheKey actual) {
+    ByteBuffer buffer = ByteBuffer.wrap(expected.asBytes()).order(ByteOrder.LITTLE_ENDIAN);
+    assertEquals(buffer.getLong(), actual.getHigh());
+    assertEquals(buffer.getLong(), actual.getLow());
+  }
+
+  private static HashCode reference(UserInfo userInfo, String qualifier, boolean withQualifier) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    putString(hasher, userInfo.getDistinctId());
+    hasher.putChar(userInfo.isLoginId() ? '1' : '0');
+    Map<String, String> customIds = userInfo.getCustomIds();
+    hasher.putInt(customIds == null ? 0 : customIds.size());
+    if (customIds != null) {
+      for (Map.Entry<String, String> entry : customIds.entrySet()) {
+        putString(hasher, entry.getKey());
+        putString(hasher, entry.getValue());
+      }
+    }
+    if (withQualifier) {
+      putString(hasher, qualifier);
+    }
+    return hasher.hash();
+  }
+
+  private static void putString(Hasher hasher, String value) {
+    if (value == null) {
+      hasher.putInt(-1);
+      return;
+    }
+    hasher.putInt(value.length());
+    hasher.putUnencodedChars(value);
+  }
+
+  private static UserInfo userInfo(String distinctId, boolean isLoginId, Map<String, String> customIds) {
+    return UserInfo.builder().distinctId(distinctId).isLoginId(isLoginId).customIds(customIds).build();
+  }
+}
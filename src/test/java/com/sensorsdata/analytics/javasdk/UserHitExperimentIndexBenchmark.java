@@ -0,0 +1,156 @@
+package com.sensorsdata.analytics.javasdk;
+
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.bean.cache.ExperimentGroupConfig;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperiment;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperimentGroup;
+import com.sensorsdata.analytics.javasdk.bean.cache.Variable;
+import com.sensorsdata.analytics.javasdk.cache.ExperimentCacheManager;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存的用户命中试验的查找耗时与内存占用对比，通过 benchmark profile 执行：mvn test -Pbenchmark
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 10:21
+ */
+public class UserHitExperimentIndexBenchmark {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(UserHitExperimentIndexBenchmark.class),
+      LogLevelEnum.INFO);
+
+  private ExperimentCacheManager cacheManager;
+
+  private List<ExperimentGroupConfig> configs;
+
+  @Before
+  public void init() {
+    cacheManager = new ExperimentCacheManager(log, 10, 1000000);
+    configs = new ArrayList<>();
+  }
+
+  /**
+   * 1、10、100 个试验时逐个查找与缓存后索引查找的耗时对比
+   */
+  @Test
+  public void lookupComparison() {
+    int rounds = 2000000;
+    for (int experiments : new int[]{1, 10, 100}) {
+      init();
+      UserHitExperiment scanned = buildUserHitExperiment("user", experiments, 3);
+      UserInfo userInfo = userInfo("user");
+      cacheManager.cacheUserHitExperiment(userInfo, scanned);
+      String[] params = new String[experiments];
+      for (int i = 0; i < experiments; i++) {
+        params[i] = param(i, 1);
+      }
+      long sink = 0;
+      for (int i = 0; i < rounds; i++) {
+        sink += scanned.getUserHitExperimentGroup(params[i % experiments]).getSubjectId().length();
+        sink += cacheManager.getExperimentResultByCache(userInfo, params[i % experiments]).getSubjectId().length();
+      }
+      long begin = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        sink += scanned.getUserHitExperimentGroup(params[i % experiments]).getSubjectId().length();
+      }
+      long scan = System.nanoTime() - begin;
+      begin = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        sink += cacheManager.getExperimentResultByCache(userInfo, params[i % experiments]).getSubjectId().length();
+      }
+      long cached = System.nanoTime() - begin;
+      log.info("experiments: {}, scan: {} ns/op, cached (key + index): {} ns/op ({})", experiments,
+          scan / rounds, cached / rounds, sink);
+    }
+  }
+
+  /**
+   * 每个缓存用户占用的堆内存：原 ConcurrentHashMap 表示与紧凑表示对比
+   */
+  @Test
+  public void bytesPerCachedUser() {
+    int users = 100000;
+    int experiments = 30;
+    buildUserHitExperiment("warm_up", experiments, 3);
+    List<UserHitExperiment> mapBased = new ArrayList<>(users);
+    long before = usedMemory();
+    for (int i = 0; i < users; i++) {
+      mapBased.add(buildMapBasedEntry("user_" + i, experiments));
+    }
+    long mapBytes = (usedMemory() - before) / users;
+    long estimatedMapBytes = mapBased.get(0).estimateMemory();
+    mapBased.clear();
+
+    before = usedMemory();
+    for (int i = 0; i < users; i++) {
+      cacheManager.cacheUserHitExperiment(userInfo("user_" + i), buildMapBasedEntry("user_" + i, experiments));
+    }
+    long compactBytes = (usedMemory() - before) / users;
+    log.info("map based: {} B/user (estimate {}), compact: {} B/user (estimate {}) in {} entries",
+        mapBytes, estimatedMapBytes + 96, compactBytes, cacheManager.estimateCacheMemory() / users,
+        cacheManager.getCacheSize());
+  }
+
+  private UserHitExperiment buildMapBasedEntry(String subjectId, int experiments) {
+    UserHitExperiment userHitExperiment = new UserHitExperiment();
+    for (int i = 0; i < experiments; i++) {
+      userHitExperiment.addUserHitExperimentGroup(new String(String.valueOf(i)),
+          UserHitExperimentGroup.builder()
+              .subjectId(new String(subjectId))
+              .cacheable(true)
+              .experimentGroupConfig(configs.get(i))
+              .build());
+    }
+    return userHitExperiment;
+  }
+
+  private static long usedMemory() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private UserHitExperiment buildUserHitExperiment(String subjectId, int experiments, int paramsPerExperiment) {
+    UserHitExperiment userHitExperiment = new UserHitExperiment();
+    for (int i = 0; i < experiments; i++) {
+      Map<String, Variable> variableMap = new HashMap<>();
+      for (int j = 0; j < paramsPerExperiment; j++) {
+        variableMap.put(param(i, j), new Variable(param(i, j), "STRING", "value"));
+      }
+      ExperimentGroupConfig config = ExperimentGroupConfig.builder()
+          .abtestExperimentId(String.valueOf(i))
+          .abtestExperimentGroupId("0")
+          .variableMap(variableMap)
+          .build();
+      configs.add(config);
+      userHitExperiment.addUserHitExperimentGroup(String.valueOf(i), UserHitExperimentGroup.builder()
+          .subjectId(subjectId)
+          .isWhiteList(i % 7 == 0)
+          .cacheable(true)
+          .experimentGroupConfig(config)
+          .build());
+    }
+    return userHitExperiment;
+  }
+
+  private static UserInfo userInfo(String distinctId) {
+    return UserInfo.builder().distinctId(distinctId).isLoginId(false).build();
+  }
+
+  private static String param(int experiment, int index) {
+    return "param_" + experiment + "_" + index;
+  }
+}
@@ -0,0 +1,207 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.DispatchExperiment;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.bean.cache.ExperimentGroupConfig;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperiment;
+import com.sensorsdata.analytics.javasdk.bean.cache.UserHitExperimentGroup;
+import com.sensorsdata.analytics.javasdk.bean.cache.Variable;
+import com.sensorsdata.analytics.javasdk.cache.ExperimentCacheManager;
+import com.sensorsdata.analytics.javasdk.cache.ExperimentGroupConfigRegistry;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存的用户命中试验：紧凑表示与按参数名的索引查找
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 08:45
+ */
+public class UserHitExperimentIndexTest {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(UserHitExperimentIndexTest.class),
+      LogLevelEnum.INFO);
+
+  private ExperimentCacheManager cacheManager;
+
+  private List<ExperimentGroupConfig> configs;
+
+  @Before
+  public void init() {
+    cacheManager = new ExperimentCacheManager(log, 10, 1000000);
+    configs = new ArrayList<>();
+  }
+
+  @Test
+  public void indexedLookupMatchesScan() {
+    UserHitExperiment scanned = buildUserHitExperiment("user", 30, 3);
+    UserInfo userInfo = userInfo("user");
+    cacheManager.cacheUserHitExperiment(userInfo, scanned);
+    for (int i = 0; i < 30; i++) {
+      for (int j = 0; j < 3; j++) {
+        String param = param(i, j);
+        UserHitExperimentGroup expected = scanned.getUserHitExperimentGroup(param);
+        UserHitExperimentGroup cached = cacheManager.getExperimentResultByCache(userInfo, param);
+        assertEquals(String.valueOf(i), cached.getExperimentGroupConfig().getAbtestExperimentId());
+        assertSame(expected.getExperimentGroupConfig(), cached.getExperimentGroupConfig());
+        assertEquals(expected.getSubjectId(), cached.getSubjectId());
+        assertEquals(expected.isWhiteList(), cached.isWhiteList());
+      }
+    }
+    assertNull(cacheManager.getExperimentResultByCache(userInfo, "not_exist_param"));
+    assertNull(scanned.getUserHitExperimentGroup("not_exist_param"));
+    assertEquals(30, cacheManager.getExperimentGroupConfigCount());
+  }
+
+  /**
+   * 不可缓存的试验组不写入缓存；subjectId 各不相同时逐个保留
+   */
+  @Test
+  public void cachedEntryKeepsOnlyCacheableGroups() {
+    UserHitExperiment userHitExperiment = new UserHitExperiment();
+    userHitExperiment.addUserHitExperimentGroup("0", group("0", "user", true, true, "param_a"));
+    userHitExperiment.addUserHitExperimentGroup("1", group("1", "device_1", false, true, "param_b"));
+    userHitExperiment.addUserHitExperimentGroup("2", group("2", "user", false, false, "param_c"));
+    UserInfo userInfo = userInfo("user");
+    cacheManager.cacheUserHitExperiment(userInfo, userHitExperiment);
+
+    UserHitExperimentGroup whiteList = cacheManager.getExperimentResultByCache(userInfo, "param_a");
+    assertTrue(whiteList.isWhiteList());
+    assertEquals("user", whiteList.getSubjectId());
+    UserHitExperimentGroup device = cacheManager.getExperimentResultByCache(userInfo, "param_b");
+    assertFalse(device.isWhiteList());
+    assertEquals("device_1", device.getSubjectId());
+    assertNull(cacheManager.getExperimentResultByCache(userInfo, "param_c"));
+    assertEquals(1, cacheManager.getCacheSize());
+
+    // 缓存条目独立于原始分流结果，原始结果仍可修改且不影响缓存
+    userHitExperiment.addUserHitExperimentGroup("3", group("3", "user", false, true, "param_d"));
+    userHitExperiment.setUserHitExperimentMap(new HashMap<String, UserHitExperimentGroup>());
+    assertNull(cacheManager.getExperimentResultByCache(userInfo, "param_d"));
+    assertEquals("device_1", cacheManager.getExperimentResultByCache(userInfo, "param_b").getSubjectId());
+  }
+
+  /**
+   * 试验组配置的参数变化后，参数索引随之更新
+   */
+  @Test
+  public void registryTracksParamChanges() {
+    ExperimentGroupConfigRegistry registry = new ExperimentGroupConfigRegistry();
+    ExperimentGroupConfig first = group("0", "user", false, true, "param_a", "param_b").getExperimentGroupConfig();
+    ExperimentGroupConfig second = group("1", "user", false, true, "param_b").getExperimentGroupConfig();
+    assertEquals(0, registry.register("0_0", first));
+    assertEquals(1, registry.register("1_0", second));
+    assertEquals(0, registry.register("0_0", first));
+    assertArrayEquals(new int[]{0, 1}, registry.getConfigIds("param_b"));
+
+    // 内容未变化时不产生新版本
+    assertSame(first, registry.publish("0_0", group("0", "user", false, true, "param_a", "param_b")
+        .getExperimentGroupConfig()));
+
+    ExperimentGroupConfig changed = registry.publish("0_0", group("0", "user", false, true, "param_c")
+        .getExperimentGroupConfig());
+    assertEquals(1, changed.getVersion());
+    assertArrayEquals(new int[0], registry.getConfigIds("param_a"));
+    assertArrayEquals(new int[]{1}, registry.getConfigIds("param_b"));
+    assertArrayEquals(new int[]{0}, registry.getConfigIds("param_c"));
+    assertSame(changed, registry.get(0));
+    assertSame(changed, registry.get("0_0"));
+    assertSame(changed, registry.asMap().get("0_0"));
+    // 旧版本快照保持不变
+    assertTrue(first.getVariableMap().containsKey("param_a"));
+    assertEquals(0, first.getVersion());
+    assertEquals(2, registry.size());
+  }
+
+  /**
+   * 缓存之后试验组配置的参数发生变化，已缓存用户的查找结果随配置更新
+   */
+  @Test
+  public void cachedLookupFollowsParamChanges() {
+    UserInfo userInfo = userInfo("user");
+    cacheManager.cacheUserHitExperiment(userInfo, buildUserHitExperiment("user", 3, 2));
+    assertEquals("1", cacheManager.getExperimentResultByCache(userInfo, param(1, 0))
+        .getExperimentGroupConfig().getAbtestExperimentId());
+
+    Map<String, Variable> variableMap = new HashMap<>();
+    variableMap.put("param_new", new Variable("param_new", "STRING", "value"));
+    cacheManager.getUserHitExperimentWithoutUpdateCache(Collections.singletonList(DispatchExperiment.builder()
+        .abtestExperimentId("1")
+        .abtestExperimentGroupId("0")
+        .variableMap(variableMap)
+        .build()));
+
+    assertNull(cacheManager.getExperimentResultByCache(userInfo, param(1, 0)));
+    assertEquals("1", cacheManager.getExperimentResultByCache(userInfo, "param_new")
+        .getExperimentGroupConfig().getAbtestExperimentId());
+    assertEquals("2", cacheManager.getExperimentResultByCache(userInfo, param(2, 1))
+        .getExperimentGroupConfig().getAbtestExperimentId());
+  }
+
+  @Test
+  public void compactEntryUsesLessMemory() {
+    UserHitExperiment userHitExperiment = buildUserHitExperiment("user", 30, 3);
+    cacheManager.cacheUserHitExperiment(userInfo("user"), userHitExperiment);
+    long compact = cacheManager.estimateCacheMemory();
+    assertTrue(compact > 0);
+    assertTrue(compact * 5 < userHitExperiment.estimateMemory());
+  }
+
+  private UserHitExperiment buildUserHitExperiment(String subjectId, int experiments, int paramsPerExperiment) {
+    UserHitExperiment userHitExperiment = new UserHitExperiment();
+    for (int i = 0; i < experiments; i++) {
+      String[] params = new String[paramsPerExperiment];
+      for (int j = 0; j < paramsPerExperiment; j++) {
+        params[j] = param(i, j);
+      }
+      UserHitExperimentGroup group = group(String.valueOf(i), subjectId, i % 7 == 0, true, params);
+      configs.add(group.getExperimentGroupConfig());
+      userHitExperiment.addUserHitExperimentGroup(String.valueOf(i), group);
+    }
+    return userHitExperiment;
+  }
+
+  private static UserHitExperimentGroup group(String experimentId, String subjectId, boolean whiteList,
+      boolean cacheable, String... params) {
+    Map<String, Variable> variableMap = new HashMap<>();
+    for (String param : params) {
+      variableMap.put(param, new Variable(param, "STRING", "value"));
+    }
+    return UserHitExperimentGroup.builder()
+        .subjectId(subjectId)
+        .isWhiteList(whiteList)
+        .cacheable(cacheable)
+        .experimentGroupConfig(ExperimentGroupConfig.builder()
+            .abtestExperimentId(experimentId)
+            .abtestExperimentGroupId("0")
+            .variableMap(variableMap)
+            .build())
+        .build();
+  }
+
+  private static UserInfo userInfo(String distinctId) {
+    return UserInfo.builder().distinctId(distinctId).isLoginId(false).build();
+  }
+
+  private static String param(int experiment, int index) {
+    return "param_" + experiment + "_" + index;
+  }
+}
@@ -0,0 +1,45 @@
+package com.sensorsdata.analytics.javasdk;
+
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.cache.Variable;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 试验参数值解码的性能对比，通过 benchmark profile 执行：mvn test -Pbenchmark
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 10:21
+ */
+public class VariableBenchmark {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(VariableBenchmark.class), LogLevelEnum.INFO);
+
+  /**
+   * 每次获取时解析与创建时解码的耗时对比
+   */
+  @Test
+  public void matchValueComparison() {
+    Variable variable = new Variable("int", "INTEGER", "123456");
+    int rounds = 10000000;
+    long sink = 0;
+    for (int i = 0; i < rounds; i++) {
+      sink += Integer.valueOf(variable.getValue()) + variable.matchValue(0);
+    }
+    long begin = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      sink += Integer.valueOf(variable.getValue());
+    }
+    long parse = System.nanoTime() - begin;
+    begin = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      sink += variable.matchValue(0);
+    }
+    long decoded = System.nanoTime() - begin;
+    log.info("parse per call: {} ns/op, pre-decoded: {} ns/op ({})", String.format("%.2f", (double) parse / rounds),
+        String.format("%.2f", (double) decoded / rounds), sink);
+  }
+}
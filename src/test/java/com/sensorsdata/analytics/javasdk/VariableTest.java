@@ -0,0 +1,86 @@
+package com.sensorsdata.analytics.javasdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.sensorsdata.analytics.javasdk.bean.VariableTypeEnum;
+import com.sensorsdata.analytics.javasdk.bean.cache.Variable;
+
+import org.junit.Test;
+
+/**
+ * 试验参数值在创建时解码，获取时只判断默认值类型
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:02
+ */
+public class VariableTest {
+
+  @Test
+  public void decodesOnCreate() {
+    Variable integer = new Variable("int", "INTEGER", "123");
+    assertEquals(VariableTypeEnum.INTEGER, integer.getVariableType());
+    assertEquals(123, integer.getDecodedValue());
+    assertEquals(Integer.valueOf(123), integer.matchValue(0));
+    // 每次获取返回同一个解码结果
+    assertSame(integer.matchValue(0), integer.matchValue(1));
+
+    Variable bool = Variable.builder().name("bool").type("BOOLEAN").value("true").build();
+    assertEquals(Boolean.TRUE, bool.matchValue(false));
+    assertEquals(Boolean.FALSE, new Variable("bool", "BOOLEAN", "FALSE").matchValue(true));
+    assertEquals(Boolean.TRUE, new Variable("bool", "BOOLEAN", "True").matchValue(false));
+
+    Variable string = new Variable("str", "STRING", "hello");
+    assertEquals("hello", string.matchValue("default"));
+    assertEquals("STRING", string.getType());
+    assertEquals("hello", string.getValue());
+  }
+
+  @Test
+  public void typeMismatchReturnsNull() {
+    assertNull(new Variable("int", "INTEGER", "123").matchValue("default"));
+    assertNull(new Variable("str", "STRING", "hello").matchValue(0));
+    assertNull(new Variable("bool", "BOOLEAN", "true").matchValue("default"));
+    assertNull(new Variable("json", "JSON", "{\"a\":1}").matchValue("default"));
+    assertNull(new Variable("json", "JSON", "{\"a\":1}").matchValue(0));
+  }
+
+  /**
+   * 无法解码的值与不支持的类型在创建时即视为无效，不再在每次获取时抛出异常
+   */
+  @Test
+  public void invalidValuesAreRejectedOnce() {
+    Variable invalid = new Variable("int", "INTEGER", "not a number");
+    assertNull(invalid.getDecodedValue());
+    assertNull(invalid.matchValue(0));
+    assertNull(new Variable("int", "INTEGER", null).matchValue(0));
+    // 非 true、false 的布尔值无效，由调用方返回默认值，而不是当作 false
+    assertNull(new Variable("bool", "BOOLEAN", "yes").matchValue(true));
+    assertNull(new Variable("bool", "BOOLEAN", "1").matchValue(true));
+    assertNull(new Variable("bool", "BOOLEAN", null).matchValue(true));
+
+    Variable unknown = new Variable("list", "LIST", "[1]");
+    assertEquals(VariableTypeEnum.UNKNOWN, unknown.getVariableType());
+    assertNull(unknown.matchValue("default"));
+    assertEquals(VariableTypeEnum.UNKNOWN, new Variable("none", null, "1").getVariableType());
+  }
+
+  @Test
+  public void jsonTreeIsParsedLazily() {
+    Variable json = new Variable("json", "JSON", "{\"name\":\"hello\"}");
+    assertEquals("{\"name\":\"hello\"}", json.matchValue("{}"));
+    assertEquals("hello", json.getJsonValue().get("name").asText());
+    assertSame(json.getJsonValue(), json.getJsonValue());
+    assertNull(new Variable("json", "JSON", "{broken").getJsonValue());
+    assertNull(new Variable("str", "STRING", "{}").getJsonValue());
+  }
+
+  @Test
+  public void equalityIgnoresDecodedValue() {
+    assertEquals(new Variable("int", "INTEGER", "1"), Variable.builder().name("int").type("INTEGER").value("1").build());
+    assertEquals(new Variable("int", "INTEGER", "1").hashCode(), new Variable("int", "INTEGER", "1").hashCode());
+  }
+
+}
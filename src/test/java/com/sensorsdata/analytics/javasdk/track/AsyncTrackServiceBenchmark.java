@@ -0,0 +1,86 @@
+package com.sensorsdata.analytics.javasdk.track;
+
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.TrackQueueFullPolicyEnum;
+import com.sensorsdata.analytics.javasdk.bean.TrackRecord;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+import com.sensorsdata.analytics.javasdk.service.ITrackService;
+import com.sensorsdata.analytics.javasdk.service.impl.AsyncTrackService;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步上报 $ABTestTrigger 事件的请求线程耗时对比，通过 benchmark profile 执行：mvn test -Pbenchmark
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 10:21
+ */
+public class AsyncTrackServiceBenchmark {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(AsyncTrackServiceBenchmark.class),
+      LogLevelEnum.INFO);
+
+  /**
+   * 分析 SDK 上报耗时 1ms 时，同步上报与写入异步队列的请求线程耗时对比
+   */
+  @Test
+  public void enqueueLatencyComparison() throws InvalidArgumentException {
+    ITrackService slowTrackService = new ITrackService() {
+      @Override
+      public void trackABTestTrigger(List<TrackRecord> toTrack, Map<String, Object> properties) {
+        sleepNanos(TimeUnit.MILLISECONDS.toNanos(1));
+      }
+
+      @Override
+      public boolean spillABTestTrigger(List<TrackRecord> toTrack, Map<String, Object> properties) {
+        return false;
+      }
+    };
+    int rounds = 2000;
+    long begin = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      slowTrackService.trackABTestTrigger(records(i), null);
+    }
+    long sync = System.nanoTime() - begin;
+    for (TrackQueueFullPolicyEnum policy : TrackQueueFullPolicyEnum.values()) {
+      AsyncTrackService service = new AsyncTrackService(log, slowTrackService, 4096, 4, policy);
+      begin = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        service.trackABTestTrigger(records(i), null);
+      }
+      long async = System.nanoTime() - begin;
+      log.info("sync: {} ns/op, async {}: {} ns/op (avg {} ns, max {} ns, dropped {})", sync / rounds, policy,
+          async / rounds, service.getAverageEnqueueNanos(), service.getMaxEnqueueNanos(),
+          service.getDroppedNewestCount() + service.getDroppedOldestCount());
+      service.close();
+    }
+  }
+
+  private static List<TrackRecord> records(int index) {
+    List<TrackRecord> records = new ArrayList<>();
+    records.add(TrackRecord.builder()
+        .param(String.valueOf(index))
+        .abtestExperimentId("experiment")
+        .abtestExperimentGroupId("0")
+        .userInfo(UserInfo.builder().distinctId("user").isLoginId(false).build())
+        .build());
+    return records;
+  }
+
+  private static void sleepNanos(long nanos) {
+    long deadline = System.nanoTime() + nanos;
+    while (System.nanoTime() < deadline) {
+      LockSupport.parkNanos(deadline - System.nanoTime());
+    }
+  }
+}
@@ -0,0 +1,355 @@
+package com.sensorsdata.analytics.javasdk.track;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.TrackQueueFullPolicyEnum;
+import com.sensorsdata.analytics.javasdk.bean.TrackRecord;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+import com.sensorsdata.analytics.javasdk.service.ITrackService;
+import com.sensorsdata.analytics.javasdk.service.impl.AsyncTrackService;
+import com.sensorsdata.analytics.javasdk.util.BoundedRingBuffer;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 异步上报：后台线程上报、队列已满时的处理策略与指标
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:17
+ */
+public class AsyncTrackServiceTest {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(AsyncTrackServiceTest.class), LogLevelEnum.INFO);
+
+  private final RecordingTrackService delegate = new RecordingTrackService();
+
+  private AsyncTrackService asyncTrackService;
+
+  @After
+  public void close() {
+    delegate.release.countDown();
+    if (asyncTrackService != null) {
+      asyncTrackService.close();
+    }
+  }
+
+  @Test
+  public void tracksOnBackgroundThread() throws InvalidArgumentException {
+    delegate.release.countDown();
+    asyncTrackService = new AsyncTrackService(log, delegate, 16, 2, TrackQueueFullPolicyEnum.DROP_NEWEST);
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("key", "value");
+    for (int i = 0; i < 10; i++) {
+      asyncTrackService.trackABTestTrigger(records(i), properties);
+    }
+    // 写入队列时复制附加属性，调用方之后的修改不影响上报
+    properties.put("key", "changed");
+    asyncTrackService.trackABTestTrigger(null, null);
+    asyncTrackService.trackABTestTrigger(new ArrayList<TrackRecord>(), null);
+    asyncTrackService.close();
+
+    assertEquals(10, delegate.tracked.size());
+    assertEquals(10, asyncTrackService.getTrackedCount());
+    assertEquals(10, asyncTrackService.getEnqueuedCount());
+    assertEquals(0, asyncTrackService.getQueueDepth());
+    assertEquals(16, asyncTrackService.getQueueCapacity());
+    assertTrue(asyncTrackService.getMaxEnqueueNanos() >= asyncTrackService.getAverageEnqueueNanos());
+    for (String thread : delegate.threads) {
+      assertNotEquals(Thread.currentThread().getName(), thread);
+      assertTrue(thread.startsWith("sensors-abtest-track-"));
+    }
+    for (Map<String, Object> trackedProperties : delegate.properties) {
+      assertEquals("value", trackedProperties.get("key"));
+    }
+  }
+
+  /**
+   * 事件时间为写入队列的时间，不受排队时间影响；已指定的事件时间保持不变
+   */
+  @Test
+  public void eventTimeIsTakenWhenQueued() throws InterruptedException, InvalidArgumentException {
+    asyncTrackService = new AsyncTrackService(log, delegate, 16, 1, TrackQueueFullPolicyEnum.DROP_NEWEST);
+    fillQueue(0);
+    long before = System.currentTimeMillis();
+    asyncTrackService.trackABTestTrigger(records(1), null);
+    long after = System.currentTimeMillis();
+    Map<String, Object> timed = new HashMap<>();
+    timed.put("$time", new Date(1000000000000L));
+    asyncTrackService.trackABTestTrigger(records(2), timed);
+    Thread.sleep(50);
+    delegate.release.countDown();
+    asyncTrackService.close();
+
+    assertEquals(newList(0, 1, 2), delegate.tracked);
+    long time = ((Date) delegate.properties.get(1).get("$time")).getTime();
+    assertTrue(time >= before && time <= after);
+    assertEquals(new Date(1000000000000L), delegate.properties.get(2).get("$time"));
+  }
+
+  @Test
+  public void dropNewestWhenFull() throws InterruptedException, InvalidArgumentException {
+    asyncTrackService = new AsyncTrackService(log, delegate, 2, 1, TrackQueueFullPolicyEnum.DROP_NEWEST);
+    fillQueue(2);
+    asyncTrackService.trackABTestTrigger(records(3), null);
+
+    assertEquals(1, asyncTrackService.getDroppedNewestCount());
+    assertEquals(2, asyncTrackService.getQueueDepth());
+    delegate.release.countDown();
+    asyncTrackService.close();
+    assertEquals(newList(0, 1, 2), delegate.tracked);
+    assertEquals(0, asyncTrackService.getDroppedOldestCount());
+  }
+
+  @Test
+  public void dropOldestWhenFull() throws InterruptedException, InvalidArgumentException {
+    asyncTrackService = new AsyncTrackService(log, delegate, 2, 1, TrackQueueFullPolicyEnum.DROP_OLDEST);
+    fillQueue(2);
+    asyncTrackService.trackABTestTrigger(records(3), null);
+    asyncTrackService.trackABTestTrigger(records(4), null);
+
+    assertEquals(2, asyncTrackService.getDroppedOldestCount());
+    assertEquals(2, asyncTrackService.getQueueDepth());
+    delegate.release.countDown();
+    asyncTrackService.close();
+    assertEquals(newList(0, 3, 4), delegate.tracked);
+    assertEquals(0, asyncTrackService.getDroppedNewestCount());
+  }
+
+  /**
+   * 开启了本地溢写时，队列已满要丢弃的批次写入溢写队列
+   */
+  @Test
+  public void spillWhenFull() throws InterruptedException, InvalidArgumentException {
+    delegate.spillEnabled = true;
+    asyncTrackService = new AsyncTrackService(log, delegate, 2, 1, TrackQueueFullPolicyEnum.DROP_NEWEST);
+    fillQueue(2);
+    asyncTrackService.trackABTestTrigger(records(3), null);
+    asyncTrackService.trackABTestTrigger(records(4), null);
+
+    assertEquals(newList(3, 4), delegate.spilled);
+    assertEquals(2, asyncTrackService.getSpilledCount());
+    assertEquals(0, asyncTrackService.getDroppedNewestCount());
+    delegate.release.countDown();
+    asyncTrackService.close();
+    assertEquals(newList(0, 1, 2), delegate.tracked);
+  }
+
+  @Test
+  public void spillOldestWhenFull() throws InterruptedException, InvalidArgumentException {
+    delegate.spillEnabled = true;
+    asyncTrackService = new AsyncTrackService(log, delegate, 2, 1, TrackQueueFullPolicyEnum.DROP_OLDEST);
+    fillQueue(2);
+    asyncTrackService.trackABTestTrigger(records(3), null);
+    asyncTrackService.trackABTestTrigger(records(4), null);
+
+    assertEquals(newList(1, 2), delegate.spilled);
+    assertEquals(2, asyncTrackService.getSpilledCount());
+    assertEquals(0, asyncTrackService.getDroppedOldestCount());
+    delegate.release.countDown();
+    asyncTrackService.close();
+    assertEquals(newList(0, 3, 4), delegate.tracked);
+  }
+
+  @Test
+  public void blockWhenFull() throws InterruptedException, InvalidArgumentException {
+    asyncTrackService = new AsyncTrackService(log, delegate, 2, 1, TrackQueueFullPolicyEnum.BLOCK);
+    fillQueue(2);
+    final CountDownLatch enqueued = new CountDownLatch(1);
+    Thread producer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          asyncTrackService.trackABTestTrigger(records(3), null);
+          enqueued.countDown();
+        } catch (InvalidArgumentException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    });
+    producer.start();
+    // 等待生产线程阻塞在入队上，再开始计时，避免线程调度延迟导致入队耗时不足 100ms
+    while (producer.getState() != Thread.State.WAITING && producer.getState() != Thread.State.TIMED_WAITING) {
+      Thread.sleep(1);
+    }
+    assertFalse(enqueued.await(100, TimeUnit.MILLISECONDS));
+
+    delegate.release.countDown();
+    assertTrue(enqueued.await(5, TimeUnit.SECONDS));
+    asyncTrackService.close();
+    assertEquals(newList(0, 1, 2, 3), delegate.tracked);
+    assertTrue(asyncTrackService.getMaxEnqueueNanos() >= TimeUnit.MILLISECONDS.toNanos(100));
+  }
+
+  @Test
+  public void failuresAreCountedNotThrown() throws InvalidArgumentException {
+    delegate.release.countDown();
+    delegate.failure = new InvalidArgumentException("invalid");
+    asyncTrackService = new AsyncTrackService(log, delegate, 4, 1, TrackQueueFullPolicyEnum.DROP_NEWEST);
+    asyncTrackService.trackABTestTrigger(records(0), null);
+    asyncTrackService.close();
+    assertEquals(1, asyncTrackService.getFailedCount());
+    assertEquals(0, asyncTrackService.getTrackedCount());
+  }
+
+  /**
+   * 多个生产者、消费者并发读写，每个元素恰好被读取一次
+   */
+  @Test
+  public void ringBufferDeliversEachElementOnce() throws InterruptedException {
+    final BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(64);
+    final int producers = 4;
+    final int perProducer = 50000;
+    final ConcurrentHashMap<Integer, Boolean> seen = new ConcurrentHashMap<>();
+    final AtomicInteger consumed = new AtomicInteger();
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      final int base = p * perProducer;
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = 0; i < perProducer; i++) {
+            while (!buffer.offer(base + i)) {
+              Thread.yield();
+            }
+          }
+        }
+      }));
+    }
+    for (int c = 0; c < 4; c++) {
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          while (consumed.get() < producers * perProducer) {
+            Integer element = buffer.poll();
+            if (element == null) {
+              Thread.yield();
+              continue;
+            }
+            if (seen.put(element, Boolean.TRUE) != null) {
+              failure.compareAndSet(null, new AssertionError("duplicated element " + element));
+            }
+            consumed.incrementAndGet();
+          }
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+    assertEquals(producers * perProducer, seen.size());
+    assertNull(buffer.poll());
+    assertEquals(0, buffer.size());
+    assertEquals(producers * perProducer, buffer.getOfferedCount());
+    assertEquals(64, buffer.capacity());
+    assertEquals(8, new BoundedRingBuffer<>(5).capacity());
+    assertEquals(2, new BoundedRingBuffer<>(1).capacity());
+  }
+
+  /**
+   * 第一批被后台线程取出并阻塞在 delegate 中，之后的批次填满队列
+   */
+  private void fillQueue(int queued) throws InterruptedException, InvalidArgumentException {
+    asyncTrackService.trackABTestTrigger(records(0), null);
+    assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+    for (int i = 1; i <= queued; i++) {
+      asyncTrackService.trackABTestTrigger(records(i), null);
+    }
+  }
+
+  private static List<TrackRecord> records(int index) {
+    List<TrackRecord> records = new ArrayList<>();
+    records.add(TrackRecord.builder()
+        .param(String.valueOf(index))
+        .abtestExperimentId("experiment")
+        .abtestExperimentGroupId("0")
+        .userInfo(UserInfo.builder().distinctId("user").isLoginId(false).build())
+        .build());
+    return records;
+  }
+
+  private static List<Integer> newList(Integer... values) {
+    List<Integer> list = new ArrayList<>();
+    Collections.addAll(list, values);
+    return list;
+  }
+
+  /**
+   * 记录上报的批次；release 之前阻塞在第一次上报中
+   */
+  private static class RecordingTrackService implements ITrackService {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<Integer> tracked = new CopyOnWriteArrayList<>();
+
+    private final List<String> threads = new CopyOnWriteArrayList<>();
+
+    private final List<Map<String, Object>> properties = new CopyOnWriteArrayList<>();
+
+    private final List<Integer> spilled = new CopyOnWriteArrayList<>();
+
+    private volatile InvalidArgumentException failure;
+
+    private volatile boolean spillEnabled;
+
+    @Override
+    public void trackABTestTrigger(List<TrackRecord> toTrack, Map<String, Object> properties)
+        throws InvalidArgumentException {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      tracked.add(Integer.valueOf(toTrack.get(0).getParam()));
+      threads.add(Thread.currentThread().getName());
+      if (properties != null) {
+        this.properties.add(properties);
+      }
+    }
+
+    @Override
+    public boolean spillABTestTrigger(List<TrackRecord> toTrack, Map<String, Object> properties) {
+      if (!spillEnabled) {
+        return false;
+      }
+      spilled.add(Integer.valueOf(toTrack.get(0).getParam()));
+      return true;
+    }
+  }
+}
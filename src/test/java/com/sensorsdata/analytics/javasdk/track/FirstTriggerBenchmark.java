@@ -0,0 +1,47 @@
+package com.sensorsdata.analytics.javasdk.track;
+
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.util.EpochDayClock;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import org.apache.commons.lang3.time.DateFormatUtils;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.Calendar;
+
+/**
+ * 每天首个 $ABTestTrigger 事件跨天判断方式的耗时对比，通过 benchmark profile 执行：mvn test -Pbenchmark
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 10:21
+ */
+public class FirstTriggerBenchmark {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(FirstTriggerBenchmark.class), LogLevelEnum.INFO);
+
+  /**
+   * 按日期格式化判断跨天与读取缓存天数的耗时对比
+   */
+  @Test
+  public void dayCheckComparison() {
+    int rounds = 10000000;
+    EpochDayClock clock = new EpochDayClock();
+    long sink = 0;
+    for (int round = 0; round < 3; round++) {
+      long begin = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        sink += DateFormatUtils.ISO_8601_EXTENDED_DATE_FORMAT.format(Calendar.getInstance()).length();
+      }
+      long formatted = System.nanoTime() - begin;
+      begin = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        sink += clock.currentEpochDay();
+      }
+      long cached = System.nanoTime() - begin;
+      log.info("calendar format: {} ns/op, epoch day clock: {} ns/op ({})", formatted / rounds, cached / rounds,
+          sink);
+    }
+  }
+}
@@ -0,0 +1,227 @@
+package com.sensorsdata.analytics.javasdk.track;
+
+import static org.junit.Assert.assertEquals;
+
+import com.sensorsdata.analytics.javasdk.SensorsABTestConst;
+import com.sensorsdata.analytics.javasdk.SensorsAnalytics;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.TrackConfig;
+import com.sensorsdata.analytics.javasdk.bean.TrackRecord;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.cache.EventCacheManager;
+import com.sensorsdata.analytics.javasdk.consumer.Consumer;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+import com.sensorsdata.analytics.javasdk.service.impl.TrackConfigService;
+import com.sensorsdata.analytics.javasdk.service.impl.TrackService;
+import com.sensorsdata.analytics.javasdk.util.EpochDayClock;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 每天首个 $ABTestTrigger 事件附加 $lib_plugin_version：按时区跨天，多线程同时跨天时只有一个事件附加
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:34
+ */
+public class FirstTriggerTest {
+
+  private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(FirstTriggerTest.class), LogLevelEnum.INFO);
+
+  private final AtomicLong now = new AtomicLong();
+
+  private final EpochDayClock.TimeSource timeSource = new EpochDayClock.TimeSource() {
+    @Override
+    public long currentTimeMillis() {
+      return now.get();
+    }
+  };
+
+  /**
+   * 与 Calendar 按时区计算的日期一致，覆盖夏令时切换（America/Sao_Paulo 在零点切换）
+   */
+  @Test
+  public void epochDayFollowsCalendarAcrossDstChanges() {
+    String[][] cases = {
+        {"Asia/Shanghai", "2026-10-18"},
+        {"America/New_York", "2025-03-08"},
+        {"America/New_York", "2025-11-01"},
+        {"America/Sao_Paulo", "2018-11-03"},
+        {"America/Sao_Paulo", "2019-02-15"},
+        {"UTC", "1969-12-30"},
+    };
+    for (String[] testCase : cases) {
+      TimeZone timeZone = TimeZone.getTimeZone(testCase[0]);
+      EpochDayClock clock = new EpochDayClock(timeSource, timeZone);
+      long begin = utcMillis(testCase[1]);
+      for (long millis = begin; millis < begin + 3 * DAY_MILLIS; millis += TimeUnit.MINUTES.toMillis(1)) {
+        now.set(millis);
+        assertEquals(testCase[0] + " " + millis, calendarEpochDay(millis, timeZone), clock.currentEpochDay());
+      }
+    }
+  }
+
+  @Test
+  public void clockGoingBackwardsIsFollowed() {
+    TimeZone timeZone = TimeZone.getTimeZone("Asia/Shanghai");
+    EpochDayClock clock = new EpochDayClock(timeSource, timeZone);
+    long midnight = utcMillis("2026-10-19") - timeZone.getRawOffset();
+    now.set(midnight);
+    long day = clock.currentEpochDay();
+    now.set(midnight - 1);
+    assertEquals(day - 1, clock.currentEpochDay());
+    now.set(midnight);
+    assertEquals(day, clock.currentEpochDay());
+  }
+
+  @Test
+  public void firstEventOfDayIsTrackedOnce() throws InvalidArgumentException {
+    RecordingConsumer consumer = new RecordingConsumer();
+    TrackService trackService = trackService(consumer, TimeZone.getTimeZone("Asia/Shanghai"));
+    long midnight = utcMillis("2026-10-19") - TimeUnit.HOURS.toMillis(8);
+    now.set(midnight - 1);
+    for (int i = 0; i < 3; i++) {
+      trackService.trackABTestTrigger(records(i), null);
+    }
+    now.set(midnight);
+    trackService.trackABTestTrigger(records(3), null);
+    trackService.trackABTestTrigger(records(4), null);
+
+    assertEquals(5, consumer.messages.size());
+    boolean[] expected = {true, false, false, true, false};
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(String.valueOf(i), expected[i],
+          getProperties(consumer.messages.get(i)).containsKey(SensorsABTestConst.LIB_PLUGIN_VERSION));
+    }
+    assertEquals(Lists.newArrayList(
+            String.format("%s:%s", SensorsABTestConst.AB_TEST_EVENT_LIB_VERSION, SensorsABTestConst.VERSION)),
+        getProperties(consumer.messages.get(0)).get(SensorsABTestConst.LIB_PLUGIN_VERSION));
+  }
+
+  /**
+   * 多个线程同时上报，所有线程在屏障处等待时钟推进到次日，每一天都只有一个事件附加版本信息
+   */
+  @Test
+  public void concurrentRolloverTracksOneFirstEventPerDay() throws Exception {
+    final int threads = 8;
+    final int eventsPerDay = 200;
+    final int days = 5;
+    RecordingConsumer consumer = new RecordingConsumer();
+    final TrackService trackService = trackService(consumer, TimeZone.getTimeZone("UTC"));
+    now.set(utcMillis("2026-10-19") - 1);
+    final CyclicBarrier barrier = new CyclicBarrier(threads, new Runnable() {
+      @Override
+      public void run() {
+        now.addAndGet(DAY_MILLIS);
+      }
+    });
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      workers.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            for (int day = 0; day < days; day++) {
+              barrier.await();
+              for (int i = 0; i < eventsPerDay; i++) {
+                trackService.trackABTestTrigger(records(i), null);
+              }
+            }
+          } catch (Throwable e) {
+            error.set(e);
+          }
+        }
+      }));
+    }
+    for (Thread worker : workers) {
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    assertEquals(null, error.get());
+    assertEquals(threads * eventsPerDay * days, consumer.messages.size());
+    int firstEvents = 0;
+    for (Map<String, Object> message : consumer.messages) {
+      if (getProperties(message).containsKey(SensorsABTestConst.LIB_PLUGIN_VERSION)) {
+        firstEvents++;
+      }
+    }
+    assertEquals(days, firstEvents);
+  }
+
+  private TrackService trackService(RecordingConsumer consumer, TimeZone timeZone) {
+    return new TrackService(new EventCacheManager(log, 1440, 4096), log, false, new SensorsAnalytics(consumer),
+        new TrackConfigService(log, TrackConfig.getDefaultTrackConfig()), null,
+        new EpochDayClock(timeSource, timeZone));
+  }
+
+  private static long utcMillis(String date) {
+    Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    calendar.clear();
+    String[] fields = date.split("-");
+    calendar.set(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]) - 1, Integer.parseInt(fields[2]));
+    return calendar.getTimeInMillis();
+  }
+
+  /**
+   * 按 Calendar 取出时区下的年月日，再换算为天数
+   */
+  private static long calendarEpochDay(long millis, TimeZone timeZone) {
+    Calendar local = Calendar.getInstance(timeZone);
+    local.setTimeInMillis(millis);
+    Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    utc.clear();
+    utc.set(local.get(Calendar.YEAR), local.get(Calendar.MONTH), local.get(Calendar.DAY_OF_MONTH));
+    return Math.round((double) utc.getTimeInMillis() / DAY_MILLIS);
+  }
+
+  private static List<TrackRecord> records(int index) {
+    return Lists.newArrayList(TrackRecord.builder()
+        .abtestExperimentId("experiment")
+        .abtestExperimentGroupId("0")
+        .abtestExperimentResultId("result")
+        .userInfo(UserInfo.builder().distinctId("user_" + index).isLoginId(false).build())
+        .build());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> getProperties(Map<String, Object> message) {
+    return (Map<String, Object>) message.get("properties");
+  }
+
+  private static class RecordingConsumer implements Consumer {
+
+    private final List<Map<String, Object>> messages = Collections.synchronizedList(new ArrayList<Map<String, Object>>());
+
+    @Override
+    public void send(Map<String, Object> message) {
+      messages.add(message);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
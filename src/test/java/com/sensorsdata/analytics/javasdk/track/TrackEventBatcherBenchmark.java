@@ -0,0 +1,123 @@
+package com.sensorsdata.analytics.javasdk.track;
+
+import com.sensorsdata.analytics.javasdk.SensorsAnalytics;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.TrackConfig;
+import com.sensorsdata.analytics.javasdk.bean.TrackRecord;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.cache.EventCacheManager;
+import com.sensorsdata.analytics.javasdk.consumer.Consumer;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+import com.sensorsdata.analytics.javasdk.service.impl.TrackConfigService;
+import com.sensorsdata.analytics.javasdk.service.impl.TrackService;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+import com.sensorsdata.analytics.javasdk.util.TrackEventBatcher;
+
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 逐条上报与批量上报 $ABTestTrigger 事件的性能对比，通过 benchmark profile 执行：mvn test -Pbenchmark
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 10:21
+ */
+public class TrackEventBatcherBenchmark {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(TrackEventBatcherBenchmark.class),
+      LogLevelEnum.INFO);
+
+  private final CountingConsumer consumer = new CountingConsumer();
+
+  private final SensorsAnalytics sensorsAnalytics = new SensorsAnalytics(consumer);
+
+  /**
+   * 逐条上报与批量上报的吞吐与每个事件的内存分配对比
+   */
+  @Test
+  public void throughputComparison() throws InvalidArgumentException {
+    int rounds = 200000;
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("index", 0);
+    properties.put("source", "test");
+    for (int i = 0; i < 10; i++) {
+      properties.put("property_" + i, "value_" + i);
+    }
+    List<List<TrackRecord>> toTrack = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      toTrack.add(records(1));
+    }
+    for (boolean batched : new boolean[]{false, true, false, true, false, true}) {
+      consumer.count.set(0);
+      TrackEventBatcher batcher = batched ? new TrackEventBatcher(log, sensorsAnalytics, 100, 1000) : null;
+      TrackService trackService = trackService(batcher);
+      long allocated = allocatedBytes();
+      long begin = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        trackService.trackABTestTrigger(toTrack.get(i % toTrack.size()), properties);
+      }
+      if (batcher != null) {
+        batcher.close();
+      }
+      long cost = System.nanoTime() - begin;
+      log.info("batched: {}, {} events/s, {} B/event ({})", batched, rounds * TimeUnit.SECONDS.toNanos(1) / cost,
+          (allocatedBytes() - allocated) / rounds, consumer.count.get());
+    }
+  }
+
+  private TrackService trackService(TrackEventBatcher trackEventBatcher) {
+    EventCacheManager eventCacheManager = new EventCacheManager(log, 1440, 4096);
+    return new TrackService(eventCacheManager, log, false, sensorsAnalytics,
+        new TrackConfigService(log, TrackConfig.getDefaultTrackConfig()), trackEventBatcher);
+  }
+
+  private static long allocatedBytes() {
+    com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long bytes = 0;
+    for (long allocated : threadMXBean.getThreadAllocatedBytes(threadMXBean.getAllThreadIds())) {
+      bytes += Math.max(0, allocated);
+    }
+    return bytes;
+  }
+
+  private static List<TrackRecord> records(int count) {
+    List<TrackRecord> records = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      records.add(TrackRecord.builder()
+          .abtestExperimentId("experiment_" + i)
+          .abtestExperimentGroupId("0")
+          .abtestExperimentResultId("result_" + i)
+          .userInfo(UserInfo.builder().distinctId("user_" + i).isLoginId(false).build())
+          .build());
+    }
+    return records;
+  }
+
+  private static class CountingConsumer implements Consumer {
+
+    private final AtomicLong count = new AtomicLong();
+
+    @Override
+    public void send(Map<String, Object> message) {
+      count.incrementAndGet();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package com.sensorsdata.analytics.javasdk.track;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.SensorsABTestConst;
+import com.sensorsdata.analytics.javasdk.SensorsAnalytics;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.TrackConfig;
+import com.sensorsdata.analytics.javasdk.bean.TrackRecord;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.cache.EventCacheManager;
+import com.sensorsdata.analytics.javasdk.consumer.Consumer;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+import com.sensorsdata.analytics.javasdk.service.impl.TrackConfigService;
+import com.sensorsdata.analytics.javasdk.service.impl.TrackService;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+import com.sensorsdata.analytics.javasdk.util.OverlayPropertiesMap;
+import com.sensorsdata.analytics.javasdk.util.TrackEventBatcher;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 批量上报 $ABTestTrigger 事件：按数量、按时间刷新，以及共享附加属性
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:25
+ */
+public class TrackEventBatcherTest {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(TrackEventBatcherTest.class), LogLevelEnum.INFO);
+
+  private RecordingConsumer consumer;
+
+  private SensorsAnalytics sensorsAnalytics;
+
+  private TrackEventBatcher batcher;
+
+  @Before
+  public void init() {
+    consumer = new RecordingConsumer();
+    sensorsAnalytics = new SensorsAnalytics(consumer);
+  }
+
+  @After
+  public void close() {
+    if (batcher != null) {
+      batcher.close();
+    }
+  }
+
+  @Test
+  public void flushesBySize() throws InterruptedException {
+    batcher = new TrackEventBatcher(log, sensorsAnalytics, 3, 60000);
+    for (int i = 0; i < 5; i++) {
+      batcher.track("user_" + i, false, SensorsABTestConst.EVENT_TYPE, properties(i));
+    }
+    waitFor(3);
+    assertEquals(2, batcher.getPendingSize());
+    assertEquals(1, batcher.getFlushedBatchCount());
+
+    batcher.close();
+    assertEquals(5, consumer.messages.size());
+    assertEquals(5, batcher.getTrackedCount());
+    for (int i = 0; i < 5; i++) {
+      assertEquals("user_" + i, consumer.messages.get(i).get("distinct_id"));
+      assertEquals(i, getProperties(consumer.messages.get(i)).get("index"));
+    }
+  }
+
+  @Test
+  public void flushesByAge() throws InterruptedException {
+    batcher = new TrackEventBatcher(log, sensorsAnalytics, 100, 20);
+    batcher.track("user", false, SensorsABTestConst.EVENT_TYPE, properties(0));
+    waitFor(1);
+    assertEquals(0, batcher.getPendingSize());
+  }
+
+  /**
+   * 事件时间为写入批次的时间，而不是刷新的时间；已指定的事件时间保持不变
+   */
+  @Test
+  public void eventTimeIsTakenWhenQueued() throws InterruptedException {
+    batcher = new TrackEventBatcher(log, sensorsAnalytics, 100, 60000);
+    long before = System.currentTimeMillis();
+    batcher.track("user_0", false, SensorsABTestConst.EVENT_TYPE, properties(0));
+    long after = System.currentTimeMillis();
+    Map<String, Object> timed = properties(1);
+    timed.put("$time", new Date(1000000000000L));
+    batcher.track("user_1", false, SensorsABTestConst.EVENT_TYPE, timed);
+    Thread.sleep(50);
+    batcher.close();
+
+    long time = ((Number) consumer.messages.get(0).get("time")).longValue();
+    assertTrue(time >= before && time <= after);
+    assertEquals(1000000000000L, ((Number) consumer.messages.get(1).get("time")).longValue());
+  }
+
+  @Test
+  public void failedEventsAreCounted() {
+    batcher = new TrackEventBatcher(log, sensorsAnalytics, 100, 60000);
+    batcher.track("", false, SensorsABTestConst.EVENT_TYPE, properties(0));
+    batcher.track("user", false, SensorsABTestConst.EVENT_TYPE, properties(1));
+    batcher.close();
+    assertEquals(1, batcher.getFailedCount());
+    assertEquals(1, batcher.getTrackedCount());
+  }
+
+  @Test
+  public void equalPropertiesAreShared() {
+    batcher = new TrackEventBatcher(log, sensorsAnalytics, 100, 60000);
+    Map<String, Object> shared = batcher.shareProperties(properties(1));
+    assertSame(shared, batcher.shareProperties(properties(1)));
+    assertEquals(properties(1), shared);
+    assertTrue(batcher.shareProperties(null).isEmpty());
+    assertSame(batcher.shareProperties(null), batcher.shareProperties(new HashMap<String, Object>()));
+  }
+
+  @Test
+  public void overlayPropertiesShadowSharedProperties() {
+    Map<String, Object> shared = new HashMap<>();
+    shared.put("a", 1);
+    shared.put("b", 2);
+    OverlayPropertiesMap overlay = new OverlayPropertiesMap(Collections.unmodifiableMap(shared));
+    assertEquals(1, overlay.put("a", 10));
+    overlay.put("c", null);
+    overlay.put("d", 4);
+
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("a", 10);
+    expected.put("b", 2);
+    expected.put("c", null);
+    expected.put("d", 4);
+    assertEquals(expected, overlay);
+    assertEquals(expected, new HashMap<>(overlay));
+    assertEquals(4, overlay.size());
+    assertTrue(overlay.containsKey("c"));
+    assertFalse(overlay.containsKey("e"));
+    assertEquals(1, shared.get("a"));
+  }
+
+  /**
+   * TrackService 开启批量上报后，事件属性与逐条上报一致，调用方的附加属性不被修改
+   */
+  @Test
+  public void trackServiceBatchesEvents() throws InvalidArgumentException {
+    batcher = new TrackEventBatcher(log, sensorsAnalytics, 100, 60000);
+    TrackService trackService = trackService(batcher);
+    Map<String, Object> properties = properties(7);
+    trackService.trackABTestTrigger(records(2), properties);
+    assertEquals(0, consumer.messages.size());
+    assertEquals(2, batcher.getPendingSize());
+
+    batcher.close();
+    assertEquals(properties(7), properties);
+    assertEquals(2, consumer.messages.size());
+    for (int i = 0; i < 2; i++) {
+      Map<String, Object> tracked = getProperties(consumer.messages.get(i));
+      assertEquals("experiment_" + i, tracked.get(SensorsABTestConst.EXPERIMENT_ID));
+      assertEquals("0", tracked.get(SensorsABTestConst.EXPERIMENT_GROUP_ID));
+      assertEquals("user_" + i, consumer.messages.get(i).get("distinct_id"));
+      assertEquals(7, tracked.get("index"));
+    }
+  }
+
+  private TrackService trackService(TrackEventBatcher trackEventBatcher) {
+    EventCacheManager eventCacheManager = new EventCacheManager(log, 1440, 4096);
+    return new TrackService(eventCacheManager, log, false, sensorsAnalytics,
+        new TrackConfigService(log, TrackConfig.getDefaultTrackConfig()), trackEventBatcher);
+  }
+
+  private void waitFor(int messages) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (consumer.messages.size() < messages && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(messages, consumer.messages.size());
+  }
+
+  private static List<TrackRecord> records(int count) {
+    List<TrackRecord> records = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      records.add(TrackRecord.builder()
+          .abtestExperimentId("experiment_" + i)
+          .abtestExperimentGroupId("0")
+          .abtestExperimentResultId("result_" + i)
+          .userInfo(UserInfo.builder().distinctId("user_" + i).isLoginId(false).build())
+          .build());
+    }
+    return records;
+  }
+
+  private static Map<String, Object> properties(int index) {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("index", index);
+    properties.put("source", "test");
+    return properties;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> getProperties(Map<String, Object> message) {
+    return (Map<String, Object>) message.get("properties");
+  }
+
+  private static class RecordingConsumer implements Consumer {
+
+    private final List<Map<String, Object>> messages = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(Map<String, Object> message) {
+      messages.add(message);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.sensorsdata.analytics.javasdk.track;
+
+import com.sensorsdata.analytics.javasdk.SensorsABTestConst;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.TrackConfig;
+import com.sensorsdata.analytics.javasdk.bean.TrackRecord;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.service.impl.TrackPropertyTemplateCache;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+import com.sensorsdata.analytics.javasdk.util.OverlayPropertiesMap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * $ABTestTrigger 事件属性组装方式的耗时对比，通过 benchmark profile 执行：mvn test -Pbenchmark
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 10:21
+ */
+public class TrackPropertyTemplateBenchmark {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(TrackPropertyTemplateBenchmark.class),
+      LogLevelEnum.INFO);
+
+  /**
+   * 逐个事件组装属性与在模板上叠加用户属性的耗时对比
+   */
+  @Test
+  public void propertyBuildComparison() {
+    int rounds = 5000000;
+    TrackPropertyTemplateCache cache = new TrackPropertyTemplateCache();
+    TrackConfig trackConfig = trackConfig();
+    TrackRecord[] records = new TrackRecord[100];
+    for (int i = 0; i < records.length; i++) {
+      records[i] = record("user_" + i, "result_" + i % 10);
+    }
+    Map<String, Object> properties = new HashMap<>();
+    long sink = 0;
+    for (int round = 0; round < 3; round++) {
+      long begin = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        sink += legacyProperties(trackConfig, properties, records[i % records.length]).size();
+      }
+      long legacy = System.nanoTime() - begin;
+      begin = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        TrackRecord trackRecord = records[i % records.length];
+        Map<String, Object> current = new OverlayPropertiesMap(cache.get(trackConfig, trackRecord));
+        current.putAll(trackRecord.getUserInfo().getCustomIds());
+        current.put(SensorsABTestConst.ANONYMOUS_ID, trackRecord.getSubjectId());
+        sink += current.size();
+      }
+      long templated = System.nanoTime() - begin;
+      log.info("per event build: {} ns/op, template: {} ns/op ({})", legacy / rounds, templated / rounds, sink);
+    }
+  }
+
+  /**
+   * 模板之前逐个事件组装属性的方式
+   */
+  private static Map<String, Object> legacyProperties(TrackConfig trackConfig, Map<String, Object> properties,
+      TrackRecord trackRecord) {
+    Map<String, Object> current = Maps.newHashMap(properties);
+    current.put(SensorsABTestConst.EXPERIMENT_ID, trackRecord.getAbtestExperimentId());
+    current.put(SensorsABTestConst.EXPERIMENT_GROUP_ID, trackRecord.getAbtestExperimentGroupId());
+    current.putAll(trackRecord.getUserInfo().getCustomIds());
+    if (SensorsABTestConst.DEVICE_SUBJECT_NAME.equals(trackRecord.getSubjectName())) {
+      current.put(SensorsABTestConst.ANONYMOUS_ID, trackRecord.getSubjectId());
+    }
+    for (String ext : trackConfig.getTriggerContentExt()) {
+      String field = trackRecord.getExt().get(ext);
+      if (field != null) {
+        current.put("$" + ext, field);
+      }
+    }
+    if (trackConfig.isPropertySetSwitch()) {
+      current.put("abtest_result", Lists.newArrayList(trackRecord.getAbtestExperimentResultId()));
+    }
+    return current;
+  }
+
+  private static TrackConfig trackConfig() {
+    TrackConfig trackConfig = TrackConfig.getDefaultTrackConfig();
+    trackConfig.setPropertySetSwitch(true);
+    trackConfig.setTriggerContentExt(ImmutableList.of("abtest_experiment_result_id", "abtest_experiment_version",
+        "extra_field"));
+    return trackConfig;
+  }
+
+  private static TrackRecord record(String distinctId, String resultId) {
+    Map<String, String> ext = new HashMap<>();
+    ext.put("abtest_experiment_result_id", resultId);
+    ext.put("abtest_experiment_version", "3");
+    ext.put("extra_field", "extra");
+    ext.put("not_configured", "ignored");
+    return TrackRecord.builder()
+        .abtestExperimentId("experiment")
+        .abtestExperimentGroupId("group")
+        .abtestExperimentResultId(resultId)
+        .subjectName("DEVICE")
+        .subjectId(distinctId)
+        .ext(ext)
+        .userInfo(UserInfo.builder()
+            .distinctId(distinctId)
+            .isLoginId(true)
+            .customIds(Collections.singletonMap("custom_id", "custom_" + distinctId.substring(5)))
+            .build())
+        .build();
+  }
+}
@@ -0,0 +1,197 @@
+package com.sensorsdata.analytics.javasdk.track;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.sensorsdata.analytics.javasdk.SensorsABTestConst;
+import com.sensorsdata.analytics.javasdk.SensorsAnalytics;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.TrackConfig;
+import com.sensorsdata.analytics.javasdk.bean.TrackRecord;
+import com.sensorsdata.analytics.javasdk.bean.UserInfo;
+import com.sensorsdata.analytics.javasdk.cache.EventCacheManager;
+import com.sensorsdata.analytics.javasdk.consumer.Consumer;
+import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
+import com.sensorsdata.analytics.javasdk.service.impl.TrackConfigService;
+import com.sensorsdata.analytics.javasdk.service.impl.TrackPropertyTemplateCache;
+import com.sensorsdata.analytics.javasdk.service.impl.TrackService;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * $ABTestTrigger 事件属性模板：与逐个事件组装的属性一致，按试验组复用，埋点配置更新后重建
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:30
+ */
+public class TrackPropertyTemplateTest {
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(TrackPropertyTemplateTest.class),
+      LogLevelEnum.INFO);
+
+  private final List<Map<String, Object>> messages = new ArrayList<>();
+
+  private TrackConfigService trackConfigService;
+
+  private TrackService trackService;
+
+  @Before
+  public void init() {
+    trackConfigService = new TrackConfigService(log, TrackConfig.getDefaultTrackConfig());
+    trackService = new TrackService(new EventCacheManager(log, 1440, 4096), log, false,
+        new SensorsAnalytics(new Consumer() {
+          @Override
+          public void send(Map<String, Object> message) {
+            messages.add(message);
+          }
+
+          @Override
+          public void flush() {
+          }
+
+          @Override
+          public void close() {
+          }
+        }), trackConfigService);
+  }
+
+  @Test
+  public void trackedPropertiesMatchPerEventBuild() throws InvalidArgumentException {
+    trackConfigService.updateTrackConfig(trackConfig(true));
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("source", "test");
+    properties.put(SensorsABTestConst.EXPERIMENT_ID, "overridden");
+    TrackRecord deviceRecord = record("user_0", "result_0", "DEVICE");
+    TrackRecord userRecord = record("user_1", "result_0", "USER");
+    trackService.trackABTestTrigger(Lists.newArrayList(deviceRecord, userRecord), properties);
+    TrackRecord noPropertiesRecord = record("user_2", "result_0", "USER");
+    trackService.trackABTestTrigger(Lists.newArrayList(noPropertiesRecord), null);
+
+    assertEquals(3, messages.size());
+    for (int i = 0; i < 3; i++) {
+      TrackRecord trackRecord = i == 0 ? deviceRecord : i == 1 ? userRecord : noPropertiesRecord;
+      Map<String, Object> expected = legacyProperties(trackConfigService.getTrackConfig(),
+          i < 2 ? properties : new HashMap<String, Object>(), trackRecord);
+      Map<String, Object> tracked = getProperties(messages.get(i));
+      for (Map.Entry<String, Object> entry : expected.entrySet()) {
+        assertEquals(entry.getKey(), entry.getValue(), tracked.get(entry.getKey()));
+      }
+      assertEquals("custom_" + i, tracked.get("custom_id"));
+      assertEquals("extra", tracked.get("$extra_field"));
+      assertFalse(tracked.containsKey("$not_configured"));
+    }
+    assertEquals("user_0", getProperties(messages.get(0)).get(SensorsABTestConst.ANONYMOUS_ID));
+    assertFalse(getProperties(messages.get(1)).containsKey(SensorsABTestConst.ANONYMOUS_ID));
+    assertEquals("test", getProperties(messages.get(0)).get("source"));
+    assertEquals(Collections.singletonList("result_0"), getProperties(messages.get(0)).get("abtest_result"));
+  }
+
+  @Test
+  public void templatesAreSharedAcrossUsers() {
+    TrackPropertyTemplateCache cache = new TrackPropertyTemplateCache();
+    TrackConfig trackConfig = trackConfigService.getTrackConfig();
+    Map<String, Object> template = cache.get(trackConfig, record("user_0", "result_0", "USER"));
+    assertSame(template, cache.get(trackConfig, record("user_1", "result_0", "USER")));
+    assertNotSame(template, cache.get(trackConfig, record("user_0", "result_1", "USER")));
+    assertEquals(2, cache.size());
+    assertEquals("experiment", template.get(SensorsABTestConst.EXPERIMENT_ID));
+    assertEquals("group", template.get(SensorsABTestConst.EXPERIMENT_GROUP_ID));
+    assertEquals("3", template.get("$abtest_experiment_version"));
+    assertEquals("result_0", template.get("$abtest_experiment_result_id"));
+    assertFalse(template.containsKey("abtest_result"));
+    assertFalse(template.containsKey("$extra_field"));
+    assertFalse(template.containsKey("$not_configured"));
+  }
+
+  @Test
+  public void templatesAreRebuiltAfterTrackConfigUpdate() {
+    TrackPropertyTemplateCache cache = new TrackPropertyTemplateCache();
+    TrackRecord trackRecord = record("user_0", "result_0", "USER");
+    Map<String, Object> template = cache.get(trackConfigService.getTrackConfig(), trackRecord);
+    assertFalse(template.containsKey("abtest_result"));
+
+    trackConfigService.updateTrackConfig(trackConfig(true));
+    Map<String, Object> updated = cache.get(trackConfigService.getTrackConfig(), trackRecord);
+    assertEquals(Collections.singletonList("result_0"), updated.get("abtest_result"));
+    assertEquals("extra", updated.get("$extra_field"));
+    assertFalse(updated.containsKey("$not_configured"));
+    assertEquals(1, cache.size());
+
+    // 内容相同的配置不会替换当前配置，模板继续复用
+    trackConfigService.updateTrackConfig(trackConfig(true));
+    assertSame(updated, cache.get(trackConfigService.getTrackConfig(), trackRecord));
+  }
+
+  /**
+   * 模板之前逐个事件组装属性的方式
+   */
+  private static Map<String, Object> legacyProperties(TrackConfig trackConfig, Map<String, Object> properties,
+      TrackRecord trackRecord) {
+    Map<String, Object> current = Maps.newHashMap(properties);
+    current.put(SensorsABTestConst.EXPERIMENT_ID, trackRecord.getAbtestExperimentId());
+    current.put(SensorsABTestConst.EXPERIMENT_GROUP_ID, trackRecord.getAbtestExperimentGroupId());
+    current.putAll(trackRecord.getUserInfo().getCustomIds());
+    if (SensorsABTestConst.DEVICE_SUBJECT_NAME.equals(trackRecord.getSubjectName())) {
+      current.put(SensorsABTestConst.ANONYMOUS_ID, trackRecord.getSubjectId());
+    }
+    for (String ext : trackConfig.getTriggerContentExt()) {
+      String field = trackRecord.getExt().get(ext);
+      if (field != null) {
+        current.put("$" + ext, field);
+      }
+    }
+    if (trackConfig.isPropertySetSwitch()) {
+      current.put("abtest_result", Lists.newArrayList(trackRecord.getAbtestExperimentResultId()));
+    }
+    return current;
+  }
+
+  private static TrackConfig trackConfig(boolean propertySetSwitch) {
+    TrackConfig trackConfig = TrackConfig.getDefaultTrackConfig();
+    trackConfig.setPropertySetSwitch(propertySetSwitch);
+    trackConfig.setTriggerContentExt(ImmutableList.of("abtest_experiment_result_id", "abtest_experiment_version",
+        "extra_field"));
+    return trackConfig;
+  }
+
+  private static TrackRecord record(String distinctId, String resultId, String subjectName) {
+    Map<String, String> ext = new HashMap<>();
+    ext.put("abtest_experiment_result_id", resultId);
+    ext.put("abtest_experiment_version", "3");
+    ext.put("extra_field", "extra");
+    ext.put("not_configured", "ignored");
+    return TrackRecord.builder()
+        .abtestExperimentId("experiment")
+        .abtestExperimentGroupId("group")
+        .abtestExperimentResultId(resultId)
+        .subjectName(subjectName)
+        .subjectId(distinctId)
+        .ext(ext)
+        .userInfo(UserInfo.builder()
+            .distinctId(distinctId)
+            .isLoginId(true)
+            .customIds(Collections.singletonMap("custom_id", "custom_" + distinctId.substring(5)))
+            .build())
+        .build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> getProperties(Map<String, Object> message) {
+    return (Map<String, Object>) message.get("properties");
+  }
+}
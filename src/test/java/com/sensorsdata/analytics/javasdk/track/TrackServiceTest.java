@@ -23,6 +23,7 @@ import com.sensorsdata.analytics.javasdk.cache.EventCacheManager;
 import com.sensorsdata.analytics.javasdk.exceptions.InvalidArgumentException;
 import com.sensorsdata.analytics.javasdk.service.impl.TrackConfigService;
 import com.sensorsdata.analytics.javasdk.service.impl.TrackService;
+import com.sensorsdata.analytics.javasdk.util.ABTestUtil;
 import com.sensorsdata.analytics.javasdk.util.LogUtil;
 import com.sensorsdata.analytics.javasdk.util.SensorsAnalyticsUtil;
 
@@ -111,7 +112,7 @@ public class TrackServiceTest {
             .abtestExperimentId(experimentId)
             .abtestExperimentResultId(abtestExperimentResultId)
             .abtestExperimentVersion(abtestVersion)
-            .src(getHitSrc())
+            .ext(ABTestUtil.extractExt(getHitSrc(), TrackConfig.getDefaultTrackConfig().getTriggerContentExt()))
             .subjectName("USER")
             .build();
 
@@ -131,7 +132,7 @@ public class TrackServiceTest {
             .abtestExperimentResultId(INVALID_ABTEST_UNIQUE_ID)
             .abtestExperimentGroupId(INVALID_ABTEST_UNIQUE_ID)
             .abtestExperimentVersion("1")
-            .src(getOutSrc())
+            .ext(ABTestUtil.extractExt(getOutSrc(), TrackConfig.getDefaultTrackConfig().getTriggerContentExt()))
             .build();
 
     hitRecord = TrackRecord.createTrackRecord(userInfo, userHitExperimentGroup);
@@ -0,0 +1,376 @@
+package com.sensorsdata.analytics.javasdk.track;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.sensorsdata.analytics.javasdk.SensorsABTestConst;
+import com.sensorsdata.analytics.javasdk.SensorsAnalytics;
+import com.sensorsdata.analytics.javasdk.bean.LogLevelEnum;
+import com.sensorsdata.analytics.javasdk.bean.TrackSpillFsyncPolicyEnum;
+import com.sensorsdata.analytics.javasdk.consumer.Consumer;
+import com.sensorsdata.analytics.javasdk.util.LogUtil;
+import com.sensorsdata.analytics.javasdk.util.TrackEventBatcher;
+import com.sensorsdata.analytics.javasdk.util.TrackSpillQueue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地溢写队列：分段滚动、磁盘上限、进程崩溃后恢复不丢失不重复，以及批量上报积压时溢写与补报
+ *
+ * @author agent@local
+ * @version 1.0.0
+ * @since 2026/10/18 09:43
+ */
+public class TrackSpillQueueTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final LogUtil log = new LogUtil(LoggerFactory.getLogger(TrackSpillQueueTest.class), LogLevelEnum.INFO);
+
+  private RecordingConsumer consumer;
+
+  private SensorsAnalytics sensorsAnalytics;
+
+  private File directory;
+
+  @Before
+  public void init() throws IOException {
+    consumer = new RecordingConsumer();
+    sensorsAnalytics = new SensorsAnalytics(consumer);
+    directory = temporaryFolder.newFolder("spill");
+  }
+
+  @Test
+  public void replaysInOrderAcrossSegments() throws IOException {
+    TrackSpillQueue spillQueue = open(TrackSpillFsyncPolicyEnum.NEVER, 1024 * 1024);
+    for (int i = 0; i < 200; i++) {
+      assertTrue(spill(spillQueue, i));
+    }
+    assertTrue(segmentFiles().length > 1);
+    assertEquals(200, spillQueue.getPendingCount());
+
+    assertEquals(50, spillQueue.replay(sensorsAnalytics, 50));
+    assertEquals(150, spillQueue.replay(sensorsAnalytics, 1000));
+    assertEquals(0, spillQueue.getPendingCount());
+    assertEquals(200, spillQueue.getReplayedCount());
+    assertEquals(range(0, 200), replayedIndexes());
+    // 已读完的分段被删除
+    assertEquals(1, segmentFiles().length);
+    spillQueue.close();
+  }
+
+  @Test
+  public void replayKeepsEventTimeAndDateProperties() throws IOException {
+    TrackSpillQueue spillQueue = open(TrackSpillFsyncPolicyEnum.NEVER, 1024 * 1024);
+    Map<String, Object> properties = properties(0);
+    Date date = new Date(1000000000000L);
+    properties.put("login_date", date);
+    long before = System.currentTimeMillis();
+    assertTrue(spillQueue.spill("user", true, SensorsABTestConst.EVENT_TYPE, properties));
+    long after = System.currentTimeMillis();
+
+    assertEquals(1, spillQueue.replay(sensorsAnalytics, 10));
+    Map<String, Object> message = consumer.messages.get(0);
+    long time = ((Number) message.get("time")).longValue();
+    assertTrue(time >= before && time <= after);
+    assertEquals("user", message.get("distinct_id"));
+    assertEquals(SensorsABTestConst.EVENT_TYPE, message.get("event"));
+    assertEquals(date, getProperties(message).get("login_date"));
+    assertEquals("test", getProperties(message).get("source"));
+    spillQueue.close();
+  }
+
+  /**
+   * 进程崩溃（未关闭队列）后重新打开，继续补报未确认的事件，不丢失也不重复
+   */
+  @Test
+  public void recoversAfterCrashWithoutLossOrDuplication() throws IOException {
+    TrackSpillQueue crashed = open(TrackSpillFsyncPolicyEnum.ALWAYS, 1024 * 1024);
+    for (int i = 0; i < 300; i++) {
+      assertTrue(spill(crashed, i));
+    }
+    assertEquals(120, crashed.replay(sensorsAnalytics, 120));
+
+    TrackSpillQueue recovered = open(TrackSpillFsyncPolicyEnum.ALWAYS, 1024 * 1024);
+    assertEquals(180, recovered.getPendingCount());
+    for (int i = 300; i < 310; i++) {
+      assertTrue(spill(recovered, i));
+    }
+    assertEquals(190, recovered.replay(sensorsAnalytics, 1000));
+    assertEquals(range(0, 310), replayedIndexes());
+    recovered.close();
+  }
+
+  /**
+   * 未落盘的记录在宕机后不完整，恢复时丢弃该记录及之后的内容，之前的记录与之后新写入的记录都能补报
+   */
+  @Test
+  public void incompleteTailIsDiscardedOnRecovery() throws IOException {
+    TrackSpillQueue spillQueue = open(TrackSpillFsyncPolicyEnum.NEVER, 1024 * 1024);
+    for (int i = 0; i < 5; i++) {
+      assertTrue(spill(spillQueue, i));
+    }
+    spillQueue.close();
+    File[] segments = segmentFiles();
+    File last = segments[segments.length - 1];
+    List<Integer> offsets = recordOffsets(last);
+    try (RandomAccessFile file = new RandomAccessFile(last, "rw")) {
+      // 破坏倒数第二条记录的最后一个字节
+      int offset = offsets.get(offsets.size() - 2);
+      file.seek(offset);
+      int length = file.readInt();
+      file.seek(offset + 8 + length - 1);
+      file.write(0);
+    }
+
+    TrackSpillQueue recovered = open(TrackSpillFsyncPolicyEnum.NEVER, 1024 * 1024);
+    assertEquals(3, recovered.getPendingCount());
+    assertTrue(spill(recovered, 100));
+    assertEquals(4, recovered.replay(sensorsAnalytics, 1000));
+    assertEquals(Arrays.asList(0, 1, 2, 100), replayedIndexes());
+    recovered.close();
+  }
+
+  /**
+   * checkpoint 损坏时从最早的分段重新补报，只会重复不会丢失
+   */
+  @Test
+  public void corruptedCheckpointReplaysFromOldestSegment() throws IOException {
+    TrackSpillQueue spillQueue = open(TrackSpillFsyncPolicyEnum.NEVER, 1024 * 1024);
+    for (int i = 0; i < 10; i++) {
+      assertTrue(spill(spillQueue, i));
+    }
+    assertEquals(4, spillQueue.replay(sensorsAnalytics, 4));
+    spillQueue.close();
+    try (RandomAccessFile file = new RandomAccessFile(new File(directory, "checkpoint"), "rw")) {
+      file.writeLong(-1);
+    }
+
+    TrackSpillQueue recovered = open(TrackSpillFsyncPolicyEnum.NEVER, 1024 * 1024);
+    assertEquals(10, recovered.replay(sensorsAnalytics, 1000));
+    List<Integer> expected = range(0, 4);
+    expected.addAll(range(0, 10));
+    assertEquals(expected, replayedIndexes());
+    recovered.close();
+  }
+
+  /**
+   * 关闭后映射已释放，写入被拒绝而不会访问已释放的映射；重新打开后继续补报
+   */
+  @Test
+  public void closedQueueRejectsSpillAndReopens() throws IOException {
+    TrackSpillQueue spillQueue = open(TrackSpillFsyncPolicyEnum.INTERVAL, 1024 * 1024);
+    for (int i = 0; i < 30; i++) {
+      assertTrue(spill(spillQueue, i));
+    }
+    assertEquals(10, spillQueue.replay(sensorsAnalytics, 10));
+    spillQueue.close();
+    spillQueue.close();
+    assertFalse(spill(spillQueue, 30));
+    assertEquals(1, spillQueue.getRejectedCount());
+
+    TrackSpillQueue reopened = open(TrackSpillFsyncPolicyEnum.INTERVAL, 1024 * 1024);
+    assertEquals(20, reopened.replay(sensorsAnalytics, 1000));
+    assertEquals(range(0, 30), replayedIndexes());
+    assertEquals(1, segmentFiles().length);
+    reopened.close();
+  }
+
+  @Test
+  public void spillIsRejectedBeyondMaxDiskBytes() throws IOException {
+    TrackSpillQueue spillQueue = open(TrackSpillFsyncPolicyEnum.NEVER, 2048);
+    int spilled = 0;
+    while (spill(spillQueue, spilled)) {
+      spilled++;
+    }
+    assertEquals(1, spillQueue.getRejectedCount());
+    assertEquals(2048, spillQueue.getDiskBytes());
+    assertEquals(spilled, spillQueue.replay(sensorsAnalytics, 1000));
+    assertTrue(spill(spillQueue, spilled));
+    assertEquals(1, spillQueue.replay(sensorsAnalytics, 1000));
+    assertEquals(range(0, spilled + 1), replayedIndexes());
+    spillQueue.close();
+  }
+
+  /**
+   * 分析 SDK 阻塞时，积压的批次写入溢写队列而不是由请求线程直接上报；恢复后所有事件各上报一次
+   */
+  @Test
+  public void batcherSpillsWhileAnalyticsIsBlocked() throws Exception {
+    TrackSpillQueue spillQueue = open(TrackSpillFsyncPolicyEnum.INTERVAL, 1024 * 1024);
+    TrackEventBatcher batcher = new TrackEventBatcher(log, sensorsAnalytics, 2, 20, spillQueue);
+    consumer.blocked = new CountDownLatch(1);
+    int events = 100;
+    for (int i = 0; i < events; i++) {
+      batcher.track("user_" + i, false, SensorsABTestConst.EVENT_TYPE, properties(i));
+    }
+    assertTrue(spillQueue.getSpilledCount() > 0);
+    assertTrue(consumer.messages.size() <= 1);
+
+    consumer.blocked.countDown();
+    long deadline = System.currentTimeMillis() + 10000;
+    while (consumer.messages.size() < events && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    batcher.close();
+    assertEquals(events, consumer.messages.size());
+    List<Integer> indexes = replayedIndexes();
+    Collections.sort(indexes);
+    assertEquals(range(0, events), indexes);
+    assertEquals(0, spillQueue.getPendingCount());
+    assertEquals(spillQueue.getSpilledCount(), spillQueue.getReplayedCount());
+  }
+
+  /**
+   * 分析 SDK 抛出运行时异常的事件写入溢写队列，恢复后补报，不丢弃
+   */
+  @Test
+  public void batcherSpillsFailedEvents() throws Exception {
+    TrackSpillQueue spillQueue = open(TrackSpillFsyncPolicyEnum.NEVER, 1024 * 1024);
+    TrackEventBatcher batcher = new TrackEventBatcher(log, sensorsAnalytics, 2, 20, spillQueue);
+    consumer.failure = new IllegalStateException("unavailable");
+    int events = 4;
+    for (int i = 0; i < events; i++) {
+      batcher.track("user_" + i, false, SensorsABTestConst.EVENT_TYPE, properties(i));
+    }
+    long deadline = System.currentTimeMillis() + 10000;
+    while (batcher.getSpilledFailedCount() < events && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(events, batcher.getSpilledFailedCount());
+    assertEquals(0, batcher.getFailedCount());
+    assertTrue(consumer.messages.isEmpty());
+
+    consumer.failure = null;
+    while (consumer.messages.size() < events && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    batcher.close();
+    List<Integer> indexes = replayedIndexes();
+    Collections.sort(indexes);
+    assertEquals(range(0, events), indexes);
+    assertEquals(0, spillQueue.getPendingCount());
+  }
+
+  private TrackSpillQueue open(TrackSpillFsyncPolicyEnum fsyncPolicy, long maxDiskBytes) throws IOException {
+    return new TrackSpillQueue(log, directory, 1024, maxDiskBytes, fsyncPolicy, 10);
+  }
+
+  private File[] segmentFiles() {
+    File[] files = directory.listFiles(new FilenameFilter() {
+      @Override
+      public boolean accept(File dir, String name) {
+        return name.endsWith(".wal");
+      }
+    });
+    Arrays.sort(files);
+    return files;
+  }
+
+  /**
+   * 按 [长度][CRC32][内容] 的格式解析分段中每条记录的起始位置
+   */
+  private static List<Integer> recordOffsets(File segment) throws IOException {
+    List<Integer> offsets = new ArrayList<>();
+    try (RandomAccessFile file = new RandomAccessFile(segment, "r")) {
+      int offset = 0;
+      while (offset + 8 <= file.length()) {
+        file.seek(offset);
+        int length = file.readInt();
+        if (length <= 0) {
+          break;
+        }
+        offsets.add(offset);
+        offset += 8 + length;
+      }
+    }
+    return offsets;
+  }
+
+  private boolean spill(TrackSpillQueue spillQueue, int index) {
+    return spillQueue.spill("user_" + index, false, SensorsABTestConst.EVENT_TYPE, properties(index));
+  }
+
+  private List<Integer> replayedIndexes() {
+    List<Integer> indexes = new ArrayList<>();
+    for (Map<String, Object> message : consumer.messages) {
+      indexes.add(((Number) getProperties(message).get("index")).intValue());
+    }
+    return indexes;
+  }
+
+  private static List<Integer> range(int from, int to) {
+    List<Integer> range = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      range.add(i);
+    }
+    return range;
+  }
+
+  private static Map<String, Object> properties(int index) {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("index", index);
+    properties.put("source", "test");
+    return properties;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> getProperties(Map<String, Object> message) {
+    return (Map<String, Object>) message.get("properties");
+  }
+
+  private static class RecordingConsumer implements Consumer {
+
+    private final List<Map<String, Object>> messages = new CopyOnWriteArrayList<>();
+
+    private volatile CountDownLatch blocked;
+
+    private volatile RuntimeException failure;
+
+    @Override
+    public void send(Map<String, Object> message) {
+      RuntimeException unavailable = failure;
+      if (unavailable != null) {
+        throw unavailable;
+      }
+      CountDownLatch latch = blocked;
+      if (latch != null) {
+        try {
+          latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      messages.add(message);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}